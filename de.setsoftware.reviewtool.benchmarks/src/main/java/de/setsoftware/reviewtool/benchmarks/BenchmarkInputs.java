@@ -0,0 +1,165 @@
+package de.setsoftware.reviewtool.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Provides the inputs for the benchmarks. Each input consists of three consecutive versions of a file.
+ * <p/>
+ * There are two kinds of inputs:
+ * <ul>
+ * <li>"synthetic-N": generated Java-like files with N lines, the later versions are derived by random
+ *      insertions, deletions and changes (with a fixed seed, so that the results are comparable between runs)</li>
+ * <li>"recorded-small", "recorded-medium", "recorded-large": three versions of real source files from the
+ *      history of this project (SvnFileCache, CachedLog and SvnChangeSource)</li>
+ * </ul>
+ */
+public final class BenchmarkInputs {
+
+    public static final String CHARSET = "UTF-8";
+
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+    private static final String RECORDED_PREFIX = "recorded-";
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Returns the three versions of the input with the given name.
+     */
+    public static String[] load(String name) {
+        if (name.startsWith(SYNTHETIC_PREFIX)) {
+            return createSynthetic(Integer.parseInt(name.substring(SYNTHETIC_PREFIX.length())));
+        } else if (name.startsWith(RECORDED_PREFIX)) {
+            final String size = name.substring(RECORDED_PREFIX.length());
+            return new String[] {
+                loadResource("recorded/" + size + "-1.txt"),
+                loadResource("recorded/" + size + "-2.txt"),
+                loadResource("recorded/" + size + "-3.txt"),
+            };
+        } else {
+            throw new ReviewtoolException("unknown benchmark input " + name);
+        }
+    }
+
+    /**
+     * Returns the file for the given version (1, 2 or 3) of an input.
+     */
+    public static IRevisionedFile file(int version) {
+        return ChangestructureFactory.createFileInRevision(
+                "/trunk/Benchmark.java",
+                ChangestructureFactory.createRepoRevision(version, BenchmarkRepository.INSTANCE));
+    }
+
+    public static byte[] toBytes(String content) {
+        return content.getBytes(Charset.forName(CHARSET));
+    }
+
+    public static String[] toLines(String content) {
+        return content.split("\n", -1);
+    }
+
+    private static String loadResource(String name) {
+        try (InputStream in = BenchmarkInputs.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new ReviewtoolException("missing benchmark input " + name);
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), CHARSET);
+        } catch (final IOException e) {
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    private static String[] createSynthetic(int lineCount) {
+        final Random r = new Random(lineCount);
+        final List<String> v1 = new ArrayList<>();
+        v1.add("package de.setsoftware.benchmark;");
+        v1.add("");
+        v1.add("public class Generated {");
+        int methodIndex = 0;
+        while (v1.size() < lineCount - 1) {
+            v1.addAll(createMethod(r, methodIndex++));
+        }
+        v1.add("}");
+        final List<String> v2 = createChangedVersion(v1, r);
+        final List<String> v3 = createChangedVersion(v2, r);
+        return new String[] {join(v1), join(v2), join(v3)};
+    }
+
+    private static List<String> createMethod(Random r, int index) {
+        final List<String> ret = new ArrayList<>();
+        ret.add("    public int method" + index + "(int x) {");
+        final int bodyLength = 1 + r.nextInt(10);
+        for (int i = 0; i < bodyLength; i++) {
+            ret.add(createStatement(r));
+        }
+        ret.add("        return x;");
+        ret.add("    }");
+        ret.add("");
+        return ret;
+    }
+
+    private static String createStatement(Random r) {
+        switch (r.nextInt(5)) {
+        case 0:
+            return "        x += " + r.nextInt(10) + ";";
+        case 1:
+            return "        this.call" + r.nextInt(20) + "(x);";
+        case 2:
+            return "        if (x > " + r.nextInt(100) + ") {";
+        case 3:
+            return "        }";
+        default:
+            return "";
+        }
+    }
+
+    /**
+     * Applies about one change per 30 lines. Every tenth change moves a block of lines.
+     */
+    private static List<String> createChangedVersion(List<String> lines, Random r) {
+        final List<String> ret = new ArrayList<>(lines);
+        final int changeCount = Math.max(1, lines.size() / 30);
+        for (int i = 0; i < changeCount; i++) {
+            final int pos = 3 + r.nextInt(ret.size() - 4);
+            final int kind = r.nextInt(10);
+            if (kind < 3) {
+                ret.add(pos, createStatement(r));
+            } else if (kind < 6) {
+                ret.remove(pos);
+            } else if (kind < 9) {
+                ret.set(pos, createStatement(r));
+            } else {
+                final int length = Math.min(1 + r.nextInt(8), ret.size() - pos - 1);
+                final List<String> block = new ArrayList<>(ret.subList(pos, pos + length));
+                ret.subList(pos, pos + length).clear();
+                ret.addAll(3 + r.nextInt(ret.size() - 4), block);
+            }
+        }
+        return ret;
+    }
+
+    private static String join(List<String> lines) {
+        final StringBuilder ret = new StringBuilder();
+        for (final String line : lines) {
+            ret.append(line).append('\n');
+        }
+        return ret.toString();
+    }
+
+}
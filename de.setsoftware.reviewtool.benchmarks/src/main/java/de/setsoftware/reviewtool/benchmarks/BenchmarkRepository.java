@@ -0,0 +1,56 @@
+package de.setsoftware.reviewtool.benchmarks;
+
+import java.io.File;
+import java.util.Collection;
+
+import de.setsoftware.reviewtool.model.api.IRepoRevision;
+import de.setsoftware.reviewtool.model.api.IRevision;
+import de.setsoftware.reviewtool.model.changestructure.AbstractRepository;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * A minimal repository for the revisions of the benchmark inputs. The contents are not loaded through the
+ * repository, so it does not provide any.
+ */
+public final class BenchmarkRepository extends AbstractRepository {
+
+    public static final BenchmarkRepository INSTANCE = new BenchmarkRepository();
+
+    private BenchmarkRepository() {
+    }
+
+    @Override
+    public String getId() {
+        return "benchmark";
+    }
+
+    @Override
+    public File getLocalRoot() {
+        return null;
+    }
+
+    @Override
+    public IRepoRevision toRevision(final String revisionId) {
+        return ChangestructureFactory.createRepoRevision(Integer.parseInt(revisionId), this);
+    }
+
+    @Override
+    public String toAbsolutePathInWc(String absolutePathInRepo) {
+        return absolutePathInRepo;
+    }
+
+    @Override
+    public String fromAbsolutePathInWc(String absolutePathInWc) {
+        return absolutePathInWc;
+    }
+
+    @Override
+    public IRevision getSmallestRevision(Collection<? extends IRevision> revisions) {
+        return getSmallestOfComparableRevisions(revisions);
+    }
+
+    @Override
+    public byte[] getFileContents(final String path, final IRepoRevision revision) {
+        return new byte[0];
+    }
+}
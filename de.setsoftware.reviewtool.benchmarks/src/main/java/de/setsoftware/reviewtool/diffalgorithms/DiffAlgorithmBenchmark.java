@@ -0,0 +1,83 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.benchmarks.BenchmarkInputs;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Benchmarks for the line-based diff algorithms. Each benchmark diffs the first against the second version
+ * of the input. {@link SimpleSourceDiffAlgorithm} is much slower for large inputs and therefore has its own
+ * benchmark with smaller inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffAlgorithmBenchmark {
+
+    @Param({
+        "synthetic-100",
+        "synthetic-1000",
+        "synthetic-10000",
+        "recorded-small",
+        "recorded-medium",
+        "recorded-large"
+    })
+    public String input;
+
+    private IRevisionedFile oldFile;
+    private byte[] oldContent;
+    private IRevisionedFile newFile;
+    private byte[] newContent;
+
+    /**
+     * Loads the input.
+     */
+    @Setup
+    public void setUp() {
+        final String[] versions = BenchmarkInputs.load(this.input);
+        this.oldFile = BenchmarkInputs.file(1);
+        this.oldContent = BenchmarkInputs.toBytes(versions[0]);
+        this.newFile = BenchmarkInputs.file(2);
+        this.newContent = BenchmarkInputs.toBytes(versions[1]);
+    }
+
+    private List<Pair<IFragment, IFragment>> diff(IDiffAlgorithm algorithm) {
+        return algorithm.determineDiff(
+                this.oldFile, this.oldContent, this.newFile, this.newContent, BenchmarkInputs.CHARSET);
+    }
+
+    @Benchmark
+    public List<Pair<IFragment, IFragment>> myersSource() {
+        return this.diff(new MyersSourceDiffAlgorithm());
+    }
+
+    @Benchmark
+    public List<Pair<IFragment, IFragment>> linearSpaceMyers() {
+        return this.diff(new LinearSpaceMyersDiffAlgorithm());
+    }
+
+    @Benchmark
+    public List<Pair<IFragment, IFragment>> histogram() {
+        return this.diff(new HistogramDiffAlgorithm());
+    }
+
+}
@@ -0,0 +1,64 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.setsoftware.reviewtool.benchmarks.BenchmarkInputs;
+
+/**
+ * Benchmark for {@link LongestCommonSubsequence} on the lines of the first and second version of the input.
+ * The algorithm is quadratic, so the synthetic inputs are smaller than in {@link DiffAlgorithmBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongestCommonSubsequenceBenchmark {
+
+    @Param({
+        "synthetic-100",
+        "synthetic-300",
+        "synthetic-1000",
+        "recorded-small",
+        "recorded-medium",
+        "recorded-large"
+    })
+    public String input;
+
+    private FullFileView<String> oldLines;
+    private FullFileView<String> newLines;
+
+    /**
+     * Loads the input.
+     */
+    @Setup
+    public void setUp() {
+        final String[] versions = BenchmarkInputs.load(this.input);
+        this.oldLines = new FullFileView<>(BenchmarkInputs.toLines(versions[0]));
+        this.newLines = new FullFileView<>(BenchmarkInputs.toLines(versions[1]));
+    }
+
+    /**
+     * Determines the longest common subsequence of the lines.
+     */
+    @Benchmark
+    public ItemMatching<String> determineLcs() {
+        final ItemMatching<String> matching = new ItemMatching<>(this.oldLines, this.newLines);
+        LongestCommonSubsequence.determineLcs(this.oldLines, this.newLines, matching);
+        return matching;
+    }
+
+}
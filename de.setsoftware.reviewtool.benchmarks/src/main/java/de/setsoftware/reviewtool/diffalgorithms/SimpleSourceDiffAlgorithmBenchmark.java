@@ -0,0 +1,68 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.benchmarks.BenchmarkInputs;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Benchmark for {@link SimpleSourceDiffAlgorithm}. Its running time grows quadratically with the size of the
+ * changed regions, so the synthetic inputs are smaller than in {@link DiffAlgorithmBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleSourceDiffAlgorithmBenchmark {
+
+    @Param({
+        "synthetic-100",
+        "synthetic-300",
+        "synthetic-1000",
+        "recorded-small",
+        "recorded-medium",
+        "recorded-large"
+    })
+    public String input;
+
+    private IRevisionedFile oldFile;
+    private byte[] oldContent;
+    private IRevisionedFile newFile;
+    private byte[] newContent;
+
+    /**
+     * Loads the input.
+     */
+    @Setup
+    public void setUp() {
+        final String[] versions = BenchmarkInputs.load(this.input);
+        this.oldFile = BenchmarkInputs.file(1);
+        this.oldContent = BenchmarkInputs.toBytes(versions[0]);
+        this.newFile = BenchmarkInputs.file(2);
+        this.newContent = BenchmarkInputs.toBytes(versions[1]);
+    }
+
+    @Benchmark
+    public List<Pair<IFragment, IFragment>> simpleSource() {
+        return new SimpleSourceDiffAlgorithm().determineDiff(
+                this.oldFile, this.oldContent, this.newFile, this.newContent, BenchmarkInputs.CHARSET);
+    }
+
+}
@@ -0,0 +1,95 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.benchmarks.BenchmarkInputs;
+import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmFactory;
+import de.setsoftware.reviewtool.model.api.IFileDiff;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IHunk;
+import de.setsoftware.reviewtool.model.api.IncompatibleFragmentException;
+
+/**
+ * Benchmarks for {@link FileDiff#merge(java.util.Collection)}, which is used to combine the changes of
+ * several commits when a ticket is loaded. The hunks are determined with the default diff algorithm
+ * between the consecutive versions of the input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileDiffBenchmark {
+
+    @Param({
+        "synthetic-100",
+        "synthetic-1000",
+        "synthetic-10000",
+        "recorded-small",
+        "recorded-medium",
+        "recorded-large"
+    })
+    public String input;
+
+    private List<IHunk> hunks12;
+    private List<IHunk> hunks23;
+    private IFileDiff diff12;
+
+    /**
+     * Loads the input and determines the hunks.
+     */
+    @Setup
+    public void setUp() throws IncompatibleFragmentException {
+        final String[] versions = BenchmarkInputs.load(this.input);
+        this.hunks12 = determineHunks(versions, 1);
+        this.hunks23 = determineHunks(versions, 2);
+        this.diff12 = new FileDiff(BenchmarkInputs.file(1)).merge(this.hunks12);
+    }
+
+    static List<IHunk> determineHunks(String[] versions, int fromVersion) {
+        final List<Pair<IFragment, IFragment>> fragments = DiffAlgorithmFactory.createDefault().determineDiff(
+                BenchmarkInputs.file(fromVersion),
+                BenchmarkInputs.toBytes(versions[fromVersion - 1]),
+                BenchmarkInputs.file(fromVersion + 1),
+                BenchmarkInputs.toBytes(versions[fromVersion]),
+                BenchmarkInputs.CHARSET);
+        final List<IHunk> ret = new ArrayList<>();
+        for (final Pair<IFragment, IFragment> pair : fragments) {
+            ret.add(new Hunk(pair.getFirst(), pair.getSecond()));
+        }
+        return ret;
+    }
+
+    /**
+     * Merges the hunks of the first commit into an empty diff.
+     */
+    @Benchmark
+    public IFileDiff mergeIntoEmpty() throws IncompatibleFragmentException {
+        return new FileDiff(BenchmarkInputs.file(1)).merge(this.hunks12);
+    }
+
+    /**
+     * Merges the hunks of the second commit into the diff of the first commit.
+     */
+    @Benchmark
+    public IFileDiff mergeIntoExisting() throws IncompatibleFragmentException {
+        return this.diff12.merge(this.hunks23);
+    }
+
+}
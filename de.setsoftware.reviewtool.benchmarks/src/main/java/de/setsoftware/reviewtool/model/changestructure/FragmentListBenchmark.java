@@ -0,0 +1,94 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.setsoftware.reviewtool.benchmarks.BenchmarkInputs;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IFragmentList;
+import de.setsoftware.reviewtool.model.api.IHunk;
+import de.setsoftware.reviewtool.model.api.IncompatibleFragmentException;
+
+/**
+ * Benchmarks for {@link FragmentList#overlayBy(IFragment)} and {@link FragmentList#subtract(IFragment)}.
+ * The list contains the changed fragments of the second version of the input, and it is combined
+ * with the fragments of the second version that are changed in the third version.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FragmentListBenchmark {
+
+    @Param({
+        "synthetic-100",
+        "synthetic-1000",
+        "synthetic-10000",
+        "recorded-small",
+        "recorded-medium",
+        "recorded-large"
+    })
+    public String input;
+
+    private FragmentList list;
+    private FragmentList others;
+
+    /**
+     * Loads the input and determines the fragments.
+     */
+    @Setup
+    public void setUp() throws IncompatibleFragmentException {
+        final String[] versions = BenchmarkInputs.load(this.input);
+        this.list = new FragmentList();
+        for (final IHunk hunk : FileDiffBenchmark.determineHunks(versions, 1)) {
+            this.list.addFragment(hunk.getTarget());
+        }
+        this.others = new FragmentList();
+        for (final IHunk hunk : FileDiffBenchmark.determineHunks(versions, 2)) {
+            this.others.addFragment(hunk.getSource());
+        }
+    }
+
+    /**
+     * Overlays the list with each of the other fragments.
+     */
+    @Benchmark
+    public void overlayBy(Blackhole blackhole) {
+        for (final IFragment fragment : this.others.getFragments()) {
+            blackhole.consume(this.list.overlayBy(fragment));
+        }
+    }
+
+    /**
+     * Subtracts each of the other fragments from the list.
+     */
+    @Benchmark
+    public void subtractFragment(Blackhole blackhole) {
+        for (final IFragment fragment : this.others.getFragments()) {
+            blackhole.consume(this.list.subtract(fragment));
+        }
+    }
+
+    /**
+     * Subtracts all other fragments from the list.
+     */
+    @Benchmark
+    public IFragmentList subtractList() {
+        return this.list.subtract(this.others);
+    }
+
+}
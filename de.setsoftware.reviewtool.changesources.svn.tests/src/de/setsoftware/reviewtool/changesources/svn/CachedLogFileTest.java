@@ -0,0 +1,185 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CachedLogFile}.
+ */
+public class CachedLogFileTest {
+
+    private static File createTempFile() throws IOException {
+        final File dir = Files.createTempDirectory("cachedLogFileTest").toFile();
+        dir.deleteOnExit();
+        final File file = new File(dir, "log0.bin");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static CachedLogEntry entry(long revision, String message, String... paths) {
+        final SortedMap<String, CachedLogEntryPath> map = new TreeMap<>();
+        for (final String path : paths) {
+            map.put(path, new CachedLogEntryPath(path, null, revision - 1, 'M', 'F'));
+        }
+        return new CachedLogEntry(revision, message, "author", new Date(revision * 1000), map);
+    }
+
+    private static void assertRevisions(List<CachedLogEntry> entries, long... expected) {
+        final long[] actual = new long[entries.size()];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = entries.get(i).getRevision();
+        }
+        assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        final CachedLogFile log = CachedLogFile.create(createTempFile(), "wc");
+        assertEquals(0, log.getEntries().size());
+    }
+
+    @Test
+    public void testAppendAndReopen() throws Exception {
+        final File file = createTempFile();
+        final CachedLogFile log = CachedLogFile.create(file, "wc");
+        log.append(Arrays.asList(entry(2, "msg 2", "/a", "/b"), entry(1, "msg 1", "/a")));
+        log.append(Arrays.asList(entry(5, null, "/c", "/b")));
+        assertRevisions(log.getEntries(), 5, 2, 1);
+
+        final CachedLogFile reopened = CachedLogFile.open(file);
+        assertEquals("wc", reopened.getKey());
+        final List<CachedLogEntry> entries = reopened.getEntries();
+        assertRevisions(entries, 5, 2, 1);
+        assertNull(entries.get(0).getMessage());
+        assertEquals("msg 2", entries.get(1).getMessage());
+        assertEquals("author", entries.get(1).getAuthor());
+        assertEquals(new Date(2000), entries.get(1).getDate());
+        assertEquals(Arrays.asList("/a", "/b"), Arrays.asList(entries.get(1).getChangedPaths().keySet().toArray()));
+        final CachedLogEntryPath path = entries.get(0).getChangedPaths().get("/c");
+        assertEquals("/c", path.getPath());
+        assertEquals(4, path.getAncestorRevision());
+        assertEquals(true, path.isFile());
+        assertEquals(false, path.isNew());
+    }
+
+    @Test
+    public void testAppendAfterReopen() throws Exception {
+        final File file = createTempFile();
+        CachedLogFile.create(file, "wc").append(Arrays.asList(entry(1, "a", "/a")));
+        final CachedLogFile reopened = CachedLogFile.open(file);
+        reopened.append(Arrays.asList(entry(3, "c", "/a", "/c")));
+        assertRevisions(reopened.getEntries(), 3, 1);
+        assertRevisions(CachedLogFile.open(file).getEntries(), 3, 1);
+        assertEquals("/c", CachedLogFile.open(file).getEntries().get(0).getChangedPaths().get("/c").getPath());
+    }
+
+    @Test
+    public void testIncompleteRecordAtEndIsIgnored() throws Exception {
+        final File file = createTempFile();
+        CachedLogFile.create(file, "wc").append(Arrays.asList(entry(2, "b", "/b"), entry(1, "a", "/a")));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        final CachedLogFile reopened = CachedLogFile.open(file);
+        assertRevisions(reopened.getEntries(), 1);
+        reopened.append(Arrays.asList(entry(4, "d", "/d")));
+        assertRevisions(CachedLogFile.open(file).getEntries(), 4, 1);
+    }
+
+    @Test
+    public void testFailedAppendDoesNotChangeTheLog() throws Exception {
+        final File file = createTempFile();
+        final CachedLogFile log = CachedLogFile.create(file, "wc");
+        assertEquals("[]", Arrays.toString(log.getCandidateIndicesForKey("ABC-1")));
+        //a directory with the name of the file lets the write fail
+        assertTrue(file.mkdir());
+        try {
+            log.append(Arrays.asList(entry(1, "ABC-1", "/a")));
+            fail("expected an IOException");
+        } catch (final IOException e) {
+            //expected
+        }
+        assertRevisions(log.getEntries());
+        assertEquals("[]", Arrays.toString(log.getCandidateIndicesForKey("ABC-1")));
+        assertTrue(file.delete());
+
+        log.append(Arrays.asList(entry(2, "ABC-1", "/b")));
+        assertRevisions(log.getEntries(), 2);
+        assertEquals("[0]", Arrays.toString(log.getCandidateIndicesForKey("ABC-1")));
+        final CachedLogFile reopened = CachedLogFile.open(file);
+        assertRevisions(reopened.getEntries(), 2);
+        assertEquals("/b", reopened.getEntries().get(0).getChangedPaths().get("/b").getPath());
+    }
+
+    @Test
+    public void testKeyIndex() throws Exception {
+        final File file = createTempFile();
+        final CachedLogFile log = CachedLogFile.create(file, "wc");
+        log.append(Arrays.asList(
+                entry(3, "ABC-2: more", "/a"),
+                entry(2, "other", "/a"),
+                entry(1, "ABC-1 ABC-2", "/a")));
+        assertEquals("[0, 2]", Arrays.toString(log.getCandidateIndicesForKey("ABC-2")));
+        log.append(Arrays.asList(entry(4, "ABC-1 again", "/a")));
+        assertEquals("[0, 3]", Arrays.toString(log.getCandidateIndicesForKey("ABC-1")));
+        assertEquals("[]", Arrays.toString(log.getCandidateIndicesForKey("ABC-12")));
+
+        final CachedLogFile reopened = CachedLogFile.open(file);
+        assertEquals("[0, 3]", Arrays.toString(reopened.getCandidateIndicesForKey("ABC-1")));
+        reopened.append(Arrays.asList(entry(5, "ABC-2, ABC-1", "/b")));
+        assertEquals("[0, 2, 4]", Arrays.toString(reopened.getCandidateIndicesForKey("ABC-2")));
+        assertEquals("[0, 2, 4]", Arrays.toString(CachedLogFile.open(file).getCandidateIndicesForKey("ABC-2")));
+    }
+
+    @Test
+    public void testKeyIndexContainsAllCandidates() throws Exception {
+        final File file = createTempFile();
+        final CachedLogFile log = CachedLogFile.create(file, "wc");
+        log.append(Arrays.asList(
+                entry(4, "XABC-7: key in a longer word", "/a"),
+                entry(3, "ABC-70", "/a"),
+                entry(2, "ABC-8", "/a"),
+                entry(1, "2ABC-7", "/a")));
+        assertEquals("[0, 2, 3]", Arrays.toString(log.getCandidateIndicesForKey("ABC-7")));
+        assertEquals("[0, 2, 3]", Arrays.toString(CachedLogFile.open(file).getCandidateIndicesForKey("ABC-7")));
+        assertEquals("[2]", Arrays.toString(log.getCandidateIndicesForKey("ABC-70")));
+    }
+
+    @Test
+    public void testOtherFormatIsRejected() throws Exception {
+        final File file = createTempFile();
+        Files.write(file.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+        assertNull(CachedLogFile.open(file));
+    }
+
+    @Test
+    public void testFileWithoutKeyRecordsIsRejected() throws Exception {
+        final File file = createTempFile();
+        //header of version 1, which did not contain key records yet
+        Files.write(file.toPath(), new byte[] {0x43, 0x6f, 0x52, 0x54, 0, 0, 0, 1, 0, 0, 0, 0});
+        assertNull(CachedLogFile.open(file));
+    }
+
+    @Test
+    public void testFileWithKeysInsteadOfKeyNumbersIsRejected() throws Exception {
+        final File file = createTempFile();
+        //header of version 2, which stored the whole keys in the key records
+        Files.write(file.toPath(), new byte[] {0x43, 0x6f, 0x52, 0x54, 0, 0, 0, 2, 0, 0, 0, 0});
+        assertNull(CachedLogFile.open(file));
+    }
+
+}
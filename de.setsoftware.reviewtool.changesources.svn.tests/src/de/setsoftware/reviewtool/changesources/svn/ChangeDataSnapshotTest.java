@@ -0,0 +1,181 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRepoRevision;
+import de.setsoftware.reviewtool.model.api.IRepository;
+import de.setsoftware.reviewtool.model.api.IRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.AbstractRepository;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Tests for {@link ChangeDataSnapshot}.
+ */
+public class ChangeDataSnapshotTest {
+
+    private static final IRepository STUB_REPO = new AbstractRepository() {
+        @Override
+        public String getId() {
+            return "stub";
+        }
+
+        @Override
+        public File getLocalRoot() {
+            return null;
+        }
+
+        @Override
+        public IRepoRevision toRevision(final String revisionId) {
+            return ChangestructureFactory.createRepoRevision(Long.parseLong(revisionId), this);
+        }
+
+        @Override
+        public String toAbsolutePathInWc(String absolutePathInRepo) {
+            return absolutePathInRepo;
+        }
+
+        @Override
+        public String fromAbsolutePathInWc(String absolutePathInWc) {
+            return absolutePathInWc;
+        }
+
+        @Override
+        public IRevision getSmallestRevision(Collection<? extends IRevision> revisions) {
+            return revisions.iterator().next();
+        }
+
+        @Override
+        public byte[] getFileContents(String path, IRepoRevision revision) {
+            return new byte[0];
+        }
+    };
+
+    private static File createTempDir() throws IOException {
+        final File dir = Files.createTempDirectory("changeDataSnapshotTest").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    private static IRevisionedFile file(String path, long revision) {
+        return ChangestructureFactory.createFileInRevision(path, rev(revision));
+    }
+
+    private static IRepoRevision rev(long revision) {
+        return ChangestructureFactory.createRepoRevision(revision, STUB_REPO);
+    }
+
+    private static Pair<IFragment, IFragment> change(IRevisionedFile oldFile, int oldFrom, int oldTo,
+            IRevisionedFile newFile, int newFrom, int newTo) {
+        return Pair.create(
+                ChangestructureFactory.createFragment(oldFile,
+                        ChangestructureFactory.createPositionInText(oldFrom, 1),
+                        ChangestructureFactory.createPositionInText(oldTo, 1)),
+                ChangestructureFactory.createFragment(newFile,
+                        ChangestructureFactory.createPositionInText(newFrom, 1),
+                        ChangestructureFactory.createPositionInText(newTo, 1)));
+    }
+
+    @Test
+    public void testNoSnapshotYet() throws Exception {
+        final ChangeDataSnapshot snapshot = ChangeDataSnapshot.load(createTempDir(), "TIC-1", "settings");
+        assertNull(snapshot.get(file("/a", 1), file("/a", 2)));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        final File dir = createTempDir();
+        final ChangeDataSnapshot snapshot = ChangeDataSnapshot.load(dir, "TIC-1", "settings");
+        final List<Pair<IFragment, IFragment>> changes = Arrays.asList(
+                change(file("/a", 1), 3, 4, file("/a", 2), 3, 5),
+                change(file("/a", 1), 10, 10, file("/a", 2), 11, 13));
+        snapshot.putTextDiff(file("/a", 1), file("/a", 2), changes);
+        snapshot.putBinaryDiff(ChangestructureFactory.createFileInRevision(
+                "/b", ChangestructureFactory.createUnknownRevision(STUB_REPO)), file("/b", 2));
+        snapshot.save(Arrays.asList(rev(2)));
+
+        final ChangeDataSnapshot reloaded = ChangeDataSnapshot.load(dir, "TIC-1", "settings");
+        final ChangeDataSnapshot.StoredDiff textDiff = reloaded.get(file("/a", 1), file("/a", 2));
+        assertNotNull(textDiff);
+        assertFalse(textDiff.isBinary());
+        assertEquals(changes, textDiff.toFragments(file("/a", 1), file("/a", 2)));
+
+        final ChangeDataSnapshot.StoredDiff binaryDiff = reloaded.get(ChangestructureFactory.createFileInRevision(
+                "/b", ChangestructureFactory.createUnknownRevision(STUB_REPO)), file("/b", 2));
+        assertNotNull(binaryDiff);
+        assertTrue(binaryDiff.isBinary());
+
+        assertNull(reloaded.get(file("/a", 1), file("/a", 3)));
+        assertNull(ChangeDataSnapshot.load(dir, "TIC-2", "settings").get(file("/a", 1), file("/a", 2)));
+    }
+
+    @Test
+    public void testSnapshotWithOtherSettingsIsDiscarded() throws Exception {
+        final File dir = createTempDir();
+        final ChangeDataSnapshot snapshot = ChangeDataSnapshot.load(dir, "TIC-1", "myers");
+        snapshot.putBinaryDiff(file("/a", 1), file("/a", 2));
+        snapshot.save(Arrays.asList(rev(2)));
+
+        assertNotNull(ChangeDataSnapshot.load(dir, "TIC-1", "myers").get(file("/a", 1), file("/a", 2)));
+        assertNull(ChangeDataSnapshot.load(dir, "TIC-1", "histogram").get(file("/a", 1), file("/a", 2)));
+    }
+
+    @Test
+    public void testDiffsForRevisionsThatAreNotMatchedAnymoreAreRemoved() throws Exception {
+        final File dir = createTempDir();
+        final ChangeDataSnapshot snapshot = ChangeDataSnapshot.load(dir, "TIC-1", "settings");
+        snapshot.putBinaryDiff(file("/a", 1), file("/a", 2));
+        snapshot.putBinaryDiff(file("/a", 2), file("/a", 3));
+        snapshot.save(Arrays.asList(rev(2), rev(3)));
+
+        final ChangeDataSnapshot secondRound = ChangeDataSnapshot.load(dir, "TIC-1", "settings");
+        assertNotNull(secondRound.get(file("/a", 1), file("/a", 2)));
+        assertNotNull(secondRound.get(file("/a", 2), file("/a", 3)));
+        secondRound.putBinaryDiff(file("/a", 3), file("/a", 4));
+        secondRound.save(Arrays.asList(rev(3), rev(4)));
+
+        final ChangeDataSnapshot thirdRound = ChangeDataSnapshot.load(dir, "TIC-1", "settings");
+        assertNull(thirdRound.get(file("/a", 1), file("/a", 2)));
+        assertNotNull(thirdRound.get(file("/a", 2), file("/a", 3)));
+        assertNotNull(thirdRound.get(file("/a", 3), file("/a", 4)));
+    }
+
+    @Test
+    public void testLocalChangesAreNotStored() throws Exception {
+        final File dir = createTempDir();
+        final ChangeDataSnapshot snapshot = ChangeDataSnapshot.load(dir, "TIC-1", "settings");
+        final IRevisionedFile localFile = ChangestructureFactory.createFileInRevision(
+                "/a", ChangestructureFactory.createLocalRevision(STUB_REPO));
+        final ChangeDataSnapshot.StoredDiff diff = snapshot.putBinaryDiff(file("/a", 1), localFile);
+        assertTrue(diff.isBinary());
+        assertNull(snapshot.get(file("/a", 1), localFile));
+    }
+
+    @Test
+    public void testLazilyAddedDiffsAreSavedLater() throws Exception {
+        final File dir = createTempDir();
+        final ChangeDataSnapshot snapshot = ChangeDataSnapshot.load(dir, "TIC-1", "settings");
+        snapshot.save(Arrays.asList(rev(2)));
+        snapshot.putBinaryDiff(file("/a", 1), file("/a", 2));
+        assertNull(ChangeDataSnapshot.load(dir, "TIC-1", "settings").get(file("/a", 1), file("/a", 2)));
+
+        snapshot.saveIfModified();
+        assertNotNull(ChangeDataSnapshot.load(dir, "TIC-1", "settings").get(file("/a", 1), file("/a", 2)));
+    }
+
+}
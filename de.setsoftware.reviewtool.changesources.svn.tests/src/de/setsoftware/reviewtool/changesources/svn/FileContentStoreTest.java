@@ -0,0 +1,83 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link FileContentStore}.
+ */
+public class FileContentStoreTest {
+
+    private static File createTempDir() throws IOException {
+        final File dir = Files.createTempDirectory("fileContentStoreTest").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    private static int countBlobs(File baseDir) {
+        int count = 0;
+        final File[] prefixDirs = new File(baseDir, "blobs").listFiles();
+        if (prefixDirs != null) {
+            for (final File prefixDir : prefixDirs) {
+                count += prefixDir.listFiles().length;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testUnknownFile() throws Exception {
+        final FileContentStore store = new FileContentStore(createTempDir(), 1000);
+        assertNull(store.get("repo", "/a", 1));
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final File dir = createTempDir();
+        final FileContentStore store = new FileContentStore(dir, 1000);
+        store.put("repo", "/a", 1, new byte[] {1, 2, 3});
+        store.put("repo", "/a", 2, new byte[] {4, 5});
+        assertArrayEquals(new byte[] {1, 2, 3}, store.get("repo", "/a", 1));
+        assertArrayEquals(new byte[] {4, 5}, store.get("repo", "/a", 2));
+        assertNull(store.get("repo", "/a", 3));
+        assertNull(store.get("otherRepo", "/a", 1));
+
+        final FileContentStore reopenedStore = new FileContentStore(dir, 1000);
+        assertArrayEquals(new byte[] {1, 2, 3}, reopenedStore.get("repo", "/a", 1));
+    }
+
+    @Test
+    public void testEqualContentsAreStoredOnlyOnce() throws Exception {
+        final File dir = createTempDir();
+        final FileContentStore store = new FileContentStore(dir, 1000);
+        store.put("repo", "/a", 1, new byte[] {1, 2, 3});
+        store.put("repo", "/a", 2, new byte[] {1, 2, 3});
+        store.put("repo", "/b", 5, new byte[] {1, 2, 3});
+        assertEquals(1, countBlobs(dir));
+        assertArrayEquals(new byte[] {1, 2, 3}, store.get("repo", "/b", 5));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        final File dir = createTempDir();
+        final FileContentStore store = new FileContentStore(dir, 30);
+        store.put("repo", "/a", 1, new byte[10]);
+        final File[] prefixDirs = new File(dir, "blobs").listFiles();
+        prefixDirs[0].listFiles()[0].setLastModified(1000);
+        store.put("repo", "/b", 1, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        store.put("repo", "/c", 1, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11});
+
+        assertEquals(2, countBlobs(dir));
+        assertNull(store.get("repo", "/a", 1));
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, store.get("repo", "/b", 1));
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}, store.get("repo", "/c", 1));
+    }
+
+}
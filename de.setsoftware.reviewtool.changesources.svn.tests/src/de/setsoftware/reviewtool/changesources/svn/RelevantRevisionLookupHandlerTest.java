@@ -0,0 +1,152 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.model.api.IChangeSourceUi;
+import de.setsoftware.reviewtool.model.api.IMutableFileHistoryGraph;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Tests for {@link RelevantRevisionLookupHandler}.
+ */
+public class RelevantRevisionLookupHandlerTest {
+
+    private static final Pattern PATTERN = Pattern.compile("TIC-1\\b.*", Pattern.DOTALL);
+
+    private static final SvnRepo REPO = new SvnRepo(null, "repo", new File("wc"), null, "", 0);
+
+    /**
+     * Stub for the UI that is never canceled.
+     */
+    private static final class StubUi implements IChangeSourceUi {
+
+        @Override
+        public void beginTask(String name, int totalWork) {
+        }
+
+        @Override
+        public void done() {
+        }
+
+        @Override
+        public void internalWorked(double work) {
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return false;
+        }
+
+        @Override
+        public void setCanceled(boolean value) {
+        }
+
+        @Override
+        public void setTaskName(String name) {
+        }
+
+        @Override
+        public void subTask(String name) {
+        }
+
+        @Override
+        public void worked(int work) {
+        }
+
+        @Override
+        public Boolean handleLocalWorkingCopyOutOfDate(String detailInfo) {
+            return false;
+        }
+    }
+
+    private static CachedLogEntry entry(long revision, String message, String... paths) {
+        final SortedMap<String, CachedLogEntryPath> map = new TreeMap<>();
+        for (final String path : paths) {
+            map.put(path, new CachedLogEntryPath(path, null, revision - 1, 'M', 'F'));
+        }
+        return new CachedLogEntry(revision, message, "author", new Date(revision * 1000), map);
+    }
+
+    private static List<ISvnRevision> lookup(
+            RelevantRevisionLookupHandler handler, IMutableFileHistoryGraph graph, CachedLogEntry... entries)
+        throws Exception {
+        handler.startNewRepo(REPO);
+        for (final CachedLogEntry entry : entries) {
+            handler.handleLogEntry(entry);
+        }
+        return handler.determineRelevantRevisions(graph, new StubUi());
+    }
+
+    private static String toString(List<ISvnRevision> revisions) {
+        final List<String> ret = new ArrayList<>();
+        for (final ISvnRevision revision : revisions) {
+            ret.add(revision.getRevisionNumber() + (revision.isVisible() ? "" : "i"));
+        }
+        return ret.toString();
+    }
+
+    @Test
+    public void testFullLookup() throws Exception {
+        final RelevantRevisionLookupHandler handler = new RelevantRevisionLookupHandler(PATTERN);
+        final List<ISvnRevision> revisions = lookup(handler, new SvnFileHistoryGraph(),
+                entry(6, "TIC-2: other", "/b"),
+                entry(5, "TIC-1: second", "/a"),
+                entry(4, "TIC-2: other", "/a"),
+                entry(3, "TIC-1: first", "/a"));
+        assertEquals("[3, 4i, 5]", toString(revisions));
+        assertEquals(Collections.singletonMap(REPO, 6L), handler.getNewestHandledRevisions());
+    }
+
+    @Test
+    public void testIncrementalLookupOnlyReturnsNewRevisions() throws Exception {
+        final IMutableFileHistoryGraph graph = new SvnFileHistoryGraph();
+        final RelevantRevisionLookupHandler first = new RelevantRevisionLookupHandler(PATTERN);
+        assertEquals("[3, 4i, 5]", toString(lookup(first, graph,
+                entry(5, "TIC-1: second", "/a"),
+                entry(4, "TIC-2: other", "/a"),
+                entry(3, "TIC-1: first", "/a"))));
+
+        final RelevantRevisionLookupHandler second =
+                new RelevantRevisionLookupHandler(PATTERN, first.getNewestHandledRevisions());
+        assertEquals("[7i, 8]", toString(lookup(second, graph,
+                entry(8, "TIC-1: third", "/a", "/c"),
+                entry(7, "TIC-2: other", "/a"),
+                entry(6, "TIC-2: unrelated", "/b"),
+                entry(5, "TIC-1: second", "/a"),
+                entry(4, "TIC-2: other", "/a"),
+                entry(3, "TIC-1: first", "/a"))));
+        assertEquals(Collections.singletonMap(REPO, 8L), second.getNewestHandledRevisions());
+        assertNotNull(graph.getNodeFor(ChangestructureFactory.createFileInRevision(
+                "/a", ChangestructureFactory.createRepoRevision(8L, REPO))));
+        assertNotNull(graph.getNodeFor(ChangestructureFactory.createFileInRevision(
+                "/a", ChangestructureFactory.createRepoRevision(3L, REPO))));
+    }
+
+    @Test
+    public void testIncrementalLookupWithoutNewMatches() throws Exception {
+        final IMutableFileHistoryGraph graph = new SvnFileHistoryGraph();
+        final RelevantRevisionLookupHandler first = new RelevantRevisionLookupHandler(PATTERN);
+        lookup(first, graph, entry(3, "TIC-1: first", "/a"));
+
+        final Map<SvnRepo, Long> handled = first.getNewestHandledRevisions();
+        final RelevantRevisionLookupHandler second = new RelevantRevisionLookupHandler(PATTERN, handled);
+        assertEquals("[]", toString(lookup(second, graph,
+                entry(4, "TIC-2: unrelated", "/b"),
+                entry(3, "TIC-1: first", "/a"))));
+        assertEquals(Collections.singletonMap(REPO, 4L), second.getNewestHandledRevisions());
+    }
+
+}
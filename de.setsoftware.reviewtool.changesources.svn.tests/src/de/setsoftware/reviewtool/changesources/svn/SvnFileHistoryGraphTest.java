@@ -326,4 +326,43 @@ public class SvnFileHistoryGraphTest {
                 Arrays.asList(file("a/x", 12), file("b/x", 20)),
                 g.getLatestFiles(file("a/x", 2)));
     }
+
+    @Test
+    public void testCopyOfLargeDirectory() {
+        final SvnFileHistoryGraph g = new SvnFileHistoryGraph();
+        for (int i = 0; i < 20000; i++) {
+            g.addChange("trunk/dir/f" + i, rev(0), rev(1));
+        }
+        g.addCopy("trunk", "branch", rev(1), rev(2));
+        g.addChange("branch/dir/f7", rev(2), rev(3));
+
+        assertEquals(
+                Arrays.asList(file("trunk/dir/f5", 1), file("branch/dir/f5", 2)),
+                g.getLatestFiles(file("trunk/dir/f5", 1)));
+        assertEquals(
+                Arrays.asList(file("trunk/dir/f7", 1), file("branch/dir/f7", 3)),
+                g.getLatestFiles(file("trunk/dir/f7", 1)));
+        assertEquals(
+                Arrays.asList(file("branch/dir/f19999", 2)),
+                g.getLatestFiles(file("branch/dir/f19999", 2)));
+    }
+
+    @Test
+    public void testCopyFromOldRevisionOfFileWithManyChanges() {
+        final SvnFileHistoryGraph g = new SvnFileHistoryGraph();
+        for (int i = 1; i <= 5000; i++) {
+            g.addChange("a", rev(2 * i - 2), rev(2 * i));
+        }
+        g.addCopy("a", "b", rev(4001), rev(10001));
+
+        assertEquals(
+                Arrays.asList(file("a", 10000), file("b", 10001)),
+                g.getLatestFiles(file("a", 4000)));
+        assertEquals(
+                Arrays.asList(file("a", 10000), file("b", 10001)),
+                g.getLatestFiles(file("a", 4001)));
+        assertEquals(
+                Arrays.asList(file("a", 10000)),
+                g.getLatestFiles(file("a", 4002)));
+    }
 }
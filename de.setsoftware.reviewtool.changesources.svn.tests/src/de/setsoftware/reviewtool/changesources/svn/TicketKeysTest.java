@@ -0,0 +1,69 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TicketKeys}.
+ */
+public class TicketKeysTest {
+
+    private static final String PLACEHOLDER = "${key}";
+
+    @Test
+    public void testExtractKeyNumbers() {
+        assertEquals(Arrays.asList("123", "7"),
+                new ArrayList<>(TicketKeys.extractKeyNumbers("PRJ-123: fixed (see AB_C-7 and PRJ-123)")));
+        assertEquals(Arrays.asList("3"), new ArrayList<>(TicketKeys.extractKeyNumbers("nothing to see-here 12-3")));
+        assertEquals(Arrays.asList(), new ArrayList<>(TicketKeys.extractKeyNumbers("nothing")));
+        assertEquals(Arrays.asList(), new ArrayList<>(TicketKeys.extractKeyNumbers(null)));
+    }
+
+    @Test
+    public void testNumbersAreAlsoExtractedFromLongerWords() {
+        assertEquals(Arrays.asList("1234"), new ArrayList<>(TicketKeys.extractKeyNumbers("PRJ-1234")));
+        assertEquals(Arrays.asList("1"), new ArrayList<>(TicketKeys.extractKeyNumbers("XPRJ-1")));
+        assertEquals(Arrays.asList("1"), new ArrayList<>(TicketKeys.extractKeyNumbers("_PRJ-1x")));
+    }
+
+    @Test
+    public void testGetKeyNumber() {
+        assertEquals("123", TicketKeys.getKeyNumber("PRJ-123"));
+        assertEquals("5", TicketKeys.getKeyNumber("A-B-5"));
+    }
+
+    @Test
+    public void testIsIndexable() {
+        assertTrue(TicketKeys.isIndexable("PRJ-123"));
+        assertFalse(TicketKeys.isIndexable("123"));
+        assertFalse(TicketKeys.isIndexable("PRJ-123 "));
+    }
+
+    @Test
+    public void testPatternsThatRequireTheKey() {
+        assertTrue(TicketKeys.isKeyRequiredBy("${key}", PLACEHOLDER));
+        assertTrue(TicketKeys.isKeyRequiredBy(".*$${key}([^0-9].*)?", PLACEHOLDER));
+        assertTrue(TicketKeys.isKeyRequiredBy("(\\[[a-z]+\\] )?${key}[:\\s].*", PLACEHOLDER));
+        assertTrue(TicketKeys.isKeyRequiredBy("\\(${key}\\).*", PLACEHOLDER));
+    }
+
+    @Test
+    public void testPatternsThatDoNotRequireTheKey() {
+        assertFalse(TicketKeys.isKeyRequiredBy("no placeholder", PLACEHOLDER));
+        assertFalse(TicketKeys.isKeyRequiredBy("${key}|merge.*", PLACEHOLDER));
+        assertFalse(TicketKeys.isKeyRequiredBy("(${key}).*", PLACEHOLDER));
+        assertFalse(TicketKeys.isKeyRequiredBy("[${key}].*", PLACEHOLDER));
+        assertFalse(TicketKeys.isKeyRequiredBy("${key}?.*", PLACEHOLDER));
+        assertFalse(TicketKeys.isKeyRequiredBy("${key}*", PLACEHOLDER));
+        assertFalse(TicketKeys.isKeyRequiredBy("${key}{0,1}", PLACEHOLDER));
+        assertFalse(TicketKeys.isKeyRequiredBy("${key} ${key}", PLACEHOLDER));
+        assertFalse(TicketKeys.isKeyRequiredBy("\\Q${key}\\E", PLACEHOLDER));
+    }
+
+}
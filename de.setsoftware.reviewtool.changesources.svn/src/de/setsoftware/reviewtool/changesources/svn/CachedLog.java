@@ -1,23 +1,22 @@
 package de.setsoftware.reviewtool.changesources.svn;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -36,6 +35,7 @@ import de.setsoftware.reviewtool.model.api.IChangeSourceUi;
 
 /**
  * A local cache of the SVN log(s) to speed up the gathering of relevant entries.
+ * The log of every working copy is stored in its own {@link CachedLogFile}.
  */
 public class CachedLog {
 
@@ -60,21 +60,29 @@ public class CachedLog {
     private static final CachedLog INSTANCE = new CachedLog();
 
     private final Map<String, RepoDataCache> repoDataPerWcRoot;
-    private final Map<String, List<CachedLogEntry>> entriesPerWcRoot;
+    private final Map<String, CachedLogFile> entriesPerWcRoot;
+    private final Map<String, Object> syncLocksPerWcRoot;
+    private final Map<String, CachedLogSyncJob> syncJobsPerWcRoot;
+    private SVNClientManager fileClientManager;
     private int minCount;
-    private int maxCount;
 
     private CachedLog() {
         this.repoDataPerWcRoot = new HashMap<>();
         this.entriesPerWcRoot = new HashMap<>();
+        this.syncLocksPerWcRoot = new HashMap<>();
+        this.syncJobsPerWcRoot = new HashMap<>();
         this.minCount = 1000;
-        this.maxCount = 1000;
 
         try {
-            this.readCacheFromFile();
-        } catch (final ClassNotFoundException | IOException | ClassCastException e) {
+            this.readCacheFromFiles();
+        } catch (final IOException e) {
             Logger.error("problem while loading svn cache", e);
         }
+        try {
+            this.migrateOldCacheFile();
+        } catch (final ClassNotFoundException | IOException | ClassCastException e) {
+            Logger.error("problem while migrating old svn cache", e);
+        }
     }
 
     public static CachedLog getInstance() {
@@ -82,17 +90,77 @@ public class CachedLog {
     }
 
     /**
-     * Changes the default values for minimum and maximum size of the log.
+     * Changes the minimum size of the log, i.e. the number of entries that are loaded when a log is
+     * initially filled. The log files are append-only and are not limited in size.
+     */
+    public void setMinSize(int minCount) {
+        this.minCount = minCount;
+    }
+
+    /**
+     * Sets the client manager that is used to load file contents for all repositories, independent of the
+     * manager that was used to determine the repository. The log takes ownership of the manager and disposes
+     * the previous one. The connections of the previous manager that are currently not in use are closed.
+     */
+    public synchronized void setFileClientManager(final SVNClientManager mgr) {
+        final SVNClientManager old = this.fileClientManager;
+        this.fileClientManager = mgr;
+        for (final RepoDataCache repoData : this.repoDataPerWcRoot.values()) {
+            repoData.getRepo().setFileClientManager(mgr);
+        }
+        if (old != null && old != mgr) {
+            old.dispose();
+        }
+    }
+
+    private synchronized SVNClientManager getFileClientManager() {
+        if (this.fileClientManager == null) {
+            this.fileClientManager = SVNClientManager.newInstance();
+        }
+        return this.fileClientManager;
+    }
+
+    /**
+     * Starts to keep the logs of the given working copies current in the background. Background synchronization
+     * for other working copies is stopped. While a working copy is synchronized in the background, reading its
+     * log entries does not wait for the SVN server, unless nothing has been cached yet.
+     * @param clientManagersPerWorkingCopy The working copy roots, with a separate client manager for each of them.
+     *      The log takes ownership of the managers and disposes them when the synchronization is stopped.
+     * @param intervalMillis The time between two synchronizations. When it is not positive, background
+     *      synchronization is switched off.
+     */
+    public synchronized void startBackgroundSync(
+            final Map<File, SVNClientManager> clientManagersPerWorkingCopy, final long intervalMillis) {
+        for (final CachedLogSyncJob job : this.syncJobsPerWcRoot.values()) {
+            job.stop();
+        }
+        this.syncJobsPerWcRoot.clear();
+        if (intervalMillis <= 0) {
+            for (final SVNClientManager mgr : clientManagersPerWorkingCopy.values()) {
+                mgr.dispose();
+            }
+            return;
+        }
+        for (final Entry<File, SVNClientManager> e : clientManagersPerWorkingCopy.entrySet()) {
+            final CachedLogSyncJob job = new CachedLogSyncJob(e.getValue(), e.getKey(), intervalMillis);
+            this.syncJobsPerWcRoot.put(e.getKey().toString(), job);
+            job.schedule();
+        }
+    }
+
+    /**
+     * Loads the new log entries of the given working copy from the SVN server. Synchronizations of different
+     * working copies can run concurrently.
      */
-    public void setSizeLimits(int minCount, int maxCount) {
-        this.minCount = Math.min(minCount, maxCount);
-        this.maxCount = Math.max(minCount, maxCount);
+    void synchronize(final SVNClientManager mgr, final File workingCopyRoot) throws SVNException {
+        final RepoDataCache repoCache = this.getRepoCache(mgr, workingCopyRoot);
+        this.synchronize(mgr, repoCache, this.getOrCreateLogFile(repoCache.getRepo().getLocalRoot().toString()));
     }
 
     /**
      * Returns a collection of all known Subversion repositories.
      */
-    public Collection<SvnRepo> getRepositories() {
+    public synchronized Collection<SvnRepo> getRepositories() {
         final List<SvnRepo> result = new ArrayList<>();
         for (final RepoDataCache info : this.repoDataPerWcRoot.values()) {
             result.add(info.getRepo());
@@ -101,19 +169,73 @@ public class CachedLog {
     }
 
     /**
-     * Calls the given handler for all recent log entries of the given working copy root.
+     * Calls the given handler for all recent log entries of the given working copy root, from newest to oldest.
+     * @param alreadyHandledRevisions For every repository, the newest revision that has been handled in an
+     *      earlier traversal. The traversal stops after the first entry that is not newer than this revision.
      */
     public void traverseRecentEntries(
-            final SVNClientManager mgr, final File workingCopyRoot, final CachedLogLookupHandler handler,
-            final IChangeSourceUi ui) throws SVNException {
+            final SVNClientManager mgr, final File workingCopyRoot, final Map<SvnRepo, Long> alreadyHandledRevisions,
+            final CachedLogLookupHandler handler, final IChangeSourceUi ui) throws SVNException {
 
         final RepoDataCache repoCache = this.getRepoCache(mgr, workingCopyRoot);
         handler.startNewRepo(repoCache.getRepo());
+        final Long alreadyHandled = alreadyHandledRevisions.get(repoCache.getRepo());
         for (final CachedLogEntry entry : this.getEntries(mgr, repoCache)) {
             if (ui.isCanceled()) {
                 throw new OperationCanceledException();
             }
             handler.handleLogEntry(entry);
+            if (alreadyHandled != null && entry.getRevision() <= alreadyHandled) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Calls the given handler for the recent log entries of the given working copy root that can be relevant
+     * for the given ticket key: All entries from the newest one down to the oldest entry whose message
+     * can contain the key. These candidates are determined with the key index, the handler is told which
+     * entries are candidates and has to check their messages itself. The messages of the other entries are
+     * not inspected. Falls back to a traversal of all entries if the key has a form that is not contained
+     * in the index.
+     * <p/>
+     * Must only be used if every relevant message contains the key (see {@link TicketKeys#isKeyRequiredBy}).
+     * @param alreadyHandledRevisions For every repository, the newest revision that has been handled in an
+     *      earlier traversal. The traversal stops after the first entry that is not newer than this revision.
+     */
+    public void traverseRecentEntries(
+            final SVNClientManager mgr, final File workingCopyRoot, final String ticketKey,
+            final Map<SvnRepo, Long> alreadyHandledRevisions,
+            final CachedLogLookupHandler handler, final IChangeSourceUi ui) throws SVNException {
+
+        if (!TicketKeys.isIndexable(ticketKey)) {
+            this.traverseRecentEntries(mgr, workingCopyRoot, alreadyHandledRevisions, handler, ui);
+            return;
+        }
+
+        final RepoDataCache repoCache = this.getRepoCache(mgr, workingCopyRoot);
+        handler.startNewRepo(repoCache.getRepo());
+        final Long alreadyHandled = alreadyHandledRevisions.get(repoCache.getRepo());
+        final CachedLogFile logFile = this.getLogFile(mgr, repoCache);
+        final List<CachedLogEntry> entries = logFile.getEntries();
+        final Set<Integer> candidateIndices = new HashSet<>();
+        int oldestCandidateIndex = entries.size();
+        for (final int index : logFile.getCandidateIndicesForKey(ticketKey)) {
+            if (index < entries.size()) {
+                candidateIndices.add(index);
+                oldestCandidateIndex = Math.min(oldestCandidateIndex, index);
+            }
+        }
+        //the entries are sorted from newest to oldest, the indices from oldest to newest
+        for (int index = entries.size() - 1; index >= oldestCandidateIndex; index--) {
+            if (ui.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            final CachedLogEntry entry = entries.get(entries.size() - 1 - index);
+            handler.handleLogEntry(entry, candidateIndices.contains(index));
+            if (alreadyHandled != null && entry.getRevision() <= alreadyHandled) {
+                break;
+            }
         }
     }
 
@@ -128,49 +250,91 @@ public class CachedLog {
         return cache == null ? null : cache.getRepo();
     }
 
-    private synchronized RepoDataCache getRepoCache(SVNClientManager mgr, File workingCopyRoot) throws SVNException {
-        RepoDataCache c = this.repoDataPerWcRoot.get(workingCopyRoot.toString());
-        if (c == null) {
-            final SVNURL rootUrl = mgr.getLogClient().getReposRoot(workingCopyRoot, null, SVNRevision.HEAD);
-            final SVNURL wcUrl = mgr.getWCClient().doInfo(workingCopyRoot, SVNRevision.WORKING).getURL();
-            final String relPath = wcUrl.toString().substring(rootUrl.toString().length());
-            c = new RepoDataCache(relPath, new SvnRepo(
-                    mgr,
-                    mgr.getWCClient().doInfo(workingCopyRoot, SVNRevision.HEAD).getRepositoryUUID(),
+    private RepoDataCache getRepoCache(SVNClientManager mgr, File workingCopyRoot) throws SVNException {
+        final String key = workingCopyRoot.toString();
+        synchronized (this) {
+            final RepoDataCache c = this.repoDataPerWcRoot.get(key);
+            if (c != null) {
+                return c;
+            }
+        }
+
+        //the server is contacted without holding the lock, so that a slow server does not block other working copies
+        final SVNURL rootUrl = mgr.getLogClient().getReposRoot(workingCopyRoot, null, SVNRevision.HEAD);
+        final SVNURL wcUrl = mgr.getWCClient().doInfo(workingCopyRoot, SVNRevision.WORKING).getURL();
+        final String relPath = wcUrl.toString().substring(rootUrl.toString().length());
+        final String uuid = mgr.getWCClient().doInfo(workingCopyRoot, SVNRevision.HEAD).getRepositoryUUID();
+        final int checkoutPrefix = this.determineCheckoutPrefix(mgr, workingCopyRoot, rootUrl);
+
+        synchronized (this) {
+            //another thread could have been faster
+            final RepoDataCache existing = this.repoDataPerWcRoot.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            //the file contents are not loaded with the caller's manager, as it is only valid for this call
+            final RepoDataCache c = new RepoDataCache(relPath, new SvnRepo(
+                    this.getFileClientManager(),
+                    uuid,
                     workingCopyRoot,
                     rootUrl,
                     relPath,
-                    this.determineCheckoutPrefix(mgr, workingCopyRoot, rootUrl)));
-            this.repoDataPerWcRoot.put(workingCopyRoot.toString(), c);
+                    checkoutPrefix));
+            this.repoDataPerWcRoot.put(key, c);
+            return c;
         }
-        return c;
     }
 
-    private synchronized List<CachedLogEntry> getEntries(SVNClientManager mgr, RepoDataCache repoCache)
+    private List<CachedLogEntry> getEntries(SVNClientManager mgr, RepoDataCache repoCache)
+        throws SVNException {
+        return this.getLogFile(mgr, repoCache).getEntries();
+    }
+
+    private CachedLogFile getLogFile(SVNClientManager mgr, RepoDataCache repoCache)
         throws SVNException {
 
         final String wcRootString = repoCache.getRepo().getLocalRoot().toString();
-        List<CachedLogEntry> list = this.entriesPerWcRoot.get(wcRootString);
-        if (list == null) {
-            list = new CopyOnWriteArrayList<>();
-            this.entriesPerWcRoot.put(wcRootString, list);
+        final CachedLogFile logFile = this.getOrCreateLogFile(wcRootString);
+        final CachedLogSyncJob syncJob = this.getSyncJob(wcRootString);
+        if (syncJob != null && !logFile.getEntries().isEmpty()) {
+            //the background job keeps the log current, so there is no need to wait for the server
+            //  just trigger an additional synchronization to have the newest data the next time
+            syncJob.schedule();
+            return logFile;
         }
+        this.synchronize(mgr, repoCache, logFile);
+        return logFile;
+    }
+
+    private synchronized CachedLogSyncJob getSyncJob(final String wcRoot) {
+        return this.syncJobsPerWcRoot.get(wcRoot);
+    }
 
-        final boolean gotNewEntries = this.loadNewEntries(mgr, repoCache, list);
+    private void synchronize(SVNClientManager mgr, RepoDataCache repoCache, CachedLogFile logFile)
+        throws SVNException {
 
-        if (gotNewEntries) {
+        //only one synchronization per working copy at a time, but different working copies don't block each other
+        synchronized (this.getSyncLock(repoCache.getRepo().getLocalRoot().toString())) {
+            final List<CachedLogEntry> newEntries = this.loadNewEntries(mgr, repoCache, logFile.getEntries());
             try {
-                this.storeCacheToFile();
+                logFile.append(newEntries);
             } catch (final IOException e) {
                 Logger.error("problem while caching svn log", e);
             }
         }
+    }
 
-        return list;
+    private synchronized Object getSyncLock(final String wcRoot) {
+        Object lock = this.syncLocksPerWcRoot.get(wcRoot);
+        if (lock == null) {
+            lock = new Object();
+            this.syncLocksPerWcRoot.put(wcRoot, lock);
+        }
+        return lock;
     }
 
-    private boolean loadNewEntries(SVNClientManager mgr, RepoDataCache repoCache, List<CachedLogEntry> list)
-        throws SVNException {
+    private List<CachedLogEntry> loadNewEntries(
+            SVNClientManager mgr, RepoDataCache repoCache, List<CachedLogEntry> list) throws SVNException {
 
         final long lastKnownRevision = list.isEmpty() ? 0 : list.get(0).getRevision();
 
@@ -201,8 +365,7 @@ public class CachedLog {
                 return Long.compare(o2.getRevision(), o1.getRevision());
             }
         });
-        list.addAll(0, newEntries);
-        return !newEntries.isEmpty();
+        return newEntries;
     }
 
     private int determineCheckoutPrefix(SVNClientManager mgr, File workingCopyRoot, SVNURL rootUrl)
@@ -217,8 +380,49 @@ public class CachedLog {
         return i;
     }
 
-    private void readCacheFromFile() throws IOException, ClassNotFoundException {
-        final File file = this.getCacheFilePath().toFile();
+    private synchronized CachedLogFile getOrCreateLogFile(final String wcRoot) {
+        CachedLogFile logFile = this.entriesPerWcRoot.get(wcRoot);
+        if (logFile == null) {
+            final File dir = this.getCacheDirPath().toFile();
+            //the files of new logs are only created when the first entries are written, so checking
+            //  for existence is not enough to avoid that two logs use the same file
+            final Set<File> assignedFiles = new HashSet<>();
+            for (final CachedLogFile existing : this.entriesPerWcRoot.values()) {
+                assignedFiles.add(existing.getFile());
+            }
+            int i = 0;
+            File file;
+            do {
+                file = new File(dir, "log" + i + ".bin");
+                i++;
+            } while (assignedFiles.contains(file) || file.exists());
+            logFile = CachedLogFile.create(file, wcRoot);
+            this.entriesPerWcRoot.put(wcRoot, logFile);
+        }
+        return logFile;
+    }
+
+    private void readCacheFromFiles() throws IOException {
+        final File[] files = this.getCacheDirPath().toFile().listFiles();
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            final CachedLogFile logFile = CachedLogFile.open(file);
+            if (logFile == null || this.entriesPerWcRoot.containsKey(logFile.getKey())) {
+                Logger.info("removing invalid svn log cache file " + file);
+                Files.deleteIfExists(file.toPath());
+            } else {
+                this.entriesPerWcRoot.put(logFile.getKey(), logFile);
+            }
+        }
+    }
+
+    /**
+     * Converts the cache file written by older versions (using Java serialization) to the current format.
+     */
+    private void migrateOldCacheFile() throws IOException, ClassNotFoundException {
+        final File file = this.getOldCacheFilePath().toFile();
         if (!file.exists()) {
             return;
         }
@@ -232,31 +436,25 @@ public class CachedLog {
                     break;
                 }
                 final List<CachedLogEntry> value = (List<CachedLogEntry>) ois.readObject();
-                this.entriesPerWcRoot.put(key, value);
+                if (!this.entriesPerWcRoot.containsKey(key)) {
+                    this.getOrCreateLogFile(key).append(value);
+                }
             }
         }
+        Files.delete(file.toPath());
     }
 
-    private void storeCacheToFile() throws IOException {
-        final IPath file = this.getCacheFilePath();
-        try (ObjectOutputStream oos =
-                new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile())))) {
-            int entryCount = 0;
-            for (final Entry<String, List<CachedLogEntry>> e : this.entriesPerWcRoot.entrySet()) {
-                oos.writeUTF(e.getKey());
-                oos.writeObject(e.getValue());
-                entryCount++;
-                if (entryCount > this.maxCount) {
-                    break;
-                }
-            }
-        }
+    private IPath getCacheDirPath() {
+        return this.getStateLocation().append("svnlog");
+    }
+
+    private IPath getOldCacheFilePath() {
+        return this.getStateLocation().append("svnlog.cache");
     }
 
-    private IPath getCacheFilePath() {
+    private IPath getStateLocation() {
         final Bundle bundle = FrameworkUtil.getBundle(this.getClass());
-        final IPath dir = Platform.getStateLocation(bundle);
-        return dir.append("svnlog.cache");
+        return Platform.getStateLocation(bundle);
     }
 
-}
\ No newline at end of file
+}
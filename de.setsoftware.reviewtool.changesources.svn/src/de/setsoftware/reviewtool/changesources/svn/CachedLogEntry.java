@@ -35,6 +35,22 @@ public class CachedLogEntry implements Serializable {
         }
     }
 
+    /**
+     * Constructor used when restoring an entry from the persistent log cache.
+     */
+    CachedLogEntry(
+            final long revision,
+            final String message,
+            final String author,
+            final Date date,
+            final SortedMap<String, CachedLogEntryPath> paths) {
+        this.revision = revision;
+        this.message = message;
+        this.author = author;
+        this.date = date;
+        this.paths = paths;
+    }
+
     public String getMessage() {
         return this.message;
     }
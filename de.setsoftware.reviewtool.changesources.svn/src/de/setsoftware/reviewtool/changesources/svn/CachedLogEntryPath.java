@@ -36,6 +36,23 @@ public class CachedLogEntryPath implements Serializable {
         this.kind = mapStatusKind(value.getKind());
     }
 
+    /**
+     * Constructor used when restoring an entry from the persistent log cache.
+     */
+    CachedLogEntryPath(
+            final String path,
+            final String copyPath,
+            final long prevRevision,
+            final char type,
+            final char kind) {
+        this.path = path;
+        this.localPath = null;
+        this.copyPath = copyPath;
+        this.prevRevision = prevRevision;
+        this.type = type;
+        this.kind = kind;
+    }
+
     private static char mapStatusKind(final SVNNodeKind nodeKind) {
         if (nodeKind.equals(SVNNodeKind.FILE)) {
             return 'F';
@@ -96,6 +113,14 @@ public class CachedLogEntryPath implements Serializable {
         return this.prevRevision;
     }
 
+    char getType() {
+        return this.type;
+    }
+
+    char getKind() {
+        return this.kind;
+    }
+
     public boolean isFile() {
         return this.kind == 'F';
     }
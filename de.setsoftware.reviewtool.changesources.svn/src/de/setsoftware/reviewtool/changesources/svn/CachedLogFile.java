@@ -0,0 +1,485 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The persistent log cache for a single working copy, stored in a compact binary format.
+ * <p/>
+ * The file starts with a header (magic number, format version, key of the working copy) that is followed by
+ * a sequence of records. Every record consists of a type byte, the length of its payload and the payload.
+ * Paths are interned: Every distinct path is stored once in a path record and referenced by its index
+ * from the entry records.
+ * <p/>
+ * For every entry whose message contains potential ticket keys, a key record with the numbers of these keys
+ * follows the entry record. The key records are used to build an index from key number to entries, so that the
+ * candidates for a ticket can be found without looking at the other entries.
+ * <p/>
+ * New entries are only appended, so that the cost for storing new entries does not depend on the total size of
+ * the cache. The file is read through a memory mapping, and entries are only decoded when they are accessed.
+ */
+final class CachedLogFile {
+
+    private static final int MAGIC = 0x436f5254;
+    //version 2 added the key records, files without them would not find any ticket in the key index
+    //version 3 stores the key numbers instead of the keys in the key records
+    private static final int VERSION = 3;
+
+    private static final byte TYPE_PATH = 1;
+    private static final byte TYPE_ENTRY = 2;
+    private static final byte TYPE_KEYS = 3;
+    private static final int RECORD_HEADER_SIZE = 5;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final File file;
+    private final String key;
+
+    private final ByteBuffer mapped;
+    private final int[] mappedPathOffsets;
+    private final String[] mappedPaths;
+    private final int[] mappedEntryOffsets;
+    private final CachedLogEntry[] mappedEntries;
+    private final int[] mappedKeyOffsets;
+
+    private long validEnd;
+    private Map<String, Integer> pathIds;
+    private final List<String> appendedPaths = new ArrayList<>();
+    private CachedLogEntry[] appendedEntries = new CachedLogEntry[0];
+    private TreeMap<String, List<Integer>> entriesPerKeyNumber;
+
+    private CachedLogFile(
+            final File file,
+            final String key,
+            final ByteBuffer mapped,
+            final List<Integer> pathOffsets,
+            final List<Integer> entryOffsets,
+            final List<Integer> keyOffsets,
+            final long validEnd) {
+        this.file = file;
+        this.key = key;
+        this.mapped = mapped;
+        this.mappedPathOffsets = toArray(pathOffsets);
+        this.mappedPaths = new String[pathOffsets.size()];
+        this.mappedEntryOffsets = toArray(entryOffsets);
+        this.mappedEntries = new CachedLogEntry[entryOffsets.size()];
+        this.mappedKeyOffsets = toArray(keyOffsets);
+        this.validEnd = validEnd;
+    }
+
+    /**
+     * Creates a new, empty log cache. The file is written when the first entries are added.
+     */
+    public static CachedLogFile create(final File file, final String key) {
+        return new CachedLogFile(
+                file,
+                key,
+                ByteBuffer.allocate(0),
+                Collections.<Integer>emptyList(),
+                Collections.<Integer>emptyList(),
+                Collections.<Integer>emptyList(),
+                0);
+    }
+
+    /**
+     * Opens an existing log cache file. Only the record structure is read, the entries are decoded on demand.
+     * @return The opened file or {@code null} if the file does not contain a log cache in the current format.
+     */
+    public static CachedLogFile open(final File file) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < 12 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+        final int keyLength = buffer.getInt(8);
+        if (keyLength < 0 || 12 + keyLength > buffer.limit()) {
+            return null;
+        }
+        final String key = decodeString(buffer, 12, keyLength);
+
+        final List<Integer> pathOffsets = new ArrayList<>();
+        final List<Integer> entryOffsets = new ArrayList<>();
+        final List<Integer> keyOffsets = new ArrayList<>();
+        int pos = 12 + keyLength;
+        while (pos + RECORD_HEADER_SIZE <= buffer.limit()) {
+            final byte type = buffer.get(pos);
+            final int length = buffer.getInt(pos + 1);
+            if (length < 0 || pos + RECORD_HEADER_SIZE + length > buffer.limit()) {
+                //incomplete record at the end, e.g. due to a crash while writing
+                break;
+            }
+            if (type == TYPE_PATH) {
+                pathOffsets.add(pos);
+            } else if (type == TYPE_ENTRY) {
+                entryOffsets.add(pos);
+            } else if (type == TYPE_KEYS) {
+                keyOffsets.add(pos);
+            } else {
+                break;
+            }
+            pos += RECORD_HEADER_SIZE + length;
+        }
+        return new CachedLogFile(file, key, buffer, pathOffsets, entryOffsets, keyOffsets, pos);
+    }
+
+    /**
+     * Returns the file the log is stored in. The file does not exist before the first entries are added.
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Returns the key of the working copy this log belongs to.
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Returns a snapshot of the entries in this log, the newest entry first.
+     * Later changes to the log are not reflected in the returned list.
+     */
+    public synchronized List<CachedLogEntry> getEntries() {
+        final CachedLogEntry[] appended = this.appendedEntries;
+        return new AbstractList<CachedLogEntry>() {
+            @Override
+            public CachedLogEntry get(final int index) {
+                final int indexInFile = this.size() - 1 - index;
+                if (indexInFile < CachedLogFile.this.mappedEntries.length) {
+                    return CachedLogFile.this.getMappedEntry(indexInFile);
+                } else {
+                    return appended[indexInFile - CachedLogFile.this.mappedEntries.length];
+                }
+            }
+
+            @Override
+            public int size() {
+                return CachedLogFile.this.mappedEntries.length + appended.length;
+            }
+        };
+    }
+
+    /**
+     * Returns the indices of all entries whose message can contain the given ticket key, in ascending order.
+     * These are the entries that contain a key number starting with the number of the given key, so the
+     * result contains every entry with the key, but can also contain others.
+     * The index of an entry is its position when sorted from oldest to newest, i.e. the newest entry
+     * has the highest index.
+     */
+    public synchronized int[] getCandidateIndicesForKey(final String ticketKey) {
+        if (this.entriesPerKeyNumber == null) {
+            this.entriesPerKeyNumber = new TreeMap<>();
+            for (final int offset : this.mappedKeyOffsets) {
+                this.decodeKeys(offset + RECORD_HEADER_SIZE);
+            }
+            for (int i = 0; i < this.appendedEntries.length; i++) {
+                this.addToKeyIndex(
+                        TicketKeys.extractKeyNumbers(this.appendedEntries[i].getMessage()),
+                        this.mappedEntries.length + i);
+            }
+        }
+        final String number = TicketKeys.getKeyNumber(ticketKey);
+        final Set<Integer> indices = new TreeSet<>();
+        for (final List<Integer> indicesForNumber
+                : this.entriesPerKeyNumber.subMap(number, number + Character.MAX_VALUE).values()) {
+            indices.addAll(indicesForNumber);
+        }
+        return toArray(new ArrayList<>(indices));
+    }
+
+    private void decodeKeys(final int offset) {
+        final int entryIndex = this.mapped.getInt(offset);
+        final int count = this.mapped.getInt(offset + 4);
+        final List<String> keyNumbers = new ArrayList<>();
+        int pos = offset + 8;
+        for (int i = 0; i < count; i++) {
+            final int length = this.mapped.getInt(pos);
+            keyNumbers.add(decodeString(this.mapped, pos + 4, length));
+            pos += 4 + length;
+        }
+        this.addToKeyIndex(keyNumbers, entryIndex);
+    }
+
+    private void addToKeyIndex(final Collection<String> keyNumbers, final int entryIndex) {
+        for (final String keyNumber : keyNumbers) {
+            List<Integer> indices = this.entriesPerKeyNumber.get(keyNumber);
+            if (indices == null) {
+                indices = new ArrayList<>(1);
+                this.entriesPerKeyNumber.put(keyNumber, indices);
+            }
+            indices.add(entryIndex);
+        }
+    }
+
+    /**
+     * Adds the given entries to the log and appends them to the file.
+     * The new entries have to be newer than all entries already contained in the log.
+     * The new entries and paths only become visible after they have been written successfully. If writing
+     * fails, the log stays unchanged, and the next append overwrites the partially written data.
+     * @param newEntries The new entries, newest first.
+     */
+    public synchronized void append(final List<CachedLogEntry> newEntries) throws IOException {
+        if (newEntries.isEmpty()) {
+            return;
+        }
+        final List<CachedLogEntry> ascending = new ArrayList<>(newEntries);
+        Collections.reverse(ascending);
+
+        final int firstNewIndex = this.mappedEntries.length + this.appendedEntries.length;
+        final CachedLogEntry[] newAppended =
+                new CachedLogEntry[this.appendedEntries.length + ascending.size()];
+        System.arraycopy(this.appendedEntries, 0, newAppended, 0, this.appendedEntries.length);
+        for (int i = 0; i < ascending.size(); i++) {
+            newAppended[this.appendedEntries.length + i] = ascending.get(i);
+        }
+
+        final List<String> newPaths = new ArrayList<>();
+        final Map<String, Integer> newPathIds = new HashMap<>();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        if (this.validEnd == 0) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, this.key);
+        }
+        for (int i = 0; i < ascending.size(); i++) {
+            this.writeEntry(out, ascending.get(i), firstNewIndex + i, newPaths, newPathIds);
+        }
+        out.flush();
+
+        final File dir = this.file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("could not create directory " + dir);
+        }
+        try (FileChannel channel = FileChannel.open(
+                this.file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            final ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+            long pos = this.validEnd;
+            while (data.hasRemaining()) {
+                pos += channel.write(data, pos);
+            }
+            this.validEnd = pos;
+            try {
+                //remove remainders of an incomplete write, if there are any
+                channel.truncate(this.validEnd);
+            } catch (final IOException e) {
+                //not possible on some platforms while the file is mapped, ignore
+            }
+        }
+
+        if (!newPaths.isEmpty()) {
+            this.appendedPaths.addAll(newPaths);
+            this.pathIds.putAll(newPathIds);
+        }
+        this.appendedEntries = newAppended;
+        if (this.entriesPerKeyNumber != null) {
+            for (int i = 0; i < ascending.size(); i++) {
+                this.addToKeyIndex(TicketKeys.extractKeyNumbers(ascending.get(i).getMessage()), firstNewIndex + i);
+            }
+        }
+    }
+
+    private void writeEntry(
+            final DataOutputStream out,
+            final CachedLogEntry entry,
+            final int entryIndex,
+            final List<String> newPaths,
+            final Map<String, Integer> newPathIds) throws IOException {
+
+        final List<int[]> pathIdsOfEntry = new ArrayList<>();
+        for (final CachedLogEntryPath path : entry.getChangedPaths().values()) {
+            pathIdsOfEntry.add(new int[] {
+                this.getOrWritePathId(out, path.getPath(), newPaths, newPathIds),
+                path.getCopyPath() == null
+                    ? -1 : this.getOrWritePathId(out, path.getCopyPath(), newPaths, newPathIds)
+            });
+        }
+
+        final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        final DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeLong(entry.getRevision());
+        payload.writeLong(entry.getDate() == null ? NO_DATE : entry.getDate().getTime());
+        writeString(payload, entry.getAuthor());
+        writeString(payload, entry.getMessage());
+        payload.writeInt(pathIdsOfEntry.size());
+        int i = 0;
+        for (final CachedLogEntryPath path : entry.getChangedPaths().values()) {
+            payload.writeInt(pathIdsOfEntry.get(i)[0]);
+            payload.writeInt(pathIdsOfEntry.get(i)[1]);
+            payload.writeLong(path.getAncestorRevision());
+            payload.writeChar(path.getType());
+            payload.writeChar(path.getKind());
+            i++;
+        }
+        payload.flush();
+
+        out.writeByte(TYPE_ENTRY);
+        out.writeInt(payloadBytes.size());
+        payloadBytes.writeTo(out);
+
+        final Set<String> keyNumbers = TicketKeys.extractKeyNumbers(entry.getMessage());
+        if (keyNumbers.isEmpty()) {
+            return;
+        }
+        final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+        final DataOutputStream keyPayload = new DataOutputStream(keyBytes);
+        keyPayload.writeInt(entryIndex);
+        keyPayload.writeInt(keyNumbers.size());
+        for (final String keyNumber : keyNumbers) {
+            writeString(keyPayload, keyNumber);
+        }
+        keyPayload.flush();
+        out.writeByte(TYPE_KEYS);
+        out.writeInt(keyBytes.size());
+        keyBytes.writeTo(out);
+    }
+
+    /**
+     * Returns the ID of the given path. If the path is not known so far, a path record is written for it
+     * and the new ID is staged in the given collections, so that it can be committed after a successful write.
+     */
+    private int getOrWritePathId(
+            final DataOutputStream out,
+            final String path,
+            final List<String> newPaths,
+            final Map<String, Integer> newPathIds) throws IOException {
+        if (this.pathIds == null) {
+            this.pathIds = new HashMap<>();
+            for (int i = 0; i < this.mappedPaths.length; i++) {
+                this.pathIds.put(this.getMappedPath(i), i);
+            }
+        }
+        Integer existingId = this.pathIds.get(path);
+        if (existingId == null) {
+            existingId = newPathIds.get(path);
+        }
+        if (existingId != null) {
+            return existingId;
+        }
+        final int id = this.mappedPaths.length + this.appendedPaths.size() + newPaths.size();
+        newPaths.add(path);
+        newPathIds.put(path, id);
+
+        final byte[] encoded = path.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(TYPE_PATH);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+        return id;
+    }
+
+    private CachedLogEntry getMappedEntry(final int index) {
+        CachedLogEntry entry = this.mappedEntries[index];
+        if (entry == null) {
+            entry = this.decodeEntry(this.mappedEntryOffsets[index] + RECORD_HEADER_SIZE);
+            //benign race: entries are immutable, so decoding one twice does no harm
+            this.mappedEntries[index] = entry;
+        }
+        return entry;
+    }
+
+    private CachedLogEntry decodeEntry(final int offset) {
+        int pos = offset;
+        final long revision = this.mapped.getLong(pos);
+        pos += 8;
+        final long date = this.mapped.getLong(pos);
+        pos += 8;
+        final int authorLength = this.mapped.getInt(pos);
+        pos += 4;
+        final String author = decodeString(this.mapped, pos, authorLength);
+        pos += Math.max(0, authorLength);
+        final int messageLength = this.mapped.getInt(pos);
+        pos += 4;
+        final String message = decodeString(this.mapped, pos, messageLength);
+        pos += Math.max(0, messageLength);
+        final int pathCount = this.mapped.getInt(pos);
+        pos += 4;
+
+        final SortedMap<String, CachedLogEntryPath> paths = new TreeMap<>();
+        for (int i = 0; i < pathCount; i++) {
+            final String path = this.getPath(this.mapped.getInt(pos));
+            final int copyPathId = this.mapped.getInt(pos + 4);
+            final long prevRevision = this.mapped.getLong(pos + 8);
+            final char type = this.mapped.getChar(pos + 16);
+            final char kind = this.mapped.getChar(pos + 18);
+            pos += 20;
+            paths.put(path, new CachedLogEntryPath(
+                    path,
+                    copyPathId < 0 ? null : this.getPath(copyPathId),
+                    prevRevision,
+                    type,
+                    kind));
+        }
+        return new CachedLogEntry(revision, message, author, date == NO_DATE ? null : new Date(date), paths);
+    }
+
+    private String getPath(final int id) {
+        if (id < this.mappedPaths.length) {
+            return this.getMappedPath(id);
+        }
+        synchronized (this) {
+            return this.appendedPaths.get(id - this.mappedPaths.length);
+        }
+    }
+
+    private String getMappedPath(final int id) {
+        String path = this.mappedPaths[id];
+        if (path == null) {
+            final int offset = this.mappedPathOffsets[id];
+            path = decodeString(this.mapped, offset + RECORD_HEADER_SIZE, this.mapped.getInt(offset + 1));
+            this.mappedPaths[id] = path;
+        }
+        return path;
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+    }
+
+    private static String decodeString(final ByteBuffer buffer, final int offset, final int length) {
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        final ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+        final int[] ret = new int[list.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = list.get(i);
+        }
+        return ret;
+    }
+
+}
@@ -17,4 +17,11 @@ public interface CachedLogLookupHandler {
      */
     public abstract void handleLogEntry(CachedLogEntry logEntry) throws SVNException;
 
+    /**
+     * Is called for log entries during a traversal that uses the key index. Only entries whose message can
+     * contain the searched ticket key are candidates, the others cannot match. The messages of the candidates
+     * still have to be checked.
+     */
+    public abstract void handleLogEntry(CachedLogEntry logEntry, boolean isCandidate) throws SVNException;
+
 }
@@ -0,0 +1,85 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import java.io.File;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.wc.SVNClientManager;
+
+import de.setsoftware.reviewtool.base.Logger;
+
+/**
+ * Background job that periodically loads new entries from the SVN log of a working copy into the {@link CachedLog}.
+ * There is one job per working copy, so that several working copies can be synchronized concurrently.
+ * The job owns its client manager and disposes it when it is stopped.
+ */
+final class CachedLogSyncJob extends Job {
+
+    private final SVNClientManager mgr;
+    private final File workingCopyRoot;
+    private final long intervalMillis;
+    private boolean stopped;
+    private boolean running;
+
+    /**
+     * Constructor.
+     * @param mgr The client manager to use. Should not be used by other threads, as parts of it are not thread-safe.
+     * @param workingCopyRoot The root of the working copy to synchronize.
+     * @param intervalMillis The time between the end of one synchronization and the start of the next.
+     */
+    public CachedLogSyncJob(final SVNClientManager mgr, final File workingCopyRoot, final long intervalMillis) {
+        super("Synchronizing SVN log of " + workingCopyRoot);
+        this.mgr = mgr;
+        this.workingCopyRoot = workingCopyRoot;
+        this.intervalMillis = intervalMillis;
+        this.setSystem(true);
+        this.setPriority(Job.DECORATE);
+    }
+
+    public File getWorkingCopyRoot() {
+        return this.workingCopyRoot;
+    }
+
+    /**
+     * Stops the periodic synchronization. A synchronization that is currently running is finished.
+     * The client manager is disposed as soon as it is no longer used.
+     */
+    public void stop() {
+        synchronized (this) {
+            this.stopped = true;
+            if (!this.running) {
+                this.mgr.dispose();
+            }
+        }
+        this.cancel();
+    }
+
+    @Override
+    protected IStatus run(final IProgressMonitor monitor) {
+        synchronized (this) {
+            if (this.stopped || monitor.isCanceled()) {
+                return Status.CANCEL_STATUS;
+            }
+            this.running = true;
+        }
+        try {
+            CachedLog.getInstance().synchronize(this.mgr, this.workingCopyRoot);
+        } catch (final SVNException | RuntimeException e) {
+            Logger.warn("background synchronization of the svn log failed for " + this.workingCopyRoot, e);
+        } finally {
+            synchronized (this) {
+                this.running = false;
+                if (this.stopped) {
+                    this.mgr.dispose();
+                } else {
+                    this.schedule(this.intervalMillis);
+                }
+            }
+        }
+        return Status.OK_STATUS;
+    }
+
+}
@@ -0,0 +1,519 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.ILocalRevision;
+import de.setsoftware.reviewtool.model.api.IPositionInText;
+import de.setsoftware.reviewtool.model.api.IRepoRevision;
+import de.setsoftware.reviewtool.model.api.IRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionVisitor;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.api.IUnknownRevision;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * A persistent snapshot of the analysis results for a ticket. Loading the file contents and determining the diffs
+ * is the expensive part of the analysis, so the snapshot contains the diff for every analyzed pair of
+ * ancestor and descendant file, together with the set of matched revisions it has been created for. When the
+ * ticket is analyzed again, only the diffs for revisions that were added since then have to be determined.
+ * The history graph and the commits are not stored, they are rebuilt from the cached log.
+ * <p/>
+ * As file revisions in the repository never change, a stored diff stays valid as long as the settings that
+ * influence the diff (e.g. the diff algorithm) stay the same. The snapshot is discarded when these settings
+ * differ from the ones it has been created with.
+ * <p/>
+ * The data is stored in a compressed binary file per ticket. Paths are only stored once per file.
+ * Only the least recently used snapshots are kept.
+ */
+final class ChangeDataSnapshot {
+
+    private static final int MAGIC = 0x436f5253;
+    private static final int VERSION = 1;
+    private static final String FILE_SUFFIX = ".snapshot";
+    private static final int MAX_SNAPSHOT_COUNT = 100;
+
+    private static final long UNKNOWN_REVISION_NUMBER = -1L;
+
+    private static final byte KIND_TEXT = 1;
+    private static final byte KIND_BINARY = 2;
+
+    /**
+     * The diff between a file in an ancestor revision and the file in a descendant revision.
+     * The fragments are stored as line and column numbers (from line, from column, to line, to column), so that
+     * the fragment contents are only loaded when they are needed.
+     */
+    static final class StoredDiff {
+        private final String repositoryId;
+        private final String oldPath;
+        private final long oldRevision;
+        private final String newPath;
+        private final long newRevision;
+        private final boolean binary;
+        private final int[] oldPositions;
+        private final int[] newPositions;
+
+        private StoredDiff(
+                final String repositoryId,
+                final String oldPath,
+                final long oldRevision,
+                final String newPath,
+                final long newRevision,
+                final boolean binary,
+                final int[] oldPositions,
+                final int[] newPositions) {
+            this.repositoryId = repositoryId;
+            this.oldPath = oldPath;
+            this.oldRevision = oldRevision;
+            this.newPath = newPath;
+            this.newRevision = newRevision;
+            this.binary = binary;
+            this.oldPositions = oldPositions;
+            this.newPositions = newPositions;
+        }
+
+        /**
+         * Returns true iff the files have been treated as binary files.
+         */
+        public boolean isBinary() {
+            return this.binary;
+        }
+
+        /**
+         * Recreates the changed fragments of a textual diff.
+         * @param oldFile The file in the ancestor revision.
+         * @param newFile The file in the descendant revision.
+         */
+        public List<Pair<IFragment, IFragment>> toFragments(
+                final IRevisionedFile oldFile, final IRevisionedFile newFile) {
+            final List<Pair<IFragment, IFragment>> ret = new ArrayList<>();
+            for (int i = 0; i < this.oldPositions.length; i += 4) {
+                ret.add(Pair.create(
+                        toFragment(oldFile, this.oldPositions, i),
+                        toFragment(newFile, this.newPositions, i)));
+            }
+            return ret;
+        }
+
+        private static IFragment toFragment(final IRevisionedFile file, final int[] positions, final int offset) {
+            return ChangestructureFactory.createFragment(
+                    file,
+                    ChangestructureFactory.createPositionInText(positions[offset], positions[offset + 1]),
+                    ChangestructureFactory.createPositionInText(positions[offset + 2], positions[offset + 3]));
+        }
+
+        private String getKey() {
+            return createKey(this.repositoryId, this.oldPath, this.oldRevision, this.newPath, this.newRevision);
+        }
+    }
+
+    private final File file;
+    private final String ticketKey;
+    private final String settings;
+    private final Set<Pair<String, Long>> matchedRevisions;
+    private final Map<String, StoredDiff> diffs;
+    private volatile boolean modified;
+
+    private ChangeDataSnapshot(
+            final File file,
+            final String ticketKey,
+            final String settings,
+            final Set<Pair<String, Long>> matchedRevisions,
+            final Map<String, StoredDiff> diffs) {
+        this.file = file;
+        this.ticketKey = ticketKey;
+        this.settings = settings;
+        this.matchedRevisions = matchedRevisions;
+        this.diffs = diffs;
+    }
+
+    /**
+     * Creates an empty snapshot that is not saved, e.g. for the analysis of local changes.
+     */
+    public static ChangeDataSnapshot createTemporary() {
+        return new ChangeDataSnapshot(
+                null,
+                "",
+                "",
+                new LinkedHashSet<Pair<String, Long>>(),
+                new ConcurrentHashMap<String, StoredDiff>());
+    }
+
+    /**
+     * Loads the snapshot for the given ticket. If there is none, or if it has been created with other settings or
+     * by an incompatible version, an empty snapshot is returned.
+     * @param dir The directory that contains the snapshots.
+     * @param ticketKey The key of the ticket.
+     * @param settings A textual representation of all settings that influence the diffs.
+     */
+    public static ChangeDataSnapshot load(final File dir, final String ticketKey, final String settings) {
+        final File file = new File(dir, toFileName(ticketKey));
+        final ChangeDataSnapshot empty = new ChangeDataSnapshot(
+                file,
+                ticketKey,
+                settings,
+                new LinkedHashSet<Pair<String, Long>>(),
+                new ConcurrentHashMap<String, StoredDiff>());
+        if (!file.exists()) {
+            return empty;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return empty;
+            }
+            if (!in.readUTF().equals(ticketKey) || !in.readUTF().equals(settings)) {
+                return empty;
+            }
+
+            final String[] repositoryIds = new String[in.readInt()];
+            for (int i = 0; i < repositoryIds.length; i++) {
+                repositoryIds[i] = in.readUTF();
+            }
+            final String[] paths = new String[in.readInt()];
+            for (int i = 0; i < paths.length; i++) {
+                paths[i] = in.readUTF();
+            }
+
+            final int revisionCount = in.readInt();
+            final Set<Pair<String, Long>> matchedRevisions = new LinkedHashSet<>();
+            for (int i = 0; i < revisionCount; i++) {
+                matchedRevisions.add(Pair.create(repositoryIds[in.readInt()], in.readLong()));
+            }
+
+            final int diffCount = in.readInt();
+            final Map<String, StoredDiff> diffs = new ConcurrentHashMap<>();
+            for (int i = 0; i < diffCount; i++) {
+                final StoredDiff diff = readDiff(in, repositoryIds, paths);
+                diffs.put(diff.getKey(), diff);
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return new ChangeDataSnapshot(file, ticketKey, settings, matchedRevisions, diffs);
+        } catch (final IOException | RuntimeException e) {
+            Logger.warn("could not read analysis snapshot " + file, e);
+            return empty;
+        }
+    }
+
+    private static StoredDiff readDiff(final DataInputStream in, final String[] repositoryIds, final String[] paths)
+        throws IOException {
+        final String repositoryId = repositoryIds[in.readInt()];
+        final String oldPath = paths[in.readInt()];
+        final long oldRevision = in.readLong();
+        final String newPath = paths[in.readInt()];
+        final long newRevision = in.readLong();
+        final byte kind = in.readByte();
+        final int[] oldPositions = new int[in.readInt() * 4];
+        final int[] newPositions = new int[oldPositions.length];
+        for (int i = 0; i < oldPositions.length; i += 4) {
+            for (int j = 0; j < 4; j++) {
+                oldPositions[i + j] = in.readInt();
+            }
+            for (int j = 0; j < 4; j++) {
+                newPositions[i + j] = in.readInt();
+            }
+        }
+        return new StoredDiff(repositoryId, oldPath, oldRevision, newPath, newRevision,
+                kind == KIND_BINARY, oldPositions, newPositions);
+    }
+
+    /**
+     * Returns the stored diff between the given files, or null if it is not contained in the snapshot.
+     */
+    public StoredDiff get(final IRevisionedFile oldFile, final IRevisionedFile newFile) {
+        final String key = createKey(oldFile, newFile);
+        return key == null ? null : this.diffs.get(key);
+    }
+
+    /**
+     * Stores the result of a textual diff between the given files.
+     * @param changes The changed fragments, as returned by the diff algorithm.
+     * @return The stored diff.
+     */
+    public StoredDiff putTextDiff(final IRevisionedFile oldFile, final IRevisionedFile newFile,
+            final List<Pair<IFragment, IFragment>> changes) {
+        final int[] oldPositions = new int[changes.size() * 4];
+        final int[] newPositions = new int[oldPositions.length];
+        for (int i = 0; i < changes.size(); i++) {
+            toPositions(changes.get(i).getFirst(), oldPositions, i * 4);
+            toPositions(changes.get(i).getSecond(), newPositions, i * 4);
+        }
+        return this.put(oldFile, newFile, false, oldPositions, newPositions);
+    }
+
+    /**
+     * Stores the information that the given files have been treated as binary files.
+     * @return The stored diff.
+     */
+    public StoredDiff putBinaryDiff(final IRevisionedFile oldFile, final IRevisionedFile newFile) {
+        return this.put(oldFile, newFile, true, new int[0], new int[0]);
+    }
+
+    private StoredDiff put(final IRevisionedFile oldFile, final IRevisionedFile newFile, final boolean binary,
+            final int[] oldPositions, final int[] newPositions) {
+        final Long oldRevision = getRevisionNumber(oldFile.getRevision());
+        final Long newRevision = getRevisionNumber(newFile.getRevision());
+        final StoredDiff diff = new StoredDiff(
+                newFile.getRepository().getId(),
+                oldFile.getPath(),
+                oldRevision == null ? UNKNOWN_REVISION_NUMBER : oldRevision,
+                newFile.getPath(),
+                newRevision == null ? UNKNOWN_REVISION_NUMBER : newRevision,
+                binary,
+                oldPositions,
+                newPositions);
+        if (oldRevision != null && newRevision != null) {
+            this.diffs.put(diff.getKey(), diff);
+            this.modified = true;
+        }
+        return diff;
+    }
+
+    private static void toPositions(final IFragment fragment, final int[] positions, final int offset) {
+        final IPositionInText from = fragment.getFrom();
+        final IPositionInText to = fragment.getTo();
+        positions[offset] = from.getLine();
+        positions[offset + 1] = from.getColumn();
+        positions[offset + 2] = to.getLine();
+        positions[offset + 3] = to.getColumn();
+    }
+
+    /**
+     * Writes the snapshot to disk if it has been changed or if the matched revisions differ from the stored ones.
+     * Only the diffs for the matched revisions are kept. Problems while writing are logged and ignored.
+     * Temporary snapshots are not written.
+     * @param revisions The revisions that were matched for the ticket.
+     */
+    public synchronized void save(final Collection<? extends IRevision> revisions) {
+        final Set<Pair<String, Long>> newMatchedRevisions = new LinkedHashSet<>();
+        for (final IRevision revision : revisions) {
+            final Long revisionNumber = getRevisionNumber(revision);
+            if (revisionNumber != null) {
+                newMatchedRevisions.add(Pair.create(revision.getRepository().getId(), revisionNumber));
+            }
+        }
+        this.save(newMatchedRevisions);
+    }
+
+    /**
+     * Writes the snapshot to disk if diffs have been added since the last save. Is used for diffs that
+     * are determined after the analysis, i.e. when diffing lazily.
+     */
+    public synchronized void saveIfModified() {
+        if (this.modified) {
+            this.save(new LinkedHashSet<>(this.matchedRevisions));
+        }
+    }
+
+    private void save(final Set<Pair<String, Long>> newMatchedRevisions) {
+        if (this.file == null) {
+            return;
+        }
+        if (!this.modified && newMatchedRevisions.equals(this.matchedRevisions)) {
+            return;
+        }
+
+        //diffs are put without holding the lock, so the flag is reset before the diffs are copied
+        //  a diff that is put after the copy sets it again and is saved the next time
+        this.modified = false;
+        final List<StoredDiff> diffsToSave = new ArrayList<>();
+        for (final StoredDiff diff : this.diffs.values()) {
+            if (newMatchedRevisions.contains(Pair.create(diff.repositoryId, diff.newRevision))) {
+                diffsToSave.add(diff);
+            } else {
+                this.diffs.remove(diff.getKey());
+            }
+        }
+        try {
+            this.write(newMatchedRevisions, diffsToSave);
+            this.matchedRevisions.clear();
+            this.matchedRevisions.addAll(newMatchedRevisions);
+            removeLeastRecentlyUsed(this.file.getParentFile(), MAX_SNAPSHOT_COUNT);
+        } catch (final IOException e) {
+            this.modified = true;
+            Logger.warn("could not write analysis snapshot " + this.file, e);
+        }
+    }
+
+    private void write(final Set<Pair<String, Long>> revisions, final List<StoredDiff> diffsToSave)
+        throws IOException {
+        final Map<String, Integer> repositoryIds = new HashMap<>();
+        final Map<String, Integer> paths = new HashMap<>();
+        for (final Pair<String, Long> revision : revisions) {
+            addToTable(repositoryIds, revision.getFirst());
+        }
+        for (final StoredDiff diff : diffsToSave) {
+            addToTable(repositoryIds, diff.repositoryId);
+            addToTable(paths, diff.oldPath);
+            addToTable(paths, diff.newPath);
+        }
+
+        final File dir = this.file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("could not create directory " + dir);
+        }
+        final File tempFile = File.createTempFile(this.file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(tempFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(this.ticketKey);
+                out.writeUTF(this.settings);
+                writeTable(out, repositoryIds);
+                writeTable(out, paths);
+
+                out.writeInt(revisions.size());
+                for (final Pair<String, Long> revision : revisions) {
+                    out.writeInt(repositoryIds.get(revision.getFirst()));
+                    out.writeLong(revision.getSecond());
+                }
+
+                out.writeInt(diffsToSave.size());
+                for (final StoredDiff diff : diffsToSave) {
+                    out.writeInt(repositoryIds.get(diff.repositoryId));
+                    out.writeInt(paths.get(diff.oldPath));
+                    out.writeLong(diff.oldRevision);
+                    out.writeInt(paths.get(diff.newPath));
+                    out.writeLong(diff.newRevision);
+                    out.writeByte(diff.binary ? KIND_BINARY : KIND_TEXT);
+                    out.writeInt(diff.oldPositions.length / 4);
+                    for (int i = 0; i < diff.oldPositions.length; i += 4) {
+                        for (int j = 0; j < 4; j++) {
+                            out.writeInt(diff.oldPositions[i + j]);
+                        }
+                        for (int j = 0; j < 4; j++) {
+                            out.writeInt(diff.newPositions[i + j]);
+                        }
+                    }
+                }
+            }
+            Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static void addToTable(final Map<String, Integer> table, final String value) {
+        if (!table.containsKey(value)) {
+            table.put(value, table.size());
+        }
+    }
+
+    private static void writeTable(final DataOutputStream out, final Map<String, Integer> table) throws IOException {
+        final String[] values = new String[table.size()];
+        for (final Map.Entry<String, Integer> e : table.entrySet()) {
+            values[e.getValue()] = e.getKey();
+        }
+        out.writeInt(values.length);
+        for (final String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Removes the least recently used snapshots so that at most the given number remains.
+     */
+    private static void removeLeastRecentlyUsed(final File dir, final int maxCount) throws IOException {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        final List<File> snapshots = new ArrayList<>();
+        for (final File file : files) {
+            if (file.getName().endsWith(FILE_SUFFIX)) {
+                snapshots.add(file);
+            }
+        }
+        if (snapshots.size() <= maxCount) {
+            return;
+        }
+        final Map<File, Long> lastUse = new HashMap<>();
+        for (final File snapshot : snapshots) {
+            lastUse.put(snapshot, snapshot.lastModified());
+        }
+        Collections.sort(snapshots, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return Long.compare(lastUse.get(o1), lastUse.get(o2));
+            }
+        });
+        for (final File snapshot : snapshots.subList(0, snapshots.size() - maxCount)) {
+            Files.deleteIfExists(snapshot.toPath());
+        }
+    }
+
+    private static String toFileName(final String ticketKey) {
+        //ticket keys are normally safe to use as file names, everything else is replaced
+        //  (the full key is stored in the file, so that collisions are detected)
+        return ticketKey.replaceAll("[^A-Za-z0-9_\\-]", "_") + FILE_SUFFIX;
+    }
+
+    /**
+     * Returns the key for the diff between the given files, or null if it must not be stored
+     * (i.e. for local changes).
+     */
+    private static String createKey(final IRevisionedFile oldFile, final IRevisionedFile newFile) {
+        final Long oldRevision = getRevisionNumber(oldFile.getRevision());
+        final Long newRevision = getRevisionNumber(newFile.getRevision());
+        if (oldRevision == null || newRevision == null) {
+            return null;
+        }
+        return createKey(newFile.getRepository().getId(),
+                oldFile.getPath(), oldRevision, newFile.getPath(), newRevision);
+    }
+
+    private static String createKey(final String repositoryId, final String oldPath, final long oldRevision,
+            final String newPath, final long newRevision) {
+        return repositoryId + '\n' + oldPath + '@' + oldRevision + '\n' + newPath + '@' + newRevision;
+    }
+
+    /**
+     * Returns the revision number for repository revisions, -1 for unknown revisions
+     * and null for local revisions.
+     */
+    private static Long getRevisionNumber(final IRevision revision) {
+        return revision.accept(new IRevisionVisitor<Long>() {
+
+            @Override
+            public Long handleLocalRevision(final ILocalRevision revision) {
+                return null;
+            }
+
+            @Override
+            public Long handleRepoRevision(final IRepoRevision revision) {
+                return (Long) revision.getId();
+            }
+
+            @Override
+            public Long handleUnknownRevision(final IUnknownRevision revision) {
+                return UNKNOWN_REVISION_NUMBER;
+            }
+
+        });
+    }
+
+}
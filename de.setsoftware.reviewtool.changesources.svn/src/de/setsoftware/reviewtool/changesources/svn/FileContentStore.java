@@ -0,0 +1,219 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+
+/**
+ * A persistent, size-bounded store for file contents on local disk.
+ * Contents are stored content-addressed, i.e. identical contents of different paths or revisions
+ * are only stored once. The mapping from (repository, path, revision) to the content is stored in separate,
+ * small key files.
+ * When the total size of the stored contents exceeds the configured limit, the least recently used contents
+ * are removed.
+ */
+final class FileContentStore {
+
+    private static final String KEYS_DIR = "keys";
+    private static final String BLOBS_DIR = "blobs";
+
+    private final File keysDir;
+    private final File blobsDir;
+    private long maxSize;
+    private long currentSize = -1;
+
+    /**
+     * Constructor.
+     * @param baseDir The directory to store the data in. Is created if it does not exist.
+     * @param maxSize The maximal total size of the stored contents in bytes.
+     */
+    public FileContentStore(final File baseDir, final long maxSize) {
+        this.keysDir = new File(baseDir, KEYS_DIR);
+        this.blobsDir = new File(baseDir, BLOBS_DIR);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Changes the maximal total size of the stored contents.
+     */
+    public synchronized void setMaxSize(final long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the stored contents for the given file, or {@code null} if it is not contained in the store.
+     * @param repositoryId The unique ID (UUID) of the repository.
+     * @param path The file path.
+     * @param revision The file revision.
+     */
+    public synchronized byte[] get(final String repositoryId, final String path, final long revision)
+        throws IOException {
+
+        final File keyFile = this.getKeyFile(repositoryId, path, revision);
+        if (!keyFile.exists()) {
+            return null;
+        }
+        final String contentHash = new String(Files.readAllBytes(keyFile.toPath()), StandardCharsets.US_ASCII);
+        final File blobFile = this.getBlobFile(contentHash);
+        if (!blobFile.exists()) {
+            //the content has been evicted in the meantime
+            Files.deleteIfExists(keyFile.toPath());
+            return null;
+        }
+        final byte[] contents = Files.readAllBytes(blobFile.toPath());
+        final long now = System.currentTimeMillis();
+        keyFile.setLastModified(now);
+        blobFile.setLastModified(now);
+        return contents;
+    }
+
+    /**
+     * Stores the contents for the given file. Identical contents are only stored once.
+     * @param repositoryId The unique ID (UUID) of the repository.
+     * @param path The file path.
+     * @param revision The file revision.
+     * @param contents The file contents.
+     */
+    public synchronized void put(final String repositoryId, final String path, final long revision,
+            final byte[] contents) throws IOException {
+
+        this.determineCurrentSizeIfNeeded();
+
+        final String contentHash = toHex(hash(contents));
+        final File blobFile = this.getBlobFile(contentHash);
+        if (blobFile.exists()) {
+            blobFile.setLastModified(System.currentTimeMillis());
+        } else {
+            writeAtomically(blobFile, contents);
+            this.currentSize += contents.length;
+        }
+        writeAtomically(
+                this.getKeyFile(repositoryId, path, revision),
+                contentHash.getBytes(StandardCharsets.US_ASCII));
+
+        if (this.currentSize > this.maxSize) {
+            this.evictLeastRecentlyUsed();
+        }
+    }
+
+    private void determineCurrentSizeIfNeeded() {
+        if (this.currentSize >= 0) {
+            return;
+        }
+        long size = 0;
+        for (final File blob : this.listBlobs()) {
+            size += blob.length();
+        }
+        this.currentSize = size;
+    }
+
+    /**
+     * Removes the least recently used contents until the total size is at most 90% of the maximal size.
+     * Key files that have not been used since the oldest remaining content are removed, too.
+     */
+    private void evictLeastRecentlyUsed() throws IOException {
+        final List<File> blobs = this.listBlobs();
+        final List<Long> lastUse = new ArrayList<>();
+        for (final File blob : blobs) {
+            lastUse.add(blob.lastModified());
+        }
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < blobs.size(); i++) {
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(lastUse.get(o1), lastUse.get(o2));
+            }
+        });
+
+        final long targetSize = this.maxSize / 10 * 9;
+        long cutoff = Long.MIN_VALUE;
+        for (final Integer index : order) {
+            if (this.currentSize <= targetSize) {
+                break;
+            }
+            final File blob = blobs.get(index);
+            final long length = blob.length();
+            Files.deleteIfExists(blob.toPath());
+            this.currentSize -= length;
+            cutoff = lastUse.get(index);
+        }
+
+        final File[] keyFiles = this.keysDir.listFiles();
+        if (keyFiles != null) {
+            for (final File keyFile : keyFiles) {
+                if (keyFile.lastModified() <= cutoff) {
+                    Files.deleteIfExists(keyFile.toPath());
+                }
+            }
+        }
+    }
+
+    private List<File> listBlobs() {
+        final List<File> ret = new ArrayList<>();
+        final File[] prefixDirs = this.blobsDir.listFiles();
+        if (prefixDirs == null) {
+            return ret;
+        }
+        for (final File prefixDir : prefixDirs) {
+            final File[] blobs = prefixDir.listFiles();
+            if (blobs != null) {
+                Collections.addAll(ret, blobs);
+            }
+        }
+        return ret;
+    }
+
+    private File getKeyFile(final String repositoryId, final String path, final long revision) {
+        final String key = repositoryId + '\n' + path + '@' + revision;
+        return new File(this.keysDir, toHex(hash(key.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private File getBlobFile(final String contentHash) {
+        return new File(new File(this.blobsDir, contentHash.substring(0, 2)), contentHash);
+    }
+
+    private static void writeAtomically(final File target, final byte[] data) throws IOException {
+        final File dir = target.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("could not create directory " + dir);
+        }
+        final File tempFile = File.createTempFile(target.getName(), ".tmp", dir);
+        try {
+            Files.write(tempFile.toPath(), data);
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static byte[] hash(final byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(data);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder ret = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            ret.append(Character.forDigit((b >> 4) & 0xF, 16));
+            ret.append(Character.forDigit(b & 0xF, 16));
+        }
+        return ret.toString();
+    }
+
+}
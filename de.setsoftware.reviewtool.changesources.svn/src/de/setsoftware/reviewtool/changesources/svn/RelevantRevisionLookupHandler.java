@@ -24,16 +24,33 @@ import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
  * These revisions have to be considered for a consistent history as otherwise consolidation of diffs is
  * inaccurate. Revisions that are retrofitted are marked as "invisible" in order to be able to differentiate between
  * "proper" and "technically necessary" revisions.
+ * <p/>
+ * When the revisions up to a certain revision have already been handled in an earlier lookup, the handler
+ * can be restricted to the newer revisions. This is used to incrementally extend an existing history graph.
  */
 class RelevantRevisionLookupHandler implements CachedLogLookupHandler {
 
     private final Pattern pattern;
     private final List<SvnRevision> potentiallyRelevantEntries = new ArrayList<>();
     private final List<SvnRevision> entriesSinceLastMatching = new ArrayList<>();
+    private final Map<SvnRepo, Long> alreadyHandledRevisions;
+    private final Map<SvnRepo, Long> newestHandledRevisions;
     private SvnRepo currentRoot;
 
     public RelevantRevisionLookupHandler(Pattern patternForKey) {
+        this(patternForKey, Collections.<SvnRepo, Long>emptyMap());
+    }
+
+    /**
+     * Constructor.
+     * @param patternForKey The pattern the log messages of relevant entries have to match.
+     * @param alreadyHandledRevisions For every repository, the newest revision that has been handled in an
+     *      earlier lookup for the same pattern. Only newer entries are considered in these repositories.
+     */
+    public RelevantRevisionLookupHandler(Pattern patternForKey, Map<SvnRepo, Long> alreadyHandledRevisions) {
         this.pattern = patternForKey;
+        this.alreadyHandledRevisions = alreadyHandledRevisions;
+        this.newestHandledRevisions = new LinkedHashMap<>(alreadyHandledRevisions);
     }
 
     @Override
@@ -44,16 +61,50 @@ class RelevantRevisionLookupHandler implements CachedLogLookupHandler {
 
     @Override
     public void handleLogEntry(CachedLogEntry logEntry) throws SVNException {
-        if (logEntry.getMessage() != null && this.pattern.matcher(logEntry.getMessage()).matches()) {
+        this.handleLogEntry(logEntry, true);
+    }
+
+    @Override
+    public void handleLogEntry(CachedLogEntry logEntry, boolean isCandidate) throws SVNException {
+        final Long alreadyHandled = this.alreadyHandledRevisions.get(this.currentRoot);
+        if (alreadyHandled != null && logEntry.getRevision() <= alreadyHandled) {
+            //there is a matching entry among the already handled ones, so the new entries in between are relevant, too
+            this.addPotentiallyRelevantEntries(this.entriesSinceLastMatching);
+            this.entriesSinceLastMatching.clear();
+            return;
+        }
+        if (isCandidate
+                && logEntry.getMessage() != null
+                && this.pattern.matcher(logEntry.getMessage()).matches()) {
             assert this.currentRoot != null;
-            this.potentiallyRelevantEntries.add(new SvnRevision(this.currentRoot, logEntry, true));
-            this.potentiallyRelevantEntries.addAll(this.entriesSinceLastMatching);
+            this.addPotentiallyRelevantEntries(
+                    Collections.singletonList(new SvnRevision(this.currentRoot, logEntry, true)));
+            this.addPotentiallyRelevantEntries(this.entriesSinceLastMatching);
             this.entriesSinceLastMatching.clear();
         } else {
             this.entriesSinceLastMatching.add(new SvnRevision(this.currentRoot, logEntry, false));
         }
     }
 
+    private void addPotentiallyRelevantEntries(List<SvnRevision> entries) {
+        for (final SvnRevision entry : entries) {
+            this.potentiallyRelevantEntries.add(entry);
+            final Long newestSoFar = this.newestHandledRevisions.get(entry.getRepository());
+            if (newestSoFar == null || entry.getRevisionNumber() > newestSoFar) {
+                this.newestHandledRevisions.put(entry.getRepository(), entry.getRevisionNumber());
+            }
+        }
+    }
+
+    /**
+     * Returns, for every repository, the newest revision that has been handled up to now. Newer revisions
+     * have either not been seen or could not be relevant (yet) because there was no matching entry before them.
+     * This map can be passed to a later lookup to only consider entries that are new since this lookup.
+     */
+    public Map<SvnRepo, Long> getNewestHandledRevisions() {
+        return Collections.unmodifiableMap(this.newestHandledRevisions);
+    }
+
     /**
      * Returns all revisions that matched the given pattern and all revisions in between that touched
      * files changed in a matching revision.
@@ -2,6 +2,7 @@ package de.setsoftware.reviewtool.changesources.svn;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -9,6 +10,7 @@ import de.setsoftware.reviewtool.model.api.IChangeData;
 import de.setsoftware.reviewtool.model.api.IChangeSource;
 import de.setsoftware.reviewtool.model.api.ICommit;
 import de.setsoftware.reviewtool.model.api.IFileHistoryGraph;
+import de.setsoftware.reviewtool.model.api.IMutableFileHistoryGraph;
 import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 
 /**
@@ -19,17 +21,33 @@ public class SvnChangeData implements IChangeData {
     private final IChangeSource source;
     private final List<ICommit> commits;
     private final Map<File, IRevisionedFile> localPathMap;
-    private final IFileHistoryGraph fileHistoryGraph;
+    private final IMutableFileHistoryGraph fileHistoryGraph;
+    private final Map<SvnRepo, Long> newestHandledRevisions;
 
     public SvnChangeData(
             final IChangeSource source,
             final List<? extends ICommit> commits,
             final Map<File, IRevisionedFile> localPathMap,
-            final IFileHistoryGraph fileHistoryGraph) {
+            final IMutableFileHistoryGraph fileHistoryGraph) {
+        this(source, commits, localPathMap, fileHistoryGraph, Collections.<SvnRepo, Long>emptyMap());
+    }
+
+    /**
+     * Constructor.
+     * @param newestHandledRevisions For every repository, the newest revision that has been considered when
+     *      determining the commits. Needed to extend the data incrementally when new commits arrive.
+     */
+    public SvnChangeData(
+            final IChangeSource source,
+            final List<? extends ICommit> commits,
+            final Map<File, IRevisionedFile> localPathMap,
+            final IMutableFileHistoryGraph fileHistoryGraph,
+            final Map<SvnRepo, Long> newestHandledRevisions) {
         this.source = source;
         this.commits = new ArrayList<>(commits);
         this.localPathMap = localPathMap;
         this.fileHistoryGraph = fileHistoryGraph;
+        this.newestHandledRevisions = newestHandledRevisions;
     }
 
     @Override
@@ -48,6 +66,13 @@ public class SvnChangeData implements IChangeData {
         return ret;
     }
 
+    /**
+     * Returns all commits, including the invisible ones.
+     */
+    List<ICommit> getAllCommits() {
+        return Collections.unmodifiableList(this.commits);
+    }
+
     @Override
     public Map<File, IRevisionedFile> getLocalPathMap() {
         return this.localPathMap;
@@ -58,4 +83,12 @@ public class SvnChangeData implements IChangeData {
         return this.fileHistoryGraph;
     }
 
+    IMutableFileHistoryGraph getMutableHistoryGraph() {
+        return this.fileHistoryGraph;
+    }
+
+    Map<SvnRepo, Long> getNewestHandledRevisions() {
+        return this.newestHandledRevisions;
+    }
+
 }
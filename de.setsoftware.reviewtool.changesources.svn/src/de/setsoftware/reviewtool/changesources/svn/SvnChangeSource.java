@@ -16,10 +16,16 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
 import org.tmatesoft.svn.core.SVNDepth;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.internal.wc.DefaultSVNAuthenticationManager;
@@ -52,6 +58,7 @@ import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 import de.setsoftware.reviewtool.model.api.IncompatibleFragmentException;
 import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
 import de.setsoftware.reviewtool.model.changestructure.Hunk;
+import de.setsoftware.reviewtool.model.changestructure.LazyCommit;
 
 /**
  * A simple change source that loads the changes from subversion.
@@ -59,11 +66,17 @@ import de.setsoftware.reviewtool.model.changestructure.Hunk;
 public class SvnChangeSource implements IChangeSource {
 
     private static final String KEY_PLACEHOLDER = "${key}";
+    private static final int PREFETCH_THREAD_COUNT = 8;
 
     private final Set<File> workingCopyRoots;
     private final String logMessagePattern;
+    private final boolean keyIndexUsable;
     private final SVNClientManager mgr = SVNClientManager.newInstance();
     private final long maxTextDiffThreshold;
+    private final long maxLargeTextDiffThreshold;
+    private final boolean parallelAnalysis;
+    private final boolean lazyDiffing;
+    private ChangeDataSnapshot lastSnapshot;
 
     public SvnChangeSource(
             List<File> projectRoots,
@@ -71,17 +84,45 @@ public class SvnChangeSource implements IChangeSource {
             String user,
             String pwd,
             long maxTextDiffThreshold,
+            long maxLargeTextDiffThreshold,
             int logCacheMinSize,
-            int logCacheMaxSize) {
-        this.mgr.setAuthenticationManager(new DefaultSVNAuthenticationManager(
-                null, false, user, pwd.toCharArray(), null, null));
+            long fileCacheMaxMemorySize,
+            long fileCacheMaxDiskSize,
+            boolean parallelAnalysis,
+            boolean lazyDiffing,
+            long logSyncIntervalMillis) {
+        this.mgr.setAuthenticationManager(createAuthenticationManager(user, pwd));
         this.workingCopyRoots = this.determineWorkingCopyRoots(projectRoots);
 
         this.logMessagePattern = logMessagePattern;
         //check that the pattern can be parsed
         this.createPatternForKey("TEST-123");
+        this.keyIndexUsable = TicketKeys.isKeyRequiredBy(logMessagePattern, KEY_PLACEHOLDER);
         this.maxTextDiffThreshold = maxTextDiffThreshold;
-        CachedLog.getInstance().setSizeLimits(logCacheMinSize, logCacheMaxSize);
+        this.maxLargeTextDiffThreshold = Math.max(maxTextDiffThreshold, maxLargeTextDiffThreshold);
+        this.parallelAnalysis = parallelAnalysis;
+        this.lazyDiffing = lazyDiffing;
+        CachedLog.getInstance().setMinSize(logCacheMinSize);
+        SvnFileCache.setSizeLimits(fileCacheMaxMemorySize, fileCacheMaxDiskSize);
+
+        //file contents are loaded concurrently and after this change source has been replaced,
+        //  so they use a manager that is owned by the log cache
+        final SVNClientManager fileManager = SVNClientManager.newInstance();
+        fileManager.setAuthenticationManager(createAuthenticationManager(user, pwd));
+        CachedLog.getInstance().setFileClientManager(fileManager);
+
+        //the background synchronization runs concurrently to the other operations, so it needs its own managers
+        final Map<File, SVNClientManager> syncManagers = new LinkedHashMap<>();
+        for (final File workingCopyRoot : this.workingCopyRoots) {
+            final SVNClientManager syncManager = SVNClientManager.newInstance();
+            syncManager.setAuthenticationManager(createAuthenticationManager(user, pwd));
+            syncManagers.put(workingCopyRoot, syncManager);
+        }
+        CachedLog.getInstance().startBackgroundSync(syncManagers, logSyncIntervalMillis);
+    }
+
+    private static DefaultSVNAuthenticationManager createAuthenticationManager(String user, String pwd) {
+        return new DefaultSVNAuthenticationManager(null, false, user, pwd.toCharArray(), null, null);
     }
 
     private Set<File> determineWorkingCopyRoots(List<File> projectRoots) {
@@ -143,22 +184,75 @@ public class SvnChangeSource implements IChangeSource {
         try {
             final IMutableFileHistoryGraph historyGraph = new SvnFileHistoryGraph();
             ui.subTask("Determining relevant commits...");
-            final List<ISvnRevision> revisions = this.determineRelevantRevisions(key, historyGraph, ui);
+            final RelevantRevisionLookupHandler handler =
+                    this.traverseLog(key, Collections.<SvnRepo, Long>emptyMap(), ui);
+            final List<ISvnRevision> revisions = handler.determineRelevantRevisions(historyGraph, ui);
             final Map<SvnRepo, Long> neededRevisionPerRepo = this.determineMaxRevisionPerRepo(revisions);
             ui.subTask("Checking state of working copy...");
             this.checkWorkingCopiesUpToDate(neededRevisionPerRepo, ui);
             ui.subTask("Analyzing commits...");
-            final List<ICommit> commits = this.convertToChanges(historyGraph, revisions, ui);
+            final ChangeDataSnapshot snapshot = this.loadSnapshot(key);
+            final List<ICommit> commits = this.convertToChanges(historyGraph, revisions, snapshot, ui);
+            saveSnapshot(snapshot, commits);
             return new SvnChangeData(
                     this,
                     commits,
                     Collections.<File, IRevisionedFile> emptyMap(),
-                    historyGraph);
+                    historyGraph,
+                    handler.getNewestHandledRevisions());
         } catch (final SVNException e) {
             throw new ReviewtoolException(e);
         }
     }
 
+    @Override
+    public IChangeData getNewRepositoryChanges(IChangeData previousChanges, String key, IChangeSourceUi ui) {
+        final SvnChangeData previous = (SvnChangeData) previousChanges;
+        try {
+            //the revisions are newer than all revisions in the graph, so they can simply be appended to it
+            final IMutableFileHistoryGraph historyGraph = previous.getMutableHistoryGraph();
+            ui.subTask("Determining new commits...");
+            final RelevantRevisionLookupHandler handler =
+                    this.traverseLog(key, previous.getNewestHandledRevisions(), ui);
+            final List<ISvnRevision> revisions = handler.determineRelevantRevisions(historyGraph, ui);
+            if (revisions.isEmpty()) {
+                return new SvnChangeData(
+                        this,
+                        previous.getAllCommits(),
+                        previous.getLocalPathMap(),
+                        historyGraph,
+                        handler.getNewestHandledRevisions());
+            }
+            final Map<SvnRepo, Long> neededRevisionPerRepo = this.determineMaxRevisionPerRepo(revisions);
+            ui.subTask("Checking state of working copy...");
+            this.checkWorkingCopiesUpToDate(neededRevisionPerRepo, ui);
+            ui.subTask("Analyzing new commits...");
+            final ChangeDataSnapshot snapshot = this.loadSnapshot(key);
+            final List<ICommit> commits = new ArrayList<>(previous.getAllCommits());
+            commits.addAll(this.convertToChanges(historyGraph, revisions, snapshot, ui));
+            saveSnapshot(snapshot, commits);
+            return new SvnChangeData(
+                    this,
+                    commits,
+                    previous.getLocalPathMap(),
+                    historyGraph,
+                    handler.getNewestHandledRevisions());
+        } catch (final SVNException e) {
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    /**
+     * Saves the snapshot with the revisions of all commits for the ticket, so that their diffs are kept.
+     */
+    private static void saveSnapshot(final ChangeDataSnapshot snapshot, final List<ICommit> commits) {
+        final List<IRevision> matchedRevisions = new ArrayList<>();
+        for (final ICommit commit : commits) {
+            matchedRevisions.add(commit.getRevision());
+        }
+        snapshot.save(matchedRevisions);
+    }
+
     @Override
     public IChangeData getLocalChanges(
             final IChangeData remoteChanges,
@@ -170,7 +264,8 @@ public class SvnChangeSource implements IChangeSource {
             final List<WorkingCopyRevision> revisions =
                     this.collectWorkingCopyChanges(relevantPaths, historyGraph, ui);
             ui.subTask("Analyzing local changes...");
-            final List<ICommit> commits = this.convertToChanges(historyGraph, revisions, ui);
+            final List<ICommit> commits = this.convertToChanges(
+                    historyGraph, revisions, ChangeDataSnapshot.createTemporary(), ui);
             final Map<File, IRevisionedFile> localPathMap = this.extractLocalPaths(revisions);
             return new SvnChangeData(this, commits, localPathMap, historyGraph);
         } catch (final SVNException e) {
@@ -178,6 +273,31 @@ public class SvnChangeSource implements IChangeSource {
         }
     }
 
+    @Override
+    public synchronized void saveCaches() {
+        if (this.lastSnapshot != null) {
+            this.lastSnapshot.saveIfModified();
+        }
+    }
+
+    /**
+     * Loads the snapshot of an earlier analysis of the given ticket. Before, the snapshot of the previous
+     * analysis is saved again if diffs have been added to it later (when diffing lazily).
+     */
+    private synchronized ChangeDataSnapshot loadSnapshot(final String key) {
+        if (this.lastSnapshot != null) {
+            this.lastSnapshot.saveIfModified();
+        }
+        final Bundle bundle = FrameworkUtil.getBundle(SvnChangeSource.class);
+        this.lastSnapshot = ChangeDataSnapshot.load(
+                Platform.getStateLocation(bundle).append("snapshots").toFile(),
+                key,
+                //the snapshot can only be reused if the diffs would be the same
+                DiffAlgorithmFactory.getDefaultType() + ";" + this.maxTextDiffThreshold
+                    + ";" + this.maxLargeTextDiffThreshold);
+        return this.lastSnapshot;
+    }
+
     /**
      * Checks whether the working copy should be updated in order to incorporate remote changes.
      * @param revisions The list of revisions.
@@ -353,37 +473,225 @@ public class SvnChangeSource implements IChangeSource {
         return ret;
     }
 
-    private List<ISvnRevision> determineRelevantRevisions(
+    /**
+     * Traverses the log entries of all working copies and collects the potentially relevant ones.
+     * @param alreadyHandledRevisions For every repository, the newest revision that has been handled in an
+     *      earlier traversal. Only newer entries are collected for these repositories.
+     */
+    private RelevantRevisionLookupHandler traverseLog(
             final String key,
-            final IMutableFileHistoryGraph historyGraph,
+            final Map<SvnRepo, Long> alreadyHandledRevisions,
             final IChangeSourceUi ui) throws SVNException {
-        final RelevantRevisionLookupHandler handler = new RelevantRevisionLookupHandler(this.createPatternForKey(key));
+        final RelevantRevisionLookupHandler handler =
+                new RelevantRevisionLookupHandler(this.createPatternForKey(key), alreadyHandledRevisions);
         for (final File workingCopyRoot : this.workingCopyRoots) {
             if (ui.isCanceled()) {
                 throw new OperationCanceledException();
             }
-            CachedLog.getInstance().traverseRecentEntries(this.mgr, workingCopyRoot, handler, ui);
+            if (this.keyIndexUsable) {
+                CachedLog.getInstance().traverseRecentEntries(
+                        this.mgr, workingCopyRoot, key, alreadyHandledRevisions, handler, ui);
+            } else {
+                //the pattern can match messages without the key, so the key index cannot be used
+                CachedLog.getInstance().traverseRecentEntries(
+                        this.mgr, workingCopyRoot, alreadyHandledRevisions, handler, ui);
+            }
         }
-        return handler.determineRelevantRevisions(historyGraph, ui);
+        return handler;
     }
 
+    /**
+     * Determines the changes for the given revisions.
+     * @param snapshot The snapshot with the diffs of an earlier analysis. Diffs that are contained in it are
+     *      not determined again, and new diffs are added to it.
+     */
     private List<ICommit> convertToChanges(
             final IMutableFileHistoryGraph historyGraph,
             final List<? extends ISvnRevision> revisions,
+            final ChangeDataSnapshot snapshot,
             final IProgressMonitor ui) {
+        if (this.lazyDiffing) {
+            return this.convertToLazyChanges(historyGraph, revisions, snapshot, ui);
+        }
+        //all needed (path, revision) combinations are known from the history graph, so they can be loaded
+        //  concurrently while the analysis works on the first ones
+        final SvnFilePrefetcher prefetcher = new SvnFilePrefetcher(PREFETCH_THREAD_COUNT);
+        try {
+            prefetcher.prefetch(historyGraph, revisions, snapshot);
+            if (this.parallelAnalysis) {
+                return this.convertToChangesInParallel(historyGraph, revisions, snapshot, ui);
+            }
+            final List<ICommit> ret = new ArrayList<>();
+            for (final ISvnRevision e : revisions) {
+                if (ui.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                this.convertToCommitIfPossible(
+                        e, this.determineChangesInCommit(historyGraph, e, snapshot, ui), ret);
+            }
+            return ret;
+        } finally {
+            prefetcher.stop();
+        }
+    }
+
+    /**
+     * The changes in a single file, determined when they are needed for the first time. This can be because
+     * the changes of the commit are needed or because the diff of one of the file's ancestor edges is needed
+     * in the history graph.
+     */
+    private final class LazyFileChanges implements Runnable {
+
+        private final IMutableFileHistoryNode node;
+        private final boolean isVisible;
+        private final ChangeDataSnapshot snapshot;
+        private List<IChange> changes;
+        private boolean loading;
+
+        public LazyFileChanges(
+                final IMutableFileHistoryNode node, final boolean isVisible, final ChangeDataSnapshot snapshot) {
+            this.node = node;
+            this.isVisible = isVisible;
+            this.snapshot = snapshot;
+            for (final IMutableFileHistoryEdge ancestorEdge : node.getAncestors()) {
+                ancestorEdge.setDiffLoader(this);
+            }
+        }
+
+        /**
+         * Returns the changes in the file. They are determined and merged into the history graph on the first call.
+         */
+        public synchronized List<IChange> getChanges() {
+            if (this.changes == null && !this.loading) {
+                //merging accesses the diffs of the ancestor edges, which would call this method again
+                this.loading = true;
+                try {
+                    this.changes = SvnChangeSource.this.mergeIntoHistoryGraph(
+                            SvnChangeSource.this.determineChangesInFile(this.node, this.isVisible, this.snapshot));
+                } finally {
+                    this.loading = false;
+                }
+                for (final IMutableFileHistoryEdge ancestorEdge : this.node.getAncestors()) {
+                    ancestorEdge.setDiffLoader(null);
+                }
+            }
+            return this.changes;
+        }
+
+        @Override
+        public void run() {
+            this.getChanges();
+        }
+
+    }
+
+    /**
+     * Creates commits that only contain the changed files. The changes in a file are only determined when
+     * they are needed, either for the commit or for tracing in the history graph.
+     */
+    private List<ICommit> convertToLazyChanges(
+            final IMutableFileHistoryGraph historyGraph,
+            final List<? extends ISvnRevision> revisions,
+            final ChangeDataSnapshot snapshot,
+            final IProgressMonitor ui) {
+
         final List<ICommit> ret = new ArrayList<>();
         for (final ISvnRevision e : revisions) {
-            if (ui.isCanceled()) {
-                throw new OperationCanceledException();
+            final List<IRevisionedFile> changedFiles = new ArrayList<>();
+            final List<LazyFileChanges> changesPerFile = new ArrayList<>();
+            for (final IMutableFileHistoryNode node : this.determineChangedNodes(historyGraph, e, ui)) {
+                changedFiles.add(node.getFile());
+                changesPerFile.add(new LazyFileChanges(node, e.isVisible(), snapshot));
+            }
+            if (changesPerFile.isEmpty()) {
+                continue;
             }
-            this.convertToCommitIfPossible(historyGraph, e, ret, ui);
+            ret.add(ChangestructureFactory.createLazyCommit(
+                    e.toPrettyString(),
+                    changedFiles,
+                    e.isVisible(),
+                    this.revision(e),
+                    e.getDate(),
+                    new LazyCommit.IChangeLoader() {
+                        @Override
+                        public List<? extends IChange> loadChanges() {
+                            final List<IChange> changes = new ArrayList<>();
+                            for (final LazyFileChanges fileChanges : changesPerFile) {
+                                changes.addAll(fileChanges.getChanges());
+                            }
+                            return changes;
+                        }
+                    }));
         }
         return ret;
     }
 
-    private void convertToCommitIfPossible(final IMutableFileHistoryGraph historyGraph, final ISvnRevision e,
-            final Collection<? super ICommit> result, final IProgressMonitor ui) {
-        final List<? extends IChange> changes = this.determineChangesInCommit(historyGraph, e, ui);
+    /**
+     * Fork-join task that determines the changes in a single file.
+     */
+    private final class DetermineChangesInFileTask extends RecursiveTask<FileChanges> {
+
+        private static final long serialVersionUID = 2376421370942843215L;
+
+        private final IMutableFileHistoryNode node;
+        private final boolean isVisible;
+        private final ChangeDataSnapshot snapshot;
+
+        public DetermineChangesInFileTask(
+                final IMutableFileHistoryNode node, final boolean isVisible, final ChangeDataSnapshot snapshot) {
+            this.node = node;
+            this.isVisible = isVisible;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected FileChanges compute() {
+            return SvnChangeSource.this.determineChangesInFile(this.node, this.isVisible, this.snapshot);
+        }
+
+    }
+
+    /**
+     * Like the serial analysis, but the diffs for all files are determined concurrently. To get exactly the same
+     * results as the serial analysis, the results are combined and merged into the history graph in revision
+     * order afterwards.
+     */
+    private List<ICommit> convertToChangesInParallel(
+            final IMutableFileHistoryGraph historyGraph,
+            final List<? extends ISvnRevision> revisions,
+            final ChangeDataSnapshot snapshot,
+            final IProgressMonitor ui) {
+
+        final ForkJoinPool pool = new ForkJoinPool();
+        try {
+            final List<List<ForkJoinTask<FileChanges>>> tasksPerRevision = new ArrayList<>();
+            for (final ISvnRevision e : revisions) {
+                final List<ForkJoinTask<FileChanges>> tasks = new ArrayList<>();
+                for (final IMutableFileHistoryNode node : this.determineChangedNodes(historyGraph, e, ui)) {
+                    tasks.add(pool.submit(new DetermineChangesInFileTask(node, e.isVisible(), snapshot)));
+                }
+                tasksPerRevision.add(tasks);
+            }
+
+            final List<ICommit> ret = new ArrayList<>();
+            for (int i = 0; i < revisions.size(); i++) {
+                final List<IChange> changes = new ArrayList<>();
+                for (final ForkJoinTask<FileChanges> task : tasksPerRevision.get(i)) {
+                    if (ui.isCanceled()) {
+                        throw new OperationCanceledException();
+                    }
+                    changes.addAll(this.mergeIntoHistoryGraph(task.join()));
+                }
+                this.convertToCommitIfPossible(revisions.get(i), changes, ret);
+            }
+            return ret;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void convertToCommitIfPossible(final ISvnRevision e, final List<? extends IChange> changes,
+            final Collection<? super ICommit> result) {
         if (!changes.isEmpty()) {
             result.add(ChangestructureFactory.createCommit(
                     e.toPrettyString(),
@@ -427,9 +735,28 @@ public class SvnChangeSource implements IChangeSource {
     private List<? extends IChange> determineChangesInCommit(
             final IMutableFileHistoryGraph historyGraph,
             final ISvnRevision e,
+            final ChangeDataSnapshot snapshot,
             final IProgressMonitor ui) {
 
         final List<IChange> ret = new ArrayList<>();
+        for (final IMutableFileHistoryNode node : this.determineChangedNodes(historyGraph, e, ui)) {
+            if (ui.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            ret.addAll(this.mergeIntoHistoryGraph(this.determineChangesInFile(node, e.isVisible(), snapshot)));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the nodes of all files changed in the given revision that shall result in changes, sorted by path.
+     */
+    private List<IMutableFileHistoryNode> determineChangedNodes(
+            final IMutableFileHistoryGraph historyGraph,
+            final ISvnRevision e,
+            final IProgressMonitor ui) {
+
+        final List<IMutableFileHistoryNode> ret = new ArrayList<>();
         final Map<String, CachedLogEntryPath> changedPaths = e.getChangedPaths();
         final DirectoryCopyInfo dirCopies = new DirectoryCopyInfo(changedPaths.values());
         final Set<String> copySources = this.determineCopySources(changedPaths.values(), dirCopies);
@@ -452,7 +779,7 @@ public class SvnChangeSource implements IChangeSource {
             final IRevisionedFile fileInfo = ChangestructureFactory.createFileInRevision(path, this.revision(e));
             final IMutableFileHistoryNode node = historyGraph.getNodeFor(fileInfo);
             if (node != null) {
-                ret.addAll(this.determineChangesInFile(node, e.isVisible()));
+                ret.add(node);
             }
         }
         return ret;
@@ -489,58 +816,117 @@ public class SvnChangeSource implements IChangeSource {
         return result.get();
     }
 
-    private List<? extends IChange> determineChangesInFile(
-            final IMutableFileHistoryNode node,
-            final boolean isVisible) {
+    /**
+     * The changes in a single file. The hunks have been determined, but have not been merged into the
+     * diffs of the history graph's edges yet.
+     */
+    private static final class FileChanges {
+        private final List<IChange> changes = new ArrayList<>();
+        private final List<Pair<IMutableFileHistoryEdge, List<IHunk>>> hunksPerEdge = new ArrayList<>();
+    }
 
-        final byte[] newFileContent;
-        try {
-            newFileContent = node.getFile().getContents();
-        } catch (final Exception e) {
-            return Collections.emptyList(); // loading new file data failed
+    /**
+     * Merges the hunks of the given file changes into the corresponding edges of the history graph.
+     * @return The changes in the file.
+     */
+    private List<IChange> mergeIntoHistoryGraph(final FileChanges fileChanges) {
+        for (final Pair<IMutableFileHistoryEdge, List<IHunk>> edgeWithHunks : fileChanges.hunksPerEdge) {
+            final IMutableFileHistoryEdge ancestorEdge = edgeWithHunks.getFirst();
+            try {
+                ancestorEdge.setDiff(ancestorEdge.getDiff().merge(edgeWithHunks.getSecond()));
+            } catch (final IncompatibleFragmentException e) {
+                throw new ReviewtoolException(e);
+            }
         }
+        return fileChanges.changes;
+    }
+
+    /**
+     * Determines the changes in the given file. Does not modify the history graph and can therefore be called
+     * concurrently for different files.
+     * @param snapshot The snapshot with the diffs of an earlier analysis.
+     */
+    private FileChanges determineChangesInFile(
+            final IMutableFileHistoryNode node,
+            final boolean isVisible,
+            final ChangeDataSnapshot snapshot) {
+
+        final FileChanges result = new FileChanges();
+        final List<IChange> ret = result.changes;
+        //the new file's content is only loaded when a diff is not contained in the snapshot
+        byte[] newFileContent = null;
 
-        final List<IChange> ret = new ArrayList<>();
         for (final IMutableFileHistoryEdge ancestorEdge : node.getAncestors()) {
             final IFileHistoryNode ancestor = ancestorEdge.getAncestor();
 
-            final byte[] oldFileContent;
-            try {
-                oldFileContent = ancestor.getFile().getContents();
-            } catch (final Exception e) {
-                continue; // loading old file data failed
-            }
+            ChangeDataSnapshot.StoredDiff diff = snapshot.get(ancestor.getFile(), node.getFile());
+            if (diff == null) {
+                if (newFileContent == null) {
+                    try {
+                        newFileContent = node.getFile().getContents();
+                    } catch (final Exception e) {
+                        return new FileChanges(); // loading new file data failed
+                    }
+                }
 
-            if (this.contentLooksBinary(oldFileContent) || oldFileContent.length > this.maxTextDiffThreshold) {
-                ret.add(this.createBinaryChange(node, ancestor, isVisible));
-                continue;
+                final byte[] oldFileContent;
+                try {
+                    oldFileContent = ancestor.getFile().getContents();
+                } catch (final Exception e) {
+                    continue; // loading old file data failed
+                }
+
+                diff = this.determineDiff(ancestor.getFile(), oldFileContent, node.getFile(), newFileContent,
+                        snapshot);
             }
-            if (this.contentLooksBinary(newFileContent) || newFileContent.length > this.maxTextDiffThreshold) {
+
+            if (diff.isBinary()) {
                 ret.add(this.createBinaryChange(node, ancestor, isVisible));
                 continue;
             }
-
-            final IDiffAlgorithm diffAlgorithm = DiffAlgorithmFactory.createDefault();
-            final List<Pair<IFragment, IFragment>> changes = diffAlgorithm.determineDiff(
-                    ancestor.getFile(),
-                    oldFileContent,
-                    node.getFile(),
-                    newFileContent,
-                    this.guessEncoding(oldFileContent, newFileContent));
+            final List<Pair<IFragment, IFragment>> changes = diff.toFragments(ancestor.getFile(), node.getFile());
             final List<IHunk> hunks = new ArrayList<>();
             for (final Pair<IFragment, IFragment> pos : changes) {
                 ret.add(ChangestructureFactory.createTextualChangeHunk(
                         pos.getFirst(), pos.getSecond(), false, isVisible));
                 hunks.add(new Hunk(pos.getFirst(), pos.getSecond()));
             }
+            result.hunksPerEdge.add(Pair.<IMutableFileHistoryEdge, List<IHunk>>create(ancestorEdge, hunks));
+        }
+        return result;
+    }
 
-            try {
-                ancestorEdge.setDiff(ancestorEdge.getDiff().merge(hunks));
-            } catch (final IncompatibleFragmentException e) {
-                throw new ReviewtoolException(e);
-            }
+    /**
+     * Determines the diff between the given file contents and adds it to the snapshot.
+     */
+    private ChangeDataSnapshot.StoredDiff determineDiff(
+            final IRevisionedFile oldFile,
+            final byte[] oldFileContent,
+            final IRevisionedFile newFile,
+            final byte[] newFileContent,
+            final ChangeDataSnapshot snapshot) {
+
+        if (this.contentLooksBinary(oldFileContent) || oldFileContent.length > this.maxLargeTextDiffThreshold) {
+            return snapshot.putBinaryDiff(oldFile, newFile);
         }
-        return ret;
+        if (this.contentLooksBinary(newFileContent) || newFileContent.length > this.maxLargeTextDiffThreshold) {
+            return snapshot.putBinaryDiff(oldFile, newFile);
+        }
+
+        final IDiffAlgorithm diffAlgorithm;
+        if (oldFileContent.length > this.maxTextDiffThreshold
+                || newFileContent.length > this.maxTextDiffThreshold) {
+            diffAlgorithm = DiffAlgorithmFactory.createForLargeFiles();
+        } else {
+            diffAlgorithm = DiffAlgorithmFactory.createDefault();
+        }
+        final List<Pair<IFragment, IFragment>> changes = diffAlgorithm.determineDiff(
+                oldFile,
+                oldFileContent,
+                newFile,
+                newFileContent,
+                this.guessEncoding(oldFileContent, newFileContent));
+        return snapshot.putTextDiff(oldFile, newFile, changes);
     }
 
     private boolean contentLooksBinary(byte[] fileContent) {
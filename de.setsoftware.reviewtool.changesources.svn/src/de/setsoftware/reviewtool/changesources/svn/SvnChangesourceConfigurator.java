@@ -39,14 +39,26 @@ public class SvnChangesourceConfigurator implements IConfigurator {
         final String user = xml.getAttribute("user");
         final String pwd = xml.getAttribute("password");
         final String pattern = xml.getAttribute("pattern");
-        final String maxTextDiffThreshold = xml.getAttribute("maxTextDiffFileSizeThreshold");
+        final long maxTextDiffThreshold = Long.parseLong(xml.getAttribute("maxTextDiffFileSizeThreshold"));
+        final String maxLargeTextDiffThreshold = xml.getAttribute("maxLargeTextDiffFileSizeThreshold");
         final String minLogCacheSize = xml.getAttribute("minLogCacheSize");
-        final String maxLogCacheSize = xml.getAttribute("maxLogCacheSize");
+        final String maxFileCacheMemorySize = xml.getAttribute("maxFileCacheMemorySize");
+        final String maxFileCacheDiskSize = xml.getAttribute("maxFileCacheDiskSize");
+        final String parallelAnalysis = xml.getAttribute("parallelAnalysis");
+        final String lazyDiffing = xml.getAttribute("lazyDiffing");
+        final String logSyncInterval = xml.getAttribute("logSyncIntervalSeconds");
         configurable.setChangeSource(new SvnChangeSource(
                 projectDirs, pattern, user, pwd,
-                Long.parseLong(maxTextDiffThreshold),
+                maxTextDiffThreshold,
+                //without the attribute, large files are not diffed with the line based algorithm
+                maxLargeTextDiffThreshold.isEmpty()
+                    ? maxTextDiffThreshold : Long.parseLong(maxLargeTextDiffThreshold),
                 minLogCacheSize.isEmpty() ? 1000 : Integer.parseInt(minLogCacheSize),
-                maxLogCacheSize.isEmpty() ? 1000 : Integer.parseInt(maxLogCacheSize)));
+                maxFileCacheMemorySize.isEmpty() ? 64L * 1024 * 1024 : Long.parseLong(maxFileCacheMemorySize),
+                maxFileCacheDiskSize.isEmpty() ? 512L * 1024 * 1024 : Long.parseLong(maxFileCacheDiskSize),
+                Boolean.parseBoolean(parallelAnalysis),
+                Boolean.parseBoolean(lazyDiffing),
+                (logSyncInterval.isEmpty() ? 300L : Long.parseLong(logSyncInterval)) * 1000));
     }
 
 }
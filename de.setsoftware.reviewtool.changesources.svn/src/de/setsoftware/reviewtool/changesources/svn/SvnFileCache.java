@@ -1,19 +1,61 @@
 package de.setsoftware.reviewtool.changesources.svn;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
+import org.eclipse.core.runtime.Platform;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNNodeKind;
 import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.core.wc.SVNClientManager;
 
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+
 /**
  * Represents a cache for file contents for a single SVN repository.
+ * The cache has two tiers: A size-bounded in-memory tier that keeps the most recently used contents
+ * and a persistent {@link FileContentStore} in the bundle's state location that is shared by all repositories
+ * and survives restarts.
+ * The cache may be used by multiple threads concurrently. Concurrent requests for the same file result in
+ * only one request to the SVN server.
  */
 public class SvnFileCache {
 
+    private static final long DEFAULT_MAX_MEMORY_SIZE = 64L * 1024 * 1024;
+    private static final long DEFAULT_MAX_DISK_SIZE = 512L * 1024 * 1024;
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+
+    private static volatile long maxMemorySize = DEFAULT_MAX_MEMORY_SIZE;
+    private static long maxDiskSize = DEFAULT_MAX_DISK_SIZE;
+    private static FileContentStore persistentStore;
+
+    /**
+     * An idle session, together with the client manager it has been created with.
+     */
+    private static final class PooledRepository {
+        final SVNRepository repo;
+        final SVNClientManager createdBy;
+
+        PooledRepository(final SVNRepository repo, final SVNClientManager createdBy) {
+            this.repo = repo;
+            this.createdBy = createdBy;
+        }
+    }
+
     /**
      * Encapsulates a file whose contents are to be cached.
      */
@@ -47,19 +89,55 @@ public class SvnFileCache {
         }
     }
 
-    private final SVNClientManager mgr;
+    private volatile SVNClientManager mgr;
     private final SvnRepo repoUrl;
     private final Map<CachedFile, byte[]> fileContents;
+    private long fileContentsSize;
+    private final Map<CachedFile, FutureTask<byte[]>> pendingLoads;
+    private final Deque<PooledRepository> idleRepositories;
 
     /**
      * Constructor.
-     * @param mgr The {@link SVNClientManager} to use.
+     * @param mgr The {@link SVNClientManager} to create sessions with.
      * @param repoUrl The {@link SvnRepo}.
      */
     public SvnFileCache(final SVNClientManager mgr, final SvnRepo repoUrl) {
         this.mgr = mgr;
         this.repoUrl = repoUrl;
-        this.fileContents = new HashMap<>();
+        this.fileContents = new LinkedHashMap<>(16, 0.75f, true);
+        this.pendingLoads = new HashMap<>();
+        this.idleRepositories = new ArrayDeque<>();
+    }
+
+    /**
+     * Changes the {@link SVNClientManager} that new sessions are created with. The idle sessions of the
+     * previous manager are closed, the ones that are currently in use are closed when they are returned.
+     */
+    public void setClientManager(final SVNClientManager mgr) {
+        this.mgr = mgr;
+        this.closeIdleRepositories();
+    }
+
+    /**
+     * Changes the maximal sizes (in bytes) of the in-memory tier (per repository) and of the persistent tier
+     * (for all repositories).
+     */
+    public static synchronized void setSizeLimits(final long maxMemorySize, final long maxDiskSize) {
+        SvnFileCache.maxMemorySize = maxMemorySize;
+        SvnFileCache.maxDiskSize = maxDiskSize;
+        if (persistentStore != null) {
+            persistentStore.setMaxSize(maxDiskSize);
+        }
+    }
+
+    private static synchronized FileContentStore getPersistentStore() {
+        if (persistentStore == null) {
+            final Bundle bundle = FrameworkUtil.getBundle(SvnFileCache.class);
+            persistentStore = new FileContentStore(
+                    Platform.getStateLocation(bundle).append("filecache").toFile(),
+                    maxDiskSize);
+        }
+        return persistentStore;
     }
 
     /**
@@ -71,14 +149,109 @@ public class SvnFileCache {
      */
     public byte[] getFileContents(final String path, final long revision) throws SVNException {
         final CachedFile entry = new CachedFile(path, revision);
-        byte[] contents = this.fileContents.get(entry);
+        final FutureTask<byte[]> load;
+        final boolean loadInThisThread;
+        synchronized (this.fileContents) {
+            final byte[] contents = this.fileContents.get(entry);
+            if (contents != null) {
+                return contents;
+            }
+            final FutureTask<byte[]> pendingLoad = this.pendingLoads.get(entry);
+            if (pendingLoad != null) {
+                load = pendingLoad;
+                loadInThisThread = false;
+            } else {
+                load = new FutureTask<>(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws SVNException {
+                        return SvnFileCache.this.loadAndCache(entry);
+                    }
+                });
+                this.pendingLoads.put(entry, load);
+                loadInThisThread = true;
+            }
+        }
+
+        if (loadInThisThread) {
+            try {
+                load.run();
+            } finally {
+                synchronized (this.fileContents) {
+                    this.pendingLoads.remove(entry);
+                }
+            }
+        }
+        return this.waitFor(load);
+    }
+
+    private byte[] waitFor(final FutureTask<byte[]> load) throws SVNException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return load.get();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof SVNException) {
+                throw (SVNException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new ReviewtoolException(e);
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private byte[] loadAndCache(final CachedFile entry) throws SVNException {
+        byte[] contents = this.loadFileFromPersistentStore(entry.path, entry.revision);
         if (contents == null) {
-            contents = this.loadFile(this.repoUrl, path, revision);
-            this.fileContents.put(entry, contents);
+            contents = this.loadFile(this.repoUrl, entry.path, entry.revision);
+            this.storeFileInPersistentStore(entry.path, entry.revision, contents);
         }
+        this.putIntoMemory(entry, contents);
         return contents;
     }
 
+    private void putIntoMemory(final CachedFile entry, final byte[] contents) {
+        synchronized (this.fileContents) {
+            final byte[] old = this.fileContents.put(entry, contents);
+            if (old != null) {
+                this.fileContentsSize -= old.length;
+            }
+            this.fileContentsSize += contents.length;
+
+            final Iterator<byte[]> iter = this.fileContents.values().iterator();
+            while (this.fileContentsSize > maxMemorySize && iter.hasNext()) {
+                this.fileContentsSize -= iter.next().length;
+                iter.remove();
+            }
+        }
+    }
+
+    private byte[] loadFileFromPersistentStore(final String path, final long revision) {
+        try {
+            return getPersistentStore().get(this.repoUrl.getId(), path, revision);
+        } catch (final IOException e) {
+            Logger.warn("problem while reading from svn file cache", e);
+            return null;
+        }
+    }
+
+    private void storeFileInPersistentStore(final String path, final long revision, final byte[] contents) {
+        try {
+            getPersistentStore().put(this.repoUrl.getId(), path, revision, contents);
+        } catch (final IOException e) {
+            Logger.warn("problem while writing to svn file cache", e);
+        }
+    }
+
     /**
      * Loads the contents of some file in the repository.
      * @param repoUrl The {@link SvnRepo}.
@@ -88,12 +261,65 @@ public class SvnFileCache {
      * @throws SVNException if some error occurs.
      */
     private byte[] loadFile(final SvnRepo repoUrl, final String path, final long revision) throws SVNException {
-        final SVNRepository repo = this.mgr.getRepositoryPool().createRepository(repoUrl.getRemoteUrl(), true);
-        final ByteArrayOutputStream contents = new ByteArrayOutputStream();
-        if (repo.checkPath(path, revision) != SVNNodeKind.FILE) {
-            return new byte[0];
+        final SVNClientManager createdBy = this.mgr;
+        final SVNRepository repo = this.borrowRepository(repoUrl, createdBy);
+        boolean successful = false;
+        try {
+            final ByteArrayOutputStream contents = new ByteArrayOutputStream();
+            if (repo.checkPath(path, revision) != SVNNodeKind.FILE) {
+                successful = true;
+                return new byte[0];
+            }
+            repo.getFile(path, revision, null, contents);
+            successful = true;
+            return contents.toByteArray();
+        } finally {
+            //a session whose request failed or was interrupted can be in an undefined state, so it is not reused
+            if (successful && !Thread.currentThread().isInterrupted()) {
+                this.returnRepository(repo, createdBy);
+            } else {
+                repo.closeSession();
+            }
+        }
+    }
+
+    /**
+     * Returns a {@link SVNRepository} that is not in use by another thread.
+     * {@link SVNRepository} objects must not be used concurrently, therefore every thread loading files
+     * gets its own instance (and connection) from a small pool.
+     */
+    private SVNRepository borrowRepository(final SvnRepo repoUrl, final SVNClientManager currentMgr)
+        throws SVNException {
+        synchronized (this.idleRepositories) {
+            final PooledRepository idle = this.idleRepositories.poll();
+            if (idle != null) {
+                return idle.repo;
+            }
+        }
+        return currentMgr.getRepositoryPool().createRepository(repoUrl.getRemoteUrl(), false);
+    }
+
+    private void returnRepository(final SVNRepository repo, final SVNClientManager createdBy) {
+        synchronized (this.idleRepositories) {
+            if (createdBy == this.mgr && this.idleRepositories.size() < MAX_IDLE_CONNECTIONS) {
+                this.idleRepositories.push(new PooledRepository(repo, createdBy));
+                return;
+            }
+        }
+        repo.closeSession();
+    }
+
+    /**
+     * Closes the sessions that are currently not in use. Sessions that are in use are pooled again afterwards.
+     */
+    public void closeIdleRepositories() {
+        final List<PooledRepository> toClose;
+        synchronized (this.idleRepositories) {
+            toClose = new ArrayList<>(this.idleRepositories);
+            this.idleRepositories.clear();
+        }
+        for (final PooledRepository pooled : toClose) {
+            pooled.repo.closeSession();
         }
-        repo.getFile(path, revision, null, contents);
-        return contents.toByteArray();
     }
 }
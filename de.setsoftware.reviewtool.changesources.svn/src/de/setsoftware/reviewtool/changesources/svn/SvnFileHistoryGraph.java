@@ -1,22 +1,45 @@
 package de.setsoftware.reviewtool.changesources.svn;
 
 import java.util.Collections;
-import java.util.List;
 
 import de.setsoftware.reviewtool.model.api.ILocalRevision;
 import de.setsoftware.reviewtool.model.api.IRepoRevision;
 import de.setsoftware.reviewtool.model.api.IRevision;
 import de.setsoftware.reviewtool.model.api.IRevisionVisitor;
-import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 import de.setsoftware.reviewtool.model.api.IUnknownRevision;
 import de.setsoftware.reviewtool.model.changestructure.FileHistoryGraph;
-import de.setsoftware.reviewtool.model.changestructure.FileHistoryNode;
 
 /**
  *  A graph of files. Tracks renames, copies and deletion, so that the history of a file forms a tree.
  */
 final class SvnFileHistoryGraph extends FileHistoryGraph {
 
+    private static final Long LOCAL_REVISION_NUMBER = Long.MAX_VALUE;
+    private static final Long UNKNOWN_REVISION_NUMBER = -1L;
+
+    /**
+     * Determines the revision number. The visitor is stateless and the results for local and unknown revisions are
+     * constants, so no objects are allocated for a lookup.
+     */
+    private static final IRevisionVisitor<Long> REVISION_NUMBER_VISITOR = new IRevisionVisitor<Long>() {
+
+        @Override
+        public Long handleLocalRevision(final ILocalRevision revision) {
+            return LOCAL_REVISION_NUMBER;
+        }
+
+        @Override
+        public Long handleRepoRevision(final IRepoRevision revision) {
+            return (Long) revision.getId();
+        }
+
+        @Override
+        public Long handleUnknownRevision(final IUnknownRevision revision) {
+            return UNKNOWN_REVISION_NUMBER;
+        }
+
+    };
+
     /**
      * Adds the information that the file with the given path was added or changed at the commit of the given revision.
      */
@@ -49,50 +72,12 @@ final class SvnFileHistoryGraph extends FileHistoryGraph {
         this.addDeletion(path, revision, Collections.<IRevision>singleton(prevRevision));
     }
 
-    @Override
-    public FileHistoryNode findAncestorFor(final IRevisionedFile file) {
-        final List<FileHistoryNode> nodesForKey = this.lookupFile(file);
-        final long targetRevision = getRevision(file);
-        long nearestRevision = Long.MIN_VALUE;
-        FileHistoryNode nearestNode = null;
-        for (final FileHistoryNode node : nodesForKey) {
-            final long nodeRevision = getRevision(node.getFile());
-            if (nodeRevision < targetRevision && nodeRevision > nearestRevision) {
-                nearestNode = node;
-                nearestRevision = nodeRevision;
-            }
-        }
-        if (nearestNode != null) {
-            return nearestNode.isDeleted() ? null : nearestNode;
-        } else {
-            return null;
-        }
-    }
-
     /**
-     * Returns the underlying revision number.
-     *
-     * @param revision The revision.
-     * @return The revision number.
+     * Returns the underlying revision number. Local revisions are newer than all repository revisions,
+     * unknown revisions are older.
      */
-    private static long getRevision(final IRevisionedFile revision) {
-        return revision.getRevision().accept(new IRevisionVisitor<Long>() {
-
-            @Override
-            public Long handleLocalRevision(final ILocalRevision revision) {
-                return Long.MAX_VALUE;
-            }
-
-            @Override
-            public Long handleRepoRevision(final IRepoRevision revision) {
-                return (Long) revision.getId();
-            }
-
-            @Override
-            public Long handleUnknownRevision(final IUnknownRevision revision) {
-                return -1L;
-            }
-
-        });
+    @Override
+    protected long getRevisionNumber(final IRevision revision) {
+        return revision.accept(REVISION_NUMBER_VISITOR);
     }
 }
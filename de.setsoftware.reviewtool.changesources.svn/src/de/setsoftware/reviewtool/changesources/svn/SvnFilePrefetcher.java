@@ -0,0 +1,126 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.setsoftware.reviewtool.model.api.IFileHistoryEdge;
+import de.setsoftware.reviewtool.model.api.IFileHistoryGraph;
+import de.setsoftware.reviewtool.model.api.IFileHistoryNode;
+import de.setsoftware.reviewtool.model.api.IRepoRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Loads the contents of all files that are needed to analyze a list of revisions with a bounded number of
+ * worker threads in the background. The loaded contents end up in the {@link SvnFileCache} of the respective
+ * repository, so that the analysis can start with the first files while the others are still being loaded.
+ * Files are requested in the order of the revisions, so that the files needed first are also loaded first.
+ */
+final class SvnFilePrefetcher {
+
+    /**
+     * Creates daemon threads with a recognizable name.
+     */
+    private static final class PrefetchThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread t = new Thread(r, "CoRT SVN prefetch " + this.counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    private final ExecutorService executor;
+    private volatile boolean stopped;
+
+    /**
+     * Constructor.
+     * @param threadCount The maximal number of files loaded concurrently.
+     */
+    public SvnFilePrefetcher(final int threadCount) {
+        this.executor = Executors.newFixedThreadPool(threadCount, new PrefetchThreadFactory());
+    }
+
+    /**
+     * Starts loading the contents of all changed files in the given revisions and of their ancestors.
+     * Files are skipped when all diffs they are needed for are contained in the given snapshot.
+     * Returns immediately.
+     */
+    public void prefetch(final IFileHistoryGraph historyGraph, final List<? extends ISvnRevision> revisions,
+            final ChangeDataSnapshot snapshot) {
+        for (final IRevisionedFile file : this.determineNeededFiles(historyGraph, revisions, snapshot)) {
+            this.executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (SvnFilePrefetcher.this.stopped) {
+                        return;
+                    }
+                    try {
+                        file.getContents();
+                    } catch (final Exception e) {
+                        //the error will resurface (and be handled) when the file is needed for the analysis
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops all loading that has not been started yet. Loading that is already running is not interrupted,
+     * because an interrupted SVN session could not be reused.
+     */
+    public void stop() {
+        this.stopped = true;
+        this.executor.shutdown();
+    }
+
+    private Set<IRevisionedFile> determineNeededFiles(
+            final IFileHistoryGraph historyGraph,
+            final List<? extends ISvnRevision> revisions,
+            final ChangeDataSnapshot snapshot) {
+
+        final Set<IRevisionedFile> ret = new LinkedHashSet<>();
+        for (final ISvnRevision revision : revisions) {
+            final Map<String, CachedLogEntryPath> changedPaths = revision.getChangedPaths();
+            final List<String> sortedPaths = new ArrayList<>(changedPaths.keySet());
+            Collections.sort(sortedPaths);
+            for (final String path : sortedPaths) {
+                final CachedLogEntryPath value = changedPaths.get(path);
+                if (!value.isFile() || value.isDeleted()) {
+                    continue;
+                }
+                final IFileHistoryNode node = historyGraph.getNodeFor(
+                        ChangestructureFactory.createFileInRevision(path, revision.toRevision()));
+                if (node == null) {
+                    continue;
+                }
+                for (final IFileHistoryEdge ancestorEdge : node.getAncestors()) {
+                    final IRevisionedFile ancestorFile = ancestorEdge.getAncestor().getFile();
+                    if (snapshot.get(ancestorFile, node.getFile()) == null) {
+                        this.addIfInRepository(ret, node.getFile());
+                        this.addIfInRepository(ret, ancestorFile);
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
+    private void addIfInRepository(final Set<IRevisionedFile> files, final IRevisionedFile file) {
+        //local files are read directly and need no prefetching
+        if (file.getRevision() instanceof IRepoRevision) {
+            files.add(file);
+        }
+    }
+
+}
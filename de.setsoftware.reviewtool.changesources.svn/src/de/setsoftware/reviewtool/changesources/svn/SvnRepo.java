@@ -89,6 +89,14 @@ public class SvnRepo extends AbstractRepository {
         return this.fileCache.getFileContents(path, (Long) revision.getId());
     }
 
+    /**
+     * Changes the {@link SVNClientManager} that is used to load file contents. The connections of the previous
+     * manager that are currently not in use are closed.
+     */
+    public void setFileClientManager(final SVNClientManager mgr) {
+        this.fileCache.setClientManager(mgr);
+    }
+
     private File combineWcRootAndSuffix(final Path p, int prefixLength) {
         return new File(this.workingCopyRoot, p.subpath(prefixLength, p.getNameCount()).toString());
     }
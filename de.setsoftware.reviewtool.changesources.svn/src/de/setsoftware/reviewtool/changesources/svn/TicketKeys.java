@@ -0,0 +1,114 @@
+package de.setsoftware.reviewtool.changesources.svn;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes the numbers of ticket keys (like "123" in "PRJ-123") in commit messages. Used to build the key index
+ * of the log cache.
+ * <p/>
+ * The index only selects candidates, the configured log message pattern still has to be checked for them. Every
+ * message that contains a key somewhere (also inside a longer word) contains a number that starts with the key's
+ * number, so no message is missed as long as the log message pattern only matches messages that contain the key.
+ */
+final class TicketKeys {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9_]*-[0-9]+");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("-([0-9]+)");
+
+    private TicketKeys() {
+    }
+
+    /**
+     * Returns the numbers of all potential ticket keys in the given commit message, in order of their first
+     * occurrence. These are all sequences of digits directly after a "-".
+     */
+    public static Set<String> extractKeyNumbers(final String message) {
+        final Set<String> ret = new LinkedHashSet<>();
+        if (message == null) {
+            return ret;
+        }
+        final Matcher m = NUMBER_PATTERN.matcher(message);
+        while (m.find()) {
+            ret.add(m.group(1));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the number of the given key, i.e. the digits after the last "-".
+     * The key has to be indexable (see {@link #isIndexable(String)}).
+     */
+    public static String getKeyNumber(final String key) {
+        return key.substring(key.lastIndexOf('-') + 1);
+    }
+
+    /**
+     * Returns true iff the given key has the form of the keys that can be looked up in the key index.
+     */
+    public static boolean isIndexable(final String key) {
+        return KEY_PATTERN.matcher(key).matches();
+    }
+
+    /**
+     * Returns true iff it is certain that every message that matches the given log message pattern for some key
+     * contains that key. Only then, the key index can be used to select the candidates for the pattern.
+     * The check is conservative: The key placeholder must occur exactly once, not inside a group or a character
+     * class, not followed by a quantifier, and the pattern must not contain alternatives or quoted sections.
+     */
+    public static boolean isKeyRequiredBy(final String logMessagePattern, final String keyPlaceholder) {
+        final int placeholderIndex = logMessagePattern.indexOf(keyPlaceholder);
+        if (placeholderIndex < 0
+                || logMessagePattern.indexOf(keyPlaceholder, placeholderIndex + 1) >= 0
+                || logMessagePattern.contains("\\Q")) {
+            return false;
+        }
+        final String prefix = logMessagePattern.substring(0, placeholderIndex);
+        final String suffix = logMessagePattern.substring(placeholderIndex + keyPlaceholder.length());
+        if (!suffix.isEmpty() && "?*+{".indexOf(suffix.charAt(0)) >= 0) {
+            return false;
+        }
+        return hasNoAlternatives(prefix) && hasNoAlternatives(suffix) && isOutsideOfGroups(prefix);
+    }
+
+    private static boolean hasNoAlternatives(final String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            final char ch = regex.charAt(i);
+            if (ch == '\\') {
+                i++;
+            } else if (ch == '|') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true iff all groups and character classes that are opened in the given beginning of a regex
+     * are closed again.
+     */
+    private static boolean isOutsideOfGroups(final String regexStart) {
+        int openGroups = 0;
+        boolean inCharacterClass = false;
+        for (int i = 0; i < regexStart.length(); i++) {
+            final char ch = regexStart.charAt(i);
+            if (ch == '\\') {
+                i++;
+            } else if (inCharacterClass) {
+                if (ch == ']') {
+                    inCharacterClass = false;
+                }
+            } else if (ch == '[') {
+                inCharacterClass = true;
+            } else if (ch == '(') {
+                openGroups++;
+            } else if (ch == ')') {
+                openGroups--;
+            }
+        }
+        return openGroups == 0 && !inCharacterClass;
+    }
+
+}
@@ -19,6 +19,7 @@ import de.setsoftware.reviewtool.base.ReviewtoolException;
 import de.setsoftware.reviewtool.model.EndTransition;
 import de.setsoftware.reviewtool.model.IReviewPersistence;
 import de.setsoftware.reviewtool.model.ITicketData;
+import de.setsoftware.reviewtool.model.ITicketSearchCallback;
 import de.setsoftware.reviewtool.model.TicketInfo;
 import de.setsoftware.reviewtool.model.TicketLinkSettings;
 
@@ -151,6 +152,12 @@ public class FilePersistence implements IReviewPersistence {
         return Collections.emptyList();
     }
 
+    @Override
+    public void searchTicketsForFilter(String filterName, ITicketSearchCallback callback) {
+        //the tickets are local, so loading them in one go is fast enough
+        callback.ticketsFound(this.getTicketsForFilter(filterName));
+    }
+
     private List<TicketInfo> getTicketsWithState(String... states) {
         this.checkRoot();
         final List<TicketInfo> ret = new ArrayList<>();
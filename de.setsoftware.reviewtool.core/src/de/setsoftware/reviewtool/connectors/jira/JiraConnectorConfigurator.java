@@ -32,6 +32,7 @@ public class JiraConnectorConfigurator implements IConfigurator {
         } else {
             linkSettings = null;
         }
+        final String ticketCacheTtl = xml.getAttribute("ticketCacheTtlMs");
 
         final JiraPersistence p = new JiraPersistence(
                 xml.getAttribute("url"),
@@ -44,6 +45,9 @@ public class JiraConnectorConfigurator implements IConfigurator {
                 xml.getAttribute("user"),
                 xml.getAttribute("password"),
                 linkSettings);
+        if (!ticketCacheTtl.isEmpty()) {
+            p.setTicketCacheTimeToLive(Long.parseLong(ticketCacheTtl));
+        }
         final NodeList filters = xml.getElementsByTagName("filter");
         for (int i = 0; i < filters.getLength(); i++) {
             final Element filter = (Element) filters.item(i);
@@ -0,0 +1,184 @@
+package de.setsoftware.reviewtool.connectors.jira;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import com.eclipsesource.json.JsonValue;
+import com.eclipsesource.json.ParseException;
+
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+
+/**
+ * Performs the HTTP requests to JIRA.
+ * <p/>
+ * The connections are kept alive and reused by the JDK as long as the responses are read completely and
+ * the connections are not disconnected explicitly. Responses are requested in compressed form and
+ * are parsed directly from the (buffered) stream. The number of concurrent requests is bounded, so that
+ * the number of connections stays within the limit of kept-alive connections of the JDK (5 per host by default).
+ * Requests can be performed in a background pool to load several things concurrently.
+ */
+final class JiraHttpClient {
+
+    /**
+     * Creates daemon threads for the request pool.
+     */
+    private static final class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread t = new Thread(r, "CoRT JIRA request " + this.counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+
+    private static final String CHARSET = "UTF-8";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Semaphore connections;
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * Constructor.
+     * @param maxConnections The maximal number of concurrent requests.
+     */
+    public JiraHttpClient(int maxConnections) {
+        this.connections = new Semaphore(maxConnections);
+        this.pool = new ThreadPoolExecutor(
+                maxConnections,
+                maxConnections,
+                30,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new RequestThreadFactory());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Performs an HTTP GET request and returns the resulting JSON data.
+     */
+    public JsonValue get(final String url) {
+        this.acquireConnection();
+        try {
+            final HttpURLConnection c = this.open(url, "GET");
+            try (Reader reader = this.openResponseReader(c)) {
+                return JsonValue.readFrom(reader);
+            } catch (final ParseException e) {
+                throw new ReviewtoolException("exception parsing the response for " + withoutQuery(url), e);
+            }
+        } catch (final IOException e) {
+            throw new ReviewtoolException(e);
+        } finally {
+            this.connections.release();
+        }
+    }
+
+    /**
+     * Performs an HTTP GET request in the background.
+     */
+    public Future<JsonValue> getAsync(final String url) {
+        return this.pool.submit(new Callable<JsonValue>() {
+            @Override
+            public JsonValue call() {
+                return JiraHttpClient.this.get(url);
+            }
+        });
+    }
+
+    /**
+     * Sends the given data with the given method. The response is discarded.
+     */
+    public void send(final String url, final String method, final String data) throws IOException {
+        this.acquireConnection();
+        try {
+            final HttpURLConnection c = this.open(url, method);
+            c.addRequestProperty("Content-Type", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
+            c.setDoOutput(data != null);
+            if (data != null) {
+                try (OutputStream outputStream = c.getOutputStream()) {
+                    outputStream.write(data.getBytes(CHARSET));
+                }
+            }
+            try (Reader reader = this.openResponseReader(c)) {
+                final char[] buffer = new char[BUFFER_SIZE];
+                while (reader.read(buffer) >= 0) {
+                    //read the response completely, so that the connection can be reused
+                }
+            }
+        } finally {
+            this.connections.release();
+        }
+    }
+
+    private void acquireConnection() {
+        try {
+            this.connections.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    private HttpURLConnection open(String url, String method) throws IOException {
+        final HttpURLConnection c = (HttpURLConnection) new URL(url).openConnection();
+        c.setRequestMethod(method);
+        c.setRequestProperty("Accept", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
+        c.setRequestProperty("Accept-Encoding", "gzip"); //$NON-NLS-1$ //$NON-NLS-2$
+        return c;
+    }
+
+    private Reader openResponseReader(HttpURLConnection c) throws IOException {
+        final InputStream raw;
+        try {
+            raw = c.getInputStream();
+        } catch (final IOException e) {
+            this.flushErrorStream(c);
+            throw e;
+        }
+        final InputStream stream = "gzip".equalsIgnoreCase(c.getContentEncoding())
+                ? new GZIPInputStream(raw, BUFFER_SIZE) : raw;
+        return new BufferedReader(new InputStreamReader(stream, CHARSET), BUFFER_SIZE);
+    }
+
+    private void flushErrorStream(final HttpURLConnection c) throws IOException {
+        final InputStream raw = c.getErrorStream();
+        if (raw == null) {
+            return;
+        }
+        final InputStream s = "gzip".equalsIgnoreCase(c.getContentEncoding()) ? new GZIPInputStream(raw) : raw;
+        try {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int r;
+            while ((r = s.read(buffer)) >= 0) {
+                System.err.write(buffer, 0, r);
+            }
+        } finally {
+            s.close();
+        }
+    }
+
+    private static String withoutQuery(String url) {
+        //the query contains the credentials
+        final int queryStart = url.indexOf('?');
+        return queryStart >= 0 ? url.substring(0, queryStart) : url;
+    }
+
+}
@@ -1,27 +1,23 @@
 package de.setsoftware.reviewtool.connectors.jira;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.net.URLEncoder;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
-import com.eclipsesource.json.ParseException;
 
 import de.setsoftware.reviewtool.base.Logger;
 import de.setsoftware.reviewtool.base.ReviewtoolException;
@@ -29,6 +25,7 @@ import de.setsoftware.reviewtool.model.EndTransition;
 import de.setsoftware.reviewtool.model.EndTransition.Type;
 import de.setsoftware.reviewtool.model.IReviewPersistence;
 import de.setsoftware.reviewtool.model.ITicketData;
+import de.setsoftware.reviewtool.model.ITicketSearchCallback;
 import de.setsoftware.reviewtool.model.TicketInfo;
 import de.setsoftware.reviewtool.model.TicketLinkSettings;
 
@@ -38,11 +35,14 @@ import de.setsoftware.reviewtool.model.TicketLinkSettings;
 public class JiraPersistence implements IReviewPersistence {
 
     /**
-     * Wrapper for the JSON data of a JIRA ticket.
+     * Wrapper for the JSON data of a JIRA ticket. The data derived from it is determined lazily and only once,
+     * as the ticket is cached.
      */
     private final class JiraTicket implements ITicketData {
 
         private final JsonObject ticket;
+        private JiraReviewRounds reviewRounds;
+        private TicketInfo ticketInfo;
 
         public JiraTicket(JsonObject object) {
             this.ticket = object;
@@ -59,51 +59,38 @@ public class JiraPersistence implements IReviewPersistence {
             }
         }
 
+        private synchronized JiraReviewRounds getReviewRounds() {
+            if (this.reviewRounds == null) {
+                this.reviewRounds = JiraReviewRounds.parse(
+                        JiraPersistence.this.getHistories(this.ticket), JiraPersistence.this.reviewStateId);
+            }
+            return this.reviewRounds;
+        }
+
         @Override
         public String getReviewerForRound(int number) {
-            final JsonArray histories = JiraPersistence.this.getHistories(this.ticket);
-            int count = 0;
-            for (final JsonValue v : histories) {
-                if (JiraPersistence.this.isToReview(v)) {
-                    count++;
-                    if (count == number) {
-                        return JiraPersistence.this.getToUser(v).toUpperCase();
-                    }
-                }
-            }
-            return JiraPersistence.this.user.toUpperCase();
+            final String reviewer = this.getReviewRounds().getReviewer(number);
+            return reviewer != null ? reviewer : JiraPersistence.this.user.toUpperCase();
         }
 
         @Override
         public Date getEndTimeForRound(int number) {
-            final JsonArray histories = JiraPersistence.this.getHistories(this.ticket);
-            int count = 0;
-            for (final JsonValue v : histories) {
-                if (JiraPersistence.this.isToReview(v)) {
-                    count++;
-                    if (count == number) {
-                        return JiraPersistence.this.getTimeOfHistoryItem(v);
-                    }
-                }
-            }
-            return new Date();
+            final Date time = this.getReviewRounds().getTime(number);
+            return time != null ? time : new Date();
         }
 
         @Override
         public int getCurrentRound() {
-            final JsonArray histories = JiraPersistence.this.getHistories(this.ticket);
-            int count = 0;
-            for (final JsonValue v : histories) {
-                if (JiraPersistence.this.isToReview(v)) {
-                    count++;
-                }
-            }
-            return count;
+            return this.getReviewRounds().getCount();
         }
 
         @Override
-        public TicketInfo getTicketInfo() {
-            return JiraPersistence.this.queryTickets("key=" + this.getId()).get(0);
+        public synchronized TicketInfo getTicketInfo() {
+            //the ticket contains the needed fields, so no search query is needed
+            if (this.ticketInfo == null) {
+                this.ticketInfo = JiraPersistence.this.mapTicket(this.ticket);
+            }
+            return this.ticketInfo;
         }
 
         @Override
@@ -111,8 +98,16 @@ public class JiraPersistence implements IReviewPersistence {
             return this.ticket.get("key").asString();
         }
 
+        public String getUpdateTime() {
+            return getUpdateTimeOf(this.ticket);
+        }
+
     }
 
+    private static final int SEARCH_PAGE_SIZE = 50;
+    private static final Pattern ORDER_BY_PATTERN =
+            Pattern.compile("\\border\\s+by\\b", Pattern.CASE_INSENSITIVE);
+
     private final String url;
     private final String reviewFieldName;
     private final String reviewStateId;
@@ -127,6 +122,8 @@ public class JiraPersistence implements IReviewPersistence {
 
     private String reviewFieldId;
     private final TicketLinkSettings linkSettings;
+    private final JiraTicketCache<JiraTicket> ticketCache = new JiraTicketCache<>();
+    private final JiraHttpClient http = new JiraHttpClient(JiraHttpClient.DEFAULT_MAX_CONNECTIONS);
 
     public JiraPersistence(
             String url,
@@ -183,24 +180,14 @@ public class JiraPersistence implements IReviewPersistence {
         final JsonObject json = new JsonObject();
         json.add("fields", fields);
         this.performPut(putUrl, json);
+        this.ticketCache.invalidate(ticketKey);
     }
 
-    private boolean isToReview(JsonValue v) {
-        final JsonArray items = v.asObject().get("items").asArray();
-        for (final JsonValue item : items) {
-            final JsonObject io = item.asObject();
-            if (io.get("field").asString().equals("status")
-                    && io.get("to").asString().equals(this.reviewStateId)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private String getToUser(JsonValue v) {
-        final JsonValue author = v.asObject().get("author");
-        final JsonValue authorName = author == null ? null : author.asObject().get("name");
-        return authorName == null ? "" : authorName.toString();
+    /**
+     * Sets the time in milliseconds a loaded ticket is used without checking for changes in JIRA.
+     */
+    public void setTicketCacheTimeToLive(long millis) {
+        this.ticketCache.setTimeToLive(millis);
     }
 
     private JsonArray getHistories(JsonObject ticket) {
@@ -209,14 +196,49 @@ public class JiraPersistence implements IReviewPersistence {
 
     @Override
     public ITicketData loadTicket(String ticketKey) {
+        final long now = System.currentTimeMillis();
+        final JiraTicket fresh = this.ticketCache.getIfFresh(ticketKey, now);
+        if (fresh != null) {
+            return fresh;
+        }
+        if (this.ticketCache.contains(ticketKey)) {
+            final JiraTicket unchanged =
+                    this.ticketCache.getIfUnchanged(ticketKey, this.loadUpdateTime(ticketKey), now);
+            if (unchanged != null) {
+                return unchanged;
+            }
+        }
+
         final JsonObject object = (JsonObject)
                 this.performGet(this.url + "/rest/api/latest/issue/" + ticketKey
-                        + "?fields=" + this.getReviewFieldId() + "&expand=changelog"
+                        + "?fields=" + this.getReviewFieldId() + ",summary,components,status,parent,updated"
+                        + "&expand=changelog"
                         + this.getAuthParams());
         if (object.get("key") == null) {
             return null;
         }
-        return new JiraTicket(object);
+        final JiraTicket ticket = new JiraTicket(object);
+        this.ticketCache.put(ticketKey, ticket, ticket.getUpdateTime(), now);
+        return ticket;
+    }
+
+    /**
+     * Loads only the time of the last update of the given ticket. Returns null if the ticket does not exist.
+     */
+    private String loadUpdateTime(String ticketKey) {
+        final JsonObject object = (JsonObject)
+                this.performGet(this.url + "/rest/api/latest/issue/" + ticketKey
+                        + "?fields=updated"
+                        + this.getAuthParams());
+        if (object.get("key") == null) {
+            return null;
+        }
+        return getUpdateTimeOf(object);
+    }
+
+    private static String getUpdateTimeOf(JsonObject ticket) {
+        final JsonValue updated = ticket.get("fields").asObject().get("updated");
+        return updated == null || updated.isNull() ? null : updated.asString();
     }
 
     @Override
@@ -231,10 +253,27 @@ public class JiraPersistence implements IReviewPersistence {
 
     @Override
     public List<TicketInfo> getTicketsForFilter(String filterName) {
+        final List<TicketInfo> ret = new ArrayList<>();
+        this.searchTicketsForFilter(filterName, new ITicketSearchCallback() {
+            @Override
+            public void ticketsFound(List<TicketInfo> tickets) {
+                ret.addAll(tickets);
+            }
+
+            @Override
+            public boolean isCanceled() {
+                return false;
+            }
+        });
+        return ret;
+    }
+
+    @Override
+    public void searchTicketsForFilter(String filterName, ITicketSearchCallback callback) {
         if (this.filtersForReview.containsKey(filterName)) {
-            return this.queryTickets(this.filtersForReview.get(filterName));
+            this.queryTickets(this.filtersForReview.get(filterName), callback);
         } else {
-            return this.queryTickets(this.filtersForFixing.get(filterName));
+            this.queryTickets(this.filtersForFixing.get(filterName), callback);
         }
     }
 
@@ -252,30 +291,88 @@ public class JiraPersistence implements IReviewPersistence {
         }
     }
 
-    private List<TicketInfo> queryTickets(final String jql) {
+    /**
+     * Queries the tickets for the given JQL select page by page. The first page is loaded to determine the
+     * total count, then the other pages are loaded concurrently. The pages are passed to the callback in order.
+     * As the pages are requested independently, the select is given a stable order, and tickets that
+     * appear on more than one page (e.g. because they changed in between) are only passed once.
+     */
+    private void queryTickets(final String jql, final ITicketSearchCallback callback) {
+        final String searchUrl;
         try {
-            final String searchUrl = String.format(
+            searchUrl = String.format(
                     "%s/rest/api/latest/search"
-                            + "?maxResults=200"
+                            + "?maxResults=%d"
                             + "&fields=summary,components,status,parent"
                             + "&expand=changelog"
                             + "&jql=%s"
                             + "%s",
                             this.url,
-                            URLEncoder.encode(jql, "UTF-8"),
+                            SEARCH_PAGE_SIZE,
+                            URLEncoder.encode(withStableOrder(jql), "UTF-8"),
                             this.getAuthParams());
+        } catch (final UnsupportedEncodingException e) {
+            throw new ReviewtoolException(e);
+        }
 
-            final JsonObject result = this.performGet(searchUrl).asObject();
-            final List<TicketInfo> ret = new ArrayList<>();
-            for (final JsonValue issue : result.get("issues").asArray()) {
-                ret.add(this.mapTicket(issue.asObject()));
+        final JsonObject firstPage = this.performGet(searchUrl + "&startAt=0").asObject();
+        final int total = firstPage.get("total").asInt();
+        //JIRA might limit the page size further, so the size of the first page is used for the other pages
+        final int pageSize = firstPage.get("issues").asArray().size();
+        final List<Future<JsonValue>> otherPages = new ArrayList<>();
+        if (pageSize > 0 && !callback.isCanceled()) {
+            for (int startAt = pageSize; startAt < total; startAt += pageSize) {
+                otherPages.add(this.http.getAsync(searchUrl + "&startAt=" + startAt));
             }
-            return ret;
-        } catch (final UnsupportedEncodingException e) {
+        }
+        try {
+            final Set<String> foundKeys = new HashSet<>();
+            callback.ticketsFound(this.mapNewTickets(firstPage, foundKeys));
+            for (final Future<JsonValue> page : otherPages) {
+                if (callback.isCanceled()) {
+                    return;
+                }
+                callback.ticketsFound(this.mapNewTickets(page.get().asObject(), foundKeys));
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new ReviewtoolException(e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ReviewtoolException(e);
+        } finally {
+            for (final Future<JsonValue> page : otherPages) {
+                page.cancel(false);
+            }
         }
     }
 
+    /**
+     * Appends an order by key to the given JQL select if it does not specify an order itself.
+     */
+    static String withStableOrder(String jql) {
+        if (ORDER_BY_PATTERN.matcher(jql).find()) {
+            return jql;
+        }
+        return jql + " ORDER BY key";
+    }
+
+    /**
+     * Maps the tickets in the given search result whose key is not contained in the given set yet.
+     * The keys of the mapped tickets are added to the set.
+     */
+    private List<TicketInfo> mapNewTickets(JsonObject searchResult, Set<String> foundKeys) {
+        final List<TicketInfo> ret = new ArrayList<>();
+        for (final JsonValue issue : searchResult.get("issues").asArray()) {
+            if (foundKeys.add(issue.asObject().get("key").asString())) {
+                ret.add(this.mapTicket(issue.asObject()));
+            }
+        }
+        return ret;
+    }
+
     private TicketInfo mapTicket(JsonObject ticket) {
         final JsonValue parent = ticket.get("fields").asObject().get("parent");
         return new TicketInfo(
@@ -285,24 +382,10 @@ public class JiraPersistence implements IReviewPersistence {
                 this.getPreviousStatus(ticket),
                 this.formatComponents(ticket.get("fields").asObject().get("components").asArray()),
                 parent == null ? null : parent.asObject().get("fields").asObject().get("summary").asString(),
-                this.getReviewers(ticket),
+                JiraReviewRounds.parse(this.getHistories(ticket), this.reviewStateId).getReviewers(),
                 this.getTimeOfTransferToCurrentStatus(ticket));
     }
 
-    private Set<String> getReviewers(JsonObject ticket) {
-        final LinkedHashSet<String> reviewers = new LinkedHashSet<>();
-        final JsonArray histories = JiraPersistence.this.getHistories(ticket);
-        for (final JsonValue v : histories) {
-            if (this.isToReview(v)) {
-                final String reviewer = this.getToUser(v);
-                if (!reviewer.isEmpty()) {
-                    reviewers.add(reviewer.toUpperCase());
-                }
-            }
-        }
-        return reviewers;
-    }
-
     private String getPreviousStatus(JsonObject ticket) {
         String prevStatus = "";
         final JsonArray histories = JiraPersistence.this.getHistories(ticket);
@@ -321,21 +404,12 @@ public class JiraPersistence implements IReviewPersistence {
         for (final JsonValue v : histories) {
             final String fromStatus = this.getFromStatus(v);
             if (fromStatus != null) {
-                ret = this.getTimeOfHistoryItem(v);
+                ret = JiraReviewRounds.getTimeOfHistoryItem(v);
             }
         }
         return ret;
     }
 
-    private Date getTimeOfHistoryItem(final JsonValue v) {
-        final String dateString = v.asObject().get("created").asString();
-        try {
-            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX").parse(dateString);
-        } catch (final java.text.ParseException e) {
-            throw new ReviewtoolException(e);
-        }
-    }
-
     private String getFromStatus(JsonValue v) {
         final JsonArray items = v.asObject().get("items").asArray();
         for (final JsonValue item : items) {
@@ -380,22 +454,7 @@ public class JiraPersistence implements IReviewPersistence {
      * Performs an HTTP GET request and returns the resulting JSON data.
      */
     public JsonValue performGet(final String searchUrl) {
-        try (InputStream input = new URL(searchUrl).openStream()) {
-            final InputStreamReader reader = new InputStreamReader(input, "UTF-8"); //$NON-NLS-1$
-            final StringBuilder b = new StringBuilder();
-            int ch;
-            while ((ch = reader.read()) >= 0) {
-                b.append((char) ch);
-            }
-            final String data = b.toString();
-            try {
-                return JsonValue.readFrom(data);
-            } catch (final ParseException e) {
-                throw new ReviewtoolException("exception parsing: " + data, e);
-            }
-        } catch (final IOException e) {
-            throw new ReviewtoolException(e);
-        }
+        return this.http.get(searchUrl);
     }
 
     private String getAuthParams() {
@@ -428,35 +487,7 @@ public class JiraPersistence implements IReviewPersistence {
      * Sends and receives data.
      */
     private void communicate(final String url, final String method, final String data) throws IOException {
-        final HttpURLConnection c = (HttpURLConnection) new URL(url).openConnection();
-        c.setRequestMethod(method);
-        c.addRequestProperty("Content-Type", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
-        c.setDoOutput(data != null);
-        c.connect();
-        if (data != null) {
-            final OutputStream outputStream = c.getOutputStream();
-            try {
-                outputStream.write(data.getBytes("UTF-8")); //$NON-NLS-1$
-            } finally {
-                outputStream.close();
-            }
-        }
-        try {
-            c.getInputStream().close();
-        } catch (final IOException e) {
-            this.flushErrorStream(c);
-            throw e;
-        } finally {
-            c.disconnect();
-        }
-    }
-
-    private void flushErrorStream(final HttpURLConnection c) throws IOException {
-        final InputStream s = c.getErrorStream();
-        int r;
-        while ((r = s.read()) >= 0) {
-            System.err.write(r);
-        }
+        this.http.send(url, method, data);
     }
 
     @Override
@@ -548,6 +579,7 @@ public class JiraPersistence implements IReviewPersistence {
         command.add("transition", to);
 
         this.performPost(postUrl, command);
+        this.ticketCache.invalidate(ticket);
     }
 
     /**
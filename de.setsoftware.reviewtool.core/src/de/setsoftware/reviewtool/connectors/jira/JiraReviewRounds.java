@@ -0,0 +1,115 @@
+package de.setsoftware.reviewtool.connectors.jira;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+
+/**
+ * The review rounds of a JIRA ticket, i.e. the transitions to the review state in its changelog.
+ * The changelog is parsed only once, so that the reviewer and time of every round can be looked up
+ * without scanning it again.
+ */
+final class JiraReviewRounds {
+
+    private final List<String> reviewers = new ArrayList<>();
+    private final List<Date> times = new ArrayList<>();
+
+    private JiraReviewRounds() {
+    }
+
+    /**
+     * Parses the review rounds from the given changelog histories.
+     * @param histories The "histories" array from the changelog of a ticket.
+     * @param reviewStateId The id of the review state.
+     */
+    public static JiraReviewRounds parse(JsonArray histories, String reviewStateId) {
+        final JiraReviewRounds ret = new JiraReviewRounds();
+        for (final JsonValue v : histories) {
+            if (isToReview(v, reviewStateId)) {
+                ret.reviewers.add(getToUser(v));
+                ret.times.add(getTimeOfHistoryItem(v));
+            }
+        }
+        return ret;
+    }
+
+    private static boolean isToReview(JsonValue v, String reviewStateId) {
+        final JsonArray items = v.asObject().get("items").asArray();
+        for (final JsonValue item : items) {
+            final JsonObject io = item.asObject();
+            if (io.get("field").asString().equals("status")
+                    && io.get("to").asString().equals(reviewStateId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getToUser(JsonValue v) {
+        final JsonValue author = v.asObject().get("author");
+        final JsonValue authorName = author == null ? null : author.asObject().get("name");
+        return authorName == null ? "" : authorName.toString();
+    }
+
+    /**
+     * Returns the creation time of the given changelog history item.
+     */
+    static Date getTimeOfHistoryItem(final JsonValue v) {
+        final String dateString = v.asObject().get("created").asString();
+        try {
+            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX").parse(dateString);
+        } catch (final java.text.ParseException e) {
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    /**
+     * Returns the number of review rounds.
+     */
+    public int getCount() {
+        return this.reviewers.size();
+    }
+
+    /**
+     * Returns the reviewer (in upper case) for the review round with the given number (starting with 1),
+     * or null if there is no such round.
+     */
+    public String getReviewer(int number) {
+        return this.isValid(number) ? this.reviewers.get(number - 1).toUpperCase() : null;
+    }
+
+    /**
+     * Returns the time of the transition to review for the round with the given number (starting with 1),
+     * or null if there is no such round.
+     */
+    public Date getTime(int number) {
+        return this.isValid(number) ? this.times.get(number - 1) : null;
+    }
+
+    private boolean isValid(int number) {
+        return number >= 1 && number <= this.reviewers.size();
+    }
+
+    /**
+     * Returns the distinct non-empty reviewers of all rounds, in upper case.
+     */
+    public Set<String> getReviewers() {
+        final Set<String> ret = new LinkedHashSet<>();
+        for (final String reviewer : this.reviewers) {
+            if (!reviewer.isEmpty()) {
+                ret.add(reviewer.toUpperCase());
+            }
+        }
+        return ret;
+    }
+
+}
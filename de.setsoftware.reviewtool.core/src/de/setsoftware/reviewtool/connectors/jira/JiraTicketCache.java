@@ -0,0 +1,99 @@
+package de.setsoftware.reviewtool.connectors.jira;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches the tickets loaded from JIRA. A cached ticket is used without asking JIRA for a short time after it
+ * has been loaded or checked. After that, the caller has to check the ticket's update time in JIRA (which is
+ * a lot cheaper than loading the whole ticket), and the cached ticket is used further when it did not change.
+ * Changes made by ourselves have to be announced by invalidating the ticket.
+ *
+ * @param <T> The type of the cached tickets.
+ */
+final class JiraTicketCache<T> {
+
+    /**
+     * A cached ticket together with the information needed to check whether it is still valid.
+     */
+    private static final class Entry<T> {
+        private final T ticket;
+        private final String updateTime;
+        private long checkTime;
+
+        public Entry(T ticket, String updateTime, long checkTime) {
+            this.ticket = ticket;
+            this.updateTime = updateTime;
+            this.checkTime = checkTime;
+        }
+    }
+
+    public static final long DEFAULT_TIME_TO_LIVE = 30000;
+
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    /**
+     * Sets the time in milliseconds a ticket is used without checking for changes. 0 disables the caching.
+     */
+    public synchronized void setTimeToLive(long millis) {
+        this.timeToLive = millis;
+        if (millis <= 0) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * Returns the cached ticket with the given key if it has been loaded or checked recently, null otherwise.
+     */
+    public synchronized T getIfFresh(String key, long now) {
+        final Entry<T> entry = this.entries.get(key);
+        if (entry == null || now - entry.checkTime >= this.timeToLive) {
+            return null;
+        }
+        return entry.ticket;
+    }
+
+    /**
+     * Returns true iff there is a cached ticket for the given key, possibly one that has to be checked.
+     */
+    public synchronized boolean contains(String key) {
+        return this.entries.containsKey(key);
+    }
+
+    /**
+     * Returns the cached ticket with the given key if its update time is the given current update time
+     * in JIRA. In that case, it is regarded as checked and can be used without checking again for some time.
+     * Otherwise, the cached ticket is removed and null is returned.
+     */
+    public synchronized T getIfUnchanged(String key, String currentUpdateTime, long now) {
+        final Entry<T> entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (currentUpdateTime == null || !currentUpdateTime.equals(entry.updateTime)) {
+            this.entries.remove(key);
+            return null;
+        }
+        entry.checkTime = now;
+        return entry.ticket;
+    }
+
+    /**
+     * Caches the given freshly loaded ticket.
+     */
+    public synchronized void put(String key, T ticket, String updateTime, long now) {
+        if (this.timeToLive <= 0) {
+            return;
+        }
+        this.entries.put(key, new Entry<>(ticket, updateTime, now));
+    }
+
+    /**
+     * Removes the ticket with the given key from the cache, so that it is loaded again on the next access.
+     */
+    public synchronized void invalidate(String key) {
+        this.entries.remove(key);
+    }
+
+}
@@ -0,0 +1,102 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+/**
+ * A diff algorithm for very large files. It first splits the files at anchor lines in a single pass: The lines
+ * that occur exactly once in both files are matched, and the longest sequence of these matches that has the
+ * same order in both files is taken as unchanged (like in patience diff). Only the small regions between the
+ * anchors are compared with {@link LinearSpaceMyersDiffAlgorithm}. The time needed is O(N log N) for the split
+ * and proportional to the size and the number of changes of the regions for the rest, so that a few changes in
+ * a file with millions of lines do not lead to a comparison of the whole files.
+ * When there are no anchor lines, the files are compared with {@link HistogramDiffAlgorithm}.
+ */
+final class AnchorSplittingDiffAlgorithm extends LineBasedDiffAlgorithm {
+
+    @Override
+    protected void markChangedLines(
+            int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, boolean[] changedA, boolean[] changedB) {
+
+        int maxId = 0;
+        for (int i = aStart; i < aEnd; i++) {
+            maxId = Math.max(maxId, a[i]);
+        }
+        for (int i = bStart; i < bEnd; i++) {
+            maxId = Math.max(maxId, b[i]);
+        }
+        final int[] countA = new int[maxId + 1];
+        final int[] countB = new int[maxId + 1];
+        final int[] positionA = new int[maxId + 1];
+        for (int i = aStart; i < aEnd; i++) {
+            countA[a[i]]++;
+            positionA[a[i]] = i;
+        }
+        for (int i = bStart; i < bEnd; i++) {
+            countB[b[i]]++;
+        }
+
+        //the lines that are unique in both files, in the order of the new file
+        final int[] candidatesA = new int[bEnd - bStart];
+        final int[] candidatesB = new int[bEnd - bStart];
+        int candidateCount = 0;
+        for (int i = bStart; i < bEnd; i++) {
+            if (countA[b[i]] == 1 && countB[b[i]] == 1) {
+                candidatesA[candidateCount] = positionA[b[i]];
+                candidatesB[candidateCount] = i;
+                candidateCount++;
+            }
+        }
+
+        final int[] anchors = longestIncreasingSubsequence(candidatesA, candidateCount);
+        if (anchors.length == 0) {
+            new HistogramDiffAlgorithm().markChangedLines(a, aStart, aEnd, b, bStart, bEnd, changedA, changedB);
+            return;
+        }
+
+        final LinearSpaceMyersDiffAlgorithm regionDiff = new LinearSpaceMyersDiffAlgorithm();
+        int regionStartA = aStart;
+        int regionStartB = bStart;
+        for (final int anchor : anchors) {
+            regionDiff.markChangedLines(
+                    a, regionStartA, candidatesA[anchor], b, regionStartB, candidatesB[anchor], changedA, changedB);
+            regionStartA = candidatesA[anchor] + 1;
+            regionStartB = candidatesB[anchor] + 1;
+        }
+        regionDiff.markChangedLines(a, regionStartA, aEnd, b, regionStartB, bEnd, changedA, changedB);
+    }
+
+    /**
+     * Returns the indices of a longest strictly increasing subsequence of the first count values, in ascending
+     * order. Uses patience sorting, so that the time needed is O(count log count).
+     */
+    static int[] longestIncreasingSubsequence(int[] values, int count) {
+        //tails[l] is the index of the smallest value that ends an increasing subsequence of length l + 1
+        final int[] tails = new int[count];
+        final int[] predecessors = new int[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        final int[] ret = new int[length];
+        int cur = length > 0 ? tails[length - 1] : -1;
+        for (int i = length - 1; i >= 0; i--) {
+            ret[i] = cur;
+            cur = predecessors[cur];
+        }
+        return ret;
+    }
+
+}
@@ -0,0 +1,26 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.w3c.dom.Element;
+
+import de.setsoftware.reviewtool.config.IConfigurator;
+import de.setsoftware.reviewtool.config.IReviewConfigurable;
+
+/**
+ * Configures the diff algorithm to use, e.g. &lt;diffAlgorithm type="histogram"/&gt;.
+ */
+public class DiffAlgorithmConfigurator implements IConfigurator {
+
+    @Override
+    public Collection<String> getRelevantElementNames() {
+        return Collections.singleton("diffAlgorithm");
+    }
+
+    @Override
+    public void configure(Element xml, IReviewConfigurable configurable) {
+        DiffAlgorithmFactory.setDefaultType(xml.getAttribute("type"));
+    }
+
+}
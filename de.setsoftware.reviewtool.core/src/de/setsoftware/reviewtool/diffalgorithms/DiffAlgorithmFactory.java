@@ -1,16 +1,63 @@
 package de.setsoftware.reviewtool.diffalgorithms;
 
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+
 /**
  * A factory for diff algorithms.
  * Allows the change sources to be decoupled from the concrete diff algorithm used.
  */
 public class DiffAlgorithmFactory {
 
+    /**
+     * Type name for {@link MyersSourceDiffAlgorithm}, which is the default.
+     */
+    public static final String MYERS = "myers";
+
+    /**
+     * Type name for {@link HistogramDiffAlgorithm}.
+     */
+    public static final String HISTOGRAM = "histogram";
+
+    private static volatile String defaultType = MYERS;
+
+    /**
+     * Sets the type of the algorithm that is returned by {@link #createDefault()}.
+     * @param type One of the type name constants in this class. An empty type selects {@link #MYERS}.
+     */
+    public static void setDefaultType(String type) {
+        if (type.isEmpty()) {
+            defaultType = MYERS;
+            return;
+        }
+        if (!type.equals(MYERS) && !type.equals(HISTOGRAM)) {
+            throw new ReviewtoolException("unknown diff algorithm: " + type);
+        }
+        defaultType = type;
+    }
+
+    /**
+     * Returns the type of the algorithm that is returned by {@link #createDefault()}.
+     */
+    public static String getDefaultType() {
+        return defaultType;
+    }
+
     /**
      * Creates the default diff algorithm.
      */
     public static IDiffAlgorithm createDefault() {
+        if (defaultType.equals(HISTOGRAM)) {
+            return new HistogramDiffAlgorithm();
+        }
         return new MyersSourceDiffAlgorithm();
     }
 
+    /**
+     * Creates a diff algorithm for files that are too large for the default algorithm.
+     * It splits the files at unique lines first and needs only linear space for the remaining regions.
+     */
+    public static IDiffAlgorithm createForLargeFiles() {
+        return new AnchorSplittingDiffAlgorithm();
+    }
+
 }
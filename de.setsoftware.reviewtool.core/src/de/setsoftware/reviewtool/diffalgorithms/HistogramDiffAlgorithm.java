@@ -0,0 +1,217 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+/**
+ * A histogram diff algorithm (an extension of patience diff, similar to the one in JGit). In each region, the
+ * line that occurs least often in the old file and also occurs in the new file is used as an anchor. The common
+ * region around the anchor is taken as unchanged, and the parts before and after it are handled recursively.
+ * This preferably aligns unique lines like method signatures, which gives fewer and more readable hunks
+ * than Myers' algorithm when code has been moved around. When a region contains only lines that
+ * occur very often, it is handled by {@link LinearSpaceMyersDiffAlgorithm}.
+ */
+final class HistogramDiffAlgorithm extends LineBasedDiffAlgorithm {
+
+    /**
+     * Lines that occur more often than this in the old part of a region are not used as anchors.
+     */
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    /**
+     * The state of a single comparison. The occurrence table is an open addressing hash table from the
+     * line IDs to the number of occurrences in the old part of the current region and the first of these
+     * occurrences. The further occurrences are chained by their position in the old file.
+     */
+    private static final class Comparison {
+        private final int[] a;
+        private final int[] b;
+        private final boolean[] changedA;
+        private final boolean[] changedB;
+
+        private final int[] tableKeys;
+        private final int[] tableCounts;
+        private final int[] tableFirst;
+        private final int tableMask;
+        private final int[] usedSlots;
+        private int usedSlotCount;
+        private final int[] nextOccurrence;
+
+        private int anchorStartA;
+        private int anchorEndA;
+        private int anchorStartB;
+        private int anchorEndB;
+
+        public Comparison(int[] a, int[] b, boolean[] changedA, boolean[] changedB, int maxSizeA) {
+            this.a = a;
+            this.b = b;
+            this.changedA = changedA;
+            this.changedB = changedB;
+
+            int tableSize = 16;
+            while (tableSize < 2 * maxSizeA) {
+                tableSize *= 2;
+            }
+            this.tableKeys = new int[tableSize];
+            this.tableCounts = new int[tableSize];
+            this.tableFirst = new int[tableSize];
+            this.tableMask = tableSize - 1;
+            this.usedSlots = new int[maxSizeA];
+            this.nextOccurrence = new int[a.length];
+        }
+
+        private void compare(int startA, int endA, int startB, int endB) {
+            //an explicit stack is used instead of recursion, because the nesting can become very deep
+            int[] stack = new int[64];
+            int stackSize = 0;
+            stack[stackSize++] = startA;
+            stack[stackSize++] = endA;
+            stack[stackSize++] = startB;
+            stack[stackSize++] = endB;
+            while (stackSize > 0) {
+                int bEnd = stack[--stackSize];
+                int bStart = stack[--stackSize];
+                int aEnd = stack[--stackSize];
+                int aStart = stack[--stackSize];
+
+                while (aStart < aEnd && bStart < bEnd && this.a[aStart] == this.b[bStart]) {
+                    aStart++;
+                    bStart++;
+                }
+                while (aStart < aEnd && bStart < bEnd && this.a[aEnd - 1] == this.b[bEnd - 1]) {
+                    aEnd--;
+                    bEnd--;
+                }
+                if (aStart == aEnd) {
+                    markRange(this.changedB, bStart, bEnd);
+                    continue;
+                }
+                if (bStart == bEnd) {
+                    markRange(this.changedA, aStart, aEnd);
+                    continue;
+                }
+
+                if (!this.findAnchor(aStart, aEnd, bStart, bEnd)) {
+                    new LinearSpaceMyersDiffAlgorithm().markChangedLines(
+                            this.a, aStart, aEnd, this.b, bStart, bEnd, this.changedA, this.changedB);
+                    continue;
+                }
+
+                if (stackSize + 8 > stack.length) {
+                    final int[] newStack = new int[stack.length * 2];
+                    System.arraycopy(stack, 0, newStack, 0, stackSize);
+                    stack = newStack;
+                }
+                stack[stackSize++] = this.anchorEndA;
+                stack[stackSize++] = aEnd;
+                stack[stackSize++] = this.anchorEndB;
+                stack[stackSize++] = bEnd;
+                stack[stackSize++] = aStart;
+                stack[stackSize++] = this.anchorStartA;
+                stack[stackSize++] = bStart;
+                stack[stackSize++] = this.anchorStartB;
+            }
+        }
+
+        private static void markRange(boolean[] changed, int start, int end) {
+            for (int i = start; i < end; i++) {
+                changed[i] = true;
+            }
+        }
+
+        /**
+         * Searches the longest common region that contains the lines with the lowest occurrence count and
+         * stores it in the anchor fields. Returns false iff no suitable region was found.
+         */
+        private boolean findAnchor(int aStart, int aEnd, int bStart, int bEnd) {
+            this.fillTable(aStart, aEnd);
+            try {
+                int bestLength = 0;
+                int lowestCount = MAX_CHAIN_LENGTH;
+                int posB = bStart;
+                while (posB < bEnd) {
+                    final int slot = this.findSlot(this.b[posB]);
+                    final int count = this.tableCounts[slot];
+                    if (count == 0 || count > lowestCount) {
+                        posB++;
+                        continue;
+                    }
+
+                    int nextPosB = posB + 1;
+                    for (int posA = this.tableFirst[slot]; posA >= 0; posA = this.nextOccurrence[posA]) {
+                        int sa = posA;
+                        int sb = posB;
+                        int regionCount = count;
+                        while (sa > aStart && sb > bStart && this.a[sa - 1] == this.b[sb - 1]) {
+                            sa--;
+                            sb--;
+                            regionCount = Math.min(regionCount, this.tableCounts[this.findSlot(this.a[sa])]);
+                        }
+                        int ea = posA + 1;
+                        int eb = posB + 1;
+                        while (ea < aEnd && eb < bEnd && this.a[ea] == this.b[eb]) {
+                            regionCount = Math.min(regionCount, this.tableCounts[this.findSlot(this.a[ea])]);
+                            ea++;
+                            eb++;
+                        }
+                        if (ea - sa > bestLength || regionCount < lowestCount) {
+                            this.anchorStartA = sa;
+                            this.anchorEndA = ea;
+                            this.anchorStartB = sb;
+                            this.anchorEndB = eb;
+                            bestLength = ea - sa;
+                            lowestCount = regionCount;
+                        }
+                        nextPosB = Math.max(nextPosB, eb);
+                    }
+                    posB = nextPosB;
+                }
+                return bestLength > 0;
+            } finally {
+                this.clearTable();
+            }
+        }
+
+        private void fillTable(int aStart, int aEnd) {
+            for (int i = aEnd - 1; i >= aStart; i--) {
+                final int slot = this.findSlot(this.a[i]);
+                if (this.tableCounts[slot] == 0) {
+                    this.tableKeys[slot] = this.a[i] + 1;
+                    this.usedSlots[this.usedSlotCount++] = slot;
+                    this.nextOccurrence[i] = -1;
+                } else {
+                    this.nextOccurrence[i] = this.tableFirst[slot];
+                }
+                this.tableFirst[slot] = i;
+                this.tableCounts[slot]++;
+            }
+        }
+
+        private void clearTable() {
+            for (int i = 0; i < this.usedSlotCount; i++) {
+                this.tableKeys[this.usedSlots[i]] = 0;
+                this.tableCounts[this.usedSlots[i]] = 0;
+            }
+            this.usedSlotCount = 0;
+        }
+
+        /**
+         * Returns the slot for the given line ID. When the ID is not contained in the table, the returned
+         * slot is empty.
+         */
+        private int findSlot(int lineId) {
+            final int key = lineId + 1;
+            final int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & this.tableMask;
+            while (this.tableKeys[slot] != 0 && this.tableKeys[slot] != key) {
+                slot = (slot + 1) & this.tableMask;
+            }
+            return slot;
+        }
+    }
+
+    @Override
+    protected void markChangedLines(
+            int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, boolean[] changedA, boolean[] changedB) {
+        final Comparison c = new Comparison(a, b, changedA, changedB, aEnd - aStart);
+        c.compare(aStart, aEnd, bStart, bEnd);
+    }
+
+}
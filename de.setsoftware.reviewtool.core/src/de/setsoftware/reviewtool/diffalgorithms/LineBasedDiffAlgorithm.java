@@ -0,0 +1,219 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Base class for line-based diff algorithms that work on integer IDs of the lines instead of the line contents.
+ * Equal lines get the same ID, so that comparing two lines is a single integer comparison.
+ * Subclasses only have to mark the changed lines in both files. The resulting hunks are postprocessed
+ * like in {@link MyersSourceDiffAlgorithm} to get better results for source files.
+ */
+abstract class LineBasedDiffAlgorithm implements IDiffAlgorithm {
+
+    /**
+     * A range of changed lines in the old and in the new file. The end indices are exclusive.
+     */
+    private static final class ChangedRange {
+        private int startOld;
+        private int endOld;
+        private int startNew;
+        private int endNew;
+
+        public ChangedRange(int startOld, int endOld, int startNew, int endNew) {
+            this.startOld = startOld;
+            this.endOld = endOld;
+            this.startNew = startNew;
+            this.endNew = endNew;
+        }
+
+        private void move(int offset) {
+            this.startOld += offset;
+            this.endOld += offset;
+            this.startNew += offset;
+            this.endNew += offset;
+        }
+    }
+
+    @Override
+    public List<Pair<IFragment, IFragment>> determineDiff(IRevisionedFile fileOldInfo, byte[] fileOldContent,
+            IRevisionedFile fileNewInfo, byte[] fileNewContent, String charset) {
+
+        final String[] linesOld = LineDiffFragments.toLines(fileOldContent, charset);
+        final String[] linesNew = LineDiffFragments.toLines(fileNewContent, charset);
+        final Map<String, Integer> lineIds = new HashMap<>();
+        final int[] idsOld = toIds(linesOld, lineIds);
+        final int[] idsNew = toIds(linesNew, lineIds);
+
+        int start = 0;
+        while (start < idsOld.length && start < idsNew.length && idsOld[start] == idsNew[start]) {
+            start++;
+        }
+        int endOld = idsOld.length;
+        int endNew = idsNew.length;
+        while (endOld > start && endNew > start && idsOld[endOld - 1] == idsNew[endNew - 1]) {
+            endOld--;
+            endNew--;
+        }
+
+        final boolean[] changedOld = new boolean[idsOld.length];
+        final boolean[] changedNew = new boolean[idsNew.length];
+        this.markChangedLines(idsOld, start, endOld, idsNew, start, endNew, changedOld, changedNew);
+
+        final List<ChangedRange> ranges = determineRanges(changedOld, changedNew);
+        final List<ChangedRange> shiftedRanges = shiftRanges(ranges, linesOld, idsOld, linesNew, idsNew);
+        return this.createFragments(shiftedRanges, fileOldInfo, linesOld, fileNewInfo, linesNew);
+    }
+
+    /**
+     * Marks all lines in the given ranges that are not part of the common subsequence of both ranges as changed.
+     * The ranges are non-empty and differ in their first and last line.
+     * @param a The IDs of the lines in the old file.
+     * @param aStart The start of the range in the old file (inclusive).
+     * @param aEnd The end of the range in the old file (exclusive).
+     * @param b The IDs of the lines in the new file.
+     * @param bStart The start of the range in the new file (inclusive).
+     * @param bEnd The end of the range in the new file (exclusive).
+     * @param changedA Is filled with the flags for the old file.
+     * @param changedB Is filled with the flags for the new file.
+     */
+    protected abstract void markChangedLines(
+            int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, boolean[] changedA, boolean[] changedB);
+
+    private static int[] toIds(String[] lines, Map<String, Integer> lineIds) {
+        final int[] ret = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            Integer id = lineIds.get(lines[i]);
+            if (id == null) {
+                id = lineIds.size();
+                lineIds.put(lines[i], id);
+            }
+            ret[i] = id;
+        }
+        return ret;
+    }
+
+    private static List<ChangedRange> determineRanges(boolean[] changedOld, boolean[] changedNew) {
+        final List<ChangedRange> ret = new ArrayList<>();
+        int posOld = 0;
+        int posNew = 0;
+        while (posOld < changedOld.length || posNew < changedNew.length) {
+            if (posOld < changedOld.length && posNew < changedNew.length
+                    && !changedOld[posOld] && !changedNew[posNew]) {
+                posOld++;
+                posNew++;
+                continue;
+            }
+            final int startOld = posOld;
+            final int startNew = posNew;
+            while (posOld < changedOld.length && changedOld[posOld]) {
+                posOld++;
+            }
+            while (posNew < changedNew.length && changedNew[posNew]) {
+                posNew++;
+            }
+            ret.add(new ChangedRange(startOld, posOld, startNew, posNew));
+        }
+        return ret;
+    }
+
+    /**
+     * Pure additions and deletions can often be moved up or down without changing the result. They are moved
+     * to the position where their first line is best suited as start of a hunk. Ranges that touch afterwards
+     * are joined.
+     */
+    private static List<ChangedRange> shiftRanges(
+            List<ChangedRange> ranges, String[] linesOld, int[] idsOld, String[] linesNew, int[] idsNew) {
+
+        final List<ChangedRange> ret = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            final ChangedRange cur = ranges.get(i);
+            final ChangedRange prev = ret.isEmpty() ? null : ret.get(ret.size() - 1);
+            final ChangedRange next = i + 1 < ranges.size() ? ranges.get(i + 1) : null;
+            if (cur.startOld == cur.endOld) {
+                shiftRange(cur, prev, next, linesNew, idsNew, true);
+            } else if (cur.startNew == cur.endNew) {
+                shiftRange(cur, prev, next, linesOld, idsOld, false);
+            }
+            if (prev != null && prev.endOld == cur.startOld && prev.endNew == cur.startNew) {
+                prev.endOld = cur.endOld;
+                prev.endNew = cur.endNew;
+            } else {
+                ret.add(cur);
+            }
+        }
+        return ret;
+    }
+
+    private static void shiftRange(ChangedRange cur, ChangedRange prev, ChangedRange next,
+            String[] lines, int[] ids, boolean isAddition) {
+
+        final int start = isAddition ? cur.startNew : cur.startOld;
+        final int end = isAddition ? cur.endNew : cur.endOld;
+        final int minStart = prev == null ? 0 : (isAddition ? prev.endNew : prev.endOld);
+        final int minStartOther = prev == null ? 0 : (isAddition ? prev.endOld : prev.endNew);
+        final int startOther = isAddition ? cur.startOld : cur.startNew;
+        final int maxEnd = next == null ? ids.length : (isAddition ? next.startNew : next.startOld);
+        final int maxStartOther = next == null ? Integer.MAX_VALUE : (isAddition ? next.startOld : next.startNew);
+
+        int up = 0;
+        while (start - up - 1 >= minStart
+                && startOther - up - 1 >= minStartOther
+                && ids[start - up - 1] == ids[end - up - 1]) {
+            up++;
+        }
+        int down = 0;
+        while (end + down < maxEnd
+                && startOther + down + 1 <= maxStartOther
+                && ids[start + down] == ids[end + down]) {
+            down++;
+        }
+
+        int best = 0;
+        StartLineSuitability suitabilityOfBest = StartLineSuitability.determineFor(lines[start]);
+        for (int move = -up; move <= down; move++) {
+            final StartLineSuitability suitability = StartLineSuitability.determineFor(lines[start + move]);
+            if (suitability.compareTo(suitabilityOfBest) > 0) {
+                best = move;
+                suitabilityOfBest = suitability;
+            }
+        }
+        cur.move(best);
+    }
+
+    private List<Pair<IFragment, IFragment>> createFragments(List<ChangedRange> ranges,
+            IRevisionedFile fileOldInfo, String[] linesOld, IRevisionedFile fileNewInfo, String[] linesNew) {
+
+        final List<Pair<IFragment, IFragment>> ret = new ArrayList<>();
+        for (final ChangedRange range : ranges) {
+            final boolean isSingleLineChange =
+                    (range.endOld - range.startOld == 1) && (range.endNew - range.startNew == 1);
+            if (isSingleLineChange) {
+                ret.add(LineDiffFragments.createInLineDiffFragment(
+                        fileOldInfo,
+                        fileNewInfo,
+                        range.startOld,
+                        linesOld[range.startOld],
+                        range.startNew,
+                        linesNew[range.startNew]));
+            } else {
+                final IFragment original = ChangestructureFactory.createFragment(fileOldInfo,
+                        ChangestructureFactory.createPositionInText(range.startOld + 1, 1),
+                        ChangestructureFactory.createPositionInText(range.endOld + 1, 1));
+                final IFragment revised = ChangestructureFactory.createFragment(fileNewInfo,
+                        ChangestructureFactory.createPositionInText(range.startNew + 1, 1),
+                        ChangestructureFactory.createPositionInText(range.endNew + 1, 1));
+                ret.add(Pair.create(original, revised));
+            }
+        }
+        return ret;
+    }
+
+}
@@ -0,0 +1,90 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Helper methods for line-based diff algorithms: Splitting file contents into lines and creating
+ * the fragments for a change that affects only a single line.
+ */
+final class LineDiffFragments {
+
+    private LineDiffFragments() {
+    }
+
+    /**
+     * Splits the given file contents into lines.
+     */
+    public static String[] toLines(byte[] contents, String charset) {
+        try {
+            final BufferedReader r =
+                    new BufferedReader(new InputStreamReader(new ByteArrayInputStream(contents), charset));
+            final List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = r.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines.toArray(new String[lines.size()]);
+        } catch (final IOException e) {
+            // should not happen because reading from a byte buffer should not throw I/O exceptions
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    /**
+     * Creates the fragments for a change of a single line. The fragments only contain the part of the line
+     * between the common prefix and the common suffix of both versions.
+     */
+    public static Pair<IFragment, IFragment> createInLineDiffFragment(
+            IRevisionedFile fileOldInfo, IRevisionedFile fileNewInfo,
+            int lineIndexOld, String content1,
+            int lineIndexNew, String content2) {
+        final int commonPrefixLength = determineCommonPrefixLength(content1, content2);
+        final int commonSuffixLength = determineCommonSuffixLength(
+                content1.substring(commonPrefixLength),
+                content2.substring(commonPrefixLength));
+        return Pair.create(
+                toInLineFileFragment(fileOldInfo, content1, lineIndexOld, commonPrefixLength, commonSuffixLength),
+                toInLineFileFragment(fileNewInfo, content2, lineIndexNew, commonPrefixLength, commonSuffixLength));
+    }
+
+    private static int determineCommonPrefixLength(String content1, String content2) {
+        final int max = Math.min(content1.length(), content2.length());
+        for (int i = 0; i < max; i++) {
+            if (content1.charAt(i) != content2.charAt(i)) {
+                return i;
+            }
+        }
+        return max;
+    }
+
+    private static int determineCommonSuffixLength(String content1, String content2) {
+        final int max = Math.min(content1.length(), content2.length());
+        for (int i = 1; i <= max; i++) {
+            if (content1.charAt(content1.length() - i) != content2.charAt(content2.length() - i)) {
+                return i - 1;
+            }
+        }
+        return max;
+    }
+
+    private static IFragment toInLineFileFragment(IRevisionedFile fileInfo, String line,
+            int lineIndex, int prefixLength, int suffixLength) {
+        return ChangestructureFactory.createFragment(fileInfo,
+                ChangestructureFactory.createPositionInText(
+                        lineIndex + 1, prefixLength + 1),
+                ChangestructureFactory.createPositionInText(
+                        lineIndex + 1, line.length() - suffixLength + 1));
+    }
+
+}
@@ -0,0 +1,151 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+/**
+ * Myers' diff algorithm in the linear space variant ("An O(ND) Difference Algorithm and Its Variations",
+ * section 4b). The problem is recursively split at the "middle snake", which is found by searching forward
+ * and backward at the same time. Only two arrays of size O(N+M) are needed, and they are allocated once and
+ * reused in all recursion steps. This makes the algorithm suitable for very large files, where
+ * {@link MyersSourceDiffAlgorithm} would need too much memory for its path nodes.
+ */
+final class LinearSpaceMyersDiffAlgorithm extends LineBasedDiffAlgorithm {
+
+    /**
+     * The state of a single comparison.
+     */
+    private static final class Comparison {
+        private final int[] a;
+        private final int[] b;
+        private final boolean[] changedA;
+        private final boolean[] changedB;
+        private final int[] forward;
+        private final int[] backward;
+        private final int offset;
+
+        private int snakeStartA;
+        private int snakeStartB;
+        private int snakeEndA;
+        private int snakeEndB;
+
+        public Comparison(int[] a, int[] b, boolean[] changedA, boolean[] changedB, int maxSize) {
+            this.a = a;
+            this.b = b;
+            this.changedA = changedA;
+            this.changedB = changedB;
+            this.offset = maxSize / 2 + 2;
+            this.forward = new int[2 * this.offset + 1];
+            this.backward = new int[2 * this.offset + 1];
+        }
+
+        private void compare(int aStart, int aEnd, int bStart, int bEnd) {
+            while (aStart < aEnd && bStart < bEnd && this.a[aStart] == this.b[bStart]) {
+                aStart++;
+                bStart++;
+            }
+            while (aStart < aEnd && bStart < bEnd && this.a[aEnd - 1] == this.b[bEnd - 1]) {
+                aEnd--;
+                bEnd--;
+            }
+            if (aStart == aEnd) {
+                for (int i = bStart; i < bEnd; i++) {
+                    this.changedB[i] = true;
+                }
+                return;
+            }
+            if (bStart == bEnd) {
+                for (int i = aStart; i < aEnd; i++) {
+                    this.changedA[i] = true;
+                }
+                return;
+            }
+
+            this.findMiddleSnake(aStart, aEnd, bStart, bEnd);
+            //the fields are overwritten by the recursive calls
+            final int splitStartA = this.snakeStartA;
+            final int splitStartB = this.snakeStartB;
+            final int splitEndA = this.snakeEndA;
+            final int splitEndB = this.snakeEndB;
+            this.compare(aStart, splitStartA, bStart, splitStartB);
+            this.compare(splitEndA, aEnd, splitEndB, bEnd);
+        }
+
+        /**
+         * Determines the middle snake of an optimal path for the given ranges and stores it in the snake fields.
+         * The forward array contains the furthest x position (relative to aStart) for each diagonal k = x - y,
+         * the backward array contains the furthest distance from the end for each reverse diagonal.
+         * Reverse diagonal kr corresponds to forward diagonal delta - kr.
+         */
+        private void findMiddleSnake(int aStart, int aEnd, int bStart, int bEnd) {
+            final int n = aEnd - aStart;
+            final int m = bEnd - bStart;
+            final int delta = n - m;
+            final boolean deltaIsOdd = (delta & 1) != 0;
+            final int maxD = (n + m + 1) / 2;
+            final int[] vf = this.forward;
+            final int[] vb = this.backward;
+            final int off = this.offset;
+            vf[off + 1] = 0;
+            vb[off + 1] = 0;
+
+            for (int d = 0; d <= maxD; d++) {
+                for (int k = -d; k <= d; k += 2) {
+                    int x;
+                    if (k == -d || (k != d && vf[off + k - 1] < vf[off + k + 1])) {
+                        x = vf[off + k + 1];
+                    } else {
+                        x = vf[off + k - 1] + 1;
+                    }
+                    int y = x - k;
+                    final int startX = x;
+                    final int startY = y;
+                    while (x < n && y < m && this.a[aStart + x] == this.b[bStart + y]) {
+                        x++;
+                        y++;
+                    }
+                    vf[off + k] = x;
+                    final int kr = delta - k;
+                    if (deltaIsOdd && kr >= -(d - 1) && kr <= d - 1 && x + vb[off + kr] >= n) {
+                        this.snakeStartA = aStart + startX;
+                        this.snakeStartB = bStart + startY;
+                        this.snakeEndA = aStart + x;
+                        this.snakeEndB = bStart + y;
+                        return;
+                    }
+                }
+
+                for (int kr = -d; kr <= d; kr += 2) {
+                    int x;
+                    if (kr == -d || (kr != d && vb[off + kr - 1] < vb[off + kr + 1])) {
+                        x = vb[off + kr + 1];
+                    } else {
+                        x = vb[off + kr - 1] + 1;
+                    }
+                    int y = x - kr;
+                    final int startX = x;
+                    final int startY = y;
+                    while (x < n && y < m && this.a[aEnd - 1 - x] == this.b[bEnd - 1 - y]) {
+                        x++;
+                        y++;
+                    }
+                    vb[off + kr] = x;
+                    final int k = delta - kr;
+                    if (!deltaIsOdd && k >= -d && k <= d && vf[off + k] + x >= n) {
+                        this.snakeStartA = aEnd - x;
+                        this.snakeStartB = bEnd - y;
+                        this.snakeEndA = aEnd - startX;
+                        this.snakeEndB = bEnd - startY;
+                        return;
+                    }
+                }
+            }
+            throw new AssertionError("no middle snake found, should not happen");
+        }
+    }
+
+    @Override
+    protected void markChangedLines(
+            int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, boolean[] changedA, boolean[] changedB) {
+        final Comparison c = new Comparison(a, b, changedA, changedB, (aEnd - aStart) + (bEnd - bStart));
+        c.compare(aStart, aEnd, bStart, bEnd);
+    }
+
+}
@@ -1,15 +1,10 @@
 package de.setsoftware.reviewtool.diffalgorithms;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import de.setsoftware.reviewtool.base.Pair;
-import de.setsoftware.reviewtool.base.ReviewtoolException;
 import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
@@ -23,8 +18,8 @@ class MyersSourceDiffAlgorithm implements IDiffAlgorithm {
     public List<Pair<IFragment, IFragment>> determineDiff(IRevisionedFile fileOldInfo, byte[] fileOldContent,
             IRevisionedFile fileNewInfo, byte[] fileNewContent, String charset) {
 
-        final FullFileView<String> fileOld = this.toLines(fileOldContent, charset);
-        final FullFileView<String> fileNew = this.toLines(fileNewContent, charset);
+        final FullFileView<String> fileOld = new FullFileView<>(LineDiffFragments.toLines(fileOldContent, charset));
+        final FullFileView<String> fileNew = new FullFileView<>(LineDiffFragments.toLines(fileNewContent, charset));
         final PathNode path = new MyersDiff().buildPath(fileOld, fileNew);
 
         this.postprocessPath(path, fileOld, fileNew);
@@ -172,7 +167,8 @@ class MyersSourceDiffAlgorithm implements IDiffAlgorithm {
 
             final boolean isSingleLineChange = (endOld - startOld == 1) && (endNew - startNew == 1);
             if (isSingleLineChange) {
-                ret.add(this.createInLineDiffFragment(
+                assert !fileOld.getItem(startOld).equals(fileNew.getItem(startNew));
+                ret.add(LineDiffFragments.createInLineDiffFragment(
                         fileOldInfo,
                         fileNewInfo,
                         startOld,
@@ -196,63 +192,4 @@ class MyersSourceDiffAlgorithm implements IDiffAlgorithm {
         }
         return ret;
     }
-
-    private FullFileView<String> toLines(byte[] contents, String charset) {
-        try {
-            final BufferedReader r =
-                    new BufferedReader(new InputStreamReader(new ByteArrayInputStream(contents), charset));
-            final List<String> lines = new ArrayList<>();
-            String line;
-            while ((line = r.readLine()) != null) {
-                lines.add(line);
-            }
-            return new FullFileView<String>(lines.toArray(new String[lines.size()]));
-        } catch (final IOException e) {
-            // should not happen because reading from a byte buffer should not throw I/O exceptions
-            throw new ReviewtoolException(e);
-        }
-    }
-
-    private Pair<IFragment, IFragment> createInLineDiffFragment(
-            IRevisionedFile fileOldInfo, IRevisionedFile fileNewInfo,
-            int lineIndexOld, String content1,
-            int lineIndexNew, String content2) {
-        assert !content1.equals(content2);
-        final int commonPrefixLength = this.determineCommonPrefixLength(content1, content2);
-        final int commonSuffixLength = this.determineCommonSuffixLength(
-                content1.substring(commonPrefixLength),
-                content2.substring(commonPrefixLength));
-        return Pair.create(
-                this.toInLineFileFragment(fileOldInfo, content1, lineIndexOld, commonPrefixLength, commonSuffixLength),
-                this.toInLineFileFragment(fileNewInfo, content2, lineIndexNew, commonPrefixLength, commonSuffixLength));
-    }
-
-    private int determineCommonPrefixLength(String content1, String content2) {
-        final int max = Math.min(content1.length(), content2.length());
-        for (int i = 0; i < max; i++) {
-            if (content1.charAt(i) != content2.charAt(i)) {
-                return i;
-            }
-        }
-        return max;
-    }
-
-    private int determineCommonSuffixLength(String content1, String content2) {
-        final int max = Math.min(content1.length(), content2.length());
-        for (int i = 1; i <= max; i++) {
-            if (content1.charAt(content1.length() - i) != content2.charAt(content2.length() - i)) {
-                return i - 1;
-            }
-        }
-        return max;
-    }
-
-    private IFragment toInLineFileFragment(IRevisionedFile fileInfo, String line,
-            int lineIndex, int prefixLength, int suffixLength) {
-        return ChangestructureFactory.createFragment(fileInfo,
-                ChangestructureFactory.createPositionInText(
-                        lineIndex + 1, prefixLength + 1),
-                ChangestructureFactory.createPositionInText(
-                        lineIndex + 1, line.length() - suffixLength + 1));
-    }
 }
@@ -1,16 +1,48 @@
 package de.setsoftware.reviewtool.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 
 import de.setsoftware.reviewtool.base.ReviewtoolException;
 
 /**
  * Implementation of {@link IReviewDataCache} that caches to disk.
+ * <p/>
+ * The journal is stored in a separate file that is only appended to. Every entry is stored with its length,
+ * so that an entry that has only partly been written (e.g. because Eclipse crashed) can be detected and ignored.
+ * Such an entry is removed before the next entry is appended.
+ * <p/>
+ * The data is written to a temporary file that replaces the old file, so that it is never only partly written.
+ * Every time the data is saved, it gets a new generation number. The journal starts with the generation of the
+ * data it belongs to, so that a journal that could not be deleted is not replayed on newer data.
  */
 public class FileReviewDataCache implements IReviewDataCache {
 
+    private static final String CHARSET = "UTF-8";
+    private static final String GENERATION_PREFIX = "#generation ";
+    private static final int JOURNAL_HEADER_SIZE = 8;
+
+    /**
+     * The complete entries of a journal and the length of the part of the file that contains them.
+     */
+    private static final class JournalContent {
+        private final List<String> entries = new ArrayList<>();
+        private long validLength = JOURNAL_HEADER_SIZE;
+    }
+
     private final File localStateDirectory;
 
     public FileReviewDataCache(File localStateDirectory) {
@@ -21,13 +53,29 @@ public class FileReviewDataCache implements IReviewDataCache {
         return new File(this.localStateDirectory, "localReviewData." + key);
     }
 
+    private File getJournalFile(String key) {
+        return new File(this.localStateDirectory, "localReviewData." + key + ".journal");
+    }
+
+    private File getTempFile(String key) {
+        return new File(this.localStateDirectory, "localReviewData." + key + ".tmp");
+    }
+
     @Override
     public void saveLocalReviewData(String key, String data) {
+        //the current time is used as a lower bound, so that the generation is new even when
+        //  the data has been deleted in between
+        final long generation = Math.max(this.readGeneration(key) + 1, System.currentTimeMillis());
+        final File tempFile = this.getTempFile(key);
         try {
-            Files.write(this.getFile(key).toPath(), data.getBytes("UTF-8"));
+            Files.write(tempFile.toPath(), (GENERATION_PREFIX + generation + "\n" + data).getBytes(CHARSET));
+            Files.move(tempFile.toPath(), this.getFile(key).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (final IOException e) {
             throw new ReviewtoolException(e);
         }
+        //the journal belongs to the previous generation now, so it is not replayed even when the deletion fails
+        this.getJournalFile(key).delete();
     }
 
     @Override
@@ -36,7 +84,12 @@ public class FileReviewDataCache implements IReviewDataCache {
             final File file = this.getFile(key);
             if (file.exists()) {
                 final byte[] bytes = Files.readAllBytes(file.toPath());
-                return new String(bytes, "UTF-8");
+                final String content = new String(bytes, CHARSET);
+                if (content.startsWith(GENERATION_PREFIX)) {
+                    return content.substring(content.indexOf('\n') + 1);
+                }
+                //written by a version without generations
+                return content;
             } else {
                 return null;
             }
@@ -45,8 +98,108 @@ public class FileReviewDataCache implements IReviewDataCache {
         }
     }
 
+    /**
+     * Returns the generation of the cached data. Returns 0 if there is no data or it has no generation.
+     */
+    private long readGeneration(String key) {
+        final File file = this.getFile(key);
+        if (!file.exists()) {
+            return 0;
+        }
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), CHARSET))) {
+            final String firstLine = in.readLine();
+            if (firstLine == null || !firstLine.startsWith(GENERATION_PREFIX)) {
+                return 0;
+            }
+            return Long.parseLong(firstLine.substring(GENERATION_PREFIX.length()));
+        } catch (final IOException e) {
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    /**
+     * Reads the complete entries of the journal. An incomplete last entry is ignored.
+     * Returns null if there is no journal for the given generation of the data.
+     */
+    private static JournalContent readJournal(File journal, long generation) {
+        if (!journal.exists()) {
+            return null;
+        }
+        final long fileLength = journal.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+            if (in.readLong() != generation) {
+                //left over from older data
+                return null;
+            }
+            final JournalContent ret = new JournalContent();
+            while (ret.validLength + 4 <= fileLength) {
+                final int length = in.readInt();
+                if (length < 0 || ret.validLength + 4 + length > fileLength) {
+                    //only partly written, e.g. because Eclipse crashed
+                    break;
+                }
+                final byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                ret.entries.add(new String(bytes, CHARSET));
+                ret.validLength += 4 + length;
+            }
+            return ret;
+        } catch (final EOFException e) {
+            //the header is incomplete
+            return null;
+        } catch (final IOException e) {
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    @Override
+    public void appendToJournal(String key, String entry) {
+        final File journal = this.getJournalFile(key);
+        final long generation = this.readGeneration(key);
+        final JournalContent existing = readJournal(journal, generation);
+        try {
+            if (existing != null && existing.validLength < journal.length()) {
+                //the new entry would be garbled by an incomplete last entry, so that one is removed
+                try (RandomAccessFile f = new RandomAccessFile(journal, "rw")) {
+                    f.setLength(existing.validLength);
+                }
+            }
+            //a journal of an older generation is replaced
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(journal, existing != null))) {
+                if (existing == null) {
+                    out.writeLong(generation);
+                }
+                final byte[] bytes = entry.getBytes(CHARSET);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        } catch (final IOException e) {
+            throw new ReviewtoolException(e);
+        }
+    }
+
+    @Override
+    public List<String> getJournal(String key) {
+        final JournalContent content = readJournal(this.getJournalFile(key), this.readGeneration(key));
+        return content == null ? new ArrayList<String>() : content.entries;
+    }
+
+    @Override
+    public String moveJournalAside(String key) {
+        final File journal = this.getJournalFile(key);
+        final File target = new File(
+                this.localStateDirectory, journal.getName() + ".failed" + System.currentTimeMillis());
+        try {
+            Files.move(journal.toPath(), target.toPath());
+        } catch (final IOException e) {
+            throw new ReviewtoolException(e);
+        }
+        return target.toString();
+    }
+
     @Override
     public void clearLocalReviewData(String key) {
+        this.getJournalFile(key).delete();
         this.getFile(key).delete();
     }
 }
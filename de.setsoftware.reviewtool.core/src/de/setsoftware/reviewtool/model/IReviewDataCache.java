@@ -1,22 +1,46 @@
 package de.setsoftware.reviewtool.model;
 
+import java.util.List;
+
 /**
  * Interface to access the local cache for review remarks.
+ * <p/>
+ * Besides the full data, the cache contains a journal of changes that have been made since the full data
+ * was saved the last time. This allows saving small changes without rewriting all the data.
  */
 public interface IReviewDataCache {
 
     /**
-     * Sets the data in the cache to the given value.
+     * Sets the data in the cache to the given value. Clears the journal.
      */
     public abstract void saveLocalReviewData(String key, String data);
 
     /**
      * Returns the data currently in the cache, or null if there is none.
+     * The changes in the journal are not contained in the returned data.
      */
     public abstract String getLocalReviewData(String key);
 
     /**
-     * Deletes the cached data.
+     * Appends the given entry to the journal of changes for the cached data.
+     */
+    public abstract void appendToJournal(String key, String entry);
+
+    /**
+     * Returns the entries of the journal in the order they have been appended. Returns an empty list
+     * if there are no changes since the data has been saved.
+     */
+    public abstract List<String> getJournal(String key);
+
+    /**
+     * Moves the journal away, so that it is no longer applied to the cached data, but is kept for a manual
+     * recovery of the changes.
+     * @return A description of the place the journal has been moved to.
+     */
+    public abstract String moveJournalAside(String key);
+
+    /**
+     * Deletes the cached data and its journal.
      */
     public abstract void clearLocalReviewData(String key);
 
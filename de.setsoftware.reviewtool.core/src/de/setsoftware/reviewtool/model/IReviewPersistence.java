@@ -25,6 +25,13 @@ public interface IReviewPersistence {
      */
     public abstract List<TicketInfo> getTicketsForFilter(String filterName);
 
+    /**
+     * Searches the tickets that match the given filter and passes them to the given callback page by page,
+     * as soon as they are available. Blocks until all tickets have been passed or the callback has been
+     * canceled. The callback is called in the calling thread.
+     */
+    public abstract void searchTicketsForFilter(String filterName, ITicketSearchCallback callback);
+
     public abstract void saveReviewData(String ticketKey, String newData);
 
     public abstract ITicketData loadTicket(String ticketKey);
@@ -0,0 +1,20 @@
+package de.setsoftware.reviewtool.model;
+
+import java.util.List;
+
+/**
+ * Receives the tickets of a search incrementally, one page after the other.
+ */
+public interface ITicketSearchCallback {
+
+    /**
+     * Is called for every page of found tickets, in the order of the pages.
+     */
+    public abstract void ticketsFound(List<TicketInfo> tickets);
+
+    /**
+     * Returns true when no further tickets are needed. The search is ended as soon as possible then.
+     */
+    public abstract boolean isCanceled();
+
+}
@@ -1,6 +1,9 @@
 package de.setsoftware.reviewtool.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -9,10 +12,13 @@ import java.util.Map;
 public class InMemoryReviewDataCache implements IReviewDataCache {
 
     private final Map<String, String> data = new HashMap<>();
+    private final Map<String, List<String>> journals = new HashMap<>();
+    private final Map<String, List<String>> movedJournals = new HashMap<>();
 
     @Override
     public void saveLocalReviewData(String key, String data) {
         this.data.put(key, data);
+        this.journals.remove(key);
     }
 
     @Override
@@ -20,9 +26,40 @@ public class InMemoryReviewDataCache implements IReviewDataCache {
         return this.data.get(key);
     }
 
+    @Override
+    public void appendToJournal(String key, String entry) {
+        List<String> journal = this.journals.get(key);
+        if (journal == null) {
+            journal = new ArrayList<>();
+            this.journals.put(key, journal);
+        }
+        journal.add(entry);
+    }
+
+    @Override
+    public List<String> getJournal(String key) {
+        final List<String> journal = this.journals.get(key);
+        return journal == null ? Collections.<String>emptyList() : new ArrayList<>(journal);
+    }
+
+    @Override
+    public String moveJournalAside(String key) {
+        this.movedJournals.put(key, this.getJournal(key));
+        this.journals.remove(key);
+        return "the moved journals in memory";
+    }
+
+    /**
+     * Returns the journal that has been moved aside for the given key, or null if there is none.
+     */
+    public List<String> getMovedJournal(String key) {
+        return this.movedJournals.get(key);
+    }
+
     @Override
     public void clearLocalReviewData(String key) {
         this.data.remove(key);
+        this.journals.remove(key);
     }
 
 }
@@ -0,0 +1,133 @@
+package de.setsoftware.reviewtool.model;
+
+import java.util.List;
+import java.util.Map;
+
+import de.setsoftware.reviewtool.model.remarks.DummyMarker;
+import de.setsoftware.reviewtool.model.remarks.ReviewData;
+import de.setsoftware.reviewtool.model.remarks.ReviewRemark;
+import de.setsoftware.reviewtool.model.remarks.ReviewRemarkException;
+import de.setsoftware.reviewtool.model.remarks.ReviewRound;
+
+/**
+ * The parsed review data of a ticket that is kept in memory while remarks are added and deleted, so that
+ * the data does not have to be parsed again for every change. Every change results in an entry for the journal
+ * of the local review data cache. Replaying the journal entries on the data they started from results in
+ * the current data.
+ * <p/>
+ * The remarks are stored with copies of their markers, so that changes to the marker of a remark after
+ * it has been saved do not change the review data.
+ */
+final class LiveReviewData {
+
+    private static final String MERGE_ENTRY = "merge";
+    private static final String DELETE_ENTRY = "delete";
+
+    private final String ticketKey;
+    private final Map<Integer, String> reviewersForRounds;
+    private final ReviewData data;
+    private String serializedData;
+    private int journalSize;
+
+    /**
+     * Constructor.
+     * @param ticketKey The key of the ticket the data belongs to.
+     * @param reviewersForRounds The reviewers of the ticket's review rounds, needed for parsing.
+     * @param data The parsed review data. Must have been parsed with {@link DummyMarker}s.
+     */
+    public LiveReviewData(String ticketKey, Map<Integer, String> reviewersForRounds, ReviewData data) {
+        this.ticketKey = ticketKey;
+        this.reviewersForRounds = reviewersForRounds;
+        this.data = data;
+    }
+
+    /**
+     * Parses the given data and applies the given journal entries to it.
+     */
+    public static LiveReviewData replay(
+            String ticketKey, Map<Integer, String> reviewersForRounds, String data, List<String> journal)
+        throws ReviewRemarkException {
+
+        final LiveReviewData ret = new LiveReviewData(
+                ticketKey, reviewersForRounds, ReviewData.parse(reviewersForRounds, DummyMarker.FACTORY, data));
+        for (final String entry : journal) {
+            ret.apply(entry);
+        }
+        return ret;
+    }
+
+    public boolean isFor(String key) {
+        return this.ticketKey.equals(key);
+    }
+
+    /**
+     * Writes a new version of the given remark into the review data (if already contained)
+     * or adds it to the given defaultRoundNumber (if not contained so far).
+     * @return The journal entry for the change.
+     */
+    public String merge(ReviewRemark remark, int defaultRoundNumber) throws ReviewRemarkException {
+        final String entry = MERGE_ENTRY + "\n" + serializeRemark(remark, defaultRoundNumber);
+        this.apply(entry);
+        return entry;
+    }
+
+    /**
+     * Deletes the given remark from all review rounds.
+     * @return The journal entry for the change.
+     */
+    public String delete(ReviewRemark remark) throws ReviewRemarkException {
+        final String entry = DELETE_ENTRY + "\n" + serializeRemark(remark, 1);
+        this.apply(entry);
+        return entry;
+    }
+
+    private static String serializeRemark(ReviewRemark remark, int roundNumber) throws ReviewRemarkException {
+        final ReviewRound round = new ReviewRound(Math.max(roundNumber, 1));
+        round.add(remark);
+        return round.serialize();
+    }
+
+    private void apply(String entry) throws ReviewRemarkException {
+        final int lineEnd = entry.indexOf('\n');
+        if (lineEnd < 0) {
+            throw new ReviewRemarkException("invalid journal entry: " + entry);
+        }
+        final String type = entry.substring(0, lineEnd);
+        final ReviewData change = ReviewData.parse(
+                this.reviewersForRounds, DummyMarker.FACTORY, entry.substring(lineEnd + 1));
+        if (type.equals(MERGE_ENTRY)) {
+            this.data.mergeAll(change);
+        } else if (type.equals(DELETE_ENTRY)) {
+            this.data.deleteAll(change);
+        } else {
+            throw new ReviewRemarkException("invalid journal entry: " + entry);
+        }
+        this.serializedData = null;
+        this.journalSize++;
+    }
+
+    /**
+     * Returns the serialized form of the current data.
+     */
+    public String getText() throws ReviewRemarkException {
+        if (this.serializedData == null) {
+            this.serializedData = this.data.serialize();
+        }
+        return this.serializedData;
+    }
+
+    /**
+     * Returns the number of changes since the data has been saved completely the last time.
+     */
+    public int getJournalSize() {
+        return this.journalSize;
+    }
+
+    /**
+     * Is called when the current data has been saved completely.
+     */
+    public void resetJournalSize() {
+        this.journalSize = 0;
+    }
+
+}
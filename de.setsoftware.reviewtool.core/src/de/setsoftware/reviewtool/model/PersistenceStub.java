@@ -37,6 +37,10 @@ public class PersistenceStub implements IReviewPersistence {
         return Collections.emptyList();
     }
 
+    @Override
+    public void searchTicketsForFilter(String filterName, ITicketSearchCallback callback) {
+    }
+
 
     @Override
     public ITicketData loadTicket(final String ticketKey) {
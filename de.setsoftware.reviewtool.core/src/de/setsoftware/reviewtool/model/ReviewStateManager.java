@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
+import de.setsoftware.reviewtool.base.ReviewtoolException;
 import de.setsoftware.reviewtool.base.WeakListeners;
 import de.setsoftware.reviewtool.model.remarks.DummyMarker;
 import de.setsoftware.reviewtool.model.remarks.ReviewData;
@@ -16,11 +17,17 @@ import de.setsoftware.reviewtool.model.remarks.ReviewRemarkException;
  */
 public class ReviewStateManager {
 
+    /**
+     * The number of journal entries after which the local review data is saved completely.
+     */
+    private static final int MAX_JOURNAL_SIZE = 100;
+
     private final IReviewDataCache localReviewData;
     private IReviewPersistence persistence;
     private final IUserInteraction userInteraction;
 
     private String ticketKey;
+    private LiveReviewData liveReviewData;
 
     private final WeakListeners<IReviewDataSaveListener> saveListeners = new WeakListeners<>();
 
@@ -50,7 +57,12 @@ public class ReviewStateManager {
      */
     public void saveCurrentReviewData(String newData) {
         this.loadTicketDataAndCheckExistence(true);
+        this.liveReviewData = null;
         this.localReviewData.saveLocalReviewData(this.ticketKey, newData);
+        this.notifySaveListeners(newData);
+    }
+
+    private void notifySaveListeners(String newData) {
         for (final IReviewDataSaveListener l : this.saveListeners) {
             l.onSave(newData);
         }
@@ -61,17 +73,18 @@ public class ReviewStateManager {
      * and clear the local cache.
      */
     public void flushReviewData() {
-        final String cachedData = this.localReviewData.getLocalReviewData(this.ticketKey);
+        final String cachedData = this.getLocalReviewData(this.ticketKey, null);
         if (cachedData != null) {
             this.persistence.saveReviewData(this.ticketKey, cachedData);
         }
-        this.localReviewData.clearLocalReviewData(this.ticketKey);
+        this.clearLocalReviewData();
     }
 
     /**
      * Clears the locally cached review data, so that the next load will go through to the persistence layer.
      */
     public void clearLocalReviewData() {
+        this.liveReviewData = null;
         this.localReviewData.clearLocalReviewData(this.ticketKey);
     }
 
@@ -126,10 +139,43 @@ public class ReviewStateManager {
     }
 
     private ITicketData decorateIfNeeded(ITicketData data) {
-        final String localData = this.localReviewData.getLocalReviewData(data.getTicketInfo().getId());
+        final String localData = this.getLocalReviewData(data.getId(), data);
         return localData != null ? new LocalReviewDataDecorator(localData, data) : data;
     }
 
+    /**
+     * Returns the locally cached review data for the given ticket, including the changes from the journal.
+     * When the journal cannot be replayed, it is moved aside and an exception is thrown.
+     * @param ticket The undecorated data of the ticket. When it is null, it is loaded if needed.
+     */
+    private String getLocalReviewData(String key, ITicketData ticket) {
+        if (this.liveReviewData != null && this.liveReviewData.isFor(key)) {
+            return this.liveReviewData.getText();
+        }
+        final String data = this.localReviewData.getLocalReviewData(key);
+        if (data == null) {
+            return null;
+        }
+        final List<String> journal = this.localReviewData.getJournal(key);
+        if (journal.isEmpty()) {
+            return data;
+        }
+        final ITicketData ticketData = ticket != null ? ticket : this.persistence.loadTicket(key);
+        if (ticketData == null) {
+            return data;
+        }
+        try {
+            this.liveReviewData = LiveReviewData.replay(key, getReviewersForRounds(ticketData), data, journal);
+        } catch (final ReviewRemarkException e) {
+            //the journal must not be lost when the data is saved the next time, so it is moved to a place
+            //  where it is no longer replayed and the user is told about it
+            final String movedTo = this.localReviewData.moveJournalAside(key);
+            throw new ReviewtoolException("The latest changes to the review remarks of " + key
+                    + " could not be restored. They have been moved to " + movedTo + ".", e);
+        }
+        return this.liveReviewData.getText();
+    }
+
     /**
      * Asks the user for a ticket. Does not change the review mode.
      * @param forReview True iff selection should be for review, false iff it should be for fixing.
@@ -140,6 +186,7 @@ public class ReviewStateManager {
 
     public void resetKey() {
         this.ticketKey = null;
+        this.liveReviewData = null;
     }
 
     /**
@@ -185,9 +232,11 @@ public class ReviewStateManager {
      * Deletes the given review remark. Persists the changed review data and deletes the marker as well.
      */
     public void deleteRemark(ReviewRemark remark) throws ReviewRemarkException {
-        final ReviewData data = this.getUi().getSyntaxFixer().getCurrentReviewDataParsed(this, DummyMarker.FACTORY);
-        data.deleteRemark(remark);
-        this.saveCurrentReviewData(data.serialize());
+        final LiveReviewData data = this.getLiveReviewData();
+        if (data == null) {
+            return;
+        }
+        this.saveChange(data, data.delete(remark));
         remark.deleteMarker();
     }
 
@@ -195,19 +244,62 @@ public class ReviewStateManager {
      * Merges the given remark into the existing remarks and saves it to the persistence.
      */
     public void saveRemark(ReviewRemark remark) {
-        final ReviewData r = this.getUi().getSyntaxFixer().getCurrentReviewDataParsed(
-                this, DummyMarker.FACTORY);
-        r.merge(remark, this.getCurrentRound());
-        this.saveCurrentReviewData(r.serialize());
+        final LiveReviewData data = this.getLiveReviewData();
+        if (data == null) {
+            return;
+        }
+        this.saveChange(data, data.merge(remark, this.getCurrentRound()));
+    }
+
+    /**
+     * Returns the parsed review data of the current ticket that is changed by saving and deleting remarks.
+     * Only when the review data has been changed in some other way, it has to be parsed again.
+     * When the local review data did not exist so far, it is created.
+     */
+    private LiveReviewData getLiveReviewData() {
+        if (this.liveReviewData != null && this.liveReviewData.isFor(this.ticketKey)) {
+            return this.liveReviewData;
+        }
+        final ReviewData data = this.getUi().getSyntaxFixer().getCurrentReviewDataParsed(this, DummyMarker.FACTORY);
+        if (data == null) {
+            return null;
+        }
+        //loading the current data can have replayed the journal, which also results in live data
+        if (this.liveReviewData != null && this.liveReviewData.isFor(this.ticketKey)) {
+            return this.liveReviewData;
+        }
+        final LiveReviewData live = new LiveReviewData(this.ticketKey, this.getReviewersForRounds(), data);
+        this.localReviewData.saveLocalReviewData(this.ticketKey, live.getText());
+        this.liveReviewData = live;
+        return live;
+    }
+
+    /**
+     * Saves the change to the given live data as a journal entry. When the journal gets too long,
+     * the complete data is saved instead.
+     */
+    private void saveChange(LiveReviewData data, String journalEntry) {
+        if (data.getJournalSize() >= MAX_JOURNAL_SIZE) {
+            this.localReviewData.saveLocalReviewData(this.ticketKey, data.getText());
+            data.resetJournalSize();
+        } else {
+            this.localReviewData.appendToJournal(this.ticketKey, journalEntry);
+        }
+        this.notifySaveListeners(data.getText());
     }
 
     /**
      * Returns the reviewers for all review rounds.
      */
     public Map<Integer, String> getReviewersForRounds() {
+        return getReviewersForRounds(this.loadTicketDataAndCheckExistence(true));
+    }
+
+    private static Map<Integer, String> getReviewersForRounds(ITicketData ticket) {
         final Map<Integer, String> ret = new TreeMap<>();
-        for (int round = 1; round <= this.getCurrentRound(); round++) {
-            ret.put(round, this.getReviewerForRound(round));
+        final int currentRound = ticket.getCurrentRound();
+        for (int round = 1; round <= currentRound; round++) {
+            ret.put(round, ticket.getReviewerForRound(round));
         }
         return ret;
     }
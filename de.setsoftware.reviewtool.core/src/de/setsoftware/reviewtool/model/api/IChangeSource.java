@@ -15,6 +15,16 @@ public interface IChangeSource extends IRepositoryProvider {
      */
     public abstract IChangeData getRepositoryChanges(String key, IChangeSourceUi ui);
 
+    /**
+     * Returns all repository changes for the ticket with the given key, based on a {@link IChangeData} object
+     * returned earlier by {@link #getRepositoryChanges(String, IChangeSourceUi)} for the same key. Only the
+     * commits that have been added since then are analyzed, they are appended to the commits of the previous
+     * data. The history graph of the previous data is extended and reused, so the previous data must not be used
+     * any longer afterwards.
+     */
+    public abstract IChangeData getNewRepositoryChanges(
+            IChangeData previousChanges, String key, IChangeSourceUi ui);
+
     /**
      * Returns all local changes (that are relevant for the review tool) in a new {@link IChangeData} object,
      * based on a {@link IChangeData} object returned earlier by {@link #getRepositoryChanges(String, IChangeSourceUi)}.
@@ -27,4 +37,10 @@ public interface IChangeSource extends IRepositoryProvider {
             List<File> relevantPaths,
             IProgressMonitor ui);
 
+    /**
+     * Writes the data that is kept in memory for the last analysis to disk. Is called when the review or fixing
+     * ends, when the change source is replaced and when Eclipse is closed.
+     */
+    public abstract void saveCaches();
+
 }
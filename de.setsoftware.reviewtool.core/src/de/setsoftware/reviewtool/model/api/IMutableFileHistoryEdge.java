@@ -19,4 +19,11 @@ public interface IMutableFileHistoryEdge extends IFileHistoryEdge {
      */
     public abstract void setDiff(IFileDiff diff);
 
+    /**
+     * Sets an action that determines the diff of this edge on demand. As long as it is set, the action is executed
+     * every time before {@link #getDiff()} returns the diff. It is responsible for setting the diff and for removing
+     * itself afterwards. Passing {@code null} removes the action.
+     */
+    public abstract void setDiffLoader(Runnable loader);
+
 }
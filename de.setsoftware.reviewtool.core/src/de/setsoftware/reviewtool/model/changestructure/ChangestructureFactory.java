@@ -31,6 +31,21 @@ public class ChangestructureFactory {
         return new Commit(message, changes, isVisible, revision, timestamp);
     }
 
+    /**
+     * Creates a commit whose changes are determined by the given loader when they are needed for the first time.
+     * @param changedFiles The files changed in the commit, as far as they are known without determining
+     *      the changes.
+     */
+    public static LazyCommit createLazyCommit(
+            final String message,
+            final List<? extends IRevisionedFile> changedFiles,
+            final boolean isVisible,
+            final IRevision revision,
+            final Date timestamp,
+            final LazyCommit.IChangeLoader changeLoader) {
+        return new LazyCommit(message, changedFiles, isVisible, revision, timestamp, changeLoader);
+    }
+
     public static IBinaryChange createBinaryChange(
             IRevisionedFile from, IRevisionedFile to, boolean irrelevantForReview, final boolean isVisible) {
         return new BinaryChange(from, to, irrelevantForReview, isVisible);
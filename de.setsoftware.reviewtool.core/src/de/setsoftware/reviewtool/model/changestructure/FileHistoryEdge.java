@@ -11,6 +11,7 @@ public final class FileHistoryEdge implements IMutableFileHistoryEdge {
     private final FileHistoryNode ancestor;
     private final FileHistoryNode descendant;
     private IFileDiff diff;
+    private volatile Runnable diffLoader;
 
     /**
      * Constructor.
@@ -36,6 +37,10 @@ public final class FileHistoryEdge implements IMutableFileHistoryEdge {
 
     @Override
     public IFileDiff getDiff() {
+        final Runnable loader = this.diffLoader;
+        if (loader != null) {
+            loader.run();
+        }
         return this.diff;
     }
 
@@ -43,4 +48,9 @@ public final class FileHistoryEdge implements IMutableFileHistoryEdge {
     public void setDiff(final IFileDiff diff) {
         this.diff = diff;
     }
+
+    @Override
+    public void setDiffLoader(final Runnable loader) {
+        this.diffLoader = loader;
+    }
 }
@@ -1,13 +1,15 @@
 package de.setsoftware.reviewtool.model.changestructure;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-import de.setsoftware.reviewtool.base.Multimap;
-import de.setsoftware.reviewtool.base.Pair;
 import de.setsoftware.reviewtool.model.api.ILocalRevision;
 import de.setsoftware.reviewtool.model.api.IMutableFileHistoryGraph;
 import de.setsoftware.reviewtool.model.api.IRepoRevision;
@@ -19,14 +21,112 @@ import de.setsoftware.reviewtool.model.api.IUnknownRevision;
 
 /**
  *  A graph of files. Tracks renames, copies and deletion, so that the history of a file forms a tree.
+ *  <p/>
+ *  The nodes are indexed by repository and path. The nodes of a path are kept sorted by revision number, so
+ *  that nodes and ancestors can be found by binary search. The path strings are interned, because a
+ *  copied directory leads to a node for every contained file and revision.
  */
 public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implements IMutableFileHistoryGraph {
 
-    private final Multimap<Pair<String, IRepository>, FileHistoryNode> index = new Multimap<>();
+    /**
+     * The nodes for a single path and repository, sorted by revision number.
+     */
+    private static final class NodesForPath {
+        private long[] revisionNumbers = new long[2];
+        private FileHistoryNode[] nodes = new FileHistoryNode[2];
+        private int size;
+
+        /**
+         * Adds a node. Nodes with the same revision number are kept in insertion order.
+         */
+        public void add(final long revisionNumber, final FileHistoryNode node) {
+            if (this.size == this.nodes.length) {
+                this.revisionNumbers = Arrays.copyOf(this.revisionNumbers, this.size * 2);
+                this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+            }
+            //nodes are mostly added in ascending order, so this usually does not move anything
+            final int insertionPoint = this.findFirstGreater(revisionNumber);
+            System.arraycopy(this.revisionNumbers, insertionPoint,
+                    this.revisionNumbers, insertionPoint + 1, this.size - insertionPoint);
+            System.arraycopy(this.nodes, insertionPoint, this.nodes, insertionPoint + 1, this.size - insertionPoint);
+            this.revisionNumbers[insertionPoint] = revisionNumber;
+            this.nodes[insertionPoint] = node;
+            this.size++;
+        }
+
+        /**
+         * Returns the node for the given revision, or null if there is none.
+         */
+        public FileHistoryNode get(final long revisionNumber, final IRevision revision) {
+            for (int i = this.findFirstNotLess(revisionNumber);
+                    i < this.size && this.revisionNumbers[i] == revisionNumber;
+                    i++) {
+                if (this.nodes[i].getFile().getRevision().equals(revision)) {
+                    return this.nodes[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the node with the largest revision number that is smaller than the given one, or null
+         * if there is none.
+         */
+        public FileHistoryNode getNearestBefore(final long revisionNumber) {
+            final int index = this.findFirstNotLess(revisionNumber);
+            if (index == 0) {
+                return null;
+            }
+            //like in the former linear search, the first of several nodes with the same number wins
+            return this.nodes[this.findFirstNotLess(this.revisionNumbers[index - 1])];
+        }
+
+        /**
+         * Returns the index of the first node with a revision number >= the given one.
+         */
+        private int findFirstNotLess(final long revisionNumber) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (this.revisionNumbers[mid] < revisionNumber) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the index of the first node with a revision number > the given one.
+         */
+        private int findFirstGreater(final long revisionNumber) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (this.revisionNumbers[mid] <= revisionNumber) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.asList(this.nodes).subList(0, this.size).toString();
+        }
+    }
+
+    private final Map<IRepository, Map<String, NodesForPath>> index = new LinkedHashMap<>();
+    private final Map<String, String> internedPaths = new HashMap<>();
 
     @Override
     public final boolean contains(final String path, final IRepository repo) {
-        return !this.index.get(Pair.create(path, repo)).isEmpty();
+        return this.getNodesForPath(path, repo) != null;
     }
 
     @Override
@@ -36,7 +136,7 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
             final Set<IRevision> ancestorRevisions) {
 
         final boolean isNew = ancestorRevisions.isEmpty();
-        final IRevisionedFile file = ChangestructureFactory.createFileInRevision(path, revision);
+        final IRevisionedFile file = this.createFile(path, revision);
         final FileHistoryNode node = this.getOrCreateFileHistoryNode(file, true, isNew, !isNew);
         if (node.isRoot()) {
             // for each root file within the history graph, we need an artificial ancestor node to record the changes
@@ -49,7 +149,7 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
             }
 
             for (final IRevision ancestorRevision : ancestorRevs) {
-                final IRevisionedFile prevFile = ChangestructureFactory.createFileInRevision(path, ancestorRevision);
+                final IRevisionedFile prevFile = this.createFile(path, ancestorRevision);
                 final FileHistoryNode ancestor = this.getOrCreateFileHistoryNode(
                         prevFile,
                         true,   // must not exist
@@ -89,14 +189,13 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
 
         final Set<FileHistoryNode> ancestors = new LinkedHashSet<>();
         for (final IRevision ancestorRevision : ancestorRevisions) {
-            final IRevisionedFile ancestorFile =
-                    ChangestructureFactory.createFileInRevision(path, ancestorRevision);
+            final IRevisionedFile ancestorFile = this.createFile(path, ancestorRevision);
             final FileHistoryNode ancestor = this.getOrCreateFileHistoryNode(ancestorFile, false, false, true);
             assert !ancestor.isDeleted();
             ancestors.add(ancestor);
         }
 
-        final IRevisionedFile file = ChangestructureFactory.createFileInRevision(path, revision);
+        final IRevisionedFile file = this.createFile(path, revision);
         final FileHistoryNode node = this.getNodeFor(file);
         revision.accept(new IRevisionVisitor<Void>() {
 
@@ -128,8 +227,7 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
         if (node == null) {
             final FileHistoryNode deletionNode = new FileHistoryNode(file, true);
             this.addParentNodes(deletionNode, false, false);
-            final Pair<String, IRepository> key = FileHistoryGraph.this.createKey(file);
-            this.index.put(key, deletionNode);
+            this.addToIndex(deletionNode);
             for (final FileHistoryNode ancestor : ancestors) {
                 ancestor.addDescendant(deletionNode, new FileDiff(ancestor.getFile(), file));
                 for (final FileHistoryNode child : ancestor.getChildren()) {
@@ -147,8 +245,8 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
             final IRevision revisionFrom,
             final IRevision revisionTo) {
 
-        final IRevisionedFile fileFrom = ChangestructureFactory.createFileInRevision(pathFrom, revisionFrom);
-        final IRevisionedFile fileTo = ChangestructureFactory.createFileInRevision(pathTo, revisionTo);
+        final IRevisionedFile fileFrom = this.createFile(pathFrom, revisionFrom);
+        final IRevisionedFile fileTo = this.createFile(pathTo, revisionTo);
 
         final FileHistoryNode fromNode = this.getOrCreateFileHistoryNode(fileFrom, false, false, true);
         final FileHistoryNode toNode = this.getOrCreateFileHistoryNode(fileTo, true, true, true);
@@ -183,9 +281,7 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
         if (path.contains("/")) {
             final String parentPath = path.substring(0, path.lastIndexOf("/"));
             if (!parentPath.isEmpty()) {
-                final IRevisionedFile fileRev = ChangestructureFactory.createFileInRevision(
-                        parentPath,
-                        file.getRevision());
+                final IRevisionedFile fileRev = this.createFile(parentPath, file.getRevision());
                 // don't copy child nodes when traversing upwards the tree as they already exist
                 final FileHistoryNode parent = this.getOrCreateFileHistoryNode(fileRev, false, false, false);
                 parent.addChild(node);
@@ -196,7 +292,7 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
                     for (final FileHistoryEdge parentAncestorEdge : parent.getAncestors()) {
                         final FileHistoryNode parentAncestor = parentAncestorEdge.getAncestor();
                         final IRevisionedFile parentAncestorRev = parentAncestor.getFile();
-                        final IRevisionedFile ancestorRev = ChangestructureFactory.createFileInRevision(
+                        final IRevisionedFile ancestorRev = this.createFile(
                                 parentAncestorRev.getPath() + "/" + name,
                                 parentAncestorRev.getRevision());
                         final FileHistoryNode ancestor =
@@ -214,11 +310,11 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
     }
 
     /**
-     * Copies child nodes.
+     * Copies child nodes. As the new node is the parent of all copies, they are attached to it directly
+     * instead of looking up the parent for every single child.
      */
     private void copyChildNodes(final FileHistoryNode oldNode, final FileHistoryNode newNode) {
         final String oldParentPath = oldNode.getFile().getPath();
-        final IRevision oldRevision = oldNode.getFile().getRevision();
         final String newParentPath = newNode.getFile().getPath();
         final IRevision newRevision = newNode.getFile().getRevision();
 
@@ -226,9 +322,18 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
             // don't copy deleted children
             if (!child.isDeleted()) {
                 final String childPath = child.getFile().getPath();
-                FileHistoryGraph.this.addCopy(childPath,
+                final IRevisionedFile fileTo = this.createFile(
                         crateCopyTargetName(childPath, oldParentPath, newParentPath),
-                        oldRevision, newRevision);
+                        newRevision);
+                FileHistoryNode toNode = this.getNodeFor(fileTo);
+                if (toNode == null) {
+                    toNode = new FileHistoryNode(fileTo, false);
+                    this.addToIndex(toNode);
+                    newNode.addChild(toNode);
+                }
+                if (!child.hasDescendant(toNode)) {
+                    this.addEdge(child, toNode, true);
+                }
             }
         }
     }
@@ -252,7 +357,7 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
         FileHistoryNode node = this.getNodeFor(file);
         if (node == null) {
             final FileHistoryNode newNode = new FileHistoryNode(file, false);
-            this.index.put(this.createKey(file), newNode);
+            this.addToIndex(newNode);
 
             this.addParentNodes(newNode, isNew, copyChildren);
             if (!isNew && newNode.isRoot()) { // addParentNodes() may have already added an ancestor
@@ -293,36 +398,65 @@ public abstract class FileHistoryGraph extends AbstractFileHistoryGraph implemen
 
     @Override
     public final FileHistoryNode getNodeFor(final IRevisionedFile file) {
-        final Pair<String, IRepository> key = this.createKey(file);
-        final List<FileHistoryNode> nodesForKey = this.index.get(key);
-        for (final FileHistoryNode node : nodesForKey) {
-            if (node.getFile().getRevision().equals(file.getRevision())) {
-                return node;
-            }
+        final NodesForPath nodes = this.getNodesForPath(file.getPath(), file.getRepository());
+        if (nodes == null) {
+            return null;
         }
-        return null;
+        final IRevision revision = file.getRevision();
+        return nodes.get(this.getRevisionNumber(revision), revision);
     }
 
-    private Pair<String, IRepository> createKey(final IRevisionedFile file) {
-        return Pair.create(file.getPath(), file.getRepository());
+    /**
+     * Returns the nearest ancestor for passed {@link IRevisionedFile} having the same path, or <code>null</code>
+     * if no suitable node exists. To be suitable, the ancestor node must not be deleted, as
+     * a deleted file cannot be an ancestor.
+     */
+    public final FileHistoryNode findAncestorFor(final IRevisionedFile file) {
+        final NodesForPath nodes = this.getNodesForPath(file.getPath(), file.getRepository());
+        if (nodes == null) {
+            return null;
+        }
+        final FileHistoryNode nearestNode = nodes.getNearestBefore(this.getRevisionNumber(file.getRevision()));
+        return nearestNode == null || nearestNode.isDeleted() ? null : nearestNode;
     }
 
     /**
-     * Performs a file lookup in the index.
-     * @param file The file to look for.
-     * @return A list of matching {@link FileHistoryNode}s.
+     * Returns a number for the given revision that reflects the order of the revisions in the repository.
+     * It is used to sort the nodes of a path and to find the nearest ancestor of a node.
      */
-    protected final List<FileHistoryNode> lookupFile(final IRevisionedFile file) {
-        final Pair<String, IRepository> key = this.createKey(file);
-        return this.index.get(key);
+    protected abstract long getRevisionNumber(IRevision revision);
+
+    private NodesForPath getNodesForPath(final String path, final IRepository repo) {
+        final Map<String, NodesForPath> nodesForRepo = this.index.get(repo);
+        return nodesForRepo == null ? null : nodesForRepo.get(path);
+    }
+
+    private void addToIndex(final FileHistoryNode node) {
+        final IRevisionedFile file = node.getFile();
+        Map<String, NodesForPath> nodesForRepo = this.index.get(file.getRepository());
+        if (nodesForRepo == null) {
+            nodesForRepo = new LinkedHashMap<>();
+            this.index.put(file.getRepository(), nodesForRepo);
+        }
+        NodesForPath nodes = nodesForRepo.get(file.getPath());
+        if (nodes == null) {
+            nodes = new NodesForPath();
+            nodesForRepo.put(file.getPath(), nodes);
+        }
+        nodes.add(this.getRevisionNumber(file.getRevision()), node);
     }
 
     /**
-     * Returns the nearest ancestor for passed {@link IRevisionedFile} having the same path, or <code>null</code>
-     * if no suitable node exists. To be suitable, the ancestor node must be an {@link ExistingFileHistoryNode} as
-     * a deleted file cannot be an ancestor.
+     * Creates a {@link IRevisionedFile} with an interned path.
      */
-    public abstract FileHistoryNode findAncestorFor(IRevisionedFile file);
+    private IRevisionedFile createFile(final String path, final IRevision revision) {
+        String internedPath = this.internedPaths.get(path);
+        if (internedPath == null) {
+            internedPath = path;
+            this.internedPaths.put(path, path);
+        }
+        return ChangestructureFactory.createFileInRevision(internedPath, revision);
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,131 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import de.setsoftware.reviewtool.model.api.IChange;
+import de.setsoftware.reviewtool.model.api.ICommit;
+import de.setsoftware.reviewtool.model.api.IRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Implementation of {@link ICommit} whose changes are only determined when they are needed for the first time.
+ * Until then, only the changed files are known.
+ */
+public class LazyCommit implements ICommit {
+
+    /**
+     * Determines the changes of a {@link LazyCommit}.
+     */
+    public static interface IChangeLoader {
+
+        /**
+         * Determines the changes. Is called at most once for every commit.
+         */
+        public abstract List<? extends IChange> loadChanges();
+
+    }
+
+    private final String message;
+    private final List<IRevisionedFile> changedFiles;
+    private final boolean isVisible;
+    private final IRevision revision;
+    private final long timestamp;
+    private IChangeLoader changeLoader;
+    private List<IChange> changes;
+
+    LazyCommit(
+            final String message,
+            final List<? extends IRevisionedFile> changedFiles,
+            final boolean isVisible,
+            final IRevision revision,
+            final Date timestamp,
+            final IChangeLoader changeLoader) {
+        this.message = message;
+        this.changedFiles = new ArrayList<>(changedFiles);
+        this.isVisible = isVisible;
+        this.revision = revision;
+        this.timestamp = timestamp.getTime();
+        this.changeLoader = changeLoader;
+    }
+
+    @Override
+    public String getMessage() {
+        return this.message;
+    }
+
+    @Override
+    public IRevision getRevision() {
+        return this.revision;
+    }
+
+    /**
+     * Returns the files changed in this commit. Does not need the changes to be determined.
+     */
+    public List<? extends IRevisionedFile> getChangedFiles() {
+        return Collections.unmodifiableList(this.changedFiles);
+    }
+
+    /**
+     * Returns true iff the changes of this commit have already been determined.
+     */
+    public synchronized boolean areChangesLoaded() {
+        return this.changes != null;
+    }
+
+    /**
+     * Returns the changes of this commit. They are determined on the first call.
+     */
+    @Override
+    public synchronized List<? extends IChange> getChanges() {
+        if (this.changes == null) {
+            this.changes = new ArrayList<>(this.changeLoader.loadChanges());
+            this.changeLoader = null;
+        }
+        return Collections.unmodifiableList(this.changes);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The returned commit is lazy, too. The given set is only used to check membership, and only when
+     * the changes of the returned commit are needed.
+     */
+    @Override
+    public LazyCommit makeChangesIrrelevant(final Set<? extends IChange> toMakeIrrelevant) {
+        return new LazyCommit(
+                this.message,
+                this.changedFiles,
+                this.isVisible,
+                this.revision,
+                this.getTime(),
+                new IChangeLoader() {
+                    @Override
+                    public List<? extends IChange> loadChanges() {
+                        final List<IChange> adjustedChanges = new ArrayList<>();
+                        for (final IChange change : LazyCommit.this.getChanges()) {
+                            if (toMakeIrrelevant.contains(change)) {
+                                adjustedChanges.add(change.makeIrrelevant());
+                            } else {
+                                adjustedChanges.add(change);
+                            }
+                        }
+                        return adjustedChanges;
+                    }
+                });
+    }
+
+    @Override
+    public boolean isVisible() {
+        return this.isVisible;
+    }
+
+    @Override
+    public Date getTime() {
+        return new Date(this.timestamp);
+    }
+
+}
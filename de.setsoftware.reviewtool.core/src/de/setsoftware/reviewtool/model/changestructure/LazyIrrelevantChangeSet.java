@@ -0,0 +1,93 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.model.api.IChange;
+import de.setsoftware.reviewtool.model.api.ICommit;
+
+/**
+ * The set of changes in some commits that an {@link IIrrelevanceDetermination} regards as irrelevant, for commits
+ * whose changes may not have been determined yet. Checking whether a change is contained asks the strategy directly
+ * and does not need the changes of the other commits. Only iterating or determining the size determines all changes.
+ * <p/>
+ * Like for the eagerly determined sets, a strategy that throws an exception is regarded as not finding any
+ * irrelevant changes from then on, and a strategy that only finds changes that are irrelevant anyway has no effect.
+ */
+public final class LazyIrrelevantChangeSet extends AbstractSet<IChange> {
+
+    private final IIrrelevanceDetermination strategy;
+    private final List<? extends ICommit> commits;
+    private Set<IChange> materialized;
+    private volatile boolean failed;
+
+    /**
+     * Constructor.
+     * @param strategy The strategy that determines irrelevant changes.
+     * @param commits The commits whose changes shall be considered.
+     */
+    public LazyIrrelevantChangeSet(final IIrrelevanceDetermination strategy, final List<? extends ICommit> commits) {
+        this.strategy = strategy;
+        this.commits = commits;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        if (!(o instanceof IChange)) {
+            return false;
+        }
+        synchronized (this) {
+            if (this.materialized != null) {
+                return this.materialized.contains(o);
+            }
+        }
+        return this.isIrrelevant((IChange) o);
+    }
+
+    private boolean isIrrelevant(final IChange change) {
+        if (this.failed) {
+            return false;
+        }
+        try {
+            return this.strategy.isIrrelevant(change);
+        } catch (final RuntimeException e) {
+            //skip instable strategies
+            this.failed = true;
+            Logger.error("exception in filtering", e);
+            return false;
+        }
+    }
+
+    @Override
+    public Iterator<IChange> iterator() {
+        return this.materialize().iterator();
+    }
+
+    @Override
+    public int size() {
+        return this.materialize().size();
+    }
+
+    private synchronized Set<IChange> materialize() {
+        if (this.materialized == null) {
+            final Set<IChange> changes = new LinkedHashSet<>();
+            boolean allIrrelevantAnyway = true;
+            for (final ICommit commit : this.commits) {
+                for (final IChange change : commit.getChanges()) {
+                    if (this.isIrrelevant(change)) {
+                        changes.add(change);
+                        allIrrelevantAnyway &= change.isIrrelevantForReview();
+                    }
+                }
+            }
+            this.materialized = this.failed || allIrrelevantAnyway ? Collections.<IChange>emptySet() : changes;
+        }
+        return this.materialized;
+    }
+
+}
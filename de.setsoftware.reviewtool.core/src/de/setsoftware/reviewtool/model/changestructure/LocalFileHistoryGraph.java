@@ -0,0 +1,66 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.setsoftware.reviewtool.model.api.IFileHistoryGraph;
+import de.setsoftware.reviewtool.model.api.IFileHistoryNode;
+import de.setsoftware.reviewtool.model.api.IRepository;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * The history graph of the local changes, combined from the results of several analyses of the working copy.
+ * There is a base graph from an analysis of the whole working copy. When single files are analyzed again
+ * after they changed, the resulting graph replaces the base graph (and earlier results) for these files.
+ * So only the changed files have to be analyzed, and the results for the other files stay the same.
+ * <p/>
+ * The files are identified by their absolute path in the local working copy.
+ */
+final class LocalFileHistoryGraph extends AbstractFileHistoryGraph {
+
+    private IFileHistoryGraph baseGraph;
+    private final Map<File, IFileHistoryGraph> graphsForChangedFiles = new HashMap<>();
+
+    /**
+     * Sets the result of an analysis of the whole working copy. All results for single files are discarded.
+     */
+    public synchronized void setBaseGraph(IFileHistoryGraph graph) {
+        this.baseGraph = graph;
+        this.graphsForChangedFiles.clear();
+    }
+
+    /**
+     * Sets the result of an analysis of the given files. It is used for these files from now on, but not
+     * for other files that might be contained in it as well.
+     */
+    public synchronized void setGraphForFiles(Collection<File> absolutePaths, IFileHistoryGraph graph) {
+        for (final File file : absolutePaths) {
+            this.graphsForChangedFiles.put(file, graph);
+        }
+    }
+
+    private synchronized IFileHistoryGraph getGraphFor(String path, IRepository repo) {
+        if (this.graphsForChangedFiles.isEmpty()) {
+            //avoid the mapping to the local path in the common case
+            return this.baseGraph;
+        }
+        final IFileHistoryGraph graph =
+                this.graphsForChangedFiles.get(new File(repo.toAbsolutePathInWc(path)).getAbsoluteFile());
+        return graph != null ? graph : this.baseGraph;
+    }
+
+    @Override
+    public boolean contains(String path, IRepository repo) {
+        final IFileHistoryGraph graph = this.getGraphFor(path, repo);
+        return graph != null && graph.contains(path, repo);
+    }
+
+    @Override
+    public IFileHistoryNode getNodeFor(IRevisionedFile file) {
+        final IFileHistoryGraph graph = this.getGraphFor(file.getPath(), file.getRepository());
+        return graph == null ? null : graph.getNodeFor(file);
+    }
+
+}
@@ -0,0 +1,95 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the elements of the topmost tours of a review, so that stops and their tours can be looked up
+ * without walking all tours. The parent and tour index of the elements are updated incrementally when tours
+ * are added. The mapping from files to stops depends on the most recent files of the stops, it is rebuilt
+ * lazily after they changed.
+ * <p/>
+ * The elements are indexed by identity, because the hash code of stops changes when their most recent
+ * fragment is updated.
+ */
+final class TourIndex {
+
+    private final Map<TourElement, Tour> parents = new IdentityHashMap<>();
+    private final Map<TourElement, Integer> topmostTourIndices = new IdentityHashMap<>();
+    private final List<Stop> allStops = new ArrayList<>();
+    private Map<File, List<Stop>> stopsByFile;
+
+    /**
+     * Adds the given tour, which has the given index in the list of topmost tours, to the index.
+     */
+    public synchronized void addTopmostTour(Tour tour, int index) {
+        this.topmostTourIndices.put(tour, index);
+        this.addChildren(tour, index);
+        this.stopsByFile = null;
+    }
+
+    private void addChildren(Tour tour, int topmostIndex) {
+        for (final TourElement child : tour.getChildren()) {
+            if (this.parents.containsKey(child)) {
+                //the element is contained multiple times, the first occurrence wins
+                continue;
+            }
+            this.parents.put(child, tour);
+            this.topmostTourIndices.put(child, topmostIndex);
+            if (child instanceof Tour) {
+                this.addChildren((Tour) child, topmostIndex);
+            } else if (child instanceof Stop) {
+                this.allStops.add((Stop) child);
+            }
+        }
+    }
+
+    /**
+     * Has to be called when the most recent files of the stops changed.
+     */
+    public synchronized void invalidateFiles() {
+        this.stopsByFile = null;
+    }
+
+    /**
+     * Returns all stops that refer to the given file, in tour order.
+     */
+    public synchronized List<Stop> getStopsFor(File absolutePath) {
+        if (this.stopsByFile == null) {
+            this.stopsByFile = new HashMap<>();
+            for (final Stop stop : this.allStops) {
+                final File file = stop.getAbsoluteFile();
+                List<Stop> list = this.stopsByFile.get(file);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    this.stopsByFile.put(file, list);
+                }
+                list.add(stop);
+            }
+        }
+        final List<Stop> ret = this.stopsByFile.get(absolutePath);
+        return ret == null ? Collections.<Stop>emptyList() : Collections.unmodifiableList(ret);
+    }
+
+    /**
+     * Returns the direct parent of the given element, or null if it is not known (or a topmost tour).
+     */
+    public synchronized Tour getParent(TourElement element) {
+        return this.parents.get(element);
+    }
+
+    /**
+     * Returns the index of the topmost tour containing the given element (or the index of the element itself
+     * when it is a topmost tour), or -1 if it is not known.
+     */
+    public synchronized int getTopmostTourIndex(TourElement element) {
+        final Integer ret = this.topmostTourIndices.get(element);
+        return ret == null ? -1 : ret;
+    }
+
+}
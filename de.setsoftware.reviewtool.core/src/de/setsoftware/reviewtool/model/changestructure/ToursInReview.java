@@ -2,11 +2,13 @@ package de.setsoftware.reviewtool.model.changestructure;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -40,8 +42,10 @@ import de.setsoftware.reviewtool.model.api.ICommit;
 import de.setsoftware.reviewtool.model.api.IFileHistoryNode;
 import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.api.IFragmentTracer;
+import de.setsoftware.reviewtool.model.api.IRevision;
 import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 import de.setsoftware.reviewtool.model.api.ITextualChange;
+import de.setsoftware.reviewtool.ordering.efficientalgorithm.TimeBudgetTourCalculatorControl;
 import de.setsoftware.reviewtool.ordering.efficientalgorithm.TourCalculatorControl;
 import de.setsoftware.reviewtool.telemetry.Telemetry;
 
@@ -158,26 +162,76 @@ public class ToursInReview {
         }
     }
 
+    /**
+     * The union of several sets of changes. Checking whether a change is contained does not need to iterate the
+     * single sets, so that lazily determined sets (see {@link LazyIrrelevantChangeSet}) stay lazy.
+     */
+    private static final class UnionSet extends AbstractSet<IChange> {
+        private final List<Set<? extends IChange>> sets;
+
+        public UnionSet(List<Set<? extends IChange>> sets) {
+            this.sets = sets;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (final Set<? extends IChange> set : this.sets) {
+                if (set.contains(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<IChange> iterator() {
+            return this.toLinkedHashSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return this.toLinkedHashSet().size();
+        }
+
+        private Set<IChange> toLinkedHashSet() {
+            final Set<IChange> ret = new LinkedHashSet<>();
+            for (final Set<? extends IChange> set : this.sets) {
+                ret.addAll(set);
+            }
+            return ret;
+        }
+    }
+
+    public static final long DEFAULT_FAST_MODE_THRESHOLD = 20000;
+    public static final long DEFAULT_TIME_BUDGET = 60000;
+
+    private static volatile long fastModeThreshold = DEFAULT_FAST_MODE_THRESHOLD;
+    private static volatile long timeBudget = DEFAULT_TIME_BUDGET;
+
     private final VirtualFileHistoryGraph historyGraph;
+    private final LocalFileHistoryGraph localHistoryGraph = new LocalFileHistoryGraph();
     private final List<Tour> topmostTours;
-    private final IChangeData remoteChanges;
-    private Map<File, IRevisionedFile> modifiedFiles;
+    private final TourIndex tourIndex = new TourIndex();
+    private IChangeData remoteChanges;
+    private Set<String> selectedIrrelevanceFilters;
     private int currentTourIndex;
     private final WeakListeners<IToursInReviewChangeListener> listeners = new WeakListeners<>();
 
     private ToursInReview(final List<? extends Tour> topmostTours, final IChangeData remoteChanges) {
-        this.historyGraph = new VirtualFileHistoryGraph(remoteChanges.getHistoryGraph());
+        this.historyGraph = new VirtualFileHistoryGraph(remoteChanges.getHistoryGraph(), this.localHistoryGraph);
         this.topmostTours = new ArrayList<>(topmostTours);
+        this.indexTours(0);
         this.remoteChanges = remoteChanges;
-        this.modifiedFiles = remoteChanges.getLocalPathMap();
+        this.selectedIrrelevanceFilters = new LinkedHashSet<>();
         this.currentTourIndex = 0;
     }
 
     private ToursInReview(final List<? extends Tour> topmostTours) {
-        this.historyGraph = new VirtualFileHistoryGraph();
+        this.historyGraph = new VirtualFileHistoryGraph(this.localHistoryGraph);
         this.topmostTours = new ArrayList<>(topmostTours);
+        this.indexTours(0);
         this.remoteChanges = null;
-        this.modifiedFiles = new LinkedHashMap<>();
+        this.selectedIrrelevanceFilters = new LinkedHashSet<>();
         this.currentTourIndex = 0;
     }
 
@@ -205,12 +259,13 @@ public class ToursInReview {
         changeSourceUi.subTask("Determining relevant changes...");
         final IChangeData changes = src.getRepositoryChanges(ticketKey, changeSourceUi);
         changeSourceUi.subTask("Filtering changes...");
-        final List<? extends ICommit> filteredChanges =
+        final Pair<List<? extends ICommit>, Set<String>> filterResult =
                 filterChanges(irrelevanceDeterminationStrategies, changes.getMatchedCommits(),
                         createUi, changeSourceUi, reviewRounds);
-        if (filteredChanges == null) {
+        if (filterResult == null) {
             return null;
         }
+        final List<? extends ICommit> filteredChanges = filterResult.getFirst();
 
         changeSourceUi.subTask("Creating tours from changes...");
         final List<Tour> tours = toTours(
@@ -228,25 +283,107 @@ public class ToursInReview {
         final List<? extends Tour> toursToShow = groupAndSort(
                 userSelection,
                 orderingAlgorithm,
-                new TourCalculatorControl() {
-                    private static final long FAST_MODE_THRESHOLD = 20000;
-                    private final long startTime = System.currentTimeMillis();
-                    @Override
-                    public synchronized boolean isCanceled() {
-                        return changeSourceUi.isCanceled();
-                    }
-
-                    @Override
-                    public boolean isFastModeNeeded() {
-                        return System.currentTimeMillis() - this.startTime > FAST_MODE_THRESHOLD;
-                    }
-                });
+                createTourCalculatorControl(changeSourceUi));
 
         final ToursInReview result = new ToursInReview(toursToShow, changes);
-        result.createLocalTour(null, changeSourceUi, null);
+        result.selectedIrrelevanceFilters = filterResult.getSecond();
+        result.createLocalTour(changeSourceUi, null);
         return result;
     }
 
+    /**
+     * Incrementally adds the commits for the given ticket that have been made since the tours were created
+     * (or last updated). Only the new commits are analyzed. The irrelevance filters the user selected initially
+     * are applied to them, and the resulting stops are added as new tours (one per commit) behind the existing
+     * ones. The existing tours and the review state referring to them are kept, only the most recent positions
+     * of their stops are updated.
+     *
+     * @return true iff there were new commits.
+     */
+    public boolean addNewCommits(
+            final IChangeSourceUi changeSourceUi,
+            final List<? extends IIrrelevanceDetermination> irrelevanceDeterminationStrategies,
+            final IStopOrdering orderingAlgorithm,
+            final String ticketKey,
+            final IStopMarkerFactory markerFactory) {
+        changeSourceUi.subTask("Determining new changes...");
+        final Set<IRevision> knownRevisions = new HashSet<>();
+        for (final ICommit commit : this.remoteChanges.getMatchedCommits()) {
+            knownRevisions.add(commit.getRevision());
+        }
+        final IChangeData changes =
+                this.remoteChanges.getSource().getNewRepositoryChanges(this.remoteChanges, ticketKey, changeSourceUi);
+        this.remoteChanges = changes;
+
+        final List<ICommit> newCommits = new ArrayList<>();
+        for (final ICommit commit : changes.getMatchedCommits()) {
+            if (!knownRevisions.contains(commit.getRevision())) {
+                newCommits.add(commit);
+            }
+        }
+        Telemetry.event("newCommitsDetermined")
+            .param("count", newCommits.size())
+            .log();
+        if (newCommits.isEmpty()) {
+            return false;
+        }
+
+        changeSourceUi.subTask("Filtering new changes...");
+        final List<Set<? extends IChange>> toMakeIrrelevant = new ArrayList<>();
+        for (final IIrrelevanceDetermination strategy : irrelevanceDeterminationStrategies) {
+            if (this.selectedIrrelevanceFilters.contains(strategy.getDescription())) {
+                toMakeIrrelevant.add(new LazyIrrelevantChangeSet(strategy, newCommits));
+            }
+        }
+        final Set<IChange> union = new UnionSet(toMakeIrrelevant);
+        final List<ICommit> filteredCommits = new ArrayList<>();
+        for (final ICommit commit : newCommits) {
+            filteredCommits.add(commit.makeChangesIrrelevant(union));
+        }
+        final List<ICommit> allCommits = new ArrayList<>(CommitsInReview.getCommits());
+        allCommits.addAll(filteredCommits);
+        CommitsInReview.setCommits(allCommits);
+
+        changeSourceUi.subTask("Creating tours from new changes...");
+        final List<Tour> tours = toTours(
+                filteredCommits,
+                new FragmentTracer(changes.getHistoryGraph()),
+                changeSourceUi);
+        changeSourceUi.subTask("Ordering new stops...");
+        final int oldTourCount = this.topmostTours.size();
+        this.topmostTours.addAll(groupAndSort(tours, orderingAlgorithm, createTourCalculatorControl(changeSourceUi)));
+        this.indexTours(oldTourCount);
+
+        //tracing the stops of the existing tours to the most recent revisions is done together with the local changes
+        this.createLocalTour(changeSourceUi, markerFactory);
+        return true;
+    }
+
+    /**
+     * Sets the time limits for ordering the stops. After the fast mode threshold, less optimal results are
+     * accepted, and after the time budget, the best ordering found so far is used.
+     */
+    public static void setTourCalculationTimeLimits(long fastModeThresholdMillis, long timeBudgetMillis) {
+        fastModeThreshold = fastModeThresholdMillis;
+        timeBudget = timeBudgetMillis;
+    }
+
+    private static TourCalculatorControl createTourCalculatorControl(final IProgressMonitor progressMonitor) {
+        return new TimeBudgetTourCalculatorControl(fastModeThreshold, timeBudget) {
+            @Override
+            public synchronized boolean isCanceled() {
+                return progressMonitor.isCanceled();
+            }
+
+            @Override
+            public void reportProgress(
+                    int satisfiedMatches, int matchCount, int satisfiedPositions, int positionCount) {
+                progressMonitor.subTask("Ordering stops... (" + satisfiedMatches + "/" + matchCount
+                        + " groupings, " + satisfiedPositions + "/" + positionCount + " positions satisfied)");
+            }
+        };
+    }
+
     private static List<? extends Tour> groupAndSort(
             List<? extends Tour> userSelection, IStopOrdering orderingAlgorithm, TourCalculatorControl isCanceled) {
         try {
@@ -261,66 +398,108 @@ public class ToursInReview {
     }
 
     /**
-     * (Re)creates the local tour by (re)collecting local changes and combining them with the repository changes
+     * (Re)creates the local tour by (re)collecting all local changes and combining them with the repository changes
      * in a {@link VirtualFileHistoryGraph}.
      *
      * @param progressMonitor The progress monitor to use.
      * @param markerFactory The marker factory to use. May be null if initially called while creating the tours.
      */
-    public void createLocalTour(
-            final List<File> paths,
+    public synchronized void createLocalTour(
             final IProgressMonitor progressMonitor,
             final IStopMarkerFactory markerFactory) {
 
         progressMonitor.subTask("Collecting local changes...");
         final IChangeData localChanges;
         try {
-            if (paths == null) {
-                localChanges = this.remoteChanges.getSource().getLocalChanges(this.remoteChanges, null,
-                        progressMonitor);
-            } else {
-                final List<File> allFilesToAnalyze = new ArrayList<>(this.modifiedFiles.keySet());
-                allFilesToAnalyze.addAll(paths);
-                localChanges = this.remoteChanges.getSource().getLocalChanges(this.remoteChanges, allFilesToAnalyze,
-                        progressMonitor);
+            localChanges = this.remoteChanges.getSource().getLocalChanges(this.remoteChanges, null, progressMonitor);
+        } catch (final ReviewtoolException e) {
+            //if there is a problem while determining the local changes, ignore them
+            Logger.warn("problem while determining local changes", e);
+            return;
+        }
+        this.localHistoryGraph.setBaseGraph(localChanges.getHistoryGraph());
+
+        final IFragmentTracer tracer = new FragmentTracer(this.historyGraph);
+        for (final Tour tour : this.topmostTours) {
+            for (final Stop stop : tour.getStops()) {
+                stop.updateMostRecentData(tracer);
             }
+        }
+        this.tourIndex.invalidateFiles();
+
+        this.notifyListenersAboutTourStructureChange(markerFactory);
+    }
+
+    /**
+     * Updates the local changes after the given files have been changed. Only these files are analyzed again,
+     * the results for the other files are kept. Only the stops referring to the changed files are traced to
+     * their new most recent positions.
+     *
+     * @param changedFiles The absolute paths of the changed files.
+     * @param progressMonitor The progress monitor to use.
+     * @param markerFactory The marker factory to use.
+     */
+    public synchronized void updateLocalChanges(
+            final Collection<File> changedFiles,
+            final IProgressMonitor progressMonitor,
+            final IStopMarkerFactory markerFactory) {
+
+        progressMonitor.subTask("Collecting local changes...");
+        final List<File> absolutePaths = new ArrayList<>();
+        for (final File file : changedFiles) {
+            absolutePaths.add(file.getAbsoluteFile());
+        }
+        final IChangeData localChanges;
+        try {
+            localChanges = this.remoteChanges.getSource().getLocalChanges(
+                    this.remoteChanges, absolutePaths, progressMonitor);
         } catch (final ReviewtoolException e) {
             //if there is a problem while determining the local changes, ignore them
             Logger.warn("problem while determining local changes", e);
             return;
         }
-        this.modifiedFiles = new LinkedHashMap<>(localChanges.getLocalPathMap());
 
-        if (this.historyGraph.size() > 1) {
-            this.historyGraph.remove(1);
+        //the stops have to be determined before their most recent files change
+        final List<Stop> stopsToUpdate = new ArrayList<>();
+        for (final File file : absolutePaths) {
+            stopsToUpdate.addAll(this.tourIndex.getStopsFor(file));
         }
-        this.historyGraph.add(localChanges.getHistoryGraph());
+        this.localHistoryGraph.setGraphForFiles(absolutePaths, localChanges.getHistoryGraph());
 
-        this.updateMostRecentFragmentsWithLocalChanges();
+        final IFragmentTracer tracer = new FragmentTracer(this.historyGraph);
+        for (final Stop stop : stopsToUpdate) {
+            stop.updateMostRecentData(tracer);
+        }
+        this.tourIndex.invalidateFiles();
 
         this.notifyListenersAboutTourStructureChange(markerFactory);
     }
 
-    private void updateMostRecentFragmentsWithLocalChanges() {
-        final IFragmentTracer tracer = new FragmentTracer(this.historyGraph);
-        for (final Tour tour : this.topmostTours) {
-            for (final Stop stop : tour.getStops()) {
-                stop.updateMostRecentData(tracer);
-            }
+    private void indexTours(int startIndex) {
+        for (int i = startIndex; i < this.topmostTours.size(); i++) {
+            this.tourIndex.addTopmostTour(this.topmostTours.get(i), i);
         }
     }
 
-    private static List<? extends ICommit> filterChanges(
+    /**
+     * Lets the user select the commits and irrelevance filters and applies them. Returns the resulting commits and
+     * the descriptions of the selected filters, or null if the user cancelled.
+     */
+    private static Pair<List<? extends ICommit>, Set<String>> filterChanges(
             final List<? extends IIrrelevanceDetermination> irrelevanceDeterminationStrategies,
             final List<? extends ICommit> changes,
             final ICreateToursUi createUi,
             final IProgressMonitor progressMonitor,
             final List<ReviewRoundInfo> reviewRounds) {
 
-        Telemetry.event("originalChanges")
-            .param("count", countChanges(changes, false))
-            .param("relevant", countChanges(changes, true))
-            .log();
+        //when the changes are determined lazily, they shall only be determined for the commits the user selects
+        final boolean lazy = containsUnloadedCommits(changes);
+        if (!lazy) {
+            Telemetry.event("originalChanges")
+                .param("count", countChanges(changes, false))
+                .param("relevant", countChanges(changes, true))
+                .log();
+        }
 
         final List<Pair<String, Set<? extends IChange>>> strategyResults = new ArrayList<>();
         for (final IIrrelevanceDetermination strategy : irrelevanceDeterminationStrategies) {
@@ -329,6 +508,14 @@ public class ToursInReview {
                     throw new OperationCanceledException();
                 }
 
+                if (lazy) {
+                    //the set handles failing and useless strategies itself when it is evaluated
+                    strategyResults.add(Pair.<String, Set<? extends IChange>>create(
+                            strategy.getDescription(),
+                            new LazyIrrelevantChangeSet(strategy, changes)));
+                    continue;
+                }
+
                 final Set<? extends IChange> irrelevantChanges = determineIrrelevantChanges(changes, strategy);
                 Telemetry.event("relevanceFilterResult")
                     .param("description", strategy.getDescription())
@@ -353,10 +540,10 @@ public class ToursInReview {
         if (selected == null) {
             return null;
         }
-        final Set<IChange> toMakeIrrelevant = new HashSet<>();
+        final List<Set<? extends IChange>> toMakeIrrelevant = new ArrayList<>();
         final Set<String> selectedDescriptions = new LinkedHashSet<>();
         for (final Pair<String, Set<? extends IChange>> set : selected.toMakeIrrelevant) {
-            toMakeIrrelevant.addAll(set.getSecond());
+            toMakeIrrelevant.add(set.getSecond());
             selectedDescriptions.add(set.getFirst());
         }
         Telemetry.event("selectedRelevanceFilter")
@@ -371,13 +558,23 @@ public class ToursInReview {
             .log();
 
         final List<ICommit> ret = new ArrayList<>();
+        final Set<IChange> union = new UnionSet(toMakeIrrelevant);
         for (final ICommit c : selected.commitSubset) {
-            ret.add(c.makeChangesIrrelevant(toMakeIrrelevant));
+            ret.add(c.makeChangesIrrelevant(union));
         }
 
         CommitsInReview.setCommits(ret);
 
-        return ret;
+        return Pair.<List<? extends ICommit>, Set<String>>create(ret, selectedDescriptions);
+    }
+
+    private static boolean containsUnloadedCommits(List<? extends ICommit> changes) {
+        for (final ICommit commit : changes) {
+            if (commit instanceof LazyCommit && !((LazyCommit) commit).areChangesLoaded()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static int countChanges(List<? extends ICommit> changes, boolean onlyRelevant) {
@@ -663,15 +860,7 @@ public class ToursInReview {
      * Returns all stops (from all tours) that refer to the given file.
      */
     public List<Stop> getStopsFor(File absolutePath) {
-        final List<Stop> ret = new ArrayList<>();
-        for (final Tour t : this.topmostTours) {
-            for (final Stop s : t.getStops()) {
-                if (absolutePath.equals(s.getAbsoluteFile())) {
-                    ret.add(s);
-                }
-            }
-        }
-        return ret;
+        return this.tourIndex.getStopsFor(absolutePath);
     }
 
     /**
@@ -679,14 +868,8 @@ public class ToursInReview {
      * If none exists, -1 is returned.
      */
     public int findTourIndexWithStop(Stop currentStop) {
-        for (int i = 0; i < this.topmostTours.size(); i++) {
-            for (final Stop s : this.topmostTours.get(i).getStops()) {
-                if (s == currentStop) {
-                    return i;
-                }
-            }
-        }
-        return 0;
+        final int index = this.tourIndex.getTopmostTourIndex(currentStop);
+        return index >= 0 ? index : 0;
     }
 
     /**
@@ -740,6 +923,10 @@ public class ToursInReview {
      * Returns null when none is found.
      */
     public Tour getParentFor(TourElement element) {
+        if (this.tourIndex.getTopmostTourIndex(element) >= 0) {
+            return this.tourIndex.getParent(element);
+        }
+        //fallback for elements that are only equal to an element in the tours
         for (final Tour t : this.topmostTours) {
             final Tour parent = t.findParentFor(element);
             if (parent != null) {
@@ -754,6 +941,11 @@ public class ToursInReview {
      * Returns null when none is found.
      */
     public Tour getTopmostTourWith(TourElement element) {
+        final int index = this.tourIndex.getTopmostTourIndex(element);
+        if (index >= 0) {
+            return this.tourIndex.getParent(element) == null ? null : this.topmostTours.get(index);
+        }
+        //fallback for elements that are only equal to an element in the tours
         for (final Tour t : this.topmostTours) {
             final Tour parent = t.findParentFor(element);
             if (parent != null) {
@@ -2,9 +2,20 @@ package de.setsoftware.reviewtool.ordering;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.setsoftware.reviewtool.base.ReviewtoolException;
 import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.changestructure.IStopOrdering;
 import de.setsoftware.reviewtool.model.changestructure.Stop;
@@ -13,12 +24,35 @@ import de.setsoftware.reviewtool.ordering.efficientalgorithm.MatchSet;
 import de.setsoftware.reviewtool.ordering.efficientalgorithm.PositionRequest;
 import de.setsoftware.reviewtool.ordering.efficientalgorithm.TourCalculator;
 import de.setsoftware.reviewtool.ordering.efficientalgorithm.TourCalculatorControl;
+import de.setsoftware.reviewtool.telemetry.Telemetry;
 
 /**
  * Facade for sorting and hierarchical grouping of stops.
  */
 public class StopOrdering implements IStopOrdering {
 
+    /**
+     * Creates daemon threads with a recognizable name.
+     */
+    private static final class MatcherThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread t = new Thread(r, "CoRT relation matcher " + this.counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    private static final long CANCEL_CHECK_INTERVAL = 100;
+
+    /**
+     * The pool that is shared by all tour calculations to evaluate the relation matchers concurrently.
+     * Idle threads are terminated after some time.
+     */
+    private static final ThreadPoolExecutor MATCHER_POOL = createMatcherPool();
+
     private final List<RelationMatcher> relationTypes;
 
     public StopOrdering(List<RelationMatcher> relationTypes) {
@@ -38,11 +72,7 @@ public class StopOrdering implements IStopOrdering {
 
         TourCalculator.checkInterruption(isCanceled);
 
-        final List<OrderingInfo> orderingInfos = new ArrayList<>();
-        for (final RelationMatcher m : this.relationTypes) {
-            orderingInfos.addAll(m.determineMatches(changeParts));
-            TourCalculator.checkInterruption(isCanceled);
-        }
+        final List<OrderingInfo> orderingInfos = this.determineMatches(changeParts, isCanceled);
 
         final TourCalculator<ChangePart> calculator = TourCalculator.calculateFor(
                 changeParts,
@@ -51,6 +81,13 @@ public class StopOrdering implements IStopOrdering {
                 this.nameAndLineComparator(),
                 isCanceled);
         final List<ChangePart> sorted = calculator.getTour();
+        if (calculator.isPartial()) {
+            Telemetry.event("tourCalculationTimeBudgetExhausted")
+                .param("changeParts", changeParts.size())
+                .param("satisfiedMatches", calculator.getSatisfiedMatchCount())
+                .param("satisfiedPositions", calculator.getSatisfiedPositionCount())
+                .log();
+        }
 
         final TourHierarchyBuilder hierarchyBuilder = new TourHierarchyBuilder(sorted);
         for (final OrderingInfo o : orderingInfos) {
@@ -60,6 +97,74 @@ public class StopOrdering implements IStopOrdering {
         return hierarchyBuilder.getTopmostElements();
     }
 
+    private static ThreadPoolExecutor createMatcherPool() {
+        final int threadCount = Runtime.getRuntime().availableProcessors();
+        final ThreadPoolExecutor ret = new ThreadPoolExecutor(threadCount, threadCount, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new MatcherThreadFactory());
+        ret.allowCoreThreadTimeOut(true);
+        return ret;
+    }
+
+    /**
+     * Determines the matches of all relation matchers. The matchers are independent of each other, so they are
+     * evaluated concurrently. The results are combined in the order of the matchers, i.e. in order of priority.
+     */
+    private List<OrderingInfo> determineMatches(final List<ChangePart> changeParts, TourCalculatorControl isCanceled)
+        throws InterruptedException {
+
+        final List<OrderingInfo> ret = new ArrayList<>();
+        if (this.relationTypes.size() <= 1) {
+            for (final RelationMatcher m : this.relationTypes) {
+                ret.addAll(m.determineMatches(changeParts));
+                TourCalculator.checkInterruption(isCanceled);
+            }
+            return ret;
+        }
+
+        final List<Future<Collection<? extends OrderingInfo>>> futures = new ArrayList<>();
+        try {
+            for (final RelationMatcher m : this.relationTypes) {
+                futures.add(MATCHER_POOL.submit(new Callable<Collection<? extends OrderingInfo>>() {
+                    @Override
+                    public Collection<? extends OrderingInfo> call() {
+                        return m.determineMatches(changeParts);
+                    }
+                }));
+            }
+            for (final Future<Collection<? extends OrderingInfo>> future : futures) {
+                ret.addAll(this.waitFor(future, isCanceled));
+            }
+            return ret;
+        } finally {
+            //when the calculation was canceled or failed, the remaining matchers are not needed any more
+            for (final Future<Collection<? extends OrderingInfo>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private Collection<? extends OrderingInfo> waitFor(
+            Future<Collection<? extends OrderingInfo>> future, TourCalculatorControl isCanceled)
+        throws InterruptedException {
+
+        while (true) {
+            TourCalculator.checkInterruption(isCanceled);
+            try {
+                return future.get(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                //check for cancellation and wait again
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                } else {
+                    throw new ReviewtoolException(e);
+                }
+            }
+        }
+    }
+
     private Comparator<ChangePart> nameAndLineComparator() {
         return new Comparator<ChangePart>() {
             @Override
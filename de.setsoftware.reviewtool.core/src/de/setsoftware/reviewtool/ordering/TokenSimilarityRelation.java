@@ -5,9 +5,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import de.setsoftware.reviewtool.base.Pair;
@@ -19,35 +22,67 @@ import de.setsoftware.reviewtool.model.changestructure.Stop;
 /**
  * Groups stops that are similar to each other. Similarity is defined based on the
  * Jaccard similarity of the stops' token sets.
+ * <p/>
+ * For small inputs, all pairs of stops are compared. For larger inputs, candidate pairs are determined
+ * with MinHash signatures and locality-sensitive hashing (pairs whose signatures are equal in at least one band)
+ * and only these candidates are compared exactly.
  */
 public class TokenSimilarityRelation implements RelationMatcher {
 
     private static final double JACCARD_THRESHOLD = 0.7;
 
+    /**
+     * Up to this number of token sets, all pairs are compared exactly.
+     */
+    private static final int EXACT_COMPARISON_LIMIT = 200;
+
+    /**
+     * The number of bands and rows per band for the LSH. With 25 bands of 4 rows, a pair with
+     * a similarity of 0.7 becomes a candidate with a probability of about 99.9 %.
+     */
+    private static final int BAND_COUNT = 25;
+    private static final int ROWS_PER_BAND = 4;
+
+    private static final long[] HASH_SEEDS = createHashSeeds(BAND_COUNT * ROWS_PER_BAND);
+
+    /**
+     * The tokens of a change part. The tokens are mapped to integers and sorted.
+     */
+    private static final class TokenSet {
+        private final ChangePart changePart;
+        private final int[] tokens;
+
+        public TokenSet(ChangePart changePart, int[] tokens) {
+            this.changePart = changePart;
+            this.tokens = tokens;
+        }
+    }
+
     @Override
     public Collection<? extends OrderingInfo> determineMatches(List<ChangePart> changeParts) {
-        final List<Pair<ChangePart, Set<String>>> tokenSets = new ArrayList<>(changeParts.size());
+        final Map<String, Integer> tokenIds = new HashMap<>();
+        final List<TokenSet> tokenSets = new ArrayList<>(changeParts.size());
         for (final ChangePart c : changeParts) {
             if (c.isFullyIrrelevantForReview()) {
                 continue;
             }
-            final Set<String> tokens = this.determineTokenSet(c);
-            if (!tokens.isEmpty()) {
-                tokenSets.add(Pair.create(c, tokens));
+            final int[] tokens = this.determineTokenSet(c, tokenIds);
+            if (tokens.length > 0) {
+                tokenSets.add(new TokenSet(c, tokens));
             }
         }
 
         final List<Pair<Double, SimpleUnorderedMatch>> similarities = new ArrayList<>();
-        for (int i = 0; i < tokenSets.size(); i++) {
-            for (int j = i + 1; j < tokenSets.size(); j++) {
-                final double sim = this.jaccardSimilarity(
-                        tokenSets.get(i).getSecond(),
-                        tokenSets.get(j).getSecond());
-                if (sim > JACCARD_THRESHOLD) {
-                    similarities.add(Pair.create(sim, new SimpleUnorderedMatch(HierarchyExplicitness.NONE, null,
-                            Arrays.asList(tokenSets.get(i).getFirst(), tokenSets.get(j).getFirst()))));
+        if (tokenSets.size() <= EXACT_COMPARISON_LIMIT) {
+            for (int i = 0; i < tokenSets.size(); i++) {
+                for (int j = i + 1; j < tokenSets.size(); j++) {
+                    this.checkSimilarity(tokenSets.get(i), tokenSets.get(j), similarities);
                 }
             }
+        } else {
+            for (final long pair : this.determineCandidatePairs(tokenSets)) {
+                this.checkSimilarity(tokenSets.get((int) (pair >>> 32)), tokenSets.get((int) pair), similarities);
+            }
         }
 
         //order by similarity so that the most similar will be grouped first
@@ -67,27 +102,131 @@ public class TokenSimilarityRelation implements RelationMatcher {
         return ret;
     }
 
-    private Set<String> determineTokenSet(ChangePart changePart) {
-        final Set<String> tokens = new HashSet<>();
+    private void checkSimilarity(TokenSet t1, TokenSet t2, List<Pair<Double, SimpleUnorderedMatch>> similarities) {
+        //the similarity can be at most the ratio of the sizes
+        final int minSize = Math.min(t1.tokens.length, t2.tokens.length);
+        final int maxSize = Math.max(t1.tokens.length, t2.tokens.length);
+        if (((double) minSize) / maxSize <= JACCARD_THRESHOLD) {
+            return;
+        }
+        final double sim = this.jaccardSimilarity(t1.tokens, t2.tokens);
+        if (sim > JACCARD_THRESHOLD) {
+            similarities.add(Pair.create(sim, new SimpleUnorderedMatch(HierarchyExplicitness.NONE, null,
+                    Arrays.asList(t1.changePart, t2.changePart))));
+        }
+    }
+
+    /**
+     * Returns the pairs of indices of token sets that might be similar. Each pair is encoded as a long
+     * with the smaller index in the upper half. The result is sorted, so that the pairs are
+     * in the same order as for the exact comparison of all pairs.
+     */
+    private long[] determineCandidatePairs(List<TokenSet> tokenSets) {
+        final int[][] signatures = new int[tokenSets.size()][];
+        for (int i = 0; i < tokenSets.size(); i++) {
+            signatures[i] = this.minHashSignature(tokenSets.get(i).tokens);
+        }
+
+        final Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < BAND_COUNT; band++) {
+            final Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < signatures.length; i++) {
+                final Long key = bandKey(signatures[i], band);
+                List<Integer> bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = new ArrayList<>(2);
+                    buckets.put(key, bucket);
+                }
+                bucket.add(i);
+            }
+            for (final List<Integer> bucket : buckets.values()) {
+                for (int i = 0; i < bucket.size(); i++) {
+                    for (int j = i + 1; j < bucket.size(); j++) {
+                        candidates.add((((long) bucket.get(i)) << 32) | bucket.get(j));
+                    }
+                }
+            }
+        }
+
+        final long[] ret = new long[candidates.size()];
+        int i = 0;
+        for (final Long candidate : candidates) {
+            ret[i++] = candidate;
+        }
+        Arrays.sort(ret);
+        return ret;
+    }
+
+    private int[] minHashSignature(int[] tokens) {
+        final int[] ret = new int[HASH_SEEDS.length];
+        Arrays.fill(ret, Integer.MAX_VALUE);
+        for (final int token : tokens) {
+            for (int i = 0; i < HASH_SEEDS.length; i++) {
+                final int hash = hash(token, HASH_SEEDS[i]);
+                if (hash < ret[i]) {
+                    ret[i] = hash;
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long ret = band;
+        for (int i = band * ROWS_PER_BAND; i < (band + 1) * ROWS_PER_BAND; i++) {
+            ret = ret * 0x9E3779B97F4A7C15L + signature[i];
+        }
+        return ret;
+    }
+
+    private static int hash(int token, long seed) {
+        //finalization step of MurmurHash3
+        long h = seed ^ token;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static long[] createHashSeeds(int count) {
+        //fixed seed, so that the result is deterministic
+        final Random random = new Random(4711);
+        final long[] ret = new long[count];
+        for (int i = 0; i < count; i++) {
+            ret[i] = random.nextLong();
+        }
+        return ret;
+    }
+
+    private int[] determineTokenSet(ChangePart changePart, Map<String, Integer> tokenIds) {
+        final Set<Integer> tokens = new HashSet<>();
         for (final Stop s : changePart.getStops()) {
             final IFragment fragment = s.getOriginalMostRecentFragment();
             if (fragment == null) {
                 continue;
             }
 
-            this.parseTokens(tokens, fragment.getContent());
+            this.parseTokens(tokens, tokenIds, fragment.getContent());
 
             //also consider the old content, so that code moves are regarded as similar
             //  not 100% accurate for complex structures, but hopefully sufficient
             final IRevisionedFile oldestFile = this.determineOldestFile(s);
             if (oldestFile != null) {
                 for (final Hunk hunk : s.getContentFor(oldestFile)) {
-                    this.parseTokens(tokens, hunk.getSource().getContent());
+                    this.parseTokens(tokens, tokenIds, hunk.getSource().getContent());
                 }
             }
         }
 
-        return tokens;
+        final int[] ret = new int[tokens.size()];
+        int i = 0;
+        for (final Integer token : tokens) {
+            ret[i++] = token;
+        }
+        Arrays.sort(ret);
+        return ret;
     }
 
     private IRevisionedFile determineOldestFile(Stop s) {
@@ -102,37 +241,52 @@ public class TokenSimilarityRelation implements RelationMatcher {
         return null;
     }
 
-    private void parseTokens(Set<String> tokens, String content) {
+    private void parseTokens(Set<Integer> tokens, Map<String, Integer> tokenIds, String content) {
         final StringBuilder curToken = new StringBuilder();
         for (final char ch : content.toCharArray()) {
             if (Character.isJavaIdentifierPart(ch)) {
                 curToken.append(ch);
             } else {
                 if (curToken.length() > 0) {
-                    tokens.add(curToken.toString());
+                    tokens.add(this.toTokenId(tokenIds, curToken));
                     curToken.setLength(0);
                 }
             }
         }
         if (curToken.length() > 0) {
-            tokens.add(curToken.toString());
+            tokens.add(this.toTokenId(tokenIds, curToken));
         }
     }
 
-    private double jaccardSimilarity(Set<String> s1, Set<String> s2) {
-        if (s2.size() < s1.size()) {
-            //performance optimization
-            return this.jaccardSimilarity(s2, s1);
+    private Integer toTokenId(Map<String, Integer> tokenIds, StringBuilder token) {
+        final String tokenString = token.toString();
+        Integer ret = tokenIds.get(tokenString);
+        if (ret == null) {
+            ret = tokenIds.size();
+            tokenIds.put(tokenString, ret);
         }
+        return ret;
+    }
+
+    /**
+     * Computes the Jaccard similarity of two sorted arrays of distinct tokens.
+     */
+    private double jaccardSimilarity(int[] s1, int[] s2) {
         int intersectionSize = 0;
-        int unionSize = s1.size() + s2.size();
-        for (final String s : s1) {
-            if (s2.contains(s)) {
+        int i1 = 0;
+        int i2 = 0;
+        while (i1 < s1.length && i2 < s2.length) {
+            if (s1[i1] < s2[i2]) {
+                i1++;
+            } else if (s1[i1] > s2[i2]) {
+                i2++;
+            } else {
                 intersectionSize++;
-                unionSize--;
+                i1++;
+                i2++;
             }
         }
-        return ((double) intersectionSize) / unionSize;
+        return ((double) intersectionSize) / (s1.length + s2.length - intersectionSize);
     }
 
 }
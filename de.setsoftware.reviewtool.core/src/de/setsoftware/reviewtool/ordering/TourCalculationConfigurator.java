@@ -0,0 +1,34 @@
+package de.setsoftware.reviewtool.ordering;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.w3c.dom.Element;
+
+import de.setsoftware.reviewtool.config.IConfigurator;
+import de.setsoftware.reviewtool.config.IReviewConfigurable;
+import de.setsoftware.reviewtool.model.changestructure.ToursInReview;
+
+/**
+ * Configures the time limits for ordering the stops,
+ * e.g. &lt;tourCalculation fastModeThresholdSeconds="20" timeBudgetSeconds="60"/&gt;.
+ */
+public class TourCalculationConfigurator implements IConfigurator {
+
+    @Override
+    public Collection<String> getRelevantElementNames() {
+        return Collections.singleton("tourCalculation");
+    }
+
+    @Override
+    public void configure(Element xml, IReviewConfigurable configurable) {
+        final String fastModeThreshold = xml.getAttribute("fastModeThresholdSeconds");
+        final String timeBudget = xml.getAttribute("timeBudgetSeconds");
+        ToursInReview.setTourCalculationTimeLimits(
+                fastModeThreshold.isEmpty()
+                    ? ToursInReview.DEFAULT_FAST_MODE_THRESHOLD : Long.parseLong(fastModeThreshold) * 1000,
+                timeBudget.isEmpty()
+                    ? ToursInReview.DEFAULT_TIME_BUDGET : Long.parseLong(timeBudget) * 1000);
+    }
+
+}
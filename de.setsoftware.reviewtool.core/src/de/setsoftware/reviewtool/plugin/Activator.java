@@ -56,6 +56,8 @@ public class Activator extends AbstractUIPlugin {
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        //the logger is still needed when saving
+        ReviewPlugin.getInstance().saveChangeSourceCaches();
         plugin = null;
         DialogHelper.setPreferenceStore(null);
         Logger.setLogger(null);
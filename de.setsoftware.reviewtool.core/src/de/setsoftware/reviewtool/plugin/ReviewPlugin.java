@@ -7,6 +7,7 @@ import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -23,8 +24,10 @@ import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchesListener;
@@ -57,6 +60,8 @@ import de.setsoftware.reviewtool.config.IReviewConfigurable;
 import de.setsoftware.reviewtool.connectors.file.FilePersistence;
 import de.setsoftware.reviewtool.connectors.file.FileTicketConnectorConfigurator;
 import de.setsoftware.reviewtool.connectors.jira.JiraConnectorConfigurator;
+import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmConfigurator;
+import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmFactory;
 import de.setsoftware.reviewtool.irrelevancestrategies.basicfilters.BasicIrrelevanceFilterConfigurator;
 import de.setsoftware.reviewtool.irrelevancestrategies.pathfilters.PathIrrelevanceFilterConfigurator;
 import de.setsoftware.reviewtool.model.EndTransition;
@@ -82,6 +87,7 @@ import de.setsoftware.reviewtool.model.remarks.IMarkerFactory;
 import de.setsoftware.reviewtool.model.remarks.ReviewData;
 import de.setsoftware.reviewtool.ordering.RelationMatcher;
 import de.setsoftware.reviewtool.ordering.StopOrdering;
+import de.setsoftware.reviewtool.ordering.TourCalculationConfigurator;
 import de.setsoftware.reviewtool.preferredtransitions.api.IPreferredTransitionStrategy;
 import de.setsoftware.reviewtool.preferredtransitions.basicstrategies.PathRegexStrategyConfigurator;
 import de.setsoftware.reviewtool.telemetry.Telemetry;
@@ -101,7 +107,9 @@ import de.setsoftware.reviewtool.ui.views.CurrentStop;
 import de.setsoftware.reviewtool.ui.views.ImageCache;
 import de.setsoftware.reviewtool.ui.views.ReviewModeListener;
 import de.setsoftware.reviewtool.ui.views.StopViewConfigurator;
+import de.setsoftware.reviewtool.viewtracking.CodeViewTracker;
 import de.setsoftware.reviewtool.viewtracking.TrackerManager;
+import de.setsoftware.reviewtool.viewtracking.ViewTrackingConfigurator;
 
 /**
  * Plugin that handles the review workflow and ties together the different parts.
@@ -288,41 +296,55 @@ public class ReviewPlugin implements IReviewConfigurable {
     }
 
     /**
-     * A {@link IProgressMonitor} implementation doing nothing.
+     * Background job that updates the local changes for the files changed since its last run. The job is
+     * rescheduled on every change, so that a burst of changes (e.g. "save all") leads to a single update. To
+     * avoid starvation when there are changes all the time, the update is not delayed further than a maximum.
      */
-    private static final class DummyProgressMonitor implements IProgressMonitor {
+    private final class LocalChangesUpdateJob extends Job {
 
-        @Override
-        public void beginTask(final String name, final int totalWork) {
-        }
+        private static final long DELAY = 500;
+        private static final long MAX_DELAY = 3000;
 
-        @Override
-        public void done() {
-        }
+        private final Set<File> pendingFiles = new LinkedHashSet<>();
+        private long firstPendingTime;
 
-        @Override
-        public void internalWorked(final double work) {
+        LocalChangesUpdateJob() {
+            super("Updating local changes");
+            this.setSystem(true);
+            this.setPriority(Job.DECORATE);
         }
 
-        @Override
-        public boolean isCanceled() {
-            return false;
-        }
-
-        @Override
-        public void setCanceled(final boolean value) {
-        }
-
-        @Override
-        public void setTaskName(final String name) {
+        /**
+         * Adds the given changed files and (re)schedules the update.
+         */
+        public synchronized void addChangedFiles(List<File> paths) {
+            final long now = System.currentTimeMillis();
+            if (this.pendingFiles.isEmpty()) {
+                this.firstPendingTime = now;
+            }
+            this.pendingFiles.addAll(paths);
+            this.schedule(Math.max(0, Math.min(DELAY, this.firstPendingTime + MAX_DELAY - now)));
         }
 
-        @Override
-        public void subTask(final String name) {
+        private synchronized List<File> takePendingFiles() {
+            final List<File> ret = new ArrayList<>(this.pendingFiles);
+            this.pendingFiles.clear();
+            return ret;
         }
 
         @Override
-        public void worked(final int work) {
+        protected IStatus run(IProgressMonitor monitor) {
+            final List<File> paths = this.takePendingFiles();
+            final ToursInReview tours = ReviewPlugin.this.toursInReview;
+            if (paths.isEmpty() || tours == null) {
+                return Status.OK_STATUS;
+            }
+            try {
+                tours.updateLocalChanges(paths, monitor, new RealMarkerFactory());
+            } catch (final RuntimeException e) {
+                Logger.warn("problem while updating local changes", e);
+            }
+            return Status.OK_STATUS;
         }
     }
 
@@ -381,6 +403,7 @@ public class ReviewPlugin implements IReviewConfigurable {
     private final ConfigurationInterpreter configInterpreter = new ConfigurationInterpreter();
     private ILaunchesListener launchesListener;
     private IResourceChangeListener changeListener;
+    private final LocalChangesUpdateJob localChangesUpdateJob = new LocalChangesUpdateJob();
     private final List<IIrrelevanceDetermination> relevanceFilters = new ArrayList<>();
     private final List<EndReviewExtension> endReviewExtensions = new ArrayList<>();
     private final List<IPreferredTransitionStrategy> preferredTransitionStrategies = new ArrayList<>();
@@ -405,6 +428,9 @@ public class ReviewPlugin implements IReviewConfigurable {
         this.configInterpreter.addConfigurator(new PathRegexStrategyConfigurator());
         this.configInterpreter.addConfigurator(new BasicIrrelevanceFilterConfigurator());
         this.configInterpreter.addConfigurator(new PathIrrelevanceFilterConfigurator());
+        this.configInterpreter.addConfigurator(new DiffAlgorithmConfigurator());
+        this.configInterpreter.addConfigurator(new TourCalculationConfigurator());
+        this.configInterpreter.addConfigurator(new ViewTrackingConfigurator());
         final IExtensionPoint configuratorExtensions =
                 Platform.getExtensionRegistry().getExtensionPoint("de.setsoftware.reviewtool.configurator");
         for (final IExtension extension : configuratorExtensions.getExtensions()) {
@@ -438,10 +464,15 @@ public class ReviewPlugin implements IReviewConfigurable {
             return;
         }
 
+        this.saveChangeSourceCaches();
         this.changeSource = null;
         this.endReviewExtensions.clear();
         this.preferredTransitionStrategies.clear();
         this.relevanceFilters.clear();
+        DiffAlgorithmFactory.setDefaultType(DiffAlgorithmFactory.MYERS);
+        ToursInReview.setTourCalculationTimeLimits(
+                ToursInReview.DEFAULT_FAST_MODE_THRESHOLD, ToursInReview.DEFAULT_TIME_BUDGET);
+        CodeViewTracker.setNotificationInterval(CodeViewTracker.DEFAULT_NOTIFICATION_INTERVAL);
 
         try {
             final Document config = ConfigurationInterpreter.load(configFile);
@@ -791,6 +822,7 @@ public class ReviewPlugin implements IReviewConfigurable {
 
     private void leaveActiveMode() throws CoreException {
         this.persistence.flushReviewData();
+        this.saveChangeSourceCaches();
         this.clearMarkers();
         this.setMode(Mode.IDLE);
         this.toursInReview = null;
@@ -864,6 +896,67 @@ public class ReviewPlugin implements IReviewConfigurable {
         }, "refreshing markers");
     }
 
+    /**
+     * Adds the commits for the ticket that have been made since the tours were loaded. In contrast to
+     * {@link #refreshMarkers()}, only the new commits are analyzed and the rest of the review state is kept.
+     */
+    public void addNewCommits() {
+        if (this.toursInReview == null) {
+            return;
+        }
+        final String action = "adding new commits";
+        final IProgressService progressService = PlatformUI.getWorkbench().getProgressService();
+        try {
+            final Display display = Display.getCurrent();
+            progressService.busyCursorWhile(new IRunnableWithProgress() {
+
+                @Override
+                public void run(final IProgressMonitor progressMonitor)
+                        throws InvocationTargetException, InterruptedException {
+                    if (!ReviewPlugin.this.doAddNewCommits(display, progressMonitor, action)) {
+                        display.asyncExec(new Runnable() {
+                            @Override
+                            public void run() {
+                                MessageDialog.openInformation(null, "No new commits",
+                                        "There are no new commits for the ticket.");
+                            }
+                        });
+                    }
+                }
+            });
+        } catch (final InterruptedException e) {
+            StatusManager.getManager().handle(
+                    new Status(Status.WARNING, "CoRT", "CoRT was interrupted while " + action + ".", e),
+                    StatusManager.LOG);
+        } catch (final InvocationTargetException e) {
+            this.logException(e);
+            StatusManager.getManager().handle(
+                    new Status(Status.ERROR, "CoRT", "An error occurred while " + action + ".", e),
+                    StatusManager.LOG);
+        }
+    }
+
+    private boolean doAddNewCommits(final Display display, final IProgressMonitor progressMonitor,
+            final String action) {
+
+        final String ticketKey = this.persistence.getTicketKey();
+        if (ticketKey == null) {
+            return false;
+        }
+        final IChangeSourceUi sourceUi = new ChangeSourceUi(display, progressMonitor);
+        sourceUi.beginTask(ticketKey + ": Please wait while " + action + "...", IProgressMonitor.UNKNOWN);
+        try {
+            return this.toursInReview.addNewCommits(
+                    sourceUi,
+                    this.relevanceFilters,
+                    new StopOrdering(this.relationTypes),
+                    ticketKey,
+                    new RealMarkerFactory());
+        } finally {
+            sourceUi.done();
+        }
+    }
+
     /**
      * Saves the local review remarks to the persistence layer.
      */
@@ -980,6 +1073,15 @@ public class ReviewPlugin implements IReviewConfigurable {
         this.persistence.setPersistence(newPersistence);
     }
 
+    /**
+     * Lets the change source write the data it keeps in memory to disk.
+     */
+    public void saveChangeSourceCaches() {
+        if (this.changeSource != null) {
+            this.changeSource.saveCaches();
+        }
+    }
+
     @Override
     public void setChangeSource(IChangeSource changeSource) {
         this.changeSource = changeSource;
@@ -1053,7 +1155,7 @@ public class ReviewPlugin implements IReviewConfigurable {
             return;
         }
 
-        ReviewPlugin.this.toursInReview.createLocalTour(paths, new DummyProgressMonitor(), new RealMarkerFactory());
+        this.localChangesUpdateJob.addChangedFiles(paths);
     }
 
     /**
@@ -18,6 +18,7 @@ import de.setsoftware.reviewtool.base.Pair;
 import de.setsoftware.reviewtool.model.api.IChange;
 import de.setsoftware.reviewtool.model.api.ICommit;
 import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.LazyCommit;
 
 /**
  * A widget containing various infos for a commit as well as possibilities to (de)select it or assign it to a tour.
@@ -50,6 +51,15 @@ public class CommitComposite extends Composite {
     }
 
     private void updateHeadLabel() {
+        if (this.commit instanceof LazyCommit && !((LazyCommit) this.commit).areChangesLoaded()) {
+            //don't determine the changes of commits that might get deselected
+            final int fileCount = ((LazyCommit) this.commit).getChangedFiles().size();
+            this.checkbox.setText(String.format("%s; %d file%s",
+                    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.SHORT).format(this.commit.getTime()),
+                    fileCount,
+                    this.pluralS(fileCount)));
+            return;
+        }
         int stopCount = 0;
         int relevantStopCount = 0;
         final Set<IRevisionedFile> files = new HashSet<>();
@@ -25,6 +25,7 @@ import org.eclipse.ui.PlatformUI;
 import de.setsoftware.reviewtool.base.Pair;
 import de.setsoftware.reviewtool.model.api.IChange;
 import de.setsoftware.reviewtool.model.api.ICommit;
+import de.setsoftware.reviewtool.model.changestructure.LazyIrrelevantChangeSet;
 import de.setsoftware.reviewtool.model.changestructure.ToursInReview.ReviewRoundInfo;
 import de.setsoftware.reviewtool.model.changestructure.ToursInReview.UserSelectedReductions;
 
@@ -155,6 +156,10 @@ public class SelectIrrelevantDialog extends Dialog {
     }
 
     private String createText(Pair<String, Set<? extends IChange>> choice) {
+        if (choice.getSecond() instanceof LazyIrrelevantChangeSet) {
+            //counting would need the changes of all commits
+            return choice.getFirst();
+        }
         return String.format("%s (applies to %d changes)",
                 choice.getFirst(),
                 choice.getSecond().size());
@@ -5,6 +5,10 @@ import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.dialogs.MessageDialog;
@@ -17,6 +21,7 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
@@ -24,8 +29,10 @@ import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.PlatformUI;
 
+import de.setsoftware.reviewtool.base.Logger;
 import de.setsoftware.reviewtool.base.Util;
 import de.setsoftware.reviewtool.model.IReviewPersistence;
+import de.setsoftware.reviewtool.model.ITicketSearchCallback;
 import de.setsoftware.reviewtool.model.TicketInfo;
 import de.setsoftware.reviewtool.model.TicketLinkSettings;
 
@@ -35,6 +42,79 @@ import de.setsoftware.reviewtool.model.TicketLinkSettings;
  */
 public class SelectTicketDialog extends Dialog {
 
+    /**
+     * Loads the tickets for a filter in the background and adds them to the table page by page, as they arrive.
+     */
+    private final class TicketSearch extends Job implements ITicketSearchCallback {
+
+        private final String filterName;
+        private final Display display;
+        private volatile boolean canceled;
+        private boolean firstPage = true;
+
+        TicketSearch(String filterName, Display display) {
+            super("Loading tickets for " + filterName);
+            this.filterName = filterName;
+            this.display = display;
+            this.setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            try {
+                SelectTicketDialog.this.persistence.searchTicketsForFilter(this.filterName, this);
+            } catch (final RuntimeException e) {
+                Logger.error("error while loading tickets for " + this.filterName, e);
+                this.runInUi(new Runnable() {
+                    @Override
+                    public void run() {
+                        MessageDialog.openError(SelectTicketDialog.this.getShell(),
+                                "Error while loading tickets", e.getMessage());
+                    }
+                });
+            }
+            return Status.OK_STATUS;
+        }
+
+        /**
+         * Stops the search. Tickets that arrive later are not added to the table.
+         */
+        public void stop() {
+            this.canceled = true;
+            this.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return this.canceled;
+        }
+
+        @Override
+        public void ticketsFound(final List<TicketInfo> tickets) {
+            this.runInUi(new Runnable() {
+                @Override
+                public void run() {
+                    SelectTicketDialog.this.addTickets(tickets);
+                    if (TicketSearch.this.firstPage) {
+                        TicketSearch.this.firstPage = false;
+                        SelectTicketDialog.this.packColumns();
+                    }
+                }
+            });
+        }
+
+        private void runInUi(final Runnable r) {
+            this.display.asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    if (!TicketSearch.this.canceled && !SelectTicketDialog.this.selectionTable.isDisposed()) {
+                        r.run();
+                    }
+                }
+            });
+        }
+    }
+
     private static final String KEY_LAST_USED_FILTER_REVIEW = "filterReview";
     private static final String KEY_LAST_USED_FILTER_FIXING = "filterFixing";
     private static final int MAX_COLUMN_WIDTH = 600;
@@ -47,6 +127,7 @@ public class SelectTicketDialog extends Dialog {
     private final IReviewPersistence persistence;
     private final String oldValue;
     private String selectedKey;
+    private TicketSearch currentSearch;
 
     protected SelectTicketDialog(Shell parentShell, String oldValue, IReviewPersistence p, boolean review) {
         super(parentShell);
@@ -117,15 +198,8 @@ public class SelectTicketDialog extends Dialog {
             column.setText(titles[i]);
         }
 
+        this.packColumns();
         this.fillTable();
-
-        for (int i = 0; i < titles.length; i++) {
-            final TableColumn column = this.selectionTable.getColumn(i);
-            column.pack();
-            if (column.getWidth() > MAX_COLUMN_WIDTH) {
-                column.setWidth(MAX_COLUMN_WIDTH);
-            }
-        }
         this.selectionTable.setFocus();
 
         this.keyField = new Text(comp, SWT.BORDER);
@@ -212,10 +286,34 @@ public class SelectTicketDialog extends Dialog {
         return review ? KEY_LAST_USED_FILTER_REVIEW : KEY_LAST_USED_FILTER_FIXING;
     }
 
+    private void packColumns() {
+        for (final TableColumn column : this.selectionTable.getColumns()) {
+            column.pack();
+            if (column.getWidth() > MAX_COLUMN_WIDTH) {
+                column.setWidth(MAX_COLUMN_WIDTH);
+            }
+        }
+    }
+
+    /**
+     * Clears the table and starts loading the tickets for the currently selected filter in the background.
+     */
     private void fillTable() {
+        this.stopSearch();
         this.selectionTable.removeAll();
+        this.currentSearch = new TicketSearch(this.filterCombo.getText(), this.selectionTable.getDisplay());
+        this.currentSearch.schedule();
+    }
 
-        for (final TicketInfo ticket : this.loadTickets()) {
+    private void stopSearch() {
+        if (this.currentSearch != null) {
+            this.currentSearch.stop();
+            this.currentSearch = null;
+        }
+    }
+
+    private void addTickets(List<TicketInfo> tickets) {
+        for (final TicketInfo ticket : tickets) {
             final TableItem item = new TableItem(this.selectionTable, SWT.NULL);
             item.setText(0, ticket.getId());
             item.setText(1, ticket.getSummaryIncludingParent());
@@ -231,8 +329,10 @@ public class SelectTicketDialog extends Dialog {
         return days + (days == 1 ? " day" : " days");
     }
 
-    private List<TicketInfo> loadTickets() {
-        return this.persistence.getTicketsForFilter(this.filterCombo.getText());
+    @Override
+    public boolean close() {
+        this.stopSearch();
+        return super.close();
     }
 
     @Override
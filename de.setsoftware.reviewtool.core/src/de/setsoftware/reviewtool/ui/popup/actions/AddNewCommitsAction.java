@@ -0,0 +1,20 @@
+package de.setsoftware.reviewtool.ui.popup.actions;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+
+import de.setsoftware.reviewtool.plugin.ReviewPlugin;
+
+/**
+ * Action to add the commits that have been made since the review was started to the current review.
+ */
+public class AddNewCommitsAction extends AbstractHandler {
+
+    @Override
+    public Object execute(ExecutionEvent event) throws ExecutionException {
+        ReviewPlugin.getInstance().addNewCommits();
+        return null;
+    }
+
+}
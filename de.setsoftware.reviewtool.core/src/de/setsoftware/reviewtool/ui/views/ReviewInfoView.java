@@ -245,6 +245,8 @@ public class ReviewInfoView extends ViewPart implements ReviewModeListener, IRev
         if (this.reviewDataText != null && !this.reviewDataText.isDisposed()) {
             this.reviewDataText.setText(newData);
         }
+        //the new data has already been saved, so it does not have to be saved and parsed again on focus loss
+        this.lastText = newData;
     }
 
 }
@@ -0,0 +1,164 @@
+package de.setsoftware.reviewtool.viewtracking;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Adds the view samples taken on the UI thread to the {@link ViewStatistics} in a background thread and
+ * notifies the statistics' listeners (on the UI thread) at most once per notification interval about
+ * all files that changed in the meantime.
+ */
+final class BatchedStatisticsUpdater {
+
+    /**
+     * A viewed portion of a file, as captured on the UI thread.
+     */
+    static final class ViewSample {
+        private final File file;
+        private final int fromLine;
+        private final int toLine;
+        private final boolean positionKnown;
+
+        private ViewSample(File file, int fromLine, int toLine, boolean positionKnown) {
+            this.file = file;
+            this.fromLine = fromLine;
+            this.toLine = toLine;
+            this.positionKnown = positionKnown;
+        }
+
+        public static ViewSample create(File file, int fromLine, int toLine) {
+            return new ViewSample(file, fromLine, toLine, true);
+        }
+
+        public static ViewSample createWithUnknownPosition(File file) {
+            return new ViewSample(file, 0, 0, false);
+        }
+
+        /**
+         * Adds the sample to the given statistics and notifies its listeners immediately.
+         */
+        public void addTo(ViewStatistics statistics) {
+            if (this.positionKnown) {
+                statistics.mark(this.file, this.fromLine, this.toLine);
+            } else {
+                statistics.markUnknownPosition(this.file);
+            }
+        }
+    }
+
+    /**
+     * Creates a daemon thread with a recognizable name.
+     */
+    private static final class UpdaterThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread t = new Thread(r, "CoRT view statistics");
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    private final ViewStatistics statistics;
+    private final Display display;
+    private final long notificationInterval;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new UpdaterThreadFactory());
+
+    //guarded by this
+    private final Set<File> changedFiles = new LinkedHashSet<>();
+    private boolean notificationScheduled;
+    private long lastNotificationTime;
+
+    BatchedStatisticsUpdater(ViewStatistics statistics, Display display, long notificationInterval) {
+        this.statistics = statistics;
+        this.display = display;
+        this.notificationInterval = notificationInterval;
+    }
+
+    /**
+     * Adds the given samples asynchronously. Samples that are added after {@link #stop()} are ignored.
+     */
+    public void add(final List<ViewSample> samples) {
+        if (samples.isEmpty() || this.executor.isShutdown()) {
+            return;
+        }
+        try {
+            this.executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    BatchedStatisticsUpdater.this.apply(samples);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            //stopped concurrently, the samples are discarded like the ones that are still pending
+        }
+    }
+
+    private void apply(List<ViewSample> samples) {
+        final List<File> files = new ArrayList<>(samples.size());
+        for (final ViewSample sample : samples) {
+            final File absFile = sample.file.getAbsoluteFile();
+            if (sample.positionKnown) {
+                this.statistics.markWithoutNotification(absFile, sample.fromLine, sample.toLine);
+            } else {
+                this.statistics.markUnknownPositionWithoutNotification(absFile);
+            }
+            files.add(absFile);
+        }
+        synchronized (this) {
+            this.changedFiles.addAll(files);
+            if (!this.notificationScheduled) {
+                this.notificationScheduled = true;
+                final long nextNotificationTime = this.lastNotificationTime + this.notificationInterval;
+                this.scheduleNotification(Math.max(0, nextNotificationTime - System.currentTimeMillis()));
+            }
+        }
+    }
+
+    private void scheduleNotification(final long delay) {
+        if (this.display.isDisposed()) {
+            return;
+        }
+        //timerExec may only be called on the UI thread
+        this.display.asyncExec(new Runnable() {
+            @Override
+            public void run() {
+                BatchedStatisticsUpdater.this.display.timerExec((int) delay, new Runnable() {
+                    @Override
+                    public void run() {
+                        BatchedStatisticsUpdater.this.notifyListeners();
+                    }
+                });
+            }
+        });
+    }
+
+    private void notifyListeners() {
+        final List<File> files;
+        synchronized (this) {
+            files = new ArrayList<>(this.changedFiles);
+            this.changedFiles.clear();
+            this.notificationScheduled = false;
+            this.lastNotificationTime = System.currentTimeMillis();
+        }
+        for (final File file : files) {
+            this.statistics.notifyListeners(file);
+        }
+    }
+
+    /**
+     * Stops the background thread. Samples that have not been added yet are discarded.
+     */
+    public void stop() {
+        this.executor.shutdownNow();
+    }
+
+}
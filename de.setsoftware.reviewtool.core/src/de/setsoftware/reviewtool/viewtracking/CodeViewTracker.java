@@ -21,6 +21,7 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.ide.FileStoreEditorInput;
 
 import de.setsoftware.reviewtool.telemetry.Telemetry;
+import de.setsoftware.reviewtool.viewtracking.BatchedStatisticsUpdater.ViewSample;
 
 /**
  * Tracks which parts of the code have been viewed by the user.
@@ -31,6 +32,13 @@ public class CodeViewTracker {
 
     private static final int CHECK_INTERVAL = 500;
 
+    /**
+     * Default for the minimal time between two notifications of the statistics' listeners.
+     */
+    public static final long DEFAULT_NOTIFICATION_INTERVAL = 2000;
+
+    private static long notificationInterval = DEFAULT_NOTIFICATION_INTERVAL;
+
     /**
      * Number of milliseconds that have to elapse before no change in activity state is
      * considered "possible inactivity". Is chosen rather, further postprocessing of the
@@ -40,6 +48,7 @@ public class CodeViewTracker {
 
     private final IWorkbench workbench;
     private final ViewStatistics statistics;
+    private final BatchedStatisticsUpdater updater;
 
     private volatile boolean running;
 
@@ -106,10 +115,25 @@ public class CodeViewTracker {
     public CodeViewTracker() {
         this.workbench = PlatformUI.getWorkbench();
         this.statistics = new ViewStatistics();
+        this.updater = notificationInterval > 0
+                ? new BatchedStatisticsUpdater(this.statistics, this.workbench.getDisplay(), notificationInterval)
+                : null;
         this.sentInactivity = true;
     }
 
+    /**
+     * Sets the minimal time between two notifications of the statistics' listeners. When it is zero, the
+     * statistics are updated directly on the UI thread and listeners are notified for each snapshot.
+     * Otherwise the updates are done in a background thread and the notifications are batched.
+     * Only affects trackers that are created afterwards.
+     */
+    public static void setNotificationInterval(long intervalMillis) {
+        notificationInterval = intervalMillis;
+    }
+
     private void performSnapshot() {
+        //only the visible portions are determined on the UI thread, the statistics are updated in the background
+        final List<ViewSample> samples = new ArrayList<>();
         for (final IEditorPart activeEditor : this.getActiveEditorParts()) {
             final Object target = activeEditor.getAdapter(ITextOperationTarget.class);
             final File activeFilePath = determineFilePath(activeEditor);
@@ -118,10 +142,17 @@ public class CodeViewTracker {
             }
             if (target instanceof ITextViewer) {
                 final ITextViewer textViewer = (ITextViewer) target;
-                this.statistics.mark(activeFilePath,
-                        textViewer.getTopIndex() + 1, textViewer.getBottomIndex() + 1);
+                samples.add(ViewSample.create(activeFilePath,
+                        textViewer.getTopIndex() + 1, textViewer.getBottomIndex() + 1));
             } else {
-                this.statistics.markUnknownPosition(activeFilePath);
+                samples.add(ViewSample.createWithUnknownPosition(activeFilePath));
+            }
+        }
+        if (this.updater != null) {
+            this.updater.add(samples);
+        } else {
+            for (final ViewSample sample : samples) {
+                sample.addTo(this.statistics);
             }
         }
     }
@@ -213,6 +244,9 @@ public class CodeViewTracker {
 
     public void stop() {
         this.running = false;
+        if (this.updater != null) {
+            this.updater.stop();
+        }
     }
 
     public ViewStatistics getStatistics() {
@@ -0,0 +1,129 @@
+package de.setsoftware.reviewtool.viewtracking;
+
+import java.util.Arrays;
+
+/**
+ * View counts per line of a file, stored as runs of lines with the same count. As the viewed portions of a file
+ * are mostly contiguous, there are only few runs even for large files, and both marking a range of lines and
+ * aggregating the counts for a range of lines don't depend on the number of lines in the range.
+ */
+final class LineViewCounts {
+
+    /**
+     * The first lines of the runs, in ascending order. A run reaches until the line before the start
+     * of the next run. The lines before the first run have count zero, and the last run always has count zero.
+     */
+    private int[] runStarts = new int[8];
+    private int[] runCounts = new int[8];
+    private int runCount;
+
+    public boolean isEmpty() {
+        return this.runCount == 0;
+    }
+
+    /**
+     * Increases the count for all lines in the given range (inclusive) by one.
+     */
+    public void increment(int fromLine, int toLine) {
+        assert fromLine <= toLine;
+        final int fromIndex = this.split(fromLine);
+        final int toIndex = toLine == Integer.MAX_VALUE ? this.runCount : this.split(toLine + 1);
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (this.runCounts[i] < Integer.MAX_VALUE) {
+                this.runCounts[i]++;
+            }
+        }
+        this.mergeRuns();
+    }
+
+    /**
+     * Returns the count for the given line.
+     */
+    public int get(int line) {
+        final int index = this.findRun(line);
+        return index < 0 ? 0 : this.runCounts[index];
+    }
+
+    /**
+     * Determines the average, maximal and minimal view ratio for the given range of lines (inclusive).
+     * The ratio for a line is its count divided by the given count, limited to 1.
+     */
+    public ViewStatDataForStop determineRatios(int fromLine, int toLine, int longEnoughCount) {
+        assert fromLine <= toLine;
+        double sum = 0.0;
+        long lineCount = 0;
+        double max = 0.0;
+        double min = Double.MAX_VALUE;
+        int index = this.findRun(fromLine);
+        int line = fromLine;
+        while (true) {
+            final int count = index < 0 ? 0 : this.runCounts[index];
+            final int runEnd = index + 1 < this.runCount ? this.runStarts[index + 1] - 1 : Integer.MAX_VALUE;
+            final int end = Math.min(runEnd, toLine);
+            final int linesInRun = end - line + 1;
+            final double ratio = ((double) Math.min(count, longEnoughCount)) / longEnoughCount;
+            sum += ratio * linesInRun;
+            lineCount += linesInRun;
+            max = Math.max(max, ratio);
+            min = Math.min(min, ratio);
+            if (end >= toLine) {
+                break;
+            }
+            line = end + 1;
+            index++;
+        }
+        final double avg = sum / lineCount;
+        //due to floating point inaccuracies, avg can be outside the min..max interval, which we dont want
+        return new ViewStatDataForStop(Math.max(Math.min(avg, max), min), max, min);
+    }
+
+    /**
+     * Returns the index of the run containing the given line, or -1 if it is before the first run.
+     */
+    private int findRun(int line) {
+        final int index = Arrays.binarySearch(this.runStarts, 0, this.runCount, line);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Ensures that a run starts at the given line and returns its index.
+     */
+    private int split(int line) {
+        final int index = Arrays.binarySearch(this.runStarts, 0, this.runCount, line);
+        if (index >= 0) {
+            return index;
+        }
+        final int insertionPoint = -index - 1;
+        final int count = insertionPoint == 0 ? 0 : this.runCounts[insertionPoint - 1];
+        if (this.runCount == this.runStarts.length) {
+            this.runStarts = Arrays.copyOf(this.runStarts, this.runCount * 2);
+            this.runCounts = Arrays.copyOf(this.runCounts, this.runCount * 2);
+        }
+        System.arraycopy(this.runStarts, insertionPoint, this.runStarts, insertionPoint + 1,
+                this.runCount - insertionPoint);
+        System.arraycopy(this.runCounts, insertionPoint, this.runCounts, insertionPoint + 1,
+                this.runCount - insertionPoint);
+        this.runStarts[insertionPoint] = line;
+        this.runCounts[insertionPoint] = count;
+        this.runCount++;
+        return insertionPoint;
+    }
+
+    /**
+     * Removes runs that have the same count as their predecessor.
+     */
+    private void mergeRuns() {
+        int newCount = 0;
+        int previousCount = 0;
+        for (int i = 0; i < this.runCount; i++) {
+            if (this.runCounts[i] != previousCount) {
+                this.runStarts[newCount] = this.runStarts[i];
+                this.runCounts[newCount] = this.runCounts[i];
+                newCount++;
+                previousCount = this.runCounts[i];
+            }
+        }
+        this.runCount = newCount;
+    }
+
+}
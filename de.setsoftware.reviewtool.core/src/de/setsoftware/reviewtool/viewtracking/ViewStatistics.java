@@ -17,6 +17,8 @@ import de.setsoftware.reviewtool.model.changestructure.ToursInReview;
 
 /**
  * Statistics on if and how long portions of files have been viewed.
+ * The view counts can be updated from a background thread, the explicit marks and the listeners
+ * are only used on the UI thread.
  */
 public class ViewStatistics {
 
@@ -30,20 +32,28 @@ public class ViewStatistics {
      */
     public void mark(File filePath, int fromLine, int toLine) {
         final File absFile = filePath.getAbsoluteFile();
-        this.getOrCreate(absFile).mark(fromLine, toLine);
+        this.markWithoutNotification(absFile, fromLine, toLine);
         this.notifyListeners(absFile);
     }
 
+    synchronized void markWithoutNotification(File absFile, int fromLine, int toLine) {
+        this.getOrCreate(absFile).mark(fromLine, toLine);
+    }
+
     /**
      * Marks that the file has been viewed for one time slot when no specific information
      * on the viewed part of the file is available.
      */
     public void markUnknownPosition(File filePath) {
         final File absFile = filePath.getAbsoluteFile();
-        this.getOrCreate(absFile).markUnknownPosition();
+        this.markUnknownPositionWithoutNotification(absFile);
         this.notifyListeners(absFile);
     }
 
+    synchronized void markUnknownPositionWithoutNotification(File absFile) {
+        this.getOrCreate(absFile).markUnknownPosition();
+    }
+
     /**
      * Marks the given stop as checked when it is currently not, or removes the mark when it
      * is currently present. This kind of explicit manual marking is orthogonal to
@@ -87,7 +97,7 @@ public class ViewStatistics {
      * has been viewed. Zero means "not viewed at all", one means "every line has been
      * viewed long enough".
      */
-    public ViewStatDataForStop determineViewRatio(Stop f, int longEnoughCount) {
+    public synchronized ViewStatDataForStop determineViewRatio(Stop f, int longEnoughCount) {
         final File absFile = f.getAbsoluteFile();
         final ViewStatisticsForFile stats = this.files.get(absFile);
         if (stats == null) {
@@ -103,7 +113,7 @@ public class ViewStatistics {
         }
     }
 
-    private void notifyListeners(File absFile) {
+    void notifyListeners(File absFile) {
         for (final IViewStatisticsListener l : this.listeners.getListeners()) {
             l.statisticsChanged(absFile);
         }
@@ -1,36 +1,18 @@
 package de.setsoftware.reviewtool.viewtracking;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Statistics on if and how long portions of a single file have been viewed.
  */
 public class ViewStatisticsForFile {
 
     private int unspecificCount;
-    private final Map<Integer, Integer> countsPerLine = new HashMap<>();
+    private final LineViewCounts countsPerLine = new LineViewCounts();
 
     /**
      * Marks that the given portion of the file has been viewed for one time slot.
      */
     public void mark(int fromLine, int toLine) {
-        if (toLine < fromLine) {
-            this.increaseCount(fromLine);
-            return;
-        }
-        for (int line = fromLine; line <= toLine; line++) {
-            this.increaseCount(line);
-        }
-    }
-
-    private void increaseCount(int line) {
-        final Integer oldCount = this.countsPerLine.get(line);
-        if (oldCount == null) {
-            this.countsPerLine.put(line, 1);
-        } else if (oldCount < Integer.MAX_VALUE) {
-            this.countsPerLine.put(line, oldCount + 1);
-        }
+        this.countsPerLine.increment(fromLine, Math.max(fromLine, toLine));
     }
 
     /**
@@ -63,24 +45,7 @@ public class ViewStatisticsForFile {
             //no marks on line basis => fallback to whole file
             return this.determineViewRatioWithoutPosition(longEnoughCount);
         }
-        if (lineTo < lineFrom) {
-            return this.determineViewRatio(lineFrom, lineFrom, longEnoughCount);
-        }
-        double sum = 0.0;
-        int count = 0;
-        double max = 0.0;
-        double min = Double.MAX_VALUE;
-        for (int line = lineFrom; line <= lineTo; line++) {
-            final Integer countForLine = this.countsPerLine.get(line);
-            final double lineRatio = this.determineRatio(countForLine == null ? 0 : countForLine, longEnoughCount);
-            sum += lineRatio;
-            count++;
-            max = Math.max(max, lineRatio);
-            min = Math.min(min, lineRatio);
-        }
-        final double avg = sum / count;
-        //due to floating point inaccuracies, avg can be outside the min..max interval, which we dont want
-        return new ViewStatDataForStop(Math.max(Math.min(avg, max), min), max, min);
+        return this.countsPerLine.determineRatios(lineFrom, Math.max(lineFrom, lineTo), longEnoughCount);
     }
 
 }
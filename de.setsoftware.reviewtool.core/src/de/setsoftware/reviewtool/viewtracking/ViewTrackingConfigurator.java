@@ -0,0 +1,30 @@
+package de.setsoftware.reviewtool.viewtracking;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.w3c.dom.Element;
+
+import de.setsoftware.reviewtool.config.IConfigurator;
+import de.setsoftware.reviewtool.config.IReviewConfigurable;
+
+/**
+ * Configures how often the review content is updated with the view statistics,
+ * e.g. &lt;viewTracking notificationIntervalMs="2000"/&gt;. An interval of zero means an update for every
+ * snapshot of the viewed code.
+ */
+public class ViewTrackingConfigurator implements IConfigurator {
+
+    @Override
+    public Collection<String> getRelevantElementNames() {
+        return Collections.singleton("viewTracking");
+    }
+
+    @Override
+    public void configure(Element xml, IReviewConfigurable configurable) {
+        final String interval = xml.getAttribute("notificationIntervalMs");
+        CodeViewTracker.setNotificationInterval(
+                interval.isEmpty() ? CodeViewTracker.DEFAULT_NOTIFICATION_INTERVAL : Long.parseLong(interval));
+    }
+
+}
@@ -0,0 +1,124 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link ChangePartBitSet}.
+ */
+public class ChangePartBitSetTest {
+
+    private static ChangePartIds<Integer> ids(int count) {
+        final List<Integer> parts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            parts.add(i * 10);
+        }
+        return new ChangePartIds<>(parts);
+    }
+
+    private static ChangePartBitSet<Integer> bits(ChangePartIds<Integer> ids, Integer... parts) {
+        return ChangePartBitSet.create(ids, Arrays.asList(parts));
+    }
+
+    @Test
+    public void testIds() {
+        final ChangePartIds<Integer> ids = ids(3);
+        assertEquals(3, ids.size());
+        assertEquals(0, ids.getId(0));
+        assertEquals(2, ids.getId(20));
+        assertEquals(-1, ids.getId(5));
+        assertEquals(Integer.valueOf(10), ids.getPart(1));
+    }
+
+    @Test
+    public void testContains() {
+        final ChangePartIds<Integer> ids = ids(200);
+        final ChangePartBitSet<Integer> s = bits(ids, 0, 630, 640, 1990, 5);
+        assertTrue(s.contains(Integer.valueOf(0)));
+        assertTrue(s.contains(Integer.valueOf(630)));
+        assertTrue(s.contains(Integer.valueOf(640)));
+        assertTrue(s.contains(Integer.valueOf(1990)));
+        assertFalse(s.contains(Integer.valueOf(10)));
+        assertFalse(s.contains(Integer.valueOf(5)));
+        assertTrue(s.contains(63, 630));
+        assertFalse(s.contains(65, 650));
+        assertTrue(s.contains(-1, 640));
+        assertEquals(4, s.size());
+        assertEquals(new HashSet<>(Arrays.asList(0, 630, 640, 1990)), s.toSet());
+    }
+
+    @Test
+    public void testNextId() {
+        final ChangePartIds<Integer> ids = ids(200);
+        final ChangePartBitSet<Integer> s = bits(ids, 630, 640, 1990);
+        assertEquals(63, s.nextId(0));
+        assertEquals(63, s.nextId(63));
+        assertEquals(64, s.nextId(64));
+        assertEquals(199, s.nextId(65));
+        assertEquals(-1, s.nextId(200));
+        assertEquals(-1, bits(ids).nextId(0));
+    }
+
+    @Test
+    public void testIntersectsAndContainsAll() {
+        final ChangePartIds<Integer> ids = ids(130);
+        final ChangePartBitSet<Integer> s1 = bits(ids, 10, 700, 1290);
+        final ChangePartBitSet<Integer> s2 = bits(ids, 20, 1290);
+        final ChangePartBitSet<Integer> s3 = bits(ids, 10, 1290);
+        final ChangePartBitSet<Integer> empty = bits(ids);
+        assertTrue(s1.intersects(s2));
+        assertTrue(s2.intersects(s1));
+        assertFalse(s2.intersects(bits(ids, 10, 700)));
+        assertFalse(s1.intersects(empty));
+        assertTrue(s1.containsAll(s3));
+        assertFalse(s3.containsAll(s1));
+        assertFalse(s1.containsAll(s2));
+        assertTrue(s1.containsAll(empty));
+        assertTrue(s1.containsAll(s1));
+    }
+
+    @Test
+    public void testAddAll() {
+        final ChangePartIds<Integer> ids = ids(100);
+        final ChangePartBitSet<Integer> s = bits(ids, 10, 700);
+        s.addAll(bits(ids, 20, 700, 990));
+        assertEquals(new HashSet<>(Arrays.asList(10, 20, 700, 990)), s.toSet());
+    }
+
+    @Test
+    public void testRandomComparisonWithHashSets() {
+        final Random r = new Random(42);
+        final ChangePartIds<Integer> ids = ids(150);
+        for (int i = 0; i < 1000; i++) {
+            final Set<Integer> h1 = randomSet(r);
+            final Set<Integer> h2 = randomSet(r);
+            final ChangePartBitSet<Integer> b1 = ChangePartBitSet.create(ids, h1);
+            final ChangePartBitSet<Integer> b2 = ChangePartBitSet.create(ids, h2);
+            final Set<Integer> intersection = new HashSet<>(h1);
+            intersection.retainAll(h2);
+            assertEquals(!intersection.isEmpty(), b1.intersects(b2));
+            assertEquals(h1.containsAll(h2), b1.containsAll(b2));
+            assertEquals(h1, b1.toSet());
+        }
+    }
+
+    private static Set<Integer> randomSet(Random r) {
+        final Set<Integer> ret = new HashSet<>();
+        final int size = r.nextInt(6);
+        for (int i = 0; i < size; i++) {
+            ret.add(r.nextInt(150) * 10);
+        }
+        return ret;
+    }
+
+}
@@ -87,6 +87,16 @@ public class ExperimentDataTest {
                         public boolean isFastModeNeeded() {
                             return false;
                         }
+
+                        @Override
+                        public boolean isTimeBudgetExhausted() {
+                            return false;
+                        }
+
+                        @Override
+                        public void reportProgress(
+                                int satisfiedMatches, int matchCount, int satisfiedPositions, int positionCount) {
+                        }
                     });
         }
     }
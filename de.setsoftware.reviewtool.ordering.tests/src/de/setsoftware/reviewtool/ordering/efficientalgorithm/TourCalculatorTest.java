@@ -1,6 +1,8 @@
 package de.setsoftware.reviewtool.ordering.efficientalgorithm;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -70,11 +72,7 @@ public class TourCalculatorTest {
         }
 
         public TourCalculator<String> calculate() throws Exception {
-            return TourCalculator.calculateFor(
-                    this.parts,
-                    this.matchSets,
-                    this.positionRequests,
-                    this.comparator,
+            return this.calculate(
                     new TourCalculatorControl() {
                         @Override
                         public boolean isCanceled() {
@@ -85,8 +83,27 @@ public class TourCalculatorTest {
                         public boolean isFastModeNeeded() {
                             return false;
                         }
+
+                        @Override
+                        public boolean isTimeBudgetExhausted() {
+                            return false;
+                        }
+
+                        @Override
+                        public void reportProgress(
+                                int satisfiedMatches, int matchCount, int satisfiedPositions, int positionCount) {
+                        }
                     });
         }
+
+        public TourCalculator<String> calculate(TourCalculatorControl control) throws Exception {
+            return TourCalculator.calculateFor(
+                    this.parts,
+                    this.matchSets,
+                    this.positionRequests,
+                    this.comparator,
+                    control);
+        }
     }
 
     @Test
@@ -425,4 +442,46 @@ public class TourCalculatorTest {
 //        System.out.println("Median: " + durations.get(durations.size() / 2));
 //    }
 
+    @Test
+    public void testResultWhenTimeBudgetIsExhaustedFromTheStart() throws Exception {
+        final TourCalculator<String> actual = TourCalculatorInput
+                .tourCalculatorFor("callee", "other", "caller")
+                .match("callee", TargetPosition.SECOND, "caller")
+                .calculate(new TimeBudgetTourCalculatorControl(0, -1) {
+                    @Override
+                    public boolean isCanceled() {
+                        return false;
+                    }
+                });
+
+        assertTrue(actual.isPartial());
+        assertEquals(Arrays.asList("callee", "other", "caller"), actual.getTour());
+        assertEquals(0, actual.getSatisfiedMatchCount());
+    }
+
+    @Test
+    public void testProgressIsReported() throws Exception {
+        final List<String> reported = new ArrayList<>();
+        final TourCalculator<String> actual = TourCalculatorInput
+                .tourCalculatorFor("callee", "other", "caller")
+                .match("callee", TargetPosition.SECOND, "caller")
+                .calculate(new TimeBudgetTourCalculatorControl(Long.MAX_VALUE, Long.MAX_VALUE) {
+                    @Override
+                    public boolean isCanceled() {
+                        return false;
+                    }
+
+                    @Override
+                    public void reportProgress(
+                            int satisfiedMatches, int matchCount, int satisfiedPositions, int positionCount) {
+                        reported.add(satisfiedMatches + "/" + matchCount
+                                + " " + satisfiedPositions + "/" + positionCount);
+                    }
+                });
+
+        assertFalse(actual.isPartial());
+        assertEquals(Arrays.asList("caller", "callee", "other"), actual.getTour());
+        assertEquals("1/1 1/1", reported.get(reported.size() - 1));
+    }
+
 }
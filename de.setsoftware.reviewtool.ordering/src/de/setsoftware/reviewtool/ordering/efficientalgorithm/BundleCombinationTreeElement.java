@@ -2,7 +2,6 @@ package de.setsoftware.reviewtool.ordering.efficientalgorithm;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -152,16 +151,21 @@ public abstract class BundleCombinationTreeElement<T> implements BundleCombinati
      * either directly a leaf or a node with the stops as children.
      */
     public static<S> BundleCombinationTreeElement<S> create(Collection<S> asList) {
-        assert asList.size() > 0;
-        if (asList.size() == 1) {
-            return new BundleCombinationTreeLeaf<S>(asList.iterator().next());
+        return create(new ChangePartIds<>(asList));
+    }
+
+    /**
+     * Creates a tree element for the stops with the given IDs. Bundles that are based on IDs
+     * (like {@link ChangePartBitSet}) have to use the same {@link ChangePartIds} instance.
+     */
+    public static<S> BundleCombinationTreeElement<S> create(ChangePartIds<S> ids) {
+        assert ids.size() > 0;
+        if (ids.size() == 1) {
+            return new BundleCombinationTreeLeaf<S>(ids.getPart(0), 0);
         } else {
-            final BundleCombinationTreeElement<S>[] items = new BundleCombinationTreeElement[asList.size()];
-            final Iterator<S> iter = asList.iterator();
-            int i = 0;
-            while (iter.hasNext()) {
-                items[i] = new BundleCombinationTreeLeaf<S>(iter.next());
-                i++;
+            final BundleCombinationTreeElement<S>[] items = new BundleCombinationTreeElement[ids.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = new BundleCombinationTreeLeaf<S>(ids.getPart(i), i);
             }
             return new BundleCombinationTreeNode<S>(items, true);
         }
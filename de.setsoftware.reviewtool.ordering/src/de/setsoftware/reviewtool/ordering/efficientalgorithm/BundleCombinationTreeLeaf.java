@@ -11,18 +11,24 @@ import java.util.List;
 class BundleCombinationTreeLeaf<T> extends BundleCombinationTreeElement<T> {
 
     private final T value;
+    private final int id;
     private final BundleResult<T> thisFull;
     private final BundleResult<T> thisNone;
 
     BundleCombinationTreeLeaf(T value) {
+        this(value, -1);
+    }
+
+    BundleCombinationTreeLeaf(T value, int id) {
         this.value = value;
+        this.id = id;
         this.thisFull = new BundleResult<T>(ResultType.FULL, this);
         this.thisNone = new BundleResult<T>(ResultType.NONE, this);
     }
 
     @Override
     protected BundleResult<T> addBundle(SimpleSet<T> bundle) {
-        return bundle.contains(this.value) ? this.thisFull : this.thisNone;
+        return bundle.contains(this.id, this.value) ? this.thisFull : this.thisNone;
     }
 
     @Override
@@ -42,7 +48,7 @@ class BundleCombinationTreeLeaf<T> extends BundleCombinationTreeElement<T> {
 
     @Override
     protected ResultType checkContainment(SimpleSet<T> bundle) {
-        return bundle.contains(this.value) ? ResultType.FULL : ResultType.NONE;
+        return bundle.contains(this.id, this.value) ? ResultType.FULL : ResultType.NONE;
     }
 
     @Override
@@ -0,0 +1,149 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A set of change parts, represented as a bit set over their {@link ChangePartIds}. Intersection and
+ * containment tests work on whole words of the bit set.
+ *
+ * @param <T> Type of the stops.
+ */
+public final class ChangePartBitSet<T> implements SimpleSet<T> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private final ChangePartIds<T> ids;
+    private final long[] words;
+
+    /**
+     * Creates an empty set for change parts with the given IDs.
+     */
+    public ChangePartBitSet(ChangePartIds<T> ids) {
+        this.ids = ids;
+        this.words = new long[(ids.size() + 63) >>> ADDRESS_BITS_PER_WORD];
+    }
+
+    /**
+     * Creates a set containing the given change parts. Parts without an ID are ignored.
+     */
+    public static<S> ChangePartBitSet<S> create(ChangePartIds<S> ids, Collection<S> parts) {
+        final ChangePartBitSet<S> ret = new ChangePartBitSet<>(ids);
+        for (final S part : parts) {
+            final int id = ids.getId(part);
+            if (id >= 0) {
+                ret.add(id);
+            }
+        }
+        return ret;
+    }
+
+    public ChangePartIds<T> getIds() {
+        return this.ids;
+    }
+
+    public void add(int id) {
+        this.words[id >>> ADDRESS_BITS_PER_WORD] |= 1L << id;
+    }
+
+    /**
+     * Adds all change parts from the given set to this one.
+     */
+    public void addAll(ChangePartBitSet<T> other) {
+        assert this.ids == other.ids;
+        for (int i = 0; i < this.words.length; i++) {
+            this.words[i] |= other.words[i];
+        }
+    }
+
+    public boolean contains(int id) {
+        return (this.words[id >>> ADDRESS_BITS_PER_WORD] & (1L << id)) != 0;
+    }
+
+    @Override
+    public boolean contains(T item) {
+        final int id = this.ids.getId(item);
+        return id >= 0 && this.contains(id);
+    }
+
+    @Override
+    public boolean contains(int id, T item) {
+        if (id < 0) {
+            return this.contains(item);
+        }
+        assert this.ids.getPart(id).equals(item);
+        return this.contains(id);
+    }
+
+    /**
+     * Returns true iff this set and the given one have at least one change part in common.
+     */
+    public boolean intersects(ChangePartBitSet<T> other) {
+        assert this.ids == other.ids;
+        for (int i = 0; i < this.words.length; i++) {
+            if ((this.words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true iff this set contains all change parts from the given one.
+     */
+    public boolean containsAll(ChangePartBitSet<T> other) {
+        assert this.ids == other.ids;
+        for (int i = 0; i < this.words.length; i++) {
+            if ((other.words[i] & ~this.words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the ID of the first change part in the set with an ID greater than or equal to the given one,
+     * or -1 if there is none.
+     */
+    public int nextId(int fromId) {
+        int wordIndex = fromId >>> ADDRESS_BITS_PER_WORD;
+        if (wordIndex >= this.words.length) {
+            return -1;
+        }
+        long word = this.words[wordIndex] & (-1L << fromId);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            wordIndex++;
+            if (wordIndex >= this.words.length) {
+                return -1;
+            }
+            word = this.words[wordIndex];
+        }
+    }
+
+    public int size() {
+        int ret = 0;
+        for (final long word : this.words) {
+            ret += Long.bitCount(word);
+        }
+        return ret;
+    }
+
+    @Override
+    public Set<T> toSet() {
+        final Set<T> ret = new LinkedHashSet<>();
+        for (int id = this.nextId(0); id >= 0; id = this.nextId(id + 1)) {
+            ret.add(this.ids.getPart(id));
+        }
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return this.toSet().toString();
+    }
+
+}
@@ -0,0 +1,46 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense integer IDs (0 to size - 1, in iteration order) to the change parts/stops of a tour calculation.
+ * The IDs are used to represent sets of change parts as bit sets (see {@link ChangePartBitSet}), so that the
+ * frequent set operations during the calculation don't need hashing.
+ *
+ * @param <T> Type of the stops.
+ */
+public final class ChangePartIds<T> {
+
+    private final List<T> parts;
+    private final Map<T, Integer> ids;
+
+    public ChangePartIds(Collection<T> parts) {
+        this.parts = new ArrayList<>(parts);
+        this.ids = new HashMap<>(this.parts.size() * 2);
+        for (int i = 0; i < this.parts.size(); i++) {
+            this.ids.put(this.parts.get(i), i);
+        }
+        assert this.ids.size() == this.parts.size() : "there are duplicate change parts";
+    }
+
+    public int size() {
+        return this.parts.size();
+    }
+
+    /**
+     * Returns the ID of the given change part, or -1 if it is unknown.
+     */
+    public int getId(T part) {
+        final Integer id = this.ids.get(part);
+        return id == null ? -1 : id;
+    }
+
+    public T getPart(int id) {
+        return this.parts.get(id);
+    }
+
+}
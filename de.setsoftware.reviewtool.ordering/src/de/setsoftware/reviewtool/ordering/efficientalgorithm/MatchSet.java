@@ -13,14 +13,37 @@ public class MatchSet<T> {
 
     private final Set<T> parts;
 
+    //the bit set representation is created lazily and cached for the most recently used IDs
+    private ChangePartBitSet<T> bits;
+
     public MatchSet(Collection<T> set) {
         this.parts = new LinkedHashSet<>(set);
     }
 
+    /**
+     * Creates a match set from the given bit set.
+     */
+    public MatchSet(ChangePartBitSet<T> bits) {
+        this.parts = bits.toSet();
+        this.bits = bits;
+    }
+
     public Set<T> getChangeParts() {
         return this.parts;
     }
 
+    /**
+     * Returns the change parts in this match set as a bit set based on the given IDs.
+     */
+    public ChangePartBitSet<T> getBits(ChangePartIds<T> ids) {
+        ChangePartBitSet<T> ret = this.bits;
+        if (ret == null || ret.getIds() != ids) {
+            ret = ChangePartBitSet.create(ids, this.parts);
+            this.bits = ret;
+        }
+        return ret;
+    }
+
     @Override
     public String toString() {
         return this.parts.toString();
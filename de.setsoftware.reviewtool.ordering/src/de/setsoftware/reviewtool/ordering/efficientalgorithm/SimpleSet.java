@@ -11,6 +11,13 @@ public interface SimpleSet<T> {
 
     public abstract boolean contains(T item);
 
+    /**
+     * Returns true iff the given item is contained in the set. The ID of the item (see {@link ChangePartIds})
+     * is given additionally, so that implementations based on these IDs don't need to look it up. It is -1
+     * when the ID is unknown.
+     */
+    public abstract boolean contains(int id, T item);
+
     public abstract Set<T> toSet();
 
 }
@@ -20,6 +20,11 @@ public class SimpleSetAdapter<T> implements SimpleSet<T> {
         return this.wrapped.contains(item);
     }
 
+    @Override
+    public boolean contains(int id, T item) {
+        return this.wrapped.contains(item);
+    }
+
     @Override
     public Set<T> toSet() {
         return this.wrapped;
@@ -10,59 +10,111 @@ import java.util.TreeSet;
 /**
  * An implementation of SimpleSet that allows efficient stepwise selection
  * of a subset of MatchSets.
+ * The items are counted per ID (see {@link ChangePartIds}), so that no hashing is needed when the set is
+ * used for bundling.
  *
  * @param <S> Type of the items.
  */
 public class SubsettingSet<S> implements SimpleSet<S> {
 
-    private final List<MatchSet<S>> potentialFolds;
+    private final ChangePartIds<S> ids;
+    private final List<ChangePartBitSet<S>> potentialFolds;
     private final Set<Integer> remainingFoldIndices;
 
-    private final CountingSet<S> allItems;
-    private final CountingSet<S> removedItems;
-    private Integer currentCandidate;
+    private final ChangePartBitSet<S> allItems;
+    private final int[] allCounts;
+    private final int[] removedCounts;
+    private ChangePartBitSet<S> currentCandidate;
+    private Integer currentCandidateIndex;
 
     public SubsettingSet(MatchSet<S> toMatch, List<MatchSet<S>> potentialFolds) {
-        this.potentialFolds = new ArrayList<>(potentialFolds);
+        this(determineIds(toMatch, potentialFolds), toMatch, potentialFolds);
+    }
+
+    /**
+     * Constructor.
+     * @param ids The IDs of the items. All items in the given MatchSets need to have an ID.
+     * @param toMatch The match set that shall be satisfied.
+     * @param potentialFolds The match sets that can be used in addition.
+     */
+    public SubsettingSet(ChangePartIds<S> ids, MatchSet<S> toMatch, List<MatchSet<S>> potentialFolds) {
+        this.ids = ids;
+        this.potentialFolds = new ArrayList<>(potentialFolds.size());
         this.remainingFoldIndices = new TreeSet<>();
         for (int i = 0; i < potentialFolds.size(); i++) {
+            this.potentialFolds.add(potentialFolds.get(i).getBits(ids));
             this.remainingFoldIndices.add(i);
         }
 
-        this.allItems = new CountingSet<>(toMatch.getChangeParts().size() + potentialFolds.size() * 4);
-        this.allItems.addAll(toMatch.getChangeParts());
+        this.allItems = new ChangePartBitSet<>(ids);
+        this.allCounts = new int[ids.size()];
+        this.removedCounts = new int[ids.size()];
+        this.addAll(toMatch.getBits(ids));
+        for (final ChangePartBitSet<S> ms : this.potentialFolds) {
+            this.addAll(ms);
+        }
+    }
+
+    private static<S> ChangePartIds<S> determineIds(MatchSet<S> toMatch, List<MatchSet<S>> potentialFolds) {
+        final Set<S> allItems = new LinkedHashSet<>(toMatch.getChangeParts());
         for (final MatchSet<S> ms : potentialFolds) {
-            this.allItems.addAll(ms.getChangeParts());
+            allItems.addAll(ms.getChangeParts());
+        }
+        return new ChangePartIds<>(allItems);
+    }
+
+    private void addAll(ChangePartBitSet<S> items) {
+        increment(this.allCounts, items);
+        this.allItems.addAll(items);
+    }
+
+    private static<S> void increment(int[] counts, ChangePartBitSet<S> items) {
+        for (int id = items.nextId(0); id >= 0; id = items.nextId(id + 1)) {
+            counts[id]++;
         }
-        this.removedItems = new CountingSet<>();
     }
 
     @Override
     public boolean contains(S item) {
-        final int addCount = this.allItems.get(item);
-        int removeCount = this.removedItems.get(item);
-        if (this.currentCandidate != null
-                && this.getCurrentCandidate().getChangeParts().contains(item)) {
+        final int id = this.ids.getId(item);
+        return id >= 0 && this.containsId(id);
+    }
+
+    @Override
+    public boolean contains(int id, S item) {
+        if (id < 0) {
+            return this.contains(item);
+        }
+        assert this.ids.getPart(id).equals(item);
+        return this.containsId(id);
+    }
+
+    private boolean containsId(int id) {
+        int removeCount = this.removedCounts[id];
+        if (this.currentCandidate != null && this.currentCandidate.contains(id)) {
             removeCount++;
         }
-        return addCount > removeCount;
+        return this.allCounts[id] > removeCount;
     }
 
     @Override
     public Set<S> toSet() {
-        final Set<S> ret = new LinkedHashSet<>();
-        for (final S item : this.allItems.keys()) {
-            if (this.contains(item)) {
-                ret.add(item);
+        return this.toBits().toSet();
+    }
+
+    /**
+     * Returns the items that are currently contained in the set as a bit set.
+     */
+    public ChangePartBitSet<S> toBits() {
+        final ChangePartBitSet<S> ret = new ChangePartBitSet<>(this.ids);
+        for (int id = this.allItems.nextId(0); id >= 0; id = this.allItems.nextId(id + 1)) {
+            if (this.containsId(id)) {
+                ret.add(id);
             }
         }
         return ret;
     }
 
-    private MatchSet<S> getCurrentCandidate() {
-        return this.potentialFolds.get(this.currentCandidate);
-    }
-
     /**
      * Returns the removals that are still possible.
      */
@@ -77,16 +129,18 @@ public class SubsettingSet<S> implements SimpleSet<S> {
      */
     public void preliminaryRemove(Integer foldKey) {
         assert this.currentCandidate == null;
-        this.currentCandidate = foldKey;
+        this.currentCandidateIndex = foldKey;
+        this.currentCandidate = this.potentialFolds.get(foldKey);
     }
 
     /**
      * Commits the most recent preliminary removal, so that a new removal is possible.
      */
     public void commitRemoval() {
-        this.removedItems.addAll(this.getCurrentCandidate().getChangeParts());
-        this.remainingFoldIndices.remove(this.currentCandidate);
+        increment(this.removedCounts, this.currentCandidate);
+        this.remainingFoldIndices.remove(this.currentCandidateIndex);
         this.currentCandidate = null;
+        this.currentCandidateIndex = null;
     }
 
     /**
@@ -94,6 +148,7 @@ public class SubsettingSet<S> implements SimpleSet<S> {
      */
     public void rollbackRemoval() {
         this.currentCandidate = null;
+        this.currentCandidateIndex = null;
     }
 
 }
@@ -0,0 +1,43 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+/**
+ * Base class for {@link TourCalculatorControl}s that switch to fast mode after some time and stop the
+ * calculation (with the best result found up to then) when a time budget is used up. The time is measured
+ * from the creation of the object.
+ */
+public abstract class TimeBudgetTourCalculatorControl implements TourCalculatorControl {
+
+    private final long startTime;
+    private final long fastModeThresholdMillis;
+    private final long timeBudgetMillis;
+
+    /**
+     * Constructor.
+     * @param fastModeThresholdMillis The time after which the calculation switches to fast mode.
+     * @param timeBudgetMillis The time after which the calculation shall be stopped.
+     */
+    public TimeBudgetTourCalculatorControl(long fastModeThresholdMillis, long timeBudgetMillis) {
+        this.startTime = System.currentTimeMillis();
+        this.fastModeThresholdMillis = fastModeThresholdMillis;
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    @Override
+    public boolean isFastModeNeeded() {
+        return this.getElapsedMillis() > this.fastModeThresholdMillis;
+    }
+
+    @Override
+    public boolean isTimeBudgetExhausted() {
+        return this.getElapsedMillis() > this.timeBudgetMillis;
+    }
+
+    @Override
+    public void reportProgress(int satisfiedMatches, int matchCount, int satisfiedPositions, int positionCount) {
+    }
+
+    private long getElapsedMillis() {
+        return System.currentTimeMillis() - this.startTime;
+    }
+
+}
@@ -18,6 +18,9 @@ import java.util.TreeMap;
  * Contains the algorithm for efficiently grouping and reordering change parts/stops.
  * Internally, it uses two types of trees, one for the grouping and one for re-ordering based on the results
  * of the grouping.
+ * <p/>
+ * The calculation is an anytime algorithm: When the time budget of the {@link TourCalculatorControl} is
+ * used up, it stops and returns the best tour that results from the requests satisfied so far.
  *
  * @param <T> Type of the stops.
  */
@@ -25,7 +28,9 @@ public class TourCalculator<T> {
 
     private final Set<MatchSet<T>> successfulMatches = new LinkedHashSet<>();
     private final Set<PositionRequest<T>> successfulPositionings = new LinkedHashSet<>();
+    private int successfulFoldedMatchCount;
     private List<T> resultingTour;
+    private boolean partial;
 
     /**
      * Helper class for recursive folding and matching.
@@ -34,12 +39,16 @@ public class TourCalculator<T> {
      */
     private static final class FoldMatchingHelper<S> {
 
+        private final ChangePartIds<S> ids;
         private BundleCombinationTreeElement<S> bundler;
         private final Map<MatchSet<S>, List<MatchSet<S>>> unsatisfiedMatchesWithPotentiallyRelevantFolds;
         private final LinkedList<MatchSet<S>> todoQueue;
         private final Map<MatchSet<S>, List<MatchSet<S>>> matchedWithFolds;
+        private boolean stoppedEarly;
 
-        public FoldMatchingHelper(BundleCombinationTreeElement<S> bundler, List<MatchSet<S>> unsatisfiedMatches) {
+        public FoldMatchingHelper(
+                ChangePartIds<S> ids, BundleCombinationTreeElement<S> bundler, List<MatchSet<S>> unsatisfiedMatches) {
+            this.ids = ids;
             this.bundler = bundler;
             this.unsatisfiedMatchesWithPotentiallyRelevantFolds = new LinkedHashMap<>();
             for (final MatchSet<S> unsatisfiedMatch : unsatisfiedMatches) {
@@ -54,6 +63,10 @@ public class TourCalculator<T> {
 
             this.todoQueue.addAll(matches);
             while (!this.todoQueue.isEmpty()) {
+                if (control.isTimeBudgetExhausted()) {
+                    this.stoppedEarly = true;
+                    return;
+                }
                 //assign the next batch of folds to try to the unsatisfied matches they might help to satisfy
                 final Set<MatchSet<S>> unsatisfiedMatchesThatCouldNowMatch = new LinkedHashSet<>();
                 while (!this.todoQueue.isEmpty()) {
@@ -63,7 +76,7 @@ public class TourCalculator<T> {
                     while (iter.hasNext()) {
                         final Entry<MatchSet<S>, List<MatchSet<S>>> e = iter.next();
                         //to be able to satisfy the match, the candidate fold has to contain elements from the match
-                        if (!this.disjoint(e.getKey().getChangeParts(), toFold.getChangeParts())) {
+                        if (e.getKey().getBits(this.ids).intersects(toFold.getBits(this.ids))) {
                             this.removeSubsets(e.getValue(), toFold);
                             e.getValue().add(toFold);
                             unsatisfiedMatchesThatCouldNowMatch.add(e.getKey());
@@ -75,6 +88,10 @@ public class TourCalculator<T> {
 
                 //check for matches that can now be satisfied
                 for (final MatchSet<S> toMatch : unsatisfiedMatchesThatCouldNowMatch) {
+                    if (control.isTimeBudgetExhausted()) {
+                        this.stoppedEarly = true;
+                        return;
+                    }
                     this.matchWithNewFold(
                             toMatch,
                             this.unsatisfiedMatchesWithPotentiallyRelevantFolds.get(toMatch),
@@ -83,30 +100,12 @@ public class TourCalculator<T> {
             }
         }
 
-        private boolean disjoint(Set<S> c1, Set<S> c2) {
-            Set<S> iterate;
-            Set<S> contains;
-            if (c1.size() > c2.size()) {
-                iterate = c2;
-                contains = c1;
-            } else {
-                iterate = c1;
-                contains = c2;
-            }
-
-            for (final S e : iterate) {
-                if (contains.contains(e)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-
         private void removeSubsets(List<MatchSet<S>> value, MatchSet<S> toFold) {
+            final ChangePartBitSet<S> toFoldBits = toFold.getBits(this.ids);
             final Iterator<MatchSet<S>> iter = value.iterator();
             while (iter.hasNext()) {
                 final MatchSet<S> cur = iter.next();
-                if (toFold.getChangeParts().containsAll(cur.getChangeParts())) {
+                if (toFoldBits.containsAll(cur.getBits(this.ids))) {
                     iter.remove();
                 }
             }
@@ -114,7 +113,7 @@ public class TourCalculator<T> {
 
         private void matchWithNewFold(
                 MatchSet<S> toMatch, List<MatchSet<S>> potentialFolds, TourCalculatorControl control) {
-            final SubsettingSet<S> activeFolds = new SubsettingSet<>(toMatch, potentialFolds);
+            final SubsettingSet<S> activeFolds = new SubsettingSet<>(this.ids, toMatch, potentialFolds);
             final boolean matchesWithFullSet = this.matchesWithFoldSubset(toMatch, activeFolds);
             if (!matchesWithFullSet) {
                 //does not match with the full set, cannot match with a subset either
@@ -125,6 +124,11 @@ public class TourCalculator<T> {
             //when the calculation already took quite long, don't go for minimality
             if (!control.isFastModeNeeded()) {
                 for (final Integer index : activeFolds.potentialRemovals()) {
+                    if (control.isTimeBudgetExhausted()) {
+                        //the match is not applied, so that the bundler stays as it was before
+                        this.stoppedEarly = true;
+                        return;
+                    }
                     //try without a fold
                     activeFolds.preliminaryRemove(index);
                     if (this.matchesWithFoldSubset(toMatch, activeFolds)) {
@@ -139,7 +143,7 @@ public class TourCalculator<T> {
 
             //change attributes according to match
             this.bundler = this.bundler.bundle(activeFolds);
-            this.todoQueue.add(new MatchSet<>(activeFolds.toSet()));
+            this.todoQueue.add(new MatchSet<>(activeFolds.toBits()));
             this.matchedWithFolds.put(toMatch, this.selectActiveFolds(potentialFolds, activeFolds));
             this.unsatisfiedMatchesWithPotentiallyRelevantFolds.remove(toMatch);
         }
@@ -162,6 +166,13 @@ public class TourCalculator<T> {
             return this.bundler;
         }
 
+        /**
+         * Returns true iff adding folds was stopped because the time budget was used up.
+         */
+        public boolean isStoppedEarly() {
+            return this.stoppedEarly;
+        }
+
     }
 
     /**
@@ -186,11 +197,16 @@ public class TourCalculator<T> {
             return ret;
         }
 
-        BundleCombinationTreeElement<S> bundler = BundleCombinationTreeElement.create(allChangeParts);
+        //the change parts get dense IDs, so that the sets used for bundling can be handled as bit sets
+        final ChangePartIds<S> ids = new ChangePartIds<>(allChangeParts);
+        BundleCombinationTreeElement<S> bundler = BundleCombinationTreeElement.create(ids);
         final List<MatchSet<S>> unsatisfiedMatches = new ArrayList<>();
         for (final MatchSet<S> matchSet : matchSets) {
-            final BundleCombinationTreeElement<S> next =
-                    bundler.bundle(new SimpleSetAdapter<>(matchSet.getChangeParts()));
+            if (isCanceled.isTimeBudgetExhausted()) {
+                ret.partial = true;
+                break;
+            }
+            final BundleCombinationTreeElement<S> next = bundler.bundle(matchSet.getBits(ids));
             if (next != null) {
                 bundler = next;
                 ret.successfulMatches.add(matchSet);
@@ -200,22 +216,34 @@ public class TourCalculator<T> {
             checkInterruption(isCanceled);
         }
 
-        if (isCanceled.isFastModeNeeded()) {
+        ret.reportProgress(matchSets, positionRequests, isCanceled);
+
+        final boolean budgetExhausted = isCanceled.isTimeBudgetExhausted();
+        if (isCanceled.isFastModeNeeded() || budgetExhausted) {
             //if the calculation already took too much time here, just give up with
             //  the results we have so far
+            ret.partial |= budgetExhausted;
             ret.resultingTour = bundler.getPossibleOrder();
             return ret;
         }
 
 
-        final FoldMatchingHelper<S> foldedBundler = new FoldMatchingHelper<>(bundler, unsatisfiedMatches);
+        final FoldMatchingHelper<S> foldedBundler = new FoldMatchingHelper<>(ids, bundler, unsatisfiedMatches);
         foldedBundler.addPotentialFolds(ret.successfulMatches, isCanceled);
         bundler = foldedBundler.getBundler();
+        ret.successfulFoldedMatchCount = foldedBundler.matchedWithFolds.size();
+        //the clock is not read again here, the result is only partial if the folding really stopped early
+        ret.partial |= foldedBundler.isStoppedEarly();
+        ret.reportProgress(matchSets, positionRequests, isCanceled);
 
 
         PositionTreeNode<S> positioner = (PositionTreeNode<S>) bundler.toPositionTree();
         final Map<Integer, List<PositionRequest<S>>> positionRequestsForFolds = new TreeMap<>();
         for (final PositionRequest<S> pr : positionRequests) {
+            if (isCanceled.isTimeBudgetExhausted()) {
+                ret.partial = true;
+                break;
+            }
             if (ret.successfulMatches.contains(pr.getMatchSet())) {
                 final PositionTreeNode<S> next = positioner.fixPosition(
                         pr.getMatchSet().getChangeParts(),
@@ -241,6 +269,10 @@ public class TourCalculator<T> {
         //TODO positions in folded graphs are currently not implemented in accordance with the paper
         for (final List<PositionRequest<S>> list : positionRequestsForFolds.values()) {
             for (final PositionRequest<S> pr : list) {
+                if (ret.partial || isCanceled.isTimeBudgetExhausted()) {
+                    ret.partial = true;
+                    break;
+                }
                 final PositionTreeNode<S> next = positioner.fixPosition(
                         join(pr.getMatchSet(), foldedBundler.matchedWithFolds.get(pr.getMatchSet())),
                         pr.getDistinguishedPart(),
@@ -252,10 +284,20 @@ public class TourCalculator<T> {
             }
         }
 
+        ret.reportProgress(matchSets, positionRequests, isCanceled);
         ret.resultingTour = positioner.getPossibleOrder(tieBreakingComparator);
         return ret;
     }
 
+    private void reportProgress(
+            List<MatchSet<T>> matchSets, List<PositionRequest<T>> positionRequests, TourCalculatorControl control) {
+        control.reportProgress(
+                this.getSatisfiedMatchCount(),
+                matchSets.size(),
+                this.successfulPositionings.size(),
+                positionRequests.size());
+    }
+
     private static<S> Set<S> join(MatchSet<S> main, List<MatchSet<S>> others) {
         final Set<S> ret = new LinkedHashSet<>(main.getChangeParts());
         for (final MatchSet<S> ms : others) {
@@ -268,6 +310,25 @@ public class TourCalculator<T> {
         return this.resultingTour;
     }
 
+    /**
+     * Returns true iff the calculation was stopped because the time budget was used up. The tour is then
+     * the best one found until that moment, i.e. not all satisfiable requests might be satisfied.
+     */
+    public boolean isPartial() {
+        return this.partial;
+    }
+
+    /**
+     * Returns the number of match sets that could be satisfied, either directly or with the help of folds.
+     */
+    public int getSatisfiedMatchCount() {
+        return this.successfulMatches.size() + this.successfulFoldedMatchCount;
+    }
+
+    public int getSatisfiedPositionCount() {
+        return this.successfulPositionings.size();
+    }
+
     /**
      * Helper method to check for the cancellation flag and throw an InterruptedException if needed.
      */
@@ -15,4 +15,21 @@ public interface TourCalculatorControl {
      */
     public abstract boolean isFastModeNeeded();
 
+    /**
+     * Returns true if the time for the operation is used up. In contrast to cancellation, the operation
+     * still returns a result in this case: the best tour found so far.
+     */
+    public abstract boolean isTimeBudgetExhausted();
+
+    /**
+     * Is called after each phase of the operation (bundling, folding and positioning) to report its progress.
+     *
+     * @param satisfiedMatches The number of match sets that could be satisfied up to now.
+     * @param matchCount The total number of match sets.
+     * @param satisfiedPositions The number of position requests that could be satisfied up to now.
+     * @param positionCount The total number of position requests.
+     */
+    public abstract void reportProgress(
+            int satisfiedMatches, int matchCount, int satisfiedPositions, int positionCount);
+
 }
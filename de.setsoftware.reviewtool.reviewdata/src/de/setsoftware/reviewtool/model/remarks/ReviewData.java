@@ -55,6 +55,18 @@ public class ReviewData {
         round.merge(reviewRemark);
     }
 
+    /**
+     * Merges all remarks of the given review data into this review data. The number of the round
+     * that contains a remark in the given data is used as the default round number for it.
+     */
+    public void mergeAll(ReviewData other) throws ReviewRemarkException {
+        for (final ReviewRound round : other.rounds) {
+            for (final ReviewRemark remark : round.getRemarks()) {
+                this.merge(remark, round.getNumber());
+            }
+        }
+    }
+
     private ReviewRound findRoundWith(ReviewRemark reviewRemark) {
         final ListIterator<ReviewRound> iter = this.rounds.listIterator(this.rounds.size());
         while (iter.hasPrevious()) {
@@ -125,4 +137,15 @@ public class ReviewData {
         }
     }
 
+    /**
+     * Deletes all remarks that are contained in the given review data.
+     */
+    public void deleteAll(ReviewData other) throws ReviewRemarkException {
+        for (final ReviewRound round : other.rounds) {
+            for (final ReviewRemark remark : round.getRemarks()) {
+                this.deleteRemark(remark);
+            }
+        }
+    }
+
 }
@@ -2,6 +2,7 @@ package de.setsoftware.reviewtool.model.remarks;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,6 +22,17 @@ public class ReviewRound {
     public static final String[] TEMPORARY_HEADER = new String[] {"temporärer Marker"};
     public static final String[] OTHER_REMARK_HEADER = new String[] {"sonstige Anmerkungen"};
 
+    /**
+     * The order in which the remarks of the different types are serialized.
+     */
+    private static final List<RemarkType> SERIALIZATION_ORDER = Arrays.asList(
+            RemarkType.OTHER,
+            RemarkType.POSITIVE,
+            RemarkType.MUST_FIX,
+            RemarkType.CAN_FIX,
+            RemarkType.ALREADY_FIXED,
+            RemarkType.TEMPORARY);
+
     private final int nbr;
     private final List<ReviewRemark> remarks = new ArrayList<>();
 
@@ -35,6 +47,7 @@ public class ReviewRound {
     /**
      * Merges the given review remarks into the remarks for this round: If a similar remark
      * is existing, it is replaced, otherwise it is added as new.
+     * Afterwards, the remarks have the order they would have after serializing and parsing them again.
      */
     public void merge(ReviewRemark reviewRemark) throws ReviewRemarkException {
         final int index = this.findSimilar(reviewRemark);
@@ -43,6 +56,23 @@ public class ReviewRound {
         } else {
             this.remarks.add(reviewRemark);
         }
+        this.groupByType();
+    }
+
+    /**
+     * Groups the remarks by type in the order of serialization. The order inside each type stays the same.
+     */
+    private void groupByType() throws ReviewRemarkException {
+        final List<ReviewRemark> grouped = new ArrayList<>(this.remarks.size());
+        for (final RemarkType type : SERIALIZATION_ORDER) {
+            for (final ReviewRemark remark : this.remarks) {
+                if (remark.getRemarkType() == type) {
+                    grouped.add(remark);
+                }
+            }
+        }
+        this.remarks.clear();
+        this.remarks.addAll(grouped);
     }
 
     private int findSimilar(ReviewRemark reviewRemark) throws ReviewRemarkException {
@@ -60,6 +90,10 @@ public class ReviewRound {
         this.remarks.add(reviewRemark);
     }
 
+    List<ReviewRemark> getRemarks() {
+        return Collections.unmodifiableList(this.remarks);
+    }
+
     public boolean isEmpty() {
         return this.remarks.isEmpty();
     }
@@ -70,15 +104,31 @@ public class ReviewRound {
     public String serialize() throws ReviewRemarkException {
         final StringBuilder ret = new StringBuilder();
         ret.append("Review ").append(this.nbr).append(":\n");
-        this.serializeRemarksWithType(OTHER_REMARK_HEADER[0], ret, RemarkType.OTHER);
-        this.serializeRemarksWithType(POSITIVE_HEADER[0], ret, RemarkType.POSITIVE);
-        this.serializeRemarksWithType(MUST_FIX_HEADER[0], ret, RemarkType.MUST_FIX);
-        this.serializeRemarksWithType(CAN_FIX_HEADER[0], ret, RemarkType.CAN_FIX);
-        this.serializeRemarksWithType(ALREADY_FIXED_HEADER[0], ret, RemarkType.ALREADY_FIXED);
-        this.serializeRemarksWithType(TEMPORARY_HEADER[0], ret, RemarkType.TEMPORARY);
+        for (final RemarkType type : SERIALIZATION_ORDER) {
+            this.serializeRemarksWithType(getHeaders(type)[0], ret, type);
+        }
         return ret.toString();
     }
 
+    private static String[] getHeaders(RemarkType type) {
+        switch (type) {
+        case OTHER:
+            return OTHER_REMARK_HEADER;
+        case POSITIVE:
+            return POSITIVE_HEADER;
+        case MUST_FIX:
+            return MUST_FIX_HEADER;
+        case CAN_FIX:
+            return CAN_FIX_HEADER;
+        case ALREADY_FIXED:
+            return ALREADY_FIXED_HEADER;
+        case TEMPORARY:
+            return TEMPORARY_HEADER;
+        default:
+            throw new AssertionError("unknown remark type " + type);
+        }
+    }
+
     private void serializeRemarksWithType(String title, StringBuilder ret, RemarkType type)
             throws ReviewRemarkException {
         boolean titleWritten = false;
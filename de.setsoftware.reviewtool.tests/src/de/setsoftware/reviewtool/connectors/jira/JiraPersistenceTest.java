@@ -0,0 +1,30 @@
+package de.setsoftware.reviewtool.connectors.jira;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link JiraPersistence}.
+ */
+public class JiraPersistenceTest {
+
+    @Test
+    public void testOrderIsAppendedToSelectWithoutOrder() {
+        assertEquals("project = PRJ ORDER BY key", JiraPersistence.withStableOrder("project = PRJ"));
+    }
+
+    @Test
+    public void testExistingOrderIsKept() {
+        assertEquals("project = PRJ ORDER BY priority DESC",
+                JiraPersistence.withStableOrder("project = PRJ ORDER BY priority DESC"));
+        assertEquals("project = PRJ order  by updated",
+                JiraPersistence.withStableOrder("project = PRJ order  by updated"));
+    }
+
+    @Test
+    public void testWordsContainingOrderAreNoOrder() {
+        assertEquals("reorder = bypass ORDER BY key", JiraPersistence.withStableOrder("reorder = bypass"));
+    }
+
+}
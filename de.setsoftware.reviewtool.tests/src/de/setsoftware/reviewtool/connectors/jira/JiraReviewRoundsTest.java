@@ -0,0 +1,72 @@
+package de.setsoftware.reviewtool.connectors.jira;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.junit.Test;
+
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonValue;
+
+/**
+ * Tests for {@link JiraReviewRounds}.
+ */
+public class JiraReviewRoundsTest {
+
+    private static final String REVIEW_STATE = "10";
+
+    private static String history(String author, String created, String field, String to) {
+        return "{\"author\":{\"name\":\"" + author + "\"},\"created\":\"" + created + "\","
+                + "\"items\":[{\"field\":\"" + field + "\",\"to\":\"" + to + "\"}]}";
+    }
+
+    private static JsonArray histories(String... histories) {
+        final StringBuilder json = new StringBuilder("[");
+        for (final String h : histories) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(h);
+        }
+        json.append(']');
+        return JsonValue.readFrom(json.toString()).asArray();
+    }
+
+    @Test
+    public void testNoRounds() {
+        final JiraReviewRounds rounds = JiraReviewRounds.parse(
+                histories(history("dev", "2017-01-01T10:00:00.000+0100", "status", "3")), REVIEW_STATE);
+        assertEquals(0, rounds.getCount());
+        assertNull(rounds.getReviewer(1));
+        assertNull(rounds.getTime(1));
+        assertEquals(new LinkedHashSet<String>(), rounds.getReviewers());
+    }
+
+    @Test
+    public void testMultipleRounds() {
+        final JiraReviewRounds rounds = JiraReviewRounds.parse(
+                histories(
+                        history("rev1", "2017-01-01T10:00:00.000+0100", "status", REVIEW_STATE),
+                        history("dev", "2017-01-02T10:00:00.000+0100", "status", "3"),
+                        history("rev2", "2017-01-03T10:00:00.000+0100", "assignee", REVIEW_STATE),
+                        history("rev2", "2017-01-04T10:00:00.000+0100", "status", REVIEW_STATE),
+                        history("rev1", "2017-01-05T10:00:00.000+0100", "status", REVIEW_STATE)),
+                REVIEW_STATE);
+        assertEquals(3, rounds.getCount());
+        //the name is taken from the JSON representation, including the quotes
+        assertEquals("\"REV1\"", rounds.getReviewer(1));
+        assertEquals("\"REV2\"", rounds.getReviewer(2));
+        assertEquals("\"REV1\"", rounds.getReviewer(3));
+        assertNull(rounds.getReviewer(0));
+        assertNull(rounds.getReviewer(4));
+        assertEquals(
+                JiraReviewRounds.getTimeOfHistoryItem(JsonValue.readFrom(
+                        history("x", "2017-01-04T10:00:00.000+0100", "status", "1"))),
+                rounds.getTime(2));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("\"REV1\"", "\"REV2\"")), rounds.getReviewers());
+    }
+
+}
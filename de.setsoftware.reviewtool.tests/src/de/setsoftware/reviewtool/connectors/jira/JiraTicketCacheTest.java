@@ -0,0 +1,76 @@
+package de.setsoftware.reviewtool.connectors.jira;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link JiraTicketCache}.
+ */
+public class JiraTicketCacheTest {
+
+    @Test
+    public void testUnknownTicket() {
+        final JiraTicketCache<String> cache = new JiraTicketCache<>();
+        assertNull(cache.getIfFresh("T-1", 0));
+        assertFalse(cache.contains("T-1"));
+        assertNull(cache.getIfUnchanged("T-1", "u1", 0));
+    }
+
+    @Test
+    public void testFreshTicketIsReturnedWithinTimeToLive() {
+        final JiraTicketCache<String> cache = new JiraTicketCache<>();
+        cache.setTimeToLive(1000);
+        cache.put("T-1", "ticket", "u1", 5000);
+        assertEquals("ticket", cache.getIfFresh("T-1", 5000));
+        assertEquals("ticket", cache.getIfFresh("T-1", 5999));
+        assertNull(cache.getIfFresh("T-1", 6000));
+        assertTrue(cache.contains("T-1"));
+        assertNull(cache.getIfFresh("T-2", 5000));
+    }
+
+    @Test
+    public void testUnchangedTicketIsReusedAfterCheck() {
+        final JiraTicketCache<String> cache = new JiraTicketCache<>();
+        cache.setTimeToLive(1000);
+        cache.put("T-1", "ticket", "u1", 5000);
+        assertEquals("ticket", cache.getIfUnchanged("T-1", "u1", 7000));
+        assertEquals("ticket", cache.getIfFresh("T-1", 7500));
+    }
+
+    @Test
+    public void testChangedTicketIsRemoved() {
+        final JiraTicketCache<String> cache = new JiraTicketCache<>();
+        cache.setTimeToLive(1000);
+        cache.put("T-1", "ticket", "u1", 5000);
+        assertNull(cache.getIfUnchanged("T-1", "u2", 7000));
+        assertFalse(cache.contains("T-1"));
+
+        cache.put("T-1", "ticket", "u1", 5000);
+        assertNull(cache.getIfUnchanged("T-1", null, 7000));
+        assertFalse(cache.contains("T-1"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final JiraTicketCache<String> cache = new JiraTicketCache<>();
+        cache.put("T-1", "ticket", "u1", 5000);
+        cache.invalidate("T-1");
+        assertNull(cache.getIfFresh("T-1", 5000));
+        assertFalse(cache.contains("T-1"));
+    }
+
+    @Test
+    public void testCachingCanBeDisabled() {
+        final JiraTicketCache<String> cache = new JiraTicketCache<>();
+        cache.put("T-1", "ticket", "u1", 5000);
+        cache.setTimeToLive(0);
+        assertFalse(cache.contains("T-1"));
+        cache.put("T-1", "ticket", "u1", 5000);
+        assertNull(cache.getIfFresh("T-1", 5000));
+    }
+
+}
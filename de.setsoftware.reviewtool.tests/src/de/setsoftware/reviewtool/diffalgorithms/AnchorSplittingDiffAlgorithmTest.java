@@ -0,0 +1,140 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Tests for {@link AnchorSplittingDiffAlgorithm}.
+ */
+public class AnchorSplittingDiffAlgorithmTest {
+
+    private static List<Pair<IFragment, IFragment>> determineDiff(List<String> oldLines, List<String> newLines)
+            throws Exception {
+        return new AnchorSplittingDiffAlgorithm().determineDiff(
+                ChangestructureFactory.createFileInRevision("", null),
+                concatLines(oldLines).getBytes("UTF-8"),
+                ChangestructureFactory.createFileInRevision("", null),
+                concatLines(newLines).getBytes("UTF-8"),
+                "UTF-8");
+    }
+
+    private static String concatLines(List<String> lines) {
+        final StringBuilder ret = new StringBuilder();
+        for (final String line : lines) {
+            ret.append(line).append("\n");
+        }
+        return ret.toString();
+    }
+
+    private static List<String> lines(String... lines) {
+        return Arrays.asList(lines);
+    }
+
+    /**
+     * Applies the diff to the old lines. The lines in the tests are chosen so that in-line fragments can be
+     * distinguished from line fragments by their end column.
+     */
+    private static List<String> applyDiff(
+            List<String> oldLines, List<String> newLines, List<Pair<IFragment, IFragment>> diff) {
+        final List<String> ret = new ArrayList<>();
+        int posOld = 0;
+        for (final Pair<IFragment, IFragment> p : diff) {
+            final int startOld = p.getFirst().getFrom().getLine() - 1;
+            final int startNew = p.getSecond().getFrom().getLine() - 1;
+            final boolean inLine = p.getSecond().getTo().getColumn() != 1;
+            final int endOld = inLine ? startOld + 1 : p.getFirst().getTo().getLine() - 1;
+            final int endNew = inLine ? startNew + 1 : p.getSecond().getTo().getLine() - 1;
+            ret.addAll(oldLines.subList(posOld, startOld));
+            ret.addAll(newLines.subList(startNew, endNew));
+            posOld = endOld;
+        }
+        ret.addAll(oldLines.subList(posOld, oldLines.size()));
+        return ret;
+    }
+
+    private static List<String> randomLines(Random r, int count, int alphabetSize) {
+        final List<String> ret = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ret.add(Character.toString((char) ('a' + r.nextInt(alphabetSize))));
+        }
+        return ret;
+    }
+
+    @Test
+    public void testEqualContent() throws Exception {
+        assertEquals(Collections.emptyList(), determineDiff(lines(), lines()));
+        assertEquals(Collections.emptyList(), determineDiff(lines("a", "b"), lines("a", "b")));
+    }
+
+    @Test
+    public void testLongestIncreasingSubsequence() {
+        assertEquals("[]", Arrays.toString(
+                AnchorSplittingDiffAlgorithm.longestIncreasingSubsequence(new int[0], 0)));
+        assertEquals("[0, 2, 3]", Arrays.toString(
+                AnchorSplittingDiffAlgorithm.longestIncreasingSubsequence(new int[] {1, 5, 2, 3, 0}, 5)));
+        assertEquals("[1]", Arrays.toString(
+                AnchorSplittingDiffAlgorithm.longestIncreasingSubsequence(new int[] {4, 3, 9}, 2)));
+    }
+
+    @Test
+    public void testRegionsBetweenUniqueLines() throws Exception {
+        final List<String> oldLines = lines("A", "x", "y", "B", "x", "C");
+        final List<String> newLines = lines("A", "y", "x", "B", "x", "z", "C");
+        final List<Pair<IFragment, IFragment>> diff = determineDiff(oldLines, newLines);
+        assertEquals(newLines, applyDiff(oldLines, newLines, diff));
+    }
+
+    @Test
+    public void testRandomChangesGiveCorrectDiff() throws Exception {
+        for (int seed = 0; seed < 500; seed++) {
+            final Random r = new Random(seed);
+            //with a large alphabet, some lines are unique and used as anchors
+            final List<String> oldLines = randomLines(r, r.nextInt(100), 2 + r.nextInt(60));
+            final List<String> newLines = randomLines(r, r.nextInt(100), 2 + r.nextInt(60));
+            final List<Pair<IFragment, IFragment>> diff = determineDiff(oldLines, newLines);
+            assertEquals("seed " + seed, newLines, applyDiff(oldLines, newLines, diff));
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testMultiMegabyteFileWithManyChanges() throws Exception {
+        //about 10 MB with 2 % changed lines, Myers' algorithm alone takes a lot longer for this
+        final Random r = new Random(42);
+        final List<String> oldLines = new ArrayList<>();
+        final List<String> newLines = new ArrayList<>();
+        int changeCount = 0;
+        for (int i = 0; i < 500000; i++) {
+            final String line = i % 7 == 0 ? "    }" : "        statement" + i + "();";
+            oldLines.add(line);
+            final double p = r.nextDouble();
+            if (p < 0.007) {
+                newLines.add("changed" + i);
+                changeCount++;
+            } else if (p < 0.014) {
+                changeCount++;
+            } else if (p < 0.02) {
+                newLines.add(line);
+                newLines.add("added" + i);
+                changeCount++;
+            } else {
+                newLines.add(line);
+            }
+        }
+        final List<Pair<IFragment, IFragment>> diff = determineDiff(oldLines, newLines);
+        assertEquals(newLines, applyDiff(oldLines, newLines, diff));
+        assertTrue(diff.size() + " vs " + changeCount, diff.size() <= changeCount);
+    }
+
+}
@@ -0,0 +1,48 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+
+/**
+ * Tests for {@link DiffAlgorithmFactory}.
+ */
+public class DiffAlgorithmFactoryTest {
+
+    @After
+    public void tearDown() {
+        DiffAlgorithmFactory.setDefaultType(DiffAlgorithmFactory.MYERS);
+    }
+
+    @Test
+    public void testSetDefaultType() {
+        DiffAlgorithmFactory.setDefaultType(DiffAlgorithmFactory.HISTOGRAM);
+        assertEquals(DiffAlgorithmFactory.HISTOGRAM, DiffAlgorithmFactory.getDefaultType());
+        assertTrue(DiffAlgorithmFactory.createDefault() instanceof HistogramDiffAlgorithm);
+    }
+
+    @Test
+    public void testEmptyTypeSelectsMyers() {
+        DiffAlgorithmFactory.setDefaultType(DiffAlgorithmFactory.HISTOGRAM);
+        DiffAlgorithmFactory.setDefaultType("");
+        assertEquals(DiffAlgorithmFactory.MYERS, DiffAlgorithmFactory.getDefaultType());
+        assertTrue(DiffAlgorithmFactory.createDefault() instanceof MyersSourceDiffAlgorithm);
+    }
+
+    @Test
+    public void testUnknownTypeIsRejected() {
+        try {
+            DiffAlgorithmFactory.setDefaultType("patience");
+            fail("expected a ReviewtoolException");
+        } catch (final ReviewtoolException e) {
+            assertEquals("unknown diff algorithm: patience", e.getMessage());
+        }
+        assertEquals(DiffAlgorithmFactory.MYERS, DiffAlgorithmFactory.getDefaultType());
+    }
+
+}
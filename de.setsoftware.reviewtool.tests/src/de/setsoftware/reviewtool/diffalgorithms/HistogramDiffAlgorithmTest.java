@@ -0,0 +1,155 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Tests for {@link HistogramDiffAlgorithm}.
+ */
+public class HistogramDiffAlgorithmTest {
+
+    private static List<Pair<IFragment, IFragment>> determineDiff(
+            IDiffAlgorithm algorithm, List<String> oldLines, List<String> newLines) throws Exception {
+        return algorithm.determineDiff(
+                ChangestructureFactory.createFileInRevision("", null),
+                concatLines(oldLines).getBytes("UTF-8"),
+                ChangestructureFactory.createFileInRevision("", null),
+                concatLines(newLines).getBytes("UTF-8"),
+                "UTF-8");
+    }
+
+    private static String concatLines(List<String> lines) {
+        final StringBuilder ret = new StringBuilder();
+        for (final String line : lines) {
+            ret.append(line).append("\n");
+        }
+        return ret.toString();
+    }
+
+    private static List<String> lines(String... lines) {
+        return Arrays.asList(lines);
+    }
+
+    /**
+     * Applies the diff to the old lines. The lines in the tests are chosen so that in-line fragments can be
+     * distinguished from line fragments by their end column.
+     */
+    private static List<String> applyDiff(
+            List<String> oldLines, List<String> newLines, List<Pair<IFragment, IFragment>> diff) {
+        final List<String> ret = new ArrayList<>();
+        int posOld = 0;
+        for (final Pair<IFragment, IFragment> p : diff) {
+            final int startOld = p.getFirst().getFrom().getLine() - 1;
+            final int startNew = p.getSecond().getFrom().getLine() - 1;
+            final boolean inLine = p.getSecond().getTo().getColumn() != 1;
+            final int endOld = inLine ? startOld + 1 : p.getFirst().getTo().getLine() - 1;
+            final int endNew = inLine ? startNew + 1 : p.getSecond().getTo().getLine() - 1;
+            ret.addAll(oldLines.subList(posOld, startOld));
+            ret.addAll(newLines.subList(startNew, endNew));
+            posOld = endOld;
+        }
+        ret.addAll(oldLines.subList(posOld, oldLines.size()));
+        return ret;
+    }
+
+    private static List<String> randomLines(Random r, int count, int alphabetSize) {
+        final List<String> ret = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ret.add(Character.toString((char) ('a' + r.nextInt(alphabetSize))));
+        }
+        return ret;
+    }
+
+    private static List<String> javaClassWithMethods(List<Integer> methodOrder) {
+        final List<String> ret = new ArrayList<>();
+        ret.add("class X {");
+        for (final int i : methodOrder) {
+            ret.add("    public void m" + i + "() {");
+            for (int j = 0; j < 2 + i % 4; j++) {
+                ret.add("        call" + ((i + j) % 3) + "();");
+            }
+            ret.add("    }");
+            ret.add("");
+        }
+        ret.add("}");
+        return ret;
+    }
+
+    @Test
+    public void testEqualContent() throws Exception {
+        assertEquals(Collections.emptyList(), determineDiff(new HistogramDiffAlgorithm(), lines(), lines()));
+        assertEquals(Collections.emptyList(),
+                determineDiff(new HistogramDiffAlgorithm(), lines("a", "b"), lines("a", "b")));
+    }
+
+    @Test
+    public void testUniqueLinesAreUsedAsAnchors() throws Exception {
+        final List<String> oldLines = lines("A", "x", "x", "x", "B");
+        final List<String> newLines = lines("x", "x", "x", "A", "B");
+        final List<Pair<IFragment, IFragment>> diff = determineDiff(new HistogramDiffAlgorithm(), oldLines, newLines);
+        assertEquals(newLines, applyDiff(oldLines, newLines, diff));
+        //"A" occurs only once, so it is kept although moving it would result in a smaller diff
+        assertEquals(2, diff.size());
+        assertEquals(1, diff.get(0).getSecond().getFrom().getLine());
+        assertEquals(4, diff.get(0).getSecond().getTo().getLine());
+        assertEquals(2, diff.get(1).getFirst().getFrom().getLine());
+        assertEquals(5, diff.get(1).getFirst().getTo().getLine());
+    }
+
+    @Test
+    public void testRandomChangesGiveCorrectDiff() throws Exception {
+        for (int seed = 0; seed < 500; seed++) {
+            final Random r = new Random(seed);
+            final List<String> oldLines = randomLines(r, r.nextInt(100), 2 + r.nextInt(20));
+            final List<String> newLines = randomLines(r, r.nextInt(100), 2 + r.nextInt(20));
+            final List<Pair<IFragment, IFragment>> diff =
+                    determineDiff(new HistogramDiffAlgorithm(), oldLines, newLines);
+            assertEquals("seed " + seed, newLines, applyDiff(oldLines, newLines, diff));
+        }
+    }
+
+    @Test
+    public void testOnlyFrequentLines() throws Exception {
+        final List<String> oldLines = new ArrayList<>();
+        final List<String> newLines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            oldLines.add(i % 2 == 0 ? "a" : "b");
+            newLines.add(i % 3 == 0 ? "a" : "b");
+        }
+        final List<Pair<IFragment, IFragment>> diff = determineDiff(new HistogramDiffAlgorithm(), oldLines, newLines);
+        assertEquals(newLines, applyDiff(oldLines, newLines, diff));
+    }
+
+    @Test
+    public void testMovedMethodsGiveFewerHunksThanMyers() throws Exception {
+        final List<Integer> oldOrder = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            oldOrder.add(i);
+        }
+        final List<Integer> newOrder = new ArrayList<>(oldOrder);
+        Collections.swap(newOrder, 2, 15);
+        newOrder.add(7, newOrder.remove(18));
+        final List<String> oldLines = javaClassWithMethods(oldOrder);
+        final List<String> newLines = javaClassWithMethods(newOrder);
+
+        final List<Pair<IFragment, IFragment>> histogramDiff =
+                determineDiff(new HistogramDiffAlgorithm(), oldLines, newLines);
+        final List<Pair<IFragment, IFragment>> myersDiff =
+                determineDiff(new MyersSourceDiffAlgorithm(), oldLines, newLines);
+        assertEquals(newLines, applyDiff(oldLines, newLines, histogramDiff));
+        assertTrue(histogramDiff.size() + " vs " + myersDiff.size(), histogramDiff.size() <= myersDiff.size());
+    }
+
+}
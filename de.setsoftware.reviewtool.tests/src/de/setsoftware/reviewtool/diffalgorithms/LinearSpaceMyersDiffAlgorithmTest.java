@@ -0,0 +1,183 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IPositionInText;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * Tests for {@link LinearSpaceMyersDiffAlgorithm}.
+ */
+public class LinearSpaceMyersDiffAlgorithmTest {
+
+    private static List<Pair<IFragment, IFragment>> determineDiff(List<String> oldLines, List<String> newLines)
+            throws Exception {
+        return new LinearSpaceMyersDiffAlgorithm().determineDiff(
+                ChangestructureFactory.createFileInRevision("", null),
+                concatLines(oldLines).getBytes("UTF-8"),
+                ChangestructureFactory.createFileInRevision("", null),
+                concatLines(newLines).getBytes("UTF-8"),
+                "UTF-8");
+    }
+
+    private static String concatLines(List<String> lines) {
+        final StringBuilder ret = new StringBuilder();
+        for (final String line : lines) {
+            ret.append(line).append("\n");
+        }
+        return ret.toString();
+    }
+
+    private static List<String> lines(String... lines) {
+        return Arrays.asList(lines);
+    }
+
+    private static Pair<IPositionInText, IPositionInText> changeIn(int startIncl, int endIncl) {
+        return Pair.create(
+                ChangestructureFactory.createPositionInText(startIncl, 1),
+                ChangestructureFactory.createPositionInText(endIncl + 1, 1));
+    }
+
+    private static List<Pair<IPositionInText, IPositionInText>> toPositionsInNewFile(
+            List<Pair<IFragment, IFragment>> diff) {
+        final List<Pair<IPositionInText, IPositionInText>> ret = new ArrayList<>();
+        for (final Pair<IFragment, IFragment> p : diff) {
+            ret.add(Pair.create(p.getSecond().getFrom(), p.getSecond().getTo()));
+        }
+        return ret;
+    }
+
+    /**
+     * Applies the diff to the old lines. All lines in the tests have length 1, so that in-line fragments can be
+     * distinguished from line fragments by their end column.
+     */
+    private static List<String> applyDiff(
+            List<String> oldLines, List<String> newLines, List<Pair<IFragment, IFragment>> diff) {
+        final List<String> ret = new ArrayList<>();
+        int posOld = 0;
+        for (final Pair<IFragment, IFragment> p : diff) {
+            final int startOld = p.getFirst().getFrom().getLine() - 1;
+            final int startNew = p.getSecond().getFrom().getLine() - 1;
+            final boolean inLine = p.getSecond().getTo().getColumn() != 1;
+            final int endOld = inLine ? startOld + 1 : p.getFirst().getTo().getLine() - 1;
+            final int endNew = inLine ? startNew + 1 : p.getSecond().getTo().getLine() - 1;
+            ret.addAll(oldLines.subList(posOld, startOld));
+            ret.addAll(newLines.subList(startNew, endNew));
+            posOld = endOld;
+        }
+        ret.addAll(oldLines.subList(posOld, oldLines.size()));
+        return ret;
+    }
+
+    private static int countChangedLines(List<Pair<IFragment, IFragment>> diff) {
+        int ret = 0;
+        for (final Pair<IFragment, IFragment> p : diff) {
+            if (p.getSecond().getTo().getColumn() != 1) {
+                ret += 2;
+            } else {
+                ret += p.getFirst().getTo().getLine() - p.getFirst().getFrom().getLine();
+                ret += p.getSecond().getTo().getLine() - p.getSecond().getFrom().getLine();
+            }
+        }
+        return ret;
+    }
+
+    private static int minimalEditCount(List<String> a, List<String> b) {
+        final int[][] lcs = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i--) {
+            for (int j = b.size() - 1; j >= 0; j--) {
+                if (a.get(i).equals(b.get(j))) {
+                    lcs[i][j] = lcs[i + 1][j + 1] + 1;
+                } else {
+                    lcs[i][j] = Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+                }
+            }
+        }
+        return a.size() + b.size() - 2 * lcs[0][0];
+    }
+
+    private static List<String> randomLines(Random r, int count, int alphabetSize) {
+        final List<String> ret = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ret.add(Character.toString((char) ('a' + r.nextInt(alphabetSize))));
+        }
+        return ret;
+    }
+
+    @Test
+    public void testEqualContent() throws Exception {
+        assertEquals(Collections.emptyList(), determineDiff(lines(), lines()));
+        assertEquals(Collections.emptyList(), determineDiff(lines("a", "b"), lines("a", "b")));
+    }
+
+    @Test
+    public void testInsertionAndDeletion() throws Exception {
+        assertEquals(
+                Arrays.asList(changeIn(2, 3)),
+                toPositionsInNewFile(determineDiff(lines("a", "b", "c"), lines("a", "x", "y", "b", "c"))));
+        assertEquals(
+                Arrays.asList(changeIn(2, 1)),
+                toPositionsInNewFile(determineDiff(lines("a", "x", "y", "b", "c"), lines("a", "b", "c"))));
+    }
+
+    @Test
+    public void testSeveralChanges() throws Exception {
+        final List<String> oldLines = lines("a", "b", "c", "d", "e", "f", "g");
+        final List<String> newLines = lines("a", "x", "c", "d", "y", "z", "f", "g", "h");
+        final List<Pair<IFragment, IFragment>> diff = determineDiff(oldLines, newLines);
+        assertEquals(3, diff.size());
+        assertEquals(newLines, applyDiff(oldLines, newLines, diff));
+        assertEquals(minimalEditCount(oldLines, newLines), countChangedLines(diff));
+    }
+
+    @Test
+    public void testRandomChangesGiveMinimalCorrectDiff() throws Exception {
+        for (int seed = 0; seed < 500; seed++) {
+            final Random r = new Random(seed);
+            final List<String> oldLines = randomLines(r, r.nextInt(60), 2 + r.nextInt(6));
+            final List<String> newLines = r.nextBoolean()
+                    ? randomLines(r, r.nextInt(60), 2 + r.nextInt(6))
+                    : mutate(oldLines, r);
+            final List<Pair<IFragment, IFragment>> diff = determineDiff(oldLines, newLines);
+            assertEquals("seed " + seed, newLines, applyDiff(oldLines, newLines, diff));
+            assertEquals("seed " + seed, minimalEditCount(oldLines, newLines), countChangedLines(diff));
+        }
+    }
+
+    private static List<String> mutate(List<String> lines, Random r) {
+        final List<String> ret = new ArrayList<>(lines);
+        final int changeCount = r.nextInt(5) + 1;
+        for (int i = 0; i < changeCount; i++) {
+            if (r.nextBoolean() || ret.isEmpty()) {
+                ret.add(r.nextInt(ret.size() + 1), Character.toString((char) ('a' + r.nextInt(8))));
+            } else {
+                ret.remove(r.nextInt(ret.size()));
+            }
+        }
+        return ret;
+    }
+
+    @Test
+    public void testLargeFile() throws Exception {
+        final Random r = new Random(42);
+        final List<String> oldLines = randomLines(r, 300000, 26);
+        final List<String> newLines = new ArrayList<>(oldLines);
+        newLines.add(100000, "x");
+        newLines.remove(200000);
+        newLines.set(250000, "y");
+        final List<Pair<IFragment, IFragment>> diff = determineDiff(oldLines, newLines);
+        assertEquals(newLines, applyDiff(oldLines, newLines, diff));
+        assertEquals(true, countChangedLines(diff) <= 4);
+    }
+
+}
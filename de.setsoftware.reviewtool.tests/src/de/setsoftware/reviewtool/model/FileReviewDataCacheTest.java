@@ -0,0 +1,135 @@
+package de.setsoftware.reviewtool.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link FileReviewDataCache}.
+ */
+public class FileReviewDataCacheTest {
+
+    private static File createTempDir() throws IOException {
+        final File dir = Files.createTempDirectory("fileReviewDataCacheTest").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    @Test
+    public void testDataAndJournalAreStored() throws Exception {
+        final File dir = createTempDir();
+        final FileReviewDataCache cache = new FileReviewDataCache(dir);
+        assertEquals(null, cache.getLocalReviewData("TIC-1"));
+
+        cache.saveLocalReviewData("TIC-1", "Review 1:\n* muss\n*# A\n");
+        cache.appendToJournal("TIC-1", "entry 1");
+        cache.appendToJournal("TIC-1", "entry 2");
+
+        final FileReviewDataCache cache2 = new FileReviewDataCache(dir);
+        assertEquals("Review 1:\n* muss\n*# A\n", cache2.getLocalReviewData("TIC-1"));
+        assertEquals(Arrays.asList("entry 1", "entry 2"), cache2.getJournal("TIC-1"));
+
+        cache2.saveLocalReviewData("TIC-1", "Review 1:\n* muss\n*# B\n");
+        assertEquals("Review 1:\n* muss\n*# B\n", cache2.getLocalReviewData("TIC-1"));
+        assertEquals(Collections.emptyList(), cache2.getJournal("TIC-1"));
+    }
+
+    @Test
+    public void testDataWithoutGenerationCanBeRead() throws Exception {
+        final File dir = createTempDir();
+        Files.write(new File(dir, "localReviewData.TIC-1").toPath(), "Review 1:\n".getBytes("UTF-8"));
+        final FileReviewDataCache cache = new FileReviewDataCache(dir);
+        assertEquals("Review 1:\n", cache.getLocalReviewData("TIC-1"));
+        cache.appendToJournal("TIC-1", "entry 1");
+        assertEquals(Arrays.asList("entry 1"), cache.getJournal("TIC-1"));
+    }
+
+    @Test
+    public void testJournalOfOlderDataIsNotReplayed() throws Exception {
+        final File dir = createTempDir();
+        final FileReviewDataCache cache = new FileReviewDataCache(dir);
+        cache.saveLocalReviewData("TIC-1", "old");
+        cache.appendToJournal("TIC-1", "entry 1");
+
+        //simulate that the journal could not be deleted when the new data was saved
+        final File journal = new File(dir, "localReviewData.TIC-1.journal");
+        final File copy = new File(dir, "copy");
+        Files.copy(journal.toPath(), copy.toPath());
+        cache.saveLocalReviewData("TIC-1", "new");
+        Files.move(copy.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        assertEquals("new", cache.getLocalReviewData("TIC-1"));
+        assertEquals(Collections.emptyList(), cache.getJournal("TIC-1"));
+        cache.appendToJournal("TIC-1", "entry 2");
+        assertEquals(Arrays.asList("entry 2"), cache.getJournal("TIC-1"));
+    }
+
+    @Test
+    public void testIncompleteLastEntryIsRemovedBeforeAppending() throws Exception {
+        final File dir = createTempDir();
+        final FileReviewDataCache cache = new FileReviewDataCache(dir);
+        cache.saveLocalReviewData("TIC-1", "data");
+        cache.appendToJournal("TIC-1", "entryA");
+        cache.appendToJournal("TIC-1", "entryB-long-long");
+
+        //simulate a crash while the last entry was written
+        final File journal = new File(dir, "localReviewData.TIC-1.journal");
+        try (RandomAccessFile f = new RandomAccessFile(journal, "rw")) {
+            f.setLength(f.length() - 5);
+        }
+        assertEquals(Arrays.asList("entryA"), cache.getJournal("TIC-1"));
+
+        cache.appendToJournal("TIC-1", "entryC");
+        assertEquals(Arrays.asList("entryA", "entryC"), new FileReviewDataCache(dir).getJournal("TIC-1"));
+    }
+
+    @Test
+    public void testIncompleteLengthIsIgnored() throws Exception {
+        final File dir = createTempDir();
+        final FileReviewDataCache cache = new FileReviewDataCache(dir);
+        cache.saveLocalReviewData("TIC-1", "data");
+        cache.appendToJournal("TIC-1", "entryA");
+
+        final File journal = new File(dir, "localReviewData.TIC-1.journal");
+        try (RandomAccessFile f = new RandomAccessFile(journal, "rw")) {
+            f.seek(f.length());
+            //a negative length, and a huge one that is only partly written
+            f.writeInt(-3);
+        }
+        assertEquals(Arrays.asList("entryA"), cache.getJournal("TIC-1"));
+        try (RandomAccessFile f = new RandomAccessFile(journal, "rw")) {
+            f.setLength(f.length() - 4);
+            f.seek(f.length());
+            f.writeShort(0x7fff);
+        }
+        assertEquals(Arrays.asList("entryA"), cache.getJournal("TIC-1"));
+
+        cache.appendToJournal("TIC-1", "entryB");
+        assertEquals(Arrays.asList("entryA", "entryB"), new FileReviewDataCache(dir).getJournal("TIC-1"));
+    }
+
+    @Test
+    public void testClearAndMoveJournalAside() throws Exception {
+        final File dir = createTempDir();
+        final FileReviewDataCache cache = new FileReviewDataCache(dir);
+        cache.saveLocalReviewData("TIC-1", "data");
+        cache.appendToJournal("TIC-1", "entry 1");
+        final File moved = new File(cache.moveJournalAside("TIC-1"));
+        assertEquals(true, moved.exists());
+        assertEquals(Collections.emptyList(), cache.getJournal("TIC-1"));
+
+        cache.clearLocalReviewData("TIC-1");
+        assertEquals(null, cache.getLocalReviewData("TIC-1"));
+        cache.saveLocalReviewData("TIC-1", "data");
+        assertEquals(Collections.emptyList(), cache.getJournal("TIC-1"));
+    }
+
+}
@@ -1,9 +1,12 @@
 package de.setsoftware.reviewtool.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.Test;
 
+import de.setsoftware.reviewtool.base.ReviewtoolException;
 import de.setsoftware.reviewtool.model.remarks.DummyMarker;
 import de.setsoftware.reviewtool.model.remarks.FilePosition;
 import de.setsoftware.reviewtool.model.remarks.GlobalPosition;
@@ -251,6 +254,102 @@ public class RemarkSaveTest {
                 p.getCurrentReviewData());
     }
 
+    @Test
+    public void testChangesAreJournaledAndReplayed() throws Exception {
+        final InMemoryReviewDataCache cache = new InMemoryReviewDataCache();
+        final PersistenceStub stubPersistence = new PersistenceStub();
+        final ReviewStateManager p = new ReviewStateManager(cache, stubPersistence, stubTicketChooser());
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX));
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm B", RemarkType.CAN_FIX));
+        final ReviewRemark r1 = ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX);
+        r1.addComment("XY", "stimmt doch");
+        p.saveRemark(r1);
+        p.deleteRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm B", RemarkType.CAN_FIX));
+
+        assertEquals("", cache.getLocalReviewData("TEST-1234"));
+        assertEquals(4, cache.getJournal("TEST-1234").size());
+
+        final String expected = "Review 1:\n"
+                + "* muss\n"
+                + "*# Anm A\n"
+                + "*#* XY: stimmt doch\n";
+        assertEquals(expected, p.getCurrentReviewData());
+        final ReviewStateManager p2 = new ReviewStateManager(cache, stubPersistence, stubTicketChooser());
+        assertEquals(expected, p2.getCurrentReviewData());
+
+        p2.flushReviewData();
+        assertEquals(expected, stubPersistence.loadTicket("TEST-1234").getReviewData());
+        assertEquals(null, cache.getLocalReviewData("TEST-1234"));
+        assertEquals(0, cache.getJournal("TEST-1234").size());
+    }
+
+    @Test
+    public void testSavingTheTextDiscardsTheJournal() throws Exception {
+        final InMemoryReviewDataCache cache = new InMemoryReviewDataCache();
+        final ReviewStateManager p = new ReviewStateManager(cache, new PersistenceStub(), stubTicketChooser());
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX));
+        p.saveCurrentReviewData("Review 1:\n"
+                + "* kann\n"
+                + "*# Anm C\n");
+        assertEquals(0, cache.getJournal("TEST-1234").size());
+
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm D", RemarkType.CAN_FIX));
+        assertEquals(
+                "Review 1:\n"
+                        + "* kann\n"
+                        + "*# Anm C\n"
+                        + "*# Anm D\n",
+                        p.getCurrentReviewData());
+    }
+
+    @Test
+    public void testRemarkWithChangedTypeIsInTextOrder() throws Exception {
+        final InMemoryReviewDataCache cache = new InMemoryReviewDataCache();
+        final ReviewStateManager p = new ReviewStateManager(cache, new PersistenceStub(), stubTicketChooser());
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX));
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm B", RemarkType.CAN_FIX));
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm C", RemarkType.MUST_FIX));
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm B", RemarkType.MUST_FIX));
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm D", RemarkType.MUST_FIX));
+
+        final String expected = "Review 1:\n"
+                + "* muss\n"
+                + "*# Anm A\n"
+                + "*# Anm C\n"
+                + "*# Anm B\n"
+                + "*# Anm D\n";
+        assertEquals(expected, p.getCurrentReviewData());
+        final ReviewStateManager p2 = new ReviewStateManager(cache, new PersistenceStub(), stubTicketChooser());
+        assertEquals(expected, p2.getCurrentReviewData());
+    }
+
+    @Test
+    public void testJournalThatCannotBeReplayedIsKept() throws Exception {
+        final InMemoryReviewDataCache cache = new InMemoryReviewDataCache();
+        final ReviewStateManager p = new ReviewStateManager(cache, new PersistenceStub(), stubTicketChooser());
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX));
+        cache.appendToJournal("TEST-1234", "invalid entry");
+
+        final ReviewStateManager p2 = new ReviewStateManager(cache, new PersistenceStub(), stubTicketChooser());
+        try {
+            p2.getCurrentReviewData();
+            fail("expected an exception");
+        } catch (final ReviewtoolException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("TEST-1234"));
+        }
+        assertEquals(2, cache.getMovedJournal("TEST-1234").size());
+        assertEquals(0, cache.getJournal("TEST-1234").size());
+
+        //saving new remarks does not overwrite the moved changes
+        p2.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm B", RemarkType.MUST_FIX));
+        assertEquals(2, cache.getMovedJournal("TEST-1234").size());
+        assertEquals(
+                "Review 1:\n"
+                        + "* muss\n"
+                        + "*# Anm B\n",
+                        p2.getCurrentReviewData());
+    }
+
     private static ReviewStateManager createPersistence() {
         return new ReviewStateManager(new InMemoryReviewDataCache(), new PersistenceStub(), stubTicketChooser());
     }
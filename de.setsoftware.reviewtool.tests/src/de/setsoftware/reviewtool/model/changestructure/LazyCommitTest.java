@@ -0,0 +1,87 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.model.api.IChange;
+
+/**
+ * Tests for {@link LazyCommit}.
+ */
+public class LazyCommitTest {
+
+    private static FileInRevision file(String name, int revision) {
+        return new FileInRevision(name, new RepoRevision(revision, StubRepo.INSTANCE));
+    }
+
+    /**
+     * Loader that counts how often it is called.
+     */
+    private static final class CountingLoader implements LazyCommit.IChangeLoader {
+        private final List<? extends IChange> changes;
+        private int callCount;
+
+        public CountingLoader(IChange... changes) {
+            this.changes = Arrays.asList(changes);
+        }
+
+        @Override
+        public List<? extends IChange> loadChanges() {
+            this.callCount++;
+            return this.changes;
+        }
+    }
+
+    private static LazyCommit commit(CountingLoader loader) {
+        return ChangestructureFactory.createLazyCommit(
+                "msg",
+                Arrays.asList(file("a.java", 2), file("b.java", 2)),
+                true,
+                new RepoRevision(2, StubRepo.INSTANCE),
+                new Date(1000),
+                loader);
+    }
+
+    @Test
+    public void testChangesAreLoadedOnceOnFirstAccess() {
+        final IChange change =
+                ChangestructureFactory.createBinaryChange(file("a.java", 1), file("a.java", 2), false, true);
+        final CountingLoader loader = new CountingLoader(change);
+        final LazyCommit commit = commit(loader);
+
+        assertEquals(2, commit.getChangedFiles().size());
+        assertFalse(commit.areChangesLoaded());
+        assertEquals(0, loader.callCount);
+
+        assertEquals(Collections.singletonList(change), commit.getChanges());
+        assertEquals(Collections.singletonList(change), commit.getChanges());
+        assertTrue(commit.areChangesLoaded());
+        assertEquals(1, loader.callCount);
+    }
+
+    @Test
+    public void testMakeChangesIrrelevantStaysLazy() {
+        final IChange c1 = ChangestructureFactory.createBinaryChange(file("a.java", 1), file("a.java", 2), false, true);
+        final IChange c2 = ChangestructureFactory.createBinaryChange(file("b.java", 1), file("b.java", 2), false, true);
+        final CountingLoader loader = new CountingLoader(c1, c2);
+        final LazyCommit commit = commit(loader);
+
+        final LazyCommit adjusted = commit.makeChangesIrrelevant(Collections.singleton(c2));
+        assertEquals(0, loader.callCount);
+        assertFalse(adjusted.areChangesLoaded());
+
+        final List<? extends IChange> changes = adjusted.getChanges();
+        assertEquals(1, loader.callCount);
+        assertFalse(changes.get(0).isIrrelevantForReview());
+        assertTrue(changes.get(1).isIrrelevantForReview());
+    }
+
+}
@@ -0,0 +1,134 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.model.api.IChange;
+
+/**
+ * Tests for {@link LazyIrrelevantChangeSet}.
+ */
+public class LazyIrrelevantChangeSetTest {
+
+    private final List<String> loggedMessages = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Logger.setLogger(new Logger() {
+            @Override
+            protected void log(int status, String message) {
+                LazyIrrelevantChangeSetTest.this.loggedMessages.add(message);
+            }
+
+            @Override
+            protected void log(int status, String message, Throwable exception) {
+                LazyIrrelevantChangeSetTest.this.loggedMessages.add(message);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        Logger.setLogger(null);
+    }
+
+    private static FileInRevision file(String name, int revision) {
+        return new FileInRevision(name, new RepoRevision(revision, StubRepo.INSTANCE));
+    }
+
+    private static IChange change(String name, boolean irrelevant) {
+        return ChangestructureFactory.createBinaryChange(file(name, 1), file(name, 2), irrelevant, true);
+    }
+
+    private static LazyCommit commit(final IChange... changes) {
+        return ChangestructureFactory.createLazyCommit(
+                "msg",
+                Collections.<FileInRevision>emptyList(),
+                true,
+                new RepoRevision(2, StubRepo.INSTANCE),
+                new Date(1000),
+                new LazyCommit.IChangeLoader() {
+                    @Override
+                    public List<? extends IChange> loadChanges() {
+                        return Arrays.asList(changes);
+                    }
+                });
+    }
+
+    /**
+     * Strategy that regards all changes to the given file as irrelevant and fails for the other given file.
+     */
+    private static IIrrelevanceDetermination strategy(final String irrelevantFile, final String failingFile) {
+        return new IIrrelevanceDetermination() {
+            @Override
+            public String getDescription() {
+                return "test";
+            }
+
+            @Override
+            public boolean isIrrelevant(IChange change) {
+                final String path = change.getTo().getPath();
+                if (path.equals(failingFile)) {
+                    throw new IllegalStateException("strategy failed");
+                }
+                return path.equals(irrelevantFile);
+            }
+        };
+    }
+
+    @Test
+    public void testContainsAndMaterialization() {
+        final IChange a = change("a.java", false);
+        final IChange b = change("b.java", false);
+        final LazyIrrelevantChangeSet set =
+                new LazyIrrelevantChangeSet(strategy("a.java", null), Arrays.asList(commit(a, b)));
+        assertTrue(set.contains(a));
+        assertFalse(set.contains(b));
+        assertEquals(Collections.singleton(a), set);
+    }
+
+    @Test
+    public void testFailingStrategyFindsNothing() {
+        final IChange a = change("a.java", false);
+        final IChange b = change("b.java", false);
+        final LazyIrrelevantChangeSet set =
+                new LazyIrrelevantChangeSet(strategy("a.java", "b.java"), Arrays.asList(commit(a, b)));
+        assertFalse(set.contains(b));
+        assertFalse(set.contains(a));
+        assertEquals(0, set.size());
+        assertEquals(Arrays.asList("exception in filtering"), this.loggedMessages);
+    }
+
+    @Test
+    public void testFailureDuringMaterializationGivesEmptySet() {
+        final IChange a = change("a.java", false);
+        final IChange b = change("b.java", false);
+        final LazyIrrelevantChangeSet set =
+                new LazyIrrelevantChangeSet(strategy("a.java", "b.java"), Arrays.asList(commit(a, b)));
+        assertEquals(0, set.size());
+        assertFalse(set.contains(a));
+    }
+
+    @Test
+    public void testStrategyThatOnlyFindsIrrelevantChangesHasNoEffect() {
+        final IChange a = change("a.java", true);
+        final IChange b = change("b.java", false);
+        final LazyIrrelevantChangeSet set =
+                new LazyIrrelevantChangeSet(strategy("a.java", null), Arrays.asList(commit(a, b)));
+        assertEquals(0, set.size());
+        assertFalse(set.contains(a));
+    }
+
+}
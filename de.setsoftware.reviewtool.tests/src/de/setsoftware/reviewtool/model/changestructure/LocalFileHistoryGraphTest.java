@@ -0,0 +1,103 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.model.api.IRepoRevision;
+import de.setsoftware.reviewtool.model.api.IRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Tests for {@link LocalFileHistoryGraph}.
+ */
+public class LocalFileHistoryGraphTest {
+
+    private static FileHistoryGraph graph() {
+        return new FileHistoryGraph() {
+            @Override
+            protected long getRevisionNumber(IRevision revision) {
+                return revision instanceof IRepoRevision ? (Long) ((IRepoRevision) revision).getId() : Long.MAX_VALUE;
+            }
+        };
+    }
+
+    private static IRevision rev(long revision) {
+        return ChangestructureFactory.createRepoRevision(revision, StubRepo.INSTANCE);
+    }
+
+    private static IRevision local() {
+        return ChangestructureFactory.createLocalRevision(StubRepo.INSTANCE);
+    }
+
+    private static IRevisionedFile localFile(String path) {
+        return ChangestructureFactory.createFileInRevision(path, local());
+    }
+
+    private static FileHistoryGraph graphWithLocalChanges(String... paths) {
+        final FileHistoryGraph ret = graph();
+        for (final String path : paths) {
+            ret.addAdditionOrChange(path, local(), Collections.singleton(rev(1)));
+        }
+        return ret;
+    }
+
+    private static File absolute(String path) {
+        return new File(path).getAbsoluteFile();
+    }
+
+    @Test
+    public void testEmpty() {
+        final LocalFileHistoryGraph g = new LocalFileHistoryGraph();
+        assertFalse(g.contains("/a", StubRepo.INSTANCE));
+        assertNull(g.getNodeFor(localFile("/a")));
+    }
+
+    @Test
+    public void testBaseGraphIsUsedForUnchangedFiles() {
+        final LocalFileHistoryGraph g = new LocalFileHistoryGraph();
+        g.setBaseGraph(graphWithLocalChanges("/a", "/b"));
+        g.setGraphForFiles(Collections.singleton(absolute("/b")), graphWithLocalChanges("/b"));
+
+        assertTrue(g.contains("/a", StubRepo.INSTANCE));
+        assertNotNull(g.getNodeFor(localFile("/a")));
+        assertEquals(localFile("/a"), g.getNodeFor(localFile("/a")).getFile());
+    }
+
+    @Test
+    public void testRevertedFileIsRemoved() {
+        final LocalFileHistoryGraph g = new LocalFileHistoryGraph();
+        g.setBaseGraph(graphWithLocalChanges("/a", "/b"));
+        g.setGraphForFiles(Collections.singleton(absolute("/b")), graphWithLocalChanges());
+
+        assertFalse(g.contains("/b", StubRepo.INSTANCE));
+        assertNull(g.getNodeFor(localFile("/b")));
+        assertNotNull(g.getNodeFor(localFile("/a")));
+    }
+
+    @Test
+    public void testNewerResultsWinAndOnlyForTheAnalyzedFiles() {
+        final LocalFileHistoryGraph g = new LocalFileHistoryGraph();
+        g.setBaseGraph(graphWithLocalChanges("/a"));
+        g.setGraphForFiles(Collections.singleton(absolute("/b")), graphWithLocalChanges("/b", "/c"));
+        assertNotNull(g.getNodeFor(localFile("/b")));
+        //the result of the analysis of /b also contains /c, but /c was not analyzed then
+        assertNull(g.getNodeFor(localFile("/c")));
+
+        g.setGraphForFiles(Collections.singleton(absolute("/a")), graphWithLocalChanges());
+        assertNull(g.getNodeFor(localFile("/a")));
+        assertNotNull(g.getNodeFor(localFile("/b")));
+
+        g.setBaseGraph(graphWithLocalChanges("/a"));
+        assertNotNull(g.getNodeFor(localFile("/a")));
+        assertNull(g.getNodeFor(localFile("/b")));
+    }
+
+}
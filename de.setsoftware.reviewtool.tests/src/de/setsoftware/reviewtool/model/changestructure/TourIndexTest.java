@@ -0,0 +1,107 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Tests for {@link TourIndex}.
+ */
+public class TourIndexTest {
+
+    private static Stop stop(String path) {
+        final IRevisionedFile file = ChangestructureFactory.createFileInRevision(
+                path, ChangestructureFactory.createLocalRevision(new StubRepo()));
+        return new Stop(ChangestructureFactory.createBinaryChange(file, file, false, true), file);
+    }
+
+    private static Tour tour(String description, TourElement... elements) {
+        return new Tour(description, Arrays.asList(elements));
+    }
+
+    private static TourIndex index(Tour... tours) {
+        final TourIndex ret = new TourIndex();
+        for (int i = 0; i < tours.length; i++) {
+            ret.addTopmostTour(tours[i], i);
+        }
+        return ret;
+    }
+
+    @Test
+    public void testParentsAndTopmostTours() {
+        final Stop s1 = stop("/a");
+        final Stop s2 = stop("/b");
+        final Stop s3 = stop("/c");
+        final Stop s4 = stop("/d");
+        final Tour sub = tour("sub", s2, s3);
+        final Tour t1 = tour("t1", s1, sub);
+        final Tour t2 = tour("t2", s4);
+        final TourIndex index = index(t1, t2);
+
+        assertSame(t1, index.getParent(s1));
+        assertSame(sub, index.getParent(s2));
+        assertSame(sub, index.getParent(s3));
+        assertSame(t1, index.getParent(sub));
+        assertSame(t2, index.getParent(s4));
+        assertNull(index.getParent(t1));
+
+        assertEquals(0, index.getTopmostTourIndex(t1));
+        assertEquals(0, index.getTopmostTourIndex(sub));
+        assertEquals(0, index.getTopmostTourIndex(s3));
+        assertEquals(1, index.getTopmostTourIndex(t2));
+        assertEquals(1, index.getTopmostTourIndex(s4));
+    }
+
+    @Test
+    public void testUnknownElements() {
+        final TourIndex index = index(tour("t1", stop("/a")));
+        //elements are indexed by identity
+        final Stop equalStop = stop("/a");
+        assertNull(index.getParent(equalStop));
+        assertEquals(-1, index.getTopmostTourIndex(equalStop));
+        assertEquals(Collections.emptyList(), index.getStopsFor(new File("/x").getAbsoluteFile()));
+    }
+
+    @Test
+    public void testIncrementalAdd() {
+        final Stop s1 = stop("/a");
+        final Stop s2 = stop("/a");
+        final Tour t1 = tour("t1", s1);
+        final Tour t2 = tour("t2", s2);
+        final TourIndex index = index(t1);
+        final File fileA = new File("/a").getAbsoluteFile();
+        assertEquals(Arrays.asList(s1), index.getStopsFor(fileA));
+
+        index.addTopmostTour(t2, 1);
+        assertSame(t2, index.getParent(s2));
+        assertEquals(1, index.getTopmostTourIndex(s2));
+        assertEquals(2, index.getStopsFor(fileA).size());
+        assertSame(s2, index.getStopsFor(fileA).get(1));
+    }
+
+    @Test
+    public void testStopsForFile() {
+        final Stop s1 = stop("/a");
+        final Stop s2 = stop("/b");
+        final Stop s3 = stop("/a");
+        final TourIndex index = index(
+                tour("t1", s1, s2),
+                tour("t2", tour("sub", s3)));
+        final File fileA = new File("/a").getAbsoluteFile();
+        assertEquals(2, index.getStopsFor(fileA).size());
+        assertSame(s1, index.getStopsFor(fileA).get(0));
+        assertSame(s3, index.getStopsFor(fileA).get(1));
+        assertEquals(Arrays.asList(s2), index.getStopsFor(new File("/b").getAbsoluteFile()));
+        index.invalidateFiles();
+        assertEquals(Arrays.asList(s2), index.getStopsFor(new File("/b").getAbsoluteFile()));
+    }
+
+}
@@ -0,0 +1,133 @@
+package de.setsoftware.reviewtool.ordering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+import de.setsoftware.reviewtool.model.changestructure.Stop;
+import de.setsoftware.reviewtool.model.changestructure.StubRepo;
+import de.setsoftware.reviewtool.model.changestructure.TourElement;
+import de.setsoftware.reviewtool.ordering.efficientalgorithm.TourCalculatorControl;
+
+/**
+ * Test cases for {@link StopOrdering}.
+ */
+public class StopOrderingTest {
+
+    /**
+     * Control that can be canceled from the outside.
+     */
+    private static final class TestControl implements TourCalculatorControl {
+        private volatile boolean canceled;
+
+        @Override
+        public boolean isCanceled() {
+            return this.canceled;
+        }
+
+        @Override
+        public boolean isFastModeNeeded() {
+            return false;
+        }
+
+        @Override
+        public boolean isTimeBudgetExhausted() {
+            return false;
+        }
+
+        @Override
+        public void reportProgress(int satisfiedMatches, int matchCount, int satisfiedPositions, int positionCount) {
+        }
+    }
+
+    private static IRevisionedFile file(String name, int revision) {
+        return ChangestructureFactory.createFileInRevision(
+                name, ChangestructureFactory.createRepoRevision(revision, StubRepo.INSTANCE));
+    }
+
+    private static Stop stop(String s) {
+        return new Stop(
+                ChangestructureFactory.createBinaryChange(file(s, 1), file(s, 3), false, true),
+                file(s, 4));
+    }
+
+    /**
+     * Returns a matcher that groups the change parts with the given indices after the given delay.
+     */
+    private static RelationMatcher matcher(final long delay, final int index1, final int index2) {
+        return new RelationMatcher() {
+            @Override
+            public Collection<? extends OrderingInfo> determineMatches(List<ChangePart> changeParts) {
+                try {
+                    Thread.sleep(delay);
+                } catch (final InterruptedException e) {
+                    return Collections.emptyList();
+                }
+                return Collections.singletonList(new SimpleUnorderedMatch(HierarchyExplicitness.NONE, null,
+                        Arrays.asList(changeParts.get(index1), changeParts.get(index2))));
+            }
+        };
+    }
+
+    private static List<String> paths(List<? extends TourElement> elements) {
+        final List<String> ret = new ArrayList<>();
+        for (final TourElement e : elements) {
+            ret.add(((Stop) e).getOriginalMostRecentFile().getPath());
+        }
+        return ret;
+    }
+
+    private static boolean adjacent(List<String> order, String s1, String s2) {
+        return Math.abs(order.indexOf(s1) - order.indexOf(s2)) == 1;
+    }
+
+    @Test
+    public void testResultsAreCombinedInOrderOfMatchers() throws Exception {
+        final StopOrdering ordering = new StopOrdering(Arrays.asList(
+                matcher(300, 0, 1),
+                matcher(100, 0, 2),
+                matcher(0, 0, 3)));
+        final List<String> order = paths(ordering.groupAndSort(
+                Arrays.asList(stop("a"), stop("b"), stop("c"), stop("d")), new TestControl()));
+        //"a" can only have two neighbors, so the matcher with the lowest priority has to be unsatisfied
+        assertEquals(4, order.size());
+        assertTrue(order.toString(), adjacent(order, "a", "b"));
+        assertTrue(order.toString(), adjacent(order, "a", "c"));
+    }
+
+    @Test
+    public void testCancelWhileMatching() throws Exception {
+        final TestControl control = new TestControl();
+        final RelationMatcher cancelingMatcher = new RelationMatcher() {
+            @Override
+            public Collection<? extends OrderingInfo> determineMatches(List<ChangePart> changeParts) {
+                control.canceled = true;
+                try {
+                    Thread.sleep(10000);
+                } catch (final InterruptedException e) {
+                    //expected
+                }
+                return Collections.emptyList();
+            }
+        };
+        final StopOrdering ordering = new StopOrdering(Arrays.asList(cancelingMatcher, matcher(0, 0, 1)));
+        final long start = System.currentTimeMillis();
+        try {
+            ordering.groupAndSort(Arrays.asList(stop("a"), stop("b")), control);
+            fail("expected InterruptedException");
+        } catch (final InterruptedException e) {
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+    }
+
+}
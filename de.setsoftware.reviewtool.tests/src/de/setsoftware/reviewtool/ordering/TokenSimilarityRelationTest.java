@@ -137,4 +137,25 @@ public class TokenSimilarityRelationTest {
                 determineRelations(s4, s3, s2, s1));
     }
 
+    @Test
+    public void testManyStops() {
+        //enough stops so that the candidates are determined with locality-sensitive hashing
+        final List<Stop> stops = new ArrayList<>();
+        final List<OrderingInfo> expected = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            final StringBuilder content = new StringBuilder();
+            for (int j = 0; j < 9; j++) {
+                content.append(" t").append(i).append('_').append(j);
+            }
+            final Stop s1 = stop("", "", content + " x" + i, "");
+            final Stop s2 = stop("", "", content + " y" + i, "");
+            final Stop unrelated = stop("", "", "u" + i + " v" + i + " w" + i, "");
+            stops.add(s1);
+            stops.add(unrelated);
+            stops.add(s2);
+            expected.add(oi(s1, s2));
+        }
+        assertEquals(expected, determineRelations(stops.toArray(new Stop[stops.size()])));
+    }
+
 }
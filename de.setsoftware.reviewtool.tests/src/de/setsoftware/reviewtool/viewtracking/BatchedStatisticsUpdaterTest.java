@@ -0,0 +1,24 @@
+package de.setsoftware.reviewtool.viewtracking;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.viewtracking.BatchedStatisticsUpdater.ViewSample;
+
+/**
+ * Tests for {@link BatchedStatisticsUpdater}.
+ */
+public class BatchedStatisticsUpdaterTest {
+
+    @Test
+    public void testSamplesAfterStopAreIgnored() {
+        final BatchedStatisticsUpdater updater = new BatchedStatisticsUpdater(new ViewStatistics(), null, 0);
+        updater.stop();
+        //must not throw, the view tracking can deliver samples after it has been stopped
+        updater.add(Arrays.asList(ViewSample.create(new File("a.java"), 1, 3)));
+        updater.add(Arrays.asList(ViewSample.createWithUnknownPosition(new File("b.java"))));
+    }
+
+}
@@ -0,0 +1,87 @@
+package de.setsoftware.reviewtool.viewtracking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LineViewCounts}.
+ */
+public class LineViewCountsTest {
+
+    private static double DELTA = 0.000000001;
+
+    @Test
+    public void testEmpty() {
+        final LineViewCounts c = new LineViewCounts();
+        assertTrue(c.isEmpty());
+        assertEquals(0, c.get(1));
+        assertEquals(0.0, c.determineRatios(1, 10, 5).getMaxRatio(), DELTA);
+    }
+
+    @Test
+    public void testOverlappingRanges() {
+        final LineViewCounts c = new LineViewCounts();
+        c.increment(10, 20);
+        c.increment(15, 30);
+        c.increment(15, 20);
+        assertFalse(c.isEmpty());
+        assertEquals(0, c.get(9));
+        assertEquals(1, c.get(10));
+        assertEquals(1, c.get(14));
+        assertEquals(3, c.get(15));
+        assertEquals(3, c.get(20));
+        assertEquals(1, c.get(21));
+        assertEquals(1, c.get(30));
+        assertEquals(0, c.get(31));
+    }
+
+    @Test
+    public void testRatios() {
+        final LineViewCounts c = new LineViewCounts();
+        c.increment(1, 2);
+        c.increment(2, 2);
+        c.increment(2, 2);
+        c.increment(2, 2);
+        final ViewStatDataForStop data = c.determineRatios(1, 4, 2);
+        //line 1: 0.5, line 2: 1.0 (4 limited to 2), lines 3 and 4: 0.0
+        assertEquals(0.375, data.getAverageRatio(), DELTA);
+        assertEquals(1.0, data.getMaxRatio(), DELTA);
+        assertTrue(data.isPartlyUnvisited());
+    }
+
+    @Test
+    public void testRandomComparisonWithSimpleArray() {
+        final Random r = new Random(123);
+        final LineViewCounts c = new LineViewCounts();
+        final int[] expected = new int[200];
+        for (int i = 0; i < 500; i++) {
+            final int from = r.nextInt(190);
+            final int to = from + r.nextInt(200 - from);
+            c.increment(from, to);
+            for (int line = from; line <= to; line++) {
+                expected[line]++;
+            }
+            for (int line = 0; line < expected.length; line++) {
+                assertEquals(expected[line], c.get(line));
+            }
+            final int queryFrom = r.nextInt(200);
+            final int queryTo = queryFrom + r.nextInt(200 - queryFrom);
+            double sum = 0.0;
+            double max = 0.0;
+            for (int line = queryFrom; line <= queryTo; line++) {
+                final double ratio = Math.min(expected[line], 100) / 100.0;
+                sum += ratio;
+                max = Math.max(max, ratio);
+            }
+            final ViewStatDataForStop data = c.determineRatios(queryFrom, queryTo, 100);
+            assertEquals(sum / (queryTo - queryFrom + 1), data.getAverageRatio(), 0.0000001);
+            assertEquals(max, data.getMaxRatio(), DELTA);
+        }
+    }
+
+}